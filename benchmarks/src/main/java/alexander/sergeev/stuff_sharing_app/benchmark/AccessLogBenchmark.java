@@ -0,0 +1,133 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.item.dto.IncomingItemDto;
+import alexander.sergeev.stuff_sharing_app.logging.AccessLogFilter;
+import alexander.sergeev.stuff_sharing_app.logging.AccessLogSampler;
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+
+/**
+ * Compares the per-method synchronous controller logging the controllers used to do with the
+ * sampled JSON access log written through the asynchronous appender. Both write to a file, so
+ * the appender cost is real, and run on several threads, so the synchronous appender lock shows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class AccessLogBenchmark {
+
+    public enum LoggingMode {
+        CONTROLLER_LOG, ACCESS_LOG_FULL, ACCESS_LOG_SAMPLED
+    }
+
+    private static final org.slf4j.Logger controllerLog = LoggerFactory.getLogger("benchmark.ItemController");
+
+    private static final byte[] RESPONSE_BODY = "{\"id\":1,\"name\":\"Item name\",\"available\":true}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"CONTROLLER_LOG", "ACCESS_LOG_FULL", "ACCESS_LOG_SAMPLED"})
+    public LoggingMode mode;
+
+    private final IncomingItemDto incomingItemDto = new IncomingItemDto("Item name", "Item description", true, 1L);
+
+    private Path logFile;
+
+    private AccessLogFilter accessLogFilter;
+
+    private FilterChain controller;
+
+    @Setup
+    public void setUp() throws IOException {
+        logFile = Files.createTempFile("access-log-benchmark", ".log");
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.reset();
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.WARN);
+        if (mode == LoggingMode.CONTROLLER_LOG) {
+            Logger logger = loggerContext.getLogger(controllerLog.getName());
+            logger.setLevel(Level.INFO);
+            logger.addAppender(fileAppender(loggerContext,
+                    "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p [%t] %logger{39} : %m%n"));
+            controller = (request, response) -> {
+                controllerLog.info("Id-{} {} {} {}", 1L, "POST", "/items", incomingItemDto);
+                response.getOutputStream().write(RESPONSE_BODY);
+            };
+            return;
+        }
+        AsyncAppender asyncAppender = new AsyncAppender();
+        asyncAppender.setContext(loggerContext);
+        asyncAppender.setQueueSize(8192);
+        asyncAppender.setDiscardingThreshold(0);
+        asyncAppender.setNeverBlock(true);
+        asyncAppender.addAppender(fileAppender(loggerContext, "%msg%n"));
+        asyncAppender.start();
+        Logger logger = loggerContext.getLogger(AccessLogFilter.LOGGER_NAME);
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(asyncAppender);
+        double sampleRatio = mode == LoggingMode.ACCESS_LOG_FULL ? 1 : 0.01;
+        accessLogFilter = new AccessLogFilter(new AccessLogSampler(sampleRatio, Map.of(), 500),
+                new ObjectMapper());
+        controller = (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/items");
+            response.getOutputStream().write(RESPONSE_BODY);
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse handleRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/items");
+        request.addHeader(header, 1L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        if (accessLogFilter == null) {
+            controller.doFilter(request, response);
+        } else {
+            accessLogFilter.doFilter(request, response, controller);
+        }
+        return response;
+    }
+
+    private Appender<ILoggingEvent> fileAppender(LoggerContext loggerContext, String pattern) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern(pattern);
+        encoder.start();
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(loggerContext);
+        appender.setFile(logFile.toString());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+}
@@ -0,0 +1,99 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TCP pass-through in front of a local port that counts the bytes and connections going over it,
+ * which is what ends up on the wire whatever protocol and encoding the two ends agreed on.
+ */
+public class CountingProxy implements Closeable {
+
+    private final int targetPort;
+
+    private final ServerSocket serverSocket;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "counting-proxy");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong bytes = new AtomicLong();
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    public CountingProxy(int targetPort) throws IOException {
+        this.targetPort = targetPort;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        executor.execute(this::accept);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                Socket upstream = new Socket(InetAddress.getLoopbackAddress(), targetPort);
+                connections.incrementAndGet();
+                executor.execute(() -> pump(client, upstream));
+                executor.execute(() -> pump(upstream, client));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void pump(Socket from, Socket to) {
+        byte[] buffer = new byte[8192];
+        try {
+            InputStream in = from.getInputStream();
+            OutputStream out = to.getOutputStream();
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+                out.flush();
+                bytes.addAndGet(read);
+            }
+        } catch (IOException ignored) {
+            // Either side hung up, the other one is closed below
+        } finally {
+            closeQuietly(from);
+            closeQuietly(to);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Already closed
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.Gateway;
+import lombok.experimental.UtilityClass;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+import java.util.regex.Pattern;
+
+/**
+ * Starts the gateway from the benchmark classpath, the counterpart of {@link ServerApplication}. The
+ * server's components are kept out of the gateway's context and so is the persistence the server's
+ * jars would otherwise switch on. The server's application.properties comes first on this classpath,
+ * so gateway settings are best passed as arguments.
+ */
+@UtilityClass
+public class GatewayApplication {
+
+    private final Pattern SERVER_CLASS = Pattern.compile(
+            "alexander\\.sergeev\\.stuff_sharing_app\\.(Server|(batch|cache|datasource|export|version)\\..+"
+                    + "|(booking|item|request|user)\\.[^.]+\\..+|metrics\\.Method.+"
+                    + "|tracing\\.(ServerTracingConfig|TracingAspect|TracingDataSource))");
+
+    public SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(Gateway.class)
+                .initializers(context -> context.getBeanFactory()
+                        .registerSingleton("serverExcludeFilter", new ServerExcludeFilter()))
+                .properties("spring.autoconfigure.exclude=" + String.join(",",
+                        DataSourceAutoConfiguration.class.getName(),
+                        HibernateJpaAutoConfiguration.class.getName(),
+                        FlywayAutoConfiguration.class.getName()));
+    }
+
+    private static class ServerExcludeFilter extends TypeExcludeFilter {
+
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+            return SERVER_CLASS.matcher(metadataReader.getClassMetadata().getClassName()).matches();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+
+/**
+ * Sends bursts of concurrent reads through the gateway in each client mode. The server is a stub that
+ * answers after a fixed delay, so the time per burst shows how many calls the gateway keeps in flight:
+ * blocking mode holds a request thread per call, async mode a pooled connection. The gateway's request
+ * threads are capped below the burst size to make the difference visible at this scale.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayLoadBenchmark {
+
+    private static final byte[] BODY = "[]".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"blocking", "async"})
+    public String mode;
+
+    @Param({"256"})
+    public int concurrency;
+
+    @Param({"100"})
+    public long serverDelayMillis;
+
+    @Param({"32"})
+    public int gatewayThreads;
+
+    private DisposableServer server;
+
+    private ConfigurableApplicationContext gateway;
+
+    private ExecutorService clientExecutor;
+
+    private HttpClient httpClient;
+
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        // Answers from a timer instead of a sleeping thread, so the stub itself never runs out of threads
+        server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .handle((request, response) -> Mono.delay(Duration.ofMillis(serverDelayMillis))
+                        .then(response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                                .sendByteArray(Mono.just(BODY))
+                                .then()))
+                .bindNow();
+        gateway = GatewayApplication.builder().run(
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + gatewayThreads,
+                "--logging.level.root=WARN",
+                "--stuff_sharing_app_server_url=http://localhost:" + server.port(),
+                "--stuff_sharing_app.client.mode=" + mode,
+                "--stuff_sharing_app.client.isolation.max-concurrent-calls=" + concurrency,
+                "--stuff_sharing_app.client.max-connections=" + concurrency,
+                "--stuff_sharing_app.client.max-connections-per-route=" + concurrency,
+                "--stuff_sharing_app.access-log.enabled=false");
+        int port = ((WebServerApplicationContext) gateway).getWebServer().getPort();
+        clientExecutor = Executors.newFixedThreadPool(8);
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings?state=ALL&from=0&size=20"))
+                .header(header, "1")
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        gateway.close();
+        server.disposeNow();
+        clientExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int burst() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        if (ok != concurrency) {
+            throw new IllegalStateException((concurrency - ok) + " of " + concurrency + " calls failed");
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,79 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.item.dto.IncomingItemDto;
+import alexander.sergeev.stuff_sharing_app.item.service.ItemService;
+import alexander.sergeev.stuff_sharing_app.user.model.User;
+import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates {@value #BATCH_SIZE} items per invocation against an in-memory H2 database, once as a single batch
+ * call, the largest one the server accepts, and once item by item. The score is items created per second;
+ * the owner's items are deleted after every iteration so the table does not grow across the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ItemBatchBenchmark.BATCH_SIZE)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemBatchBenchmark {
+
+    static final int BATCH_SIZE = 10_000;
+
+    @Param({"batch", "single"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemService itemService;
+
+    private Long ownerId;
+
+    private List<IncomingItemDto> incomingItemDtoList;
+
+    @Setup
+    public void setUp() {
+        context = ServerApplication.builder()
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("logging.level.root=WARN")
+                .run();
+        itemService = context.getBean(ItemService.class);
+        ownerId = context.getBean(UserRepository.class)
+                .save(new User(null, "Owner name", "owner@email.com")).getId();
+        incomingItemDtoList = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            incomingItemDtoList.add(new IncomingItemDto("Item name " + i, "Item description " + i, true, null));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteItems() {
+        itemService.deleteAllOwnerItems(ownerId);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void postItems(Blackhole blackhole) {
+        if ("batch".equals(mode)) {
+            blackhole.consume(itemService.postItems(ownerId, incomingItemDtoList));
+            return;
+        }
+        for (IncomingItemDto incomingItemDto : incomingItemDtoList) {
+            blackhole.consume(itemService.postItem(ownerId, incomingItemDto));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto;
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.item.service.ItemService;
+import alexander.sergeev.stuff_sharing_app.user.model.User;
+import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads single items by id as a user who does not own them, the path of {@code GET /items/{id}}, with the
+ * second-level entity cache switched off and on. Runs against an in-memory H2 database holding
+ * {@value #ITEM_COUNT} items, which the benchmark walks through in turn so every item stays cached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemByIdBenchmark {
+
+    private static final int ITEM_COUNT = 1000;
+
+    @Param({"false", "true"})
+    public boolean entityCache;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemService itemService;
+
+    private Long userId;
+
+    private Long[] itemIds;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = ServerApplication.builder()
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("logging.level.root=WARN",
+                        "stuff_sharing_app.entity-cache.enabled=" + entityCache)
+                .run();
+        itemService = context.getBean(ItemService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        User owner = userRepository.save(new User(null, "Owner name", "owner@email.com"));
+        userId = userRepository.save(new User(null, "User name", "user@email.com")).getId();
+        List<Item> itemList = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            itemList.add(new Item(null, "Item name " + i, "Item description " + i, true, null, owner));
+        }
+        itemIds = itemRepository.saveAll(itemList).stream()
+                .map(Item::getId)
+                .toArray(Long[]::new);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OutgoingItemDto getItemDtoById() {
+        Long itemId = itemIds[next];
+        next = (next + 1) % ITEM_COUNT;
+        return itemService.getItemDtoById(userId, itemId);
+    }
+}
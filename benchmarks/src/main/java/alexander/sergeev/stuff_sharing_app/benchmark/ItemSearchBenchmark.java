@@ -0,0 +1,105 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.item.search.InMemoryItemSearchEngine;
+import alexander.sergeev.stuff_sharing_app.item.search.ItemSearchEngine;
+import alexander.sergeev.stuff_sharing_app.user.model.User;
+import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@code /items/search} through each {@link ItemSearchEngine} over a table of {@code itemCount} items.
+ * "name 4242" matches a handful of items, "description" matches all of them. The like and memory engines
+ * run on in-memory H2. The trigram engine needs PostgreSQL with pg_trgm, so it only runs with
+ * {@code -p engine=trigram} and an empty database passed as {@code -Dbenchmark.postgres.url},
+ * {@code .username} and {@code .password}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemSearchBenchmark {
+
+    private static final int INSERT_CHUNK_SIZE = 10_000;
+
+    private static final int UNAVAILABLE_ITEM_STEP = 10;
+
+    @Param({"like", "memory"})
+    public String engine;
+
+    @Param({"10000", "1000000"})
+    public int itemCount;
+
+    @Param({"name 4242", "description"})
+    public String text;
+
+    private final Pageable pageable = PageRequest.of(0, 20);
+
+    private ConfigurableApplicationContext context;
+
+    private ItemSearchEngine itemSearchEngine;
+
+    @Setup
+    public void setUp() {
+        SpringApplicationBuilder builder = ServerApplication.builder()
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN",
+                        "stuff_sharing_app.search.engine=" + engine,
+                        "stuff_sharing_app.access-log.enabled=false");
+        if ("trigram".equals(engine)) {
+            String postgresUrl = System.getProperty("benchmark.postgres.url");
+            if (postgresUrl == null) {
+                throw new IllegalStateException("The trigram engine needs -Dbenchmark.postgres.url");
+            }
+            builder.properties("spring.datasource.url=" + postgresUrl,
+                    "spring.datasource.username=" + System.getProperty("benchmark.postgres.username", "root"),
+                    "spring.datasource.password=" + System.getProperty("benchmark.postgres.password", "root"));
+        } else {
+            builder.profiles("test");
+        }
+        context = builder.run();
+        seed();
+        if (context.getBeanProvider(InMemoryItemSearchEngine.class).getIfAvailable() != null) {
+            // The index was loaded from the empty table at startup
+            context.getBean(InMemoryItemSearchEngine.class).loadIndex();
+        }
+        itemSearchEngine = context.getBean(ItemSearchEngine.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Item> search() {
+        return itemSearchEngine.search(text, pageable);
+    }
+
+    private void seed() {
+        User owner = context.getBean(UserRepository.class)
+                .save(new User(null, "Owner name", "search-owner@email.com"));
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int chunkStart = 1; chunkStart <= itemCount; chunkStart += INSERT_CHUNK_SIZE) {
+            List<Object[]> rows = new ArrayList<>(INSERT_CHUNK_SIZE);
+            for (long id = chunkStart; id < chunkStart + INSERT_CHUNK_SIZE && id <= itemCount; id++) {
+                rows.add(new Object[]{id, "Item name " + id, "Item description " + id,
+                        id % UNAVAILABLE_ITEM_STEP != 0, owner.getId()});
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO items (id, name, description, available, owner_id) VALUES (?, ?, ?, ?, ?)", rows);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.booking.dto.OutgoingBookingDto;
+import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingState;
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
+import alexander.sergeev.stuff_sharing_app.booking.repository.BookingRepository;
+import alexander.sergeev.stuff_sharing_app.booking.service.BookingService;
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
+import alexander.sergeev.stuff_sharing_app.user.model.User;
+import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the booker's booking list at an early and at a deep page, once with from/size offset paging and
+ * once seeking from the cursor of the previous page. Runs against an in-memory H2 database holding
+ * {@value #BOOKING_COUNT} bookings of one booker, enough for page {@value #DEEP_PAGE}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeysetPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int DEEP_PAGE = 10_000;
+
+    private static final int BOOKING_COUNT = PAGE_SIZE * (DEEP_PAGE + 1);
+
+    private static final int ITEM_COUNT = 100;
+
+    private static final int SAVE_CHUNK_SIZE = 1000;
+
+    @Param({"offset", "keyset"})
+    public String paging;
+
+    @Param({"1", "10000"})
+    public int page;
+
+    private ConfigurableApplicationContext context;
+
+    private BookingService bookingService;
+
+    private Long bookerId;
+
+    private Pageable pageable;
+
+    private KeysetCursor after;
+
+    @Setup
+    public void setUp() {
+        context = ServerApplication.builder()
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("logging.level.root=WARN")
+                .run();
+        bookingService = context.getBean(BookingService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        BookingRepository bookingRepository = context.getBean(BookingRepository.class);
+        User owner = userRepository.save(new User(null, "Owner name", "owner@email.com"));
+        User booker = userRepository.save(new User(null, "Booker name", "booker@email.com"));
+        bookerId = booker.getId();
+        List<Item> itemList = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            itemList.add(new Item(null, "Item name " + i, "Item description " + i, true, null, owner));
+        }
+        itemList = itemRepository.saveAll(itemList);
+        LocalDateTime now = LocalDateTime.now();
+        for (int chunkStart = 0; chunkStart < BOOKING_COUNT; chunkStart += SAVE_CHUNK_SIZE) {
+            List<Booking> bookingList = new ArrayList<>(SAVE_CHUNK_SIZE);
+            for (int i = chunkStart; i < chunkStart + SAVE_CHUNK_SIZE && i < BOOKING_COUNT; i++) {
+                // One hour apart, so no two bookings of an item overlap and every start is distinct
+                LocalDateTime start = now.minusHours(i);
+                bookingList.add(new Booking(null, start, start.plusMinutes(30), itemList.get(i % ITEM_COUNT),
+                        booker, BookingStatus.APPROVED));
+            }
+            bookingRepository.saveAll(bookingList);
+        }
+        pageable = PageRequest.of(page, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "start"));
+        List<OutgoingBookingDto> previousPage = bookingService.getAllUserBookings(bookerId, BookingState.ALL,
+                PageRequest.of(page - 1, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "start")));
+        OutgoingBookingDto lastBooking = previousPage.get(previousPage.size() - 1);
+        after = KeysetCursor.of(lastBooking.getStart(), lastBooking.getId());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OutgoingBookingDto> getAllUserBookings() {
+        if ("keyset".equals(paging)) {
+            return bookingService.getAllUserBookings(bookerId, BookingState.ALL, after, PAGE_SIZE).getContent();
+        }
+        return bookingService.getAllUserBookings(bookerId, BookingState.ALL, pageable);
+    }
+}
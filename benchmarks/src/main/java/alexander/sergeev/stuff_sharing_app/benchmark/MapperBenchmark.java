@@ -0,0 +1,111 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.booking.dto.BookingMapper;
+import alexander.sergeev.stuff_sharing_app.booking.dto.IncomingBookingDto;
+import alexander.sergeev.stuff_sharing_app.booking.dto.LastNextBookingDto;
+import alexander.sergeev.stuff_sharing_app.booking.dto.OutgoingBookingDto;
+import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
+import alexander.sergeev.stuff_sharing_app.comment.dto.CommentMapper;
+import alexander.sergeev.stuff_sharing_app.comment.dto.ItemCommentView;
+import alexander.sergeev.stuff_sharing_app.comment.dto.OutgoingCommentDto;
+import alexander.sergeev.stuff_sharing_app.comment.model.Comment;
+import alexander.sergeev.stuff_sharing_app.item.dto.ItemMapper;
+import alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto;
+import alexander.sergeev.stuff_sharing_app.item.dto.OwnerItemView;
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.request.dto.IncomingRequestDto;
+import alexander.sergeev.stuff_sharing_app.request.dto.OutgoingRequestDto;
+import alexander.sergeev.stuff_sharing_app.request.dto.RequestMapper;
+import alexander.sergeev.stuff_sharing_app.request.model.Request;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private Booking booking;
+
+    private IncomingBookingDto incomingBookingDto;
+
+    private Item item;
+
+    private OwnerItemView ownerItemView;
+
+    private List<OutgoingCommentDto> outgoingCommentDtoList;
+
+    private Comment comment;
+
+    private ItemCommentView itemCommentView;
+
+    private Request request;
+
+    private IncomingRequestDto incomingRequestDto;
+
+    @Setup
+    public void setUp() {
+        booking = SyntheticData.booking(1L);
+        incomingBookingDto = new IncomingBookingDto(null, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), 1L);
+        item = SyntheticData.item(1L, SyntheticData.request(1L));
+        ownerItemView = SyntheticData.ownerItemView(1L);
+        outgoingCommentDtoList = List.of(CommentMapper.mapCommentViewToOutgoingDto(
+                SyntheticData.itemCommentView(1L, 1L)));
+        comment = SyntheticData.comment(1L);
+        itemCommentView = SyntheticData.itemCommentView(1L, 1L);
+        request = SyntheticData.request(1L);
+        incomingRequestDto = new IncomingRequestDto(null, "Request description");
+    }
+
+    @Benchmark
+    public OutgoingBookingDto mapBookingToOutgoingDto() {
+        return BookingMapper.mapBookingToOutgoingDto(booking);
+    }
+
+    @Benchmark
+    public LastNextBookingDto mapBookingToLastNextDto() {
+        return BookingMapper.mapBookingToLastNextDto(booking);
+    }
+
+    @Benchmark
+    public Booking mapIncomingDtoToBooking() {
+        return BookingMapper.mapIncomingDtoToBooking(incomingBookingDto);
+    }
+
+    @Benchmark
+    public OutgoingItemDto mapItemToOutgoingDto() {
+        return ItemMapper.mapItemToOutgoingDto(item);
+    }
+
+    @Benchmark
+    public OutgoingItemDto mapOwnerItemViewToOutgoingDto() {
+        return ItemMapper.mapOwnerItemViewToOutgoingDto(ownerItemView, outgoingCommentDtoList);
+    }
+
+    @Benchmark
+    public OutgoingCommentDto mapCommentToOutgoingDto() {
+        return CommentMapper.mapCommentToOutgoingDto(comment);
+    }
+
+    @Benchmark
+    public OutgoingCommentDto mapCommentViewToOutgoingDto() {
+        return CommentMapper.mapCommentViewToOutgoingDto(itemCommentView);
+    }
+
+    @Benchmark
+    public OutgoingRequestDto mapRequestToOutgoingDto() {
+        return RequestMapper.mapRequestToOutgoingDto(request);
+    }
+
+    @Benchmark
+    public Request mapIncomingDtoToRequest() {
+        return RequestMapper.mapIncomingDtoToRequest(incomingRequestDto);
+    }
+}
@@ -0,0 +1,89 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.batch.BatchElementValidator;
+import alexander.sergeev.stuff_sharing_app.booking.repository.BookingRepository;
+import alexander.sergeev.stuff_sharing_app.comment.dto.ItemCommentView;
+import alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto;
+import alexander.sergeev.stuff_sharing_app.item.dto.OwnerItemView;
+import alexander.sergeev.stuff_sharing_app.item.repository.CommentRepository;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.item.search.ItemSearchEngine;
+import alexander.sergeev.stuff_sharing_app.item.service.ItemService;
+import alexander.sergeev.stuff_sharing_app.item.service.ItemServiceImpl;
+import alexander.sergeev.stuff_sharing_app.metrics.MethodTimingAspect;
+import alexander.sergeev.stuff_sharing_app.metrics.MetricsConfig;
+import alexander.sergeev.stuff_sharing_app.metrics.MetricsMode;
+import alexander.sergeev.stuff_sharing_app.request.repository.RequestRepository;
+import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import javax.validation.Validator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what the method timers add to a service call and to a scrape in each metrics mode.
+ * The service call runs over stubbed repositories, so it is timed once as a service and twice
+ * as a repository, like the owner item list in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodTimingBenchmark {
+
+    @Param({"OFF", "LIGHT", "FULL"})
+    public MetricsMode mode;
+
+    private final Pageable pageable = PageRequest.of(0, 20);
+
+    private PrometheusMeterRegistry registry;
+
+    private MethodTimingAspect aspect;
+
+    private ItemService itemService;
+
+    @Setup
+    public void setUp() {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().meterFilter(new MetricsConfig().percentileHistogramMeterFilter(mode));
+        aspect = mode == MetricsMode.OFF ? null : new MethodTimingAspect(registry, mode);
+        List<OwnerItemView> ownerItemViewList = SyntheticData.ownerItemViews(20);
+        List<ItemCommentView> itemCommentViewList = SyntheticData.itemCommentViews(ownerItemViewList, 3);
+        itemService = timed(new ItemServiceImpl(
+                timed(Stubs.repository(ItemRepository.class, Map.of("findOwnerItemViews", ownerItemViewList))),
+                timed(Stubs.repository(UserRepository.class, Map.of())),
+                timed(Stubs.repository(BookingRepository.class, Map.of())),
+                timed(Stubs.repository(CommentRepository.class, Map.of("findViewsByItemIdIn", itemCommentViewList))),
+                timed(Stubs.repository(RequestRepository.class, Map.of())),
+                Stubs.repository(ItemSearchEngine.class, Map.of()),
+                new BatchElementValidator(Stubs.noOp(Validator.class))));
+    }
+
+    @Benchmark
+    public List<OutgoingItemDto> getAllOwnerItems() {
+        return itemService.getAllOwnerItems(1L, pageable);
+    }
+
+    @Benchmark
+    public String scrape() {
+        return registry.scrape();
+    }
+
+    private <T> T timed(T target) {
+        if (aspect == null) {
+            return target;
+        }
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(aspect);
+        return proxyFactory.getProxy();
+    }
+}
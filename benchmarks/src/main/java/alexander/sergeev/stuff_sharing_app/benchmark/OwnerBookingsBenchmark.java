@@ -0,0 +1,95 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.booking.dto.OutgoingBookingDto;
+import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingState;
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
+import alexander.sergeev.stuff_sharing_app.booking.repository.BookingRepository;
+import alexander.sergeev.stuff_sharing_app.booking.service.BookingService;
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.user.model.User;
+import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the owner booking list against an in-memory H2 database seeded with a single owner
+ * of {@value #ITEM_COUNT} items, so the numbers include the owner scoped query itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OwnerBookingsBenchmark {
+
+    private static final int ITEM_COUNT = 50_000;
+
+    private static final int BOOKED_ITEM_STEP = 10;
+
+    private static final int SAVE_CHUNK_SIZE = 1000;
+
+    @Param({"ALL", "FUTURE", "WAITING"})
+    public BookingState bookingState;
+
+    private final Pageable pageable = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "start"));
+
+    private ConfigurableApplicationContext context;
+
+    private BookingService bookingService;
+
+    private Long ownerId;
+
+    @Setup
+    public void setUp() {
+        context = ServerApplication.builder()
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("logging.level.root=WARN")
+                .run();
+        bookingService = context.getBean(BookingService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        BookingRepository bookingRepository = context.getBean(BookingRepository.class);
+        User owner = userRepository.save(new User(null, "Owner name", "owner@email.com"));
+        User booker = userRepository.save(new User(null, "Booker name", "booker@email.com"));
+        ownerId = owner.getId();
+        LocalDateTime now = LocalDateTime.now();
+        for (int chunkStart = 0; chunkStart < ITEM_COUNT; chunkStart += SAVE_CHUNK_SIZE) {
+            List<Item> itemList = new ArrayList<>(SAVE_CHUNK_SIZE);
+            for (int i = chunkStart; i < chunkStart + SAVE_CHUNK_SIZE; i++) {
+                itemList.add(new Item(null, "Item name " + i, "Item description " + i, true, null, owner));
+            }
+            List<Booking> bookingList = new ArrayList<>();
+            for (Item item : itemRepository.saveAll(itemList)) {
+                if (item.getId() % BOOKED_ITEM_STEP == 0) {
+                    long offset = item.getId() % 30 - 15;
+                    bookingList.add(new Booking(null, now.plusDays(offset), now.plusDays(offset + 1), item, booker,
+                            offset % 2 == 0 ? BookingStatus.WAITING : BookingStatus.APPROVED));
+                }
+            }
+            bookingRepository.saveAll(bookingList);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OutgoingBookingDto> getAllOwnerItemBookings() {
+        return bookingService.getAllOwnerItemBookings(ownerId, bookingState, pageable);
+    }
+}
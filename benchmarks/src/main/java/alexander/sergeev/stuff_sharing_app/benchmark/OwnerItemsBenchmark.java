@@ -0,0 +1,98 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
+import alexander.sergeev.stuff_sharing_app.booking.repository.BookingRepository;
+import alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto;
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.item.service.ItemService;
+import alexander.sergeev.stuff_sharing_app.user.model.User;
+import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the owner item list against an in-memory H2 database seeded with a single owner of {@value #ITEM_COUNT}
+ * items and {@value #BOOKINGS_PER_ITEM} bookings each, so the numbers include the window-function query that
+ * picks every item's last and next booking.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OwnerItemsBenchmark {
+
+    private static final int ITEM_COUNT = 1000;
+
+    private static final int BOOKINGS_PER_ITEM = 100;
+
+    private static final int SAVE_CHUNK_SIZE = 10;
+
+    private static final int WAITING_BOOKING_STEP = 5;
+
+    @Param({"0", "49"})
+    public int page;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemService itemService;
+
+    private Long ownerId;
+
+    private Pageable pageable;
+
+    @Setup
+    public void setUp() {
+        context = ServerApplication.builder()
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("logging.level.root=WARN")
+                .run();
+        itemService = context.getBean(ItemService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        BookingRepository bookingRepository = context.getBean(BookingRepository.class);
+        User owner = userRepository.save(new User(null, "Owner name", "owner@email.com"));
+        User booker = userRepository.save(new User(null, "Booker name", "booker@email.com"));
+        ownerId = owner.getId();
+        pageable = PageRequest.of(page, 20);
+        LocalDateTime now = LocalDateTime.now();
+        for (int chunkStart = 0; chunkStart < ITEM_COUNT; chunkStart += SAVE_CHUNK_SIZE) {
+            List<Item> itemList = new ArrayList<>(SAVE_CHUNK_SIZE);
+            for (int i = chunkStart; i < chunkStart + SAVE_CHUNK_SIZE; i++) {
+                itemList.add(new Item(null, "Item name " + i, "Item description " + i, true, null, owner));
+            }
+            List<Booking> bookingList = new ArrayList<>(SAVE_CHUNK_SIZE * BOOKINGS_PER_ITEM);
+            for (Item item : itemRepository.saveAll(itemList)) {
+                // Half of every item's bookings lie in the past, half in the future
+                for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                    LocalDateTime start = now.plusDays(j - BOOKINGS_PER_ITEM / 2);
+                    bookingList.add(new Booking(null, start, start.plusHours(1), item, booker,
+                            j % WAITING_BOOKING_STEP == 0 ? BookingStatus.WAITING : BookingStatus.APPROVED));
+                }
+            }
+            bookingRepository.saveAll(bookingList);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OutgoingItemDto> getAllOwnerItems() {
+        return itemService.getAllOwnerItems(ownerId, pageable);
+    }
+}
@@ -0,0 +1,44 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.ratelimit.EndpointGroup;
+import alexander.sergeev.stuff_sharing_app.ratelimit.Rate;
+import alexander.sergeev.stuff_sharing_app.ratelimit.RateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the gateway rate limiter from 64 threads. With one user every thread races on the same
+ * bucket, with many users the threads spread over the bucket map and mostly create and evict buckets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(64)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @Param({"1", "1000", "10000000"})
+    public int userCount;
+
+    private RateLimiter rateLimiter;
+
+    @Setup
+    public void setUp() {
+        Rate rate = new Rate(1_000_000, 1000);
+        rateLimiter = new RateLimiter(Map.of(
+                EndpointGroup.SEARCH, rate,
+                EndpointGroup.READ, rate,
+                EndpointGroup.WRITE, rate),
+                100_000, System::nanoTime);
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        return rateLimiter.tryAcquire(ThreadLocalRandom.current().nextInt(userCount), EndpointGroup.SEARCH);
+    }
+}
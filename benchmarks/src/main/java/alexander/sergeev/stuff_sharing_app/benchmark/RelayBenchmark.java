@@ -0,0 +1,95 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.booking.dto.BookingMapper;
+import alexander.sergeev.stuff_sharing_app.booking.dto.OutgoingBookingDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Relays a booking list the way the gateway does, from the RestTemplate call to the bytes written to
+ * the client, with the server answered in memory. OBJECT is the former round trip through Jackson maps
+ * and lists, PASS_THROUGH relays the server bytes as they are and STREAM copies them as they arrive, the
+ * way exports are relayed. Run with {@code -prof gc} for the allocation per relayed response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RelayBenchmark {
+
+    public enum RelayMode {
+        OBJECT, PASS_THROUGH, STREAM
+    }
+
+    @Param({"OBJECT", "PASS_THROUGH", "STREAM"})
+    public RelayMode mode;
+
+    @Param({"20", "200"})
+    public int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final MappingJackson2HttpMessageConverter jsonConverter =
+            new MappingJackson2HttpMessageConverter(objectMapper);
+
+    private final ByteArrayHttpMessageConverter byteArrayConverter = new ByteArrayHttpMessageConverter();
+
+    private RestTemplate rest;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<OutgoingBookingDto> outgoingBookingDtoList = SyntheticData.bookings(size)
+                .stream()
+                .map(BookingMapper::mapBookingToOutgoingDto)
+                .collect(toList());
+        byte[] serverBody = objectMapper.writeValueAsBytes(outgoingBookingDtoList);
+        rest = new RestTemplate(List.of(byteArrayConverter, jsonConverter));
+        rest.setRequestFactory((uri, httpMethod) -> {
+            MockClientHttpResponse response = new MockClientHttpResponse(serverBody, HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            MockClientHttpRequest request = new MockClientHttpRequest(httpMethod, uri);
+            request.setResponse(response);
+            return request;
+        });
+    }
+
+    @Benchmark
+    public MockHttpOutputMessage relay() throws IOException {
+        MockHttpOutputMessage clientResponse = new MockHttpOutputMessage();
+        if (mode == RelayMode.OBJECT) {
+            ResponseEntity<Object> response = rest.exchange("http://server/bookings/owner", HttpMethod.GET,
+                    null, Object.class);
+            jsonConverter.write(response.getBody(), MediaType.APPLICATION_JSON, clientResponse);
+        } else if (mode == RelayMode.STREAM) {
+            rest.execute("http://server/bookings/owner", HttpMethod.GET, null, serverResponse -> {
+                clientResponse.getHeaders().setContentType(serverResponse.getHeaders().getContentType());
+                return StreamUtils.copy(serverResponse.getBody(), clientResponse.getBody());
+            });
+        } else {
+            ResponseEntity<byte[]> response = rest.exchange("http://server/bookings/owner", HttpMethod.GET,
+                    null, byte[].class);
+            byteArrayConverter.write(response.getBody(), response.getHeaders().getContentType(), clientResponse);
+        }
+        return clientResponse;
+    }
+}
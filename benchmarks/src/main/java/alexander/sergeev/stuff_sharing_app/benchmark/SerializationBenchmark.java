@@ -0,0 +1,82 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.booking.dto.BookingMapper;
+import alexander.sergeev.stuff_sharing_app.booking.dto.CompactBookingDto;
+import alexander.sergeev.stuff_sharing_app.booking.dto.OutgoingBookingDto;
+import alexander.sergeev.stuff_sharing_app.comment.dto.CommentMapper;
+import alexander.sergeev.stuff_sharing_app.comment.dto.ItemCommentView;
+import alexander.sergeev.stuff_sharing_app.comment.dto.OutgoingCommentDto;
+import alexander.sergeev.stuff_sharing_app.item.dto.ItemMapper;
+import alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto;
+import alexander.sergeev.stuff_sharing_app.item.dto.OwnerItemView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"20", "200"})
+    public int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<OutgoingItemDto> outgoingItemDtoList;
+
+    private List<OutgoingBookingDto> outgoingBookingDtoList;
+
+    private List<CompactBookingDto> compactBookingDtoList;
+
+    @Setup
+    public void setUp() {
+        List<OwnerItemView> ownerItemViewList = SyntheticData.ownerItemViews(size);
+        Map<Long, List<OutgoingCommentDto>> commentMap = SyntheticData.itemCommentViews(ownerItemViewList, 3)
+                .stream()
+                .collect(groupingBy(ItemCommentView::getItemId,
+                        mapping(CommentMapper::mapCommentViewToOutgoingDto, toList())));
+        outgoingItemDtoList = ownerItemViewList
+                .stream()
+                .map(ownerItemView -> ItemMapper.mapOwnerItemViewToOutgoingDto(ownerItemView,
+                        commentMap.getOrDefault(ownerItemView.getId(), List.of())))
+                .collect(toList());
+        outgoingBookingDtoList = SyntheticData.bookings(size)
+                .stream()
+                .map(BookingMapper::mapBookingToOutgoingDto)
+                .collect(toList());
+        compactBookingDtoList = SyntheticData.bookings(size)
+                .stream()
+                .map(booking -> new CompactBookingDto(booking.getId(), booking.getStart(), booking.getEnd(),
+                        booking.getStatus(), booking.getBooker().getId(), booking.getBooker().getName(),
+                        booking.getItem().getId(), booking.getItem().getName()))
+                .collect(toList());
+    }
+
+    @Benchmark
+    public byte[] writeOutgoingItemDtoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(outgoingItemDtoList);
+    }
+
+    @Benchmark
+    public byte[] writeOutgoingBookingDtoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(outgoingBookingDtoList);
+    }
+
+    @Benchmark
+    public byte[] writeCompactBookingDtoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(compactBookingDtoList);
+    }
+}
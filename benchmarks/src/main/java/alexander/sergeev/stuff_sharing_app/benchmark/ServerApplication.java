@@ -0,0 +1,36 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.Server;
+import lombok.experimental.UtilityClass;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+import java.util.regex.Pattern;
+
+/**
+ * Starts the server from the benchmark classpath, which also holds the gateway. Both scan
+ * the same base package, so the gateway's components are kept out of the server's context.
+ */
+@UtilityClass
+public class ServerApplication {
+
+    // The gateway keeps its controllers and clients at the top of each feature package, the server nests its own
+    private final Pattern GATEWAY_CLASS = Pattern.compile(
+            "alexander\\.sergeev\\.stuff_sharing_app\\.(Gateway|(client|ratelimit)\\..+|(booking|item|request|test|user)\\.[^.]+)");
+
+    public SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(Server.class)
+                .initializers(context -> context.getBeanFactory()
+                        .registerSingleton("gatewayExcludeFilter", new GatewayExcludeFilter()));
+    }
+
+    private static class GatewayExcludeFilter extends TypeExcludeFilter {
+
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+            return GATEWAY_CLASS.matcher(metadataReader.getClassMetadata().getClassName()).matches();
+        }
+    }
+}
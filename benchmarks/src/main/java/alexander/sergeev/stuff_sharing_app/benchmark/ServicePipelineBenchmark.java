@@ -0,0 +1,81 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.batch.BatchElementValidator;
+import alexander.sergeev.stuff_sharing_app.booking.repository.BookingRepository;
+import alexander.sergeev.stuff_sharing_app.comment.dto.ItemCommentView;
+import alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto;
+import alexander.sergeev.stuff_sharing_app.item.dto.OwnerItemView;
+import alexander.sergeev.stuff_sharing_app.item.repository.CommentRepository;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.item.search.ItemSearchEngine;
+import alexander.sergeev.stuff_sharing_app.item.service.ItemService;
+import alexander.sergeev.stuff_sharing_app.item.service.ItemServiceImpl;
+import alexander.sergeev.stuff_sharing_app.request.dto.OutgoingRequestDto;
+import alexander.sergeev.stuff_sharing_app.request.model.Request;
+import alexander.sergeev.stuff_sharing_app.request.repository.RequestRepository;
+import alexander.sergeev.stuff_sharing_app.request.service.RequestService;
+import alexander.sergeev.stuff_sharing_app.request.service.RequestServiceImpl;
+import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import javax.validation.Validator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the in-memory part of the service list endpoints over stubbed repositories,
+ * so the numbers exclude the database round trips.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServicePipelineBenchmark {
+
+    @Param({"20", "200"})
+    public int size;
+
+    private final Pageable pageable = PageRequest.of(0, 20);
+
+    private ItemService itemService;
+
+    private RequestService requestService;
+
+    @Setup
+    public void setUp() {
+        List<OwnerItemView> ownerItemViewList = SyntheticData.ownerItemViews(size);
+        List<ItemCommentView> itemCommentViewList = SyntheticData.itemCommentViews(ownerItemViewList, 3);
+        List<Request> requestList = SyntheticData.requests(size);
+        UserRepository userRepository = Stubs.repository(UserRepository.class, Map.of());
+        ItemRepository itemRepository = Stubs.repository(ItemRepository.class, Map.of(
+                "findOwnerItemViews", ownerItemViewList,
+                "findByRequestIdIn", SyntheticData.requestItems(requestList, 2)));
+        itemService = new ItemServiceImpl(
+                itemRepository,
+                userRepository,
+                Stubs.repository(BookingRepository.class, Map.of()),
+                Stubs.repository(CommentRepository.class, Map.of("findViewsByItemIdIn", itemCommentViewList)),
+                Stubs.repository(RequestRepository.class, Map.of()),
+                Stubs.repository(ItemSearchEngine.class, Map.of()),
+                new BatchElementValidator(Stubs.noOp(Validator.class)));
+        requestService = new RequestServiceImpl(
+                userRepository,
+                itemRepository,
+                Stubs.repository(RequestRepository.class, Map.of("findByRequesterIdIsNot", requestList)));
+    }
+
+    @Benchmark
+    public List<OutgoingItemDto> getAllOwnerItems() {
+        return itemService.getAllOwnerItems(1L, pageable);
+    }
+
+    @Benchmark
+    public List<OutgoingRequestDto> getAllRequests() {
+        return requestService.getAllRequests(1L, pageable);
+    }
+}
@@ -0,0 +1,41 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import lombok.experimental.UtilityClass;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@UtilityClass
+public class Stubs {
+
+    private final Map<Class<?>, Object> noOpMap = new ConcurrentHashMap<>();
+
+    public <T> T repository(Class<T> repositoryClass, Map<String, Object> results) {
+        return repositoryClass.cast(Proxy.newProxyInstance(
+                repositoryClass.getClassLoader(),
+                new Class<?>[]{repositoryClass},
+                (proxy, method, args) -> {
+                    if (results.containsKey(method.getName())) {
+                        return results.get(method.getName());
+                    }
+                    if (method.getReturnType() == void.class) {
+                        return null;
+                    }
+                    throw new UnsupportedOperationException("Not stubbed : " + method.getName());
+                }));
+    }
+
+    public <T> T noOp(Class<T> interfaceClass) {
+        return interfaceClass.cast(noOpMap.computeIfAbsent(interfaceClass, key -> Proxy.newProxyInstance(
+                key.getClassLoader(),
+                new Class<?>[]{key},
+                (proxy, method, args) -> {
+                    Class<?> returnType = method.getReturnType();
+                    if (returnType.isInterface()) {
+                        return noOp(returnType);
+                    }
+                    return returnType == boolean.class ? Boolean.FALSE : null;
+                })));
+    }
+}
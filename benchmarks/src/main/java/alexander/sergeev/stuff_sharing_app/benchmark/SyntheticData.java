@@ -0,0 +1,124 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
+import alexander.sergeev.stuff_sharing_app.comment.dto.ItemCommentView;
+import alexander.sergeev.stuff_sharing_app.comment.model.Comment;
+import alexander.sergeev.stuff_sharing_app.item.dto.OwnerItemView;
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.request.model.Request;
+import alexander.sergeev.stuff_sharing_app.user.model.User;
+import lombok.Value;
+import lombok.experimental.UtilityClass;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+@UtilityClass
+public class SyntheticData {
+
+    private final LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    public User user(long id) {
+        return new User(id, "User name " + id, "user" + id + "@email.com");
+    }
+
+    public Request request(long id) {
+        return new Request(id, "Request description " + id, now.minusHours(id), user(id + 1));
+    }
+
+    public Item item(long id, Request request) {
+        return new Item(id, "Item name " + id, "Item description " + id, true, request, user(1L));
+    }
+
+    public Booking booking(long id) {
+        return new Booking(id, now.plusDays(id), now.plusDays(id + 1), item(id, null), user(id + 1),
+                BookingStatus.APPROVED);
+    }
+
+    public Comment comment(long id) {
+        return new Comment(id, "Comment text " + id, item(id, null), user(id + 1), now.minusDays(id));
+    }
+
+    public OwnerItemView ownerItemView(long id) {
+        return new OwnerItemRow(id, "Item name " + id, "Item description " + id, true,
+                id % 2 == 0 ? null : id, id, id + 1, id + 1, id + 2);
+    }
+
+    public ItemCommentView itemCommentView(long itemId, long id) {
+        return new ItemCommentRow(itemId, id, "Comment text " + id, "Author name " + id, now.minusDays(id));
+    }
+
+    public List<Booking> bookings(int size) {
+        return LongStream.rangeClosed(1, size)
+                .mapToObj(SyntheticData::booking)
+                .collect(Collectors.toList());
+    }
+
+    public List<Request> requests(int size) {
+        return LongStream.rangeClosed(1, size)
+                .mapToObj(SyntheticData::request)
+                .collect(Collectors.toList());
+    }
+
+    public List<Item> requestItems(List<Request> requests, int itemsPerRequest) {
+        return requests.stream()
+                .flatMap(request -> LongStream.range(0, itemsPerRequest)
+                        .mapToObj(index -> item(request.getId() * itemsPerRequest + index, request)))
+                .collect(Collectors.toList());
+    }
+
+    public List<OwnerItemView> ownerItemViews(int size) {
+        return LongStream.rangeClosed(1, size)
+                .mapToObj(SyntheticData::ownerItemView)
+                .collect(Collectors.toList());
+    }
+
+    public List<ItemCommentView> itemCommentViews(List<OwnerItemView> ownerItemViews, int commentsPerItem) {
+        return ownerItemViews.stream()
+                .flatMap(ownerItemView -> LongStream.range(0, commentsPerItem)
+                        .mapToObj(index -> itemCommentView(ownerItemView.getId(),
+                                ownerItemView.getId() * commentsPerItem + index)))
+                .collect(Collectors.toList());
+    }
+
+    @Value
+    private static class OwnerItemRow implements OwnerItemView {
+
+        Long id;
+
+        String name;
+
+        String description;
+
+        Boolean available;
+
+        Long requestId;
+
+        Long lastBookingId;
+
+        Long lastBookingBookerId;
+
+        Long nextBookingId;
+
+        Long nextBookingBookerId;
+
+    }
+
+    @Value
+    private static class ItemCommentRow implements ItemCommentView {
+
+        Long itemId;
+
+        Long id;
+
+        String text;
+
+        String authorName;
+
+        LocalDateTime created;
+
+    }
+}
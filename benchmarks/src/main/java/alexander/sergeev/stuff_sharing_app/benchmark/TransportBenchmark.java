@@ -0,0 +1,135 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
+import alexander.sergeev.stuff_sharing_app.booking.repository.BookingRepository;
+import alexander.sergeev.stuff_sharing_app.comment.model.Comment;
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.item.repository.CommentRepository;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.user.model.User;
+import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+
+/**
+ * Calls the owner item and booking lists of a server booted on H2 the way the gateway does, once per
+ * transport mode. A counting TCP proxy sits in between, and the bytes on the wire and connections
+ * used per request are printed when a mode finishes. Client and server share the JVM, so the time per
+ * call is the CPU cost of both ends, compression and decompression included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class TransportBenchmark {
+
+    public enum TransportMode {
+        HTTP1_IDENTITY, HTTP1_GZIP, H2C_IDENTITY, H2C_GZIP
+    }
+
+    private static final int ITEM_COUNT = 20;
+
+    private static final int COMMENTS_PER_ITEM = 5;
+
+    @Param({"HTTP1_IDENTITY", "HTTP1_GZIP", "H2C_IDENTITY", "H2C_GZIP"})
+    public TransportMode mode;
+
+    @Param({"/items?from=0&size=20", "/bookings/owner?state=ALL&from=0&size=20"})
+    public String path;
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+
+    private CountingProxy proxy;
+
+    private HttpClient httpClient;
+
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = ServerApplication.builder()
+                .web(WebApplicationType.SERVLET)
+                .profiles("test")
+                // Arguments, since the server's application.properties overrides default properties
+                .run("--logging.level.root=WARN",
+                        "--server.port=0",
+                        "--server.http2.enabled=true",
+                        "--server.compression.enabled=true",
+                        "--server.compression.min-response-size=2KB",
+                        "--stuff_sharing_app.access-log.enabled=false");
+        long ownerId = seed();
+        proxy = new CountingProxy(((WebServerApplicationContext) context).getWebServer().getPort());
+        boolean h2c = mode == TransportMode.H2C_IDENTITY || mode == TransportMode.H2C_GZIP;
+        httpClient = HttpClient.newBuilder()
+                .version(h2c ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .build();
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(URI.create("http://localhost:" + proxy.getPort() + path))
+                .header(header, String.valueOf(ownerId))
+                .header("Accept", "application/json");
+        if (mode == TransportMode.HTTP1_GZIP || mode == TransportMode.H2C_GZIP) {
+            requestBuilder.header("Accept-Encoding", "gzip");
+        }
+        request = requestBuilder.build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        long requests = Math.max(1, requestCount.get());
+        System.out.printf("%n%s %s : %d bytes on the wire per request, %d connections for %d requests%n",
+                mode, path, proxy.getBytes() / requests, proxy.getConnections(), requests);
+        proxy.close();
+        context.close();
+    }
+
+    @Benchmark
+    public long call() throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        requestCount.incrementAndGet();
+        boolean gzip = response.headers().firstValue("Content-Encoding").map("gzip"::equalsIgnoreCase).orElse(false);
+        try (InputStream body = gzip ? new GZIPInputStream(response.body()) : response.body()) {
+            return body.readAllBytes().length;
+        }
+    }
+
+    private long seed() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        BookingRepository bookingRepository = context.getBean(BookingRepository.class);
+        CommentRepository commentRepository = context.getBean(CommentRepository.class);
+        User owner = userRepository.save(new User(null, "Owner name", "owner@email.com"));
+        User booker = userRepository.save(new User(null, "Booker name", "booker@email.com"));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            Item item = itemRepository.save(new Item(null, "Item name " + i, "Item description " + i,
+                    true, null, owner));
+            bookingRepository.save(new Booking(null, now.minusDays(i + 2), now.minusDays(i + 1),
+                    item, booker, BookingStatus.APPROVED));
+            for (int j = 0; j < COMMENTS_PER_ITEM; j++) {
+                commentRepository.save(new Comment(null, "Comment text " + j + " about item " + i,
+                        item, booker, now.minusHours(j)));
+            }
+        }
+        return owner.getId();
+    }
+}
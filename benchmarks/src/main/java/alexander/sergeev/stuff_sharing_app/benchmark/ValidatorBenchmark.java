@@ -0,0 +1,78 @@
+package alexander.sergeev.stuff_sharing_app.benchmark;
+
+import alexander.sergeev.stuff_sharing_app.booking.dto.IncomingBookingDto;
+import alexander.sergeev.stuff_sharing_app.validation.BookingDateTimeValidator;
+import alexander.sergeev.stuff_sharing_app.validation.BookingStateValidator;
+import alexander.sergeev.stuff_sharing_app.validation.ValidationMarker;
+import org.openjdk.jmh.annotations.*;
+
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    private final BookingDateTimeValidator bookingDateTimeValidator = new BookingDateTimeValidator();
+
+    private final BookingStateValidator bookingStateValidator = new BookingStateValidator();
+
+    private final ConstraintValidatorContext context = Stubs.noOp(ConstraintValidatorContext.class);
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    private IncomingBookingDto validBooking;
+
+    private IncomingBookingDto startAfterEndBooking;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        validBooking = new IncomingBookingDto(null, start, start.plusDays(1), 1L);
+        startAfterEndBooking = new IncomingBookingDto(null, start.plusDays(1), start, 1L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean bookingDateTimeIsValid() {
+        return bookingDateTimeValidator.isValid(validBooking, context);
+    }
+
+    @Benchmark
+    public boolean bookingDateTimeIsNotValid() {
+        return bookingDateTimeValidator.isValid(startAfterEndBooking, context);
+    }
+
+    @Benchmark
+    public boolean bookingStateIsValid() {
+        return bookingStateValidator.isValid("FUTURE", context);
+    }
+
+    @Benchmark
+    public boolean bookingStateIsNotValid() {
+        return bookingStateValidator.isValid("UNSUPPORTED_STATUS", context);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<IncomingBookingDto>> validateBooking() {
+        return validator.validate(validBooking, ValidationMarker.OnCreate.class);
+    }
+}
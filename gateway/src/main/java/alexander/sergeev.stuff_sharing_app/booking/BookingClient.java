@@ -2,15 +2,22 @@ package alexander.sergeev.stuff_sharing_app.booking;
 
 import alexander.sergeev.stuff_sharing_app.booking.dto.IncomingBookingDto;
 import alexander.sergeev.stuff_sharing_app.client.BaseClient;
+import alexander.sergeev.stuff_sharing_app.client.ClientIsolation;
+import alexander.sergeev.stuff_sharing_app.client.ClientMetrics;
+import alexander.sergeev.stuff_sharing_app.client.WebClientFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class BookingClient extends BaseClient {
@@ -18,38 +25,71 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${stuff_sharing_app_server_url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${stuff_sharing_app_server_url}") String serverUrl,
+                         RestTemplateBuilder builder,
+                         ClientIsolation clientIsolation,
+                         ClientMetrics clientMetrics,
+                         @Nullable WebClientFactory webClientFactory) {
         super(builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build());
+                .requestFactory(() -> clientIsolation.requestFactory("bookings"))
+                .additionalInterceptors(clientIsolation.interceptor("bookings"), clientMetrics.interceptor("bookings"))
+                .build(), webClientFactory == null ? null : webClientFactory.create("bookings", serverUrl + API_PREFIX));
     }
 
-    public ResponseEntity<Object> getAllUserBookings(Long userId,
-                                                     String bookingStateString,
-                                                     Integer from,
-                                                     Integer size) {
-        return get("?state={state}&from={from}&size={size}", userId,
-                Map.of("state", bookingStateString, "from", from, "size", size));
+    public CompletableFuture<ResponseEntity<Object>> getAllUserBookings(Long userId,
+                                                                        String bookingStateString,
+                                                                        Integer from,
+                                                                        Integer size,
+                                                                        String bookingViewString) {
+        return get("?state={state}&from={from}&size={size}&view={view}", userId,
+                Map.of("state", bookingStateString, "from", from, "size", size, "view", bookingViewString));
     }
 
-    public ResponseEntity<Object> getAllOwnerItemBookings(Long ownerId,
-                                                          String bookingStateString,
-                                                          Integer from,
-                                                          Integer size) {
-        return get("/owner?state={state}&from={from}&size={size}", ownerId,
-                Map.of("state", bookingStateString, "from", from, "size", size));
+    public CompletableFuture<ResponseEntity<Object>> getAllOwnerItemBookings(Long ownerId,
+                                                                             String bookingStateString,
+                                                                             Integer from,
+                                                                             Integer size,
+                                                                             String bookingViewString) {
+        return get("/owner?state={state}&from={from}&size={size}&view={view}", ownerId,
+                Map.of("state", bookingStateString, "from", from, "size", size, "view", bookingViewString));
     }
 
-    public ResponseEntity<Object> getBookingById(Long userId, Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllUserBookingsAfter(Long userId,
+                                                                             String bookingStateString,
+                                                                             String after,
+                                                                             Integer size,
+                                                                             String bookingViewString) {
+        return get("?state={state}&after={after}&size={size}&view={view}", userId,
+                Map.of("state", bookingStateString, "after", after, "size", size, "view", bookingViewString));
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getAllOwnerItemBookingsAfter(Long ownerId,
+                                                                                  String bookingStateString,
+                                                                                  String after,
+                                                                                  Integer size,
+                                                                                  String bookingViewString) {
+        return get("/owner?state={state}&after={after}&size={size}&view={view}", ownerId,
+                Map.of("state", bookingStateString, "after", after, "size", size, "view", bookingViewString));
+    }
+
+    public void exportOwnerItemBookings(Long ownerId, HttpServletResponse response) throws IOException {
+        stream("/export", ownerId, response);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getBookingById(Long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> postBooking(Long bookerId, IncomingBookingDto incomingBookingDto) {
+    public CompletableFuture<ResponseEntity<Object>> postBooking(Long bookerId, IncomingBookingDto incomingBookingDto) {
         return post("", bookerId, incomingBookingDto);
     }
 
-    public ResponseEntity<Object> patchBooking(Long itemOwnerId, Long bookingId, Boolean approved) {
+    public CompletableFuture<ResponseEntity<Object>> postBookings(Long bookerId, List<IncomingBookingDto> incomingBookingDtoList) {
+        return post("/batch", bookerId, incomingBookingDtoList);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> patchBooking(Long itemOwnerId, Long bookingId, Boolean approved) {
         return patch("/" + bookingId + "?approved={approved}", itemOwnerId,
                 Map.of("approved", approved), new IncomingBookingDto());
     }
@@ -4,74 +4,108 @@ import alexander.sergeev.stuff_sharing_app.booking.dto.IncomingBookingDto;
 import alexander.sergeev.stuff_sharing_app.validation.BookingStateValidation;
 import alexander.sergeev.stuff_sharing_app.validation.ValidationMarker;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
 
 @Controller
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
-@Slf4j
 @Validated
 public class BookingController {
 
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAllUserBookings(
-            HttpServletRequest request,
+    public CompletableFuture<ResponseEntity<Object>> getAllUserBookings(
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero Integer from,
             @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(20) Integer size,
             @RequestHeader(header) @Positive Long userId,
-            @RequestParam(name = "state", defaultValue = "ALL") @BookingStateValidation String bookingStateString) {
-        log.info("Id-{} {} {}?{}", userId, request.getMethod(), request.getRequestURI(), request.getQueryString());
-        return bookingClient.getAllUserBookings(userId, bookingStateString, from, size);
+            @RequestParam(name = "state", defaultValue = "ALL") @BookingStateValidation String bookingStateString,
+            @RequestParam(name = "view", defaultValue = "full")
+            @Pattern(regexp = "(?i)(full|compact)", message = "Unknown view: ${validatedValue}") String bookingViewString) {
+        return bookingClient.getAllUserBookings(userId, bookingStateString, from, size, bookingViewString);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllOwnerItemBookings(
-            HttpServletRequest request,
+    public CompletableFuture<ResponseEntity<Object>> getAllOwnerItemBookings(
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero Integer from,
             @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(20) Integer size,
             @RequestHeader(header) @Positive Long ownerId,
-            @RequestParam(name = "state", defaultValue = "ALL") @BookingStateValidation String bookingStateString) {
-        log.info("Id-{} {} {}?{}", ownerId, request.getMethod(), request.getRequestURI(), request.getQueryString());
-        return bookingClient.getAllOwnerItemBookings(ownerId, bookingStateString, from, size);
+            @RequestParam(name = "state", defaultValue = "ALL") @BookingStateValidation String bookingStateString,
+            @RequestParam(name = "view", defaultValue = "full")
+            @Pattern(regexp = "(?i)(full|compact)", message = "Unknown view: ${validatedValue}") String bookingViewString) {
+        return bookingClient.getAllOwnerItemBookings(ownerId, bookingStateString, from, size, bookingViewString);
+    }
+
+    @GetMapping(params = "after")
+    public CompletableFuture<ResponseEntity<Object>> getAllUserBookingsAfter(
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(20) Integer size,
+            @RequestHeader(header) @Positive Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") @BookingStateValidation String bookingStateString,
+            @RequestParam(name = "view", defaultValue = "full")
+            @Pattern(regexp = "(?i)(full|compact)", message = "Unknown view: ${validatedValue}") String bookingViewString) {
+        return bookingClient.getAllUserBookingsAfter(userId, bookingStateString, after, size, bookingViewString);
+    }
+
+    @GetMapping(path = "/owner", params = "after")
+    public CompletableFuture<ResponseEntity<Object>> getAllOwnerItemBookingsAfter(
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(20) Integer size,
+            @RequestHeader(header) @Positive Long ownerId,
+            @RequestParam(name = "state", defaultValue = "ALL") @BookingStateValidation String bookingStateString,
+            @RequestParam(name = "view", defaultValue = "full")
+            @Pattern(regexp = "(?i)(full|compact)", message = "Unknown view: ${validatedValue}") String bookingViewString) {
+        return bookingClient.getAllOwnerItemBookingsAfter(ownerId, bookingStateString, after, size, bookingViewString);
+    }
+
+    @GetMapping("/export")
+    public void exportOwnerItemBookings(
+            HttpServletResponse response,
+            @RequestHeader(header) @Positive Long ownerId) throws IOException {
+        bookingClient.exportOwnerItemBookings(ownerId, response);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBookingById(HttpServletRequest request,
-                                                 @RequestHeader(header) @Positive Long userId,
-                                                 @PathVariable @Positive Long bookingId) {
-        log.info("Id-{} {} {}", userId, request.getMethod(), request.getRequestURI());
+    public CompletableFuture<ResponseEntity<Object>> getBookingById(@RequestHeader(header) @Positive Long userId,
+                                                                    @PathVariable @Positive Long bookingId) {
         return bookingClient.getBookingById(userId, bookingId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> postBooking(
-            HttpServletRequest request,
+    public CompletableFuture<ResponseEntity<Object>> postBooking(
             @RequestHeader(header) @Positive Long bookerId,
             @RequestBody @Validated(ValidationMarker.OnCreate.class) IncomingBookingDto incomingBookingDto) {
-        log.info("Id-{} {} {} {}", bookerId, request.getMethod(), request.getRequestURI(), incomingBookingDto);
         return bookingClient.postBooking(bookerId, incomingBookingDto);
     }
 
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<Object>> postBookings(
+            @RequestHeader(header) @Positive Long bookerId,
+            @RequestBody @Size(min = 1, max = 10000, message = "Batch must contain from 1 to 10000 bookings!")
+            List<IncomingBookingDto> incomingBookingDtoList) {
+        return bookingClient.postBookings(bookerId, incomingBookingDtoList);
+    }
+
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> patchBooking(HttpServletRequest request,
-                                               @RequestHeader(header) @Positive Long itemOwnerId,
-                                               @PathVariable @Positive Long bookingId,
-                                               @RequestParam Boolean approved) {
-        log.info("Id-{} {} {}", itemOwnerId, request.getMethod(), request.getRequestURI());
+    public CompletableFuture<ResponseEntity<Object>> patchBooking(@RequestHeader(header) @Positive Long itemOwnerId,
+                                                                  @PathVariable @Positive Long bookingId,
+                                                                  @RequestParam Boolean approved) {
         return bookingClient.patchBooking(itemOwnerId, bookingId, approved);
     }
 }
\ No newline at end of file
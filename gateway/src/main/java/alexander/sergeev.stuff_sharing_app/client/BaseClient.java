@@ -2,95 +2,290 @@ package alexander.sergeev.stuff_sharing_app.client;
 
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
 
+/**
+ * Relays calls to the server. Bodies are passed through as the bytes the server wrote, together with
+ * their Content-Type, instead of being parsed into maps and lists and written back out by the gateway.
+ */
 public class BaseClient {
 
+    // Describe the hop between gateway and server, the container sets its own ones for the client
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            HttpHeaders.CONNECTION, "Keep-Alive", HttpHeaders.PROXY_AUTHENTICATE, HttpHeaders.PROXY_AUTHORIZATION,
+            HttpHeaders.TE, HttpHeaders.TRAILER, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.UPGRADE,
+            HttpHeaders.CONTENT_LENGTH);
+
     protected final RestTemplate rest;
 
+    @Nullable
+    private final WebClient webClient;
+
+    @Nullable
+    private final ResponseCache responseCache;
+
+    @Nullable
+    private final SingleFlight singleFlight;
+
     public BaseClient(RestTemplate rest) {
+        this(rest, null, null, null);
+    }
+
+    public BaseClient(RestTemplate rest, @Nullable ResponseCache responseCache) {
+        this(rest, null, responseCache, null);
+    }
+
+    public BaseClient(RestTemplate rest, @Nullable WebClient webClient) {
+        this(rest, webClient, null, null);
+    }
+
+    /**
+     * Relays through the web client when there is one, the async client mode, and through the rest template
+     * otherwise. Exports are always streamed through the rest template.
+     */
+    public BaseClient(RestTemplate rest, @Nullable WebClient webClient, @Nullable ResponseCache responseCache,
+                      @Nullable SingleFlight singleFlight) {
         this.rest = rest;
+        this.webClient = webClient;
+        this.responseCache = responseCache;
+        this.singleFlight = singleFlight;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    /**
+     * Coalesces a read whose answer is the same for every user, like a search, across all users the server
+     * recently answered.
+     */
+    protected CompletableFuture<ResponseEntity<Object>> getCoalesced(String path, long userId, Map<String, Object> parameters) {
+        if (singleFlight == null) {
+            return get(path, userId, parameters);
+        }
+        String uri = rest.getUriTemplateHandler().expand(path, parameters).toString();
+        // Users not vouched for yet still coalesce among their own calls, and their first success vouches for them
+        SingleFlight.Scope scope = singleFlight.isKnownUser(userId) ? SingleFlight.Scope.PUBLIC : SingleFlight.Scope.USER;
+        return coalesce(SingleFlight.key(HttpMethod.GET.name(), uri, scope, userId),
+                () -> get(path, userId, parameters).thenApply(response -> {
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        singleFlight.rememberUser(userId);
+                    } else if (response.getStatusCode() == HttpStatus.NOT_FOUND) {
+                        // The caller is the only thing these reads look up, so the user is gone
+                        singleFlight.forgetUser(userId);
+                    }
+                    return response;
+                }));
+    }
+
+    protected CompletableFuture<ResponseEntity<Object>> getConditional(String path, long userId, @Nullable String ifNoneMatch) {
+        if (singleFlight == null) {
+            return revalidate(path, userId, ifNoneMatch);
+        }
+        // Callers holding different validators expect different answers, so the validator is part of the key
+        String key = SingleFlight.key(HttpMethod.GET.name(),
+                rest.getUriTemplateHandler().expand(path) + " " + Objects.toString(ifNoneMatch, ""),
+                SingleFlight.Scope.USER, userId);
+        return coalesce(key, () -> revalidate(path, userId, ifNoneMatch));
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> coalesce(
+            String key, Supplier<CompletableFuture<ResponseEntity<Object>>> upstreamCall) {
+        if (webClient == null) {
+            // Blocking calls are complete by the time they return, so followers wait on the leader's thread
+            return CompletableFuture.completedFuture(singleFlight.execute(key, () -> join(upstreamCall.get())));
+        }
+        return singleFlight.executeAsync(key, upstreamCall);
+    }
+
+    // Rethrows what the call failed with, the exception resolver would answer a CompletionException with 500
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> revalidate(String path, long userId, @Nullable String ifNoneMatch) {
+        if (responseCache == null) {
+            return get(path, userId);
+        }
+        // One entry per resource: the server answers every user with the same representation,
+        // except owner views, which come back private and are never stored
+        String key = rest.getUriTemplateHandler().expand(path).toString();
+        ResponseCache.CachedResponse cachedResponse = responseCache.get(key);
+        HttpHeaders headers = defaultHeaders(userId);
+        List<String> clientETags = splitETags(ifNoneMatch);
+        List<String> revalidatedETags = new ArrayList<>(clientETags);
+        if (cachedResponse != null && !revalidatedETags.contains(cachedResponse.getETag())) {
+            revalidatedETags.add(cachedResponse.getETag());
+        }
+        if (!revalidatedETags.isEmpty()) {
+            headers.setIfNoneMatch(revalidatedETags);
+        }
+        return exchange(HttpMethod.GET, path, headers, null, null).thenCompose(shareitServerResponse -> {
+            if (shareitServerResponse.getStatusCode().isError()) {
+                responseCache.invalidate(key);
+                return CompletableFuture.completedFuture(prepareGatewayResponse(shareitServerResponse));
+            }
+            String eTag = shareitServerResponse.getHeaders().getETag();
+            if (shareitServerResponse.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                if (clientETags.contains(eTag)) {
+                    return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                            .eTag(eTag)
+                            .build());
+                }
+                if (cachedResponse != null && cachedResponse.getETag().equals(eTag)) {
+                    responseCache.recordHit(cachedResponse.getSize());
+                    return CompletableFuture.completedFuture(ResponseEntity.ok()
+                            .eTag(eTag)
+                            .contentType(cachedResponse.getContentType())
+                            .body(cachedResponse.getBody()));
+                }
+                // Neither side holds the representation the server matched, so fall back to a plain read
+                responseCache.invalidate(key);
+                return get(path, userId);
+            }
+            if (shareitServerResponse.getStatusCode() == HttpStatus.OK && eTag != null
+                    && shareitServerResponse.hasBody()) {
+                if (isShareable(shareitServerResponse.getHeaders())) {
+                    responseCache.put(key, eTag, shareitServerResponse.getHeaders().getContentType(),
+                            shareitServerResponse.getBody());
+                }
+                responseCache.recordMiss();
+            }
+            return CompletableFuture.completedFuture(prepareGatewayResponse(shareitServerResponse));
+        });
+    }
+
+    protected void stream(String path, long userId, HttpServletResponse response) throws IOException {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setAccept(List.of(MediaType.ALL));
+        try {
+            // Copies the server body as it arrives instead of reading it into a response entity first
+            rest.execute(path, HttpMethod.GET,
+                    clientRequest -> clientRequest.getHeaders().putAll(headers),
+                    clientResponse -> {
+                        response.setStatus(clientResponse.getRawStatusCode());
+                        copyContentType(clientResponse.getHeaders(), response);
+                        StreamUtils.copy(clientResponse.getBody(), response.getOutputStream());
+                        return null;
+                    });
+        } catch (HttpStatusCodeException e) {
+            response.setStatus(e.getRawStatusCode());
+            copyContentType(e.getResponseHeaders(), response);
+            response.getOutputStream().write(e.getResponseBodyAsByteArray());
+        }
+    }
+
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+    private <T> CompletableFuture<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        return exchange(method, path, defaultHeaders(userId), parameters, body)
+                .thenApply(BaseClient::prepareGatewayResponse);
+    }
+
+    private <T> CompletableFuture<ResponseEntity<byte[]>> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                                                   @Nullable Map<String, Object> parameters,
+                                                                   @Nullable T body) {
+        Map<String, Object> uriVariables = parameters != null ? parameters : Map.of();
+        if (webClient == null) {
+            HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
+            try {
+                return CompletableFuture.completedFuture(
+                        rest.exchange(path, method, requestEntity, byte[].class, uriVariables));
+            } catch (HttpStatusCodeException e) {
+                return CompletableFuture.completedFuture(new ResponseEntity<>(e.getResponseBodyAsByteArray(),
+                        e.getResponseHeaders(), e.getStatusCode()));
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, uriVariables)
+                .headers(requestHeaders -> requestHeaders.addAll(headers));
+        return (body != null ? request.bodyValue(body) : request)
+                .exchangeToMono(response -> response.toEntity(byte[].class))
+                // Surfaces like a failed blocking call, which the exception resolver answers with 503
+                .onErrorMap(WebClientRequestException.class, e -> new ResourceAccessException(e.getMessage(),
+                        e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e)))
+                .toFuture();
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -103,14 +298,43 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private static void copyContentType(@Nullable HttpHeaders headers, HttpServletResponse response) {
+        if (headers != null && headers.getContentType() != null) {
+            response.setContentType(headers.getContentType().toString());
+        }
+    }
+
+    private static List<String> splitETags(@Nullable String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return List.of();
         }
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .filter(eTag -> !eTag.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isShareable(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        return cacheControl == null || Arrays.stream(cacheControl.split(","))
+                .map(String::trim)
+                .noneMatch(directive -> directive.equalsIgnoreCase("private") || directive.equalsIgnoreCase("no-store"));
+    }
+
+    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<byte[]> response) {
+        return new ResponseEntity<>(response.getBody(), endToEndHeaders(response.getHeaders()),
+                response.getStatusCode());
+    }
+
+    private static HttpHeaders endToEndHeaders(@Nullable HttpHeaders headers) {
+        HttpHeaders endToEndHeaders = new HttpHeaders();
+        if (headers != null) {
+            headers.forEach((name, values) -> {
+                if (HOP_BY_HOP_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                    endToEndHeaders.addAll(name, values);
+                }
+            });
         }
-        return responseBuilder.build();
+        return endToEndHeaders;
     }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package alexander.sergeev.stuff_sharing_app.client;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based sliding window breaker. Opens when the failed or slow share of the last
+ * {@code windowSize} calls crosses its threshold, lets {@code halfOpenCalls} trial calls through
+ * after {@code openNanos} and closes again only if all of them succeed in time.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private static final byte FAILED = 1;
+
+    private static final byte SLOW = 2;
+
+    private final int minimumCalls;
+
+    private final double failureRateThreshold;
+
+    private final double slowCallRateThreshold;
+
+    private final long slowCallNanos;
+
+    private final long openNanos;
+
+    private final int halfOpenCalls;
+
+    private final LongSupplier nanoClock;
+
+    private final byte[] window;
+
+    private int windowIndex;
+
+    private int windowCalls;
+
+    private int failedCalls;
+
+    private int slowCalls;
+
+    private volatile State state = State.CLOSED;
+
+    private long openedAt;
+
+    private int halfOpenPermits;
+
+    private int halfOpenSucceeded;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, double slowCallRateThreshold,
+                          long slowCallNanos, long openNanos, int halfOpenCalls, LongSupplier nanoClock) {
+        this.window = new byte[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallNanos;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    public synchronized void record(boolean failed, long durationNanos) {
+        boolean slow = durationNanos >= slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                open();
+            } else if (++halfOpenSucceeded == halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // A call that started before the breaker opened says nothing about the upstream now
+            return;
+        }
+        byte outcome = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+        if (windowCalls == window.length) {
+            forget(window[windowIndex]);
+        } else {
+            windowCalls++;
+        }
+        window[windowIndex] = outcome;
+        windowIndex = (windowIndex + 1) % window.length;
+        failedCalls += failed ? 1 : 0;
+        slowCalls += slow ? 1 : 0;
+        if (windowCalls >= minimumCalls
+                && ((double) failedCalls / windowCalls >= failureRateThreshold
+                || (double) slowCalls / windowCalls >= slowCallRateThreshold)) {
+            open();
+        }
+    }
+
+    private void forget(byte outcome) {
+        failedCalls -= (outcome & FAILED) != 0 ? 1 : 0;
+        slowCalls -= (outcome & SLOW) != 0 ? 1 : 0;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+        resetWindow();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        windowIndex = 0;
+        windowCalls = 0;
+        failedCalls = 0;
+        slowCalls = 0;
+    }
+}
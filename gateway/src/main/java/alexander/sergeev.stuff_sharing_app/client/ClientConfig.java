@@ -0,0 +1,112 @@
+package alexander.sergeev.stuff_sharing_app.client;
+
+import io.netty.channel.ChannelOption;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager connectionManager(
+            @Value("${stuff_sharing_app.client.max-connections:200}") int maxConnections,
+            @Value("${stuff_sharing_app.client.max-connections-per-route:100}") int maxConnectionsPerRoute,
+            @Value("${stuff_sharing_app.client.keep-alive-seconds:30}") long keepAliveSeconds) {
+        PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager(keepAliveSeconds, TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setValidateAfterInactivity(2000);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(
+            PoolingHttpClientConnectionManager connectionManager,
+            @Value("${stuff_sharing_app.client.keep-alive-seconds:30}") long keepAliveSeconds,
+            @Value("${stuff_sharing_app.client.connection-request-timeout-millis:5000}") int connectionRequestTimeout,
+            @Value("${stuff_sharing_app.client.connect-timeout-millis:1000}") int connectTimeout,
+            @Value("${stuff_sharing_app.client.read-timeout-millis:5000}") int readTimeout,
+            @Value("${stuff_sharing_app.client.compression.enabled:true}") boolean compression) {
+        HttpClientBuilder builder = HttpClients.custom();
+        if (!compression) {
+            // Otherwise the client sends Accept-Encoding: gzip,deflate and inflates responses transparently
+            builder.disableContentCompression();
+        }
+        return builder
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> {
+                    long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+                            .getKeepAliveDuration(response, context);
+                    return serverKeepAlive > 0 ? serverKeepAlive : TimeUnit.SECONDS.toMillis(keepAliveSeconds);
+                })
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(connectionRequestTimeout)
+                        .setConnectTimeout(connectTimeout)
+                        .setSocketTimeout(readTimeout)
+                        .build())
+                .evictIdleConnections(keepAliveSeconds, TimeUnit.SECONDS)
+                .evictExpiredConnections()
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "stuff_sharing_app.client.transport", havingValue = "h2c")
+    public HttpClient http2Client(
+            @Value("${stuff_sharing_app.client.connect-timeout-millis:1000}") long connectTimeout) {
+        // Plain text HTTP/2 is negotiated by upgrading the first request, later calls share the connection
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .build();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnProperty(name = "stuff_sharing_app.client.mode", havingValue = "async")
+    public ConnectionProvider connectionProvider(
+            @Value("${stuff_sharing_app.client.max-connections:200}") int maxConnections,
+            @Value("${stuff_sharing_app.client.keep-alive-seconds:30}") long keepAliveSeconds,
+            @Value("${stuff_sharing_app.client.connection-request-timeout-millis:5000}") long connectionRequestTimeout) {
+        return ConnectionProvider.builder("gateway")
+                .maxConnections(maxConnections)
+                .maxIdleTime(Duration.ofSeconds(keepAliveSeconds))
+                .pendingAcquireTimeout(Duration.ofMillis(connectionRequestTimeout))
+                .evictInBackground(Duration.ofSeconds(keepAliveSeconds))
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "stuff_sharing_app.client.mode", havingValue = "async")
+    public ClientHttpConnector clientHttpConnector(
+            ConnectionProvider connectionProvider,
+            @Value("${stuff_sharing_app.client.connect-timeout-millis:1000}") int connectTimeout,
+            @Value("${stuff_sharing_app.client.compression.enabled:true}") boolean compression) {
+        // Calls wait on the Netty event loop instead of holding a request thread each, read timeouts
+        // are applied per client by ClientIsolation
+        return new ReactorClientHttpConnector(reactor.netty.http.client.HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                .compress(compression));
+    }
+
+    @Bean
+    public ClientHttpRequestFactory clientHttpRequestFactory(CloseableHttpClient httpClient) {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+}
@@ -0,0 +1,284 @@
+package alexander.sergeev.stuff_sharing_app.client;
+
+import alexander.sergeev.stuff_sharing_app.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gives every upstream client its own timeouts, bulkhead and circuit breaker, so a slow server route
+ * only ties up the gateway threads of the client calling it. Settings are read as
+ * {@code stuff_sharing_app.client.isolation.<client>.<key>}, falling back to
+ * {@code stuff_sharing_app.client.isolation.<key>} and for timeouts to the connection pool defaults.
+ * With the h2c transport the calls go over the JDK HttpClient instead of the Apache connection pool,
+ * in the async client mode the same checks run as a WebClient filter.
+ */
+@Component
+public class ClientIsolation {
+
+    private static final String PREFIX = "stuff_sharing_app.client.isolation.";
+
+    private final CloseableHttpClient httpClient;
+
+    @Nullable
+    private final HttpClient http2Client;
+
+    private final Environment environment;
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Isolation> isolations = new ConcurrentHashMap<>();
+
+    public ClientIsolation(CloseableHttpClient httpClient, @Nullable HttpClient http2Client, Environment environment,
+                           MeterRegistry registry) {
+        this.httpClient = httpClient;
+        this.http2Client = http2Client;
+        this.environment = environment;
+        this.registry = registry;
+    }
+
+    public ClientHttpRequestFactory requestFactory(String client) {
+        if (http2Client != null) {
+            long readTimeout = environment.getProperty(PREFIX + client + ".read-timeout-millis", Long.class,
+                    environment.getProperty("stuff_sharing_app.client.read-timeout-millis", Long.class, 5000L));
+            boolean compression = environment.getProperty("stuff_sharing_app.client.compression.enabled",
+                    Boolean.class, true);
+            return new JdkClientHttpRequestFactory(http2Client, Duration.ofMillis(readTimeout), compression);
+        }
+        // Shares the connection pool, timeouts not set for the client stay the pool defaults
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        Integer connectTimeout = environment.getProperty(PREFIX + client + ".connect-timeout-millis", Integer.class);
+        if (connectTimeout != null) {
+            requestFactory.setConnectTimeout(connectTimeout);
+        }
+        Integer readTimeout = environment.getProperty(PREFIX + client + ".read-timeout-millis", Integer.class);
+        if (readTimeout != null) {
+            requestFactory.setReadTimeout(readTimeout);
+        }
+        return requestFactory;
+    }
+
+    public ClientHttpRequestInterceptor interceptor(String client) {
+        Isolation isolation = isolations.computeIfAbsent(client, this::isolation);
+        return (request, body, execution) -> {
+            if (!isolation.bulkhead.tryAcquire()) {
+                isolation.bulkheadRejected.increment();
+                throw new UpstreamUnavailableException("Too many concurrent " + client + " calls to the server");
+            }
+            if (!isolation.circuitBreaker.tryAcquire()) {
+                isolation.bulkhead.release();
+                isolation.circuitBreakerRejected.increment();
+                throw new UpstreamUnavailableException("Circuit breaker of " + client + " calls is open");
+            }
+            long start = System.nanoTime();
+            ClientHttpResponse response;
+            try {
+                response = execution.execute(request, body);
+            } catch (IOException | RuntimeException e) {
+                isolation.circuitBreaker.record(true, System.nanoTime() - start);
+                isolation.bulkhead.release();
+                throw e;
+            }
+            // The permit is held until the rest template closes the response, after the body has been read
+            return new IsolatedResponse(response, () -> {
+                boolean failed = true;
+                try {
+                    failed = response.getRawStatusCode() >= 500;
+                } catch (IOException e) {
+                    // Counted as failed
+                }
+                isolation.circuitBreaker.record(failed, System.nanoTime() - start);
+                isolation.bulkhead.release();
+            });
+        };
+    }
+
+    public ExchangeFilterFunction filter(String client) {
+        Isolation isolation = isolations.computeIfAbsent(client, this::isolation);
+        // Without a blocking socket read there is no read timeout of the connection to fall back on
+        Duration readTimeout = Duration.ofMillis(environment.getProperty(PREFIX + client + ".read-timeout-millis",
+                Long.class, environment.getProperty("stuff_sharing_app.client.read-timeout-millis", Long.class, 5000L)));
+        return (request, next) -> Mono.defer(() -> {
+            if (!isolation.bulkhead.tryAcquire()) {
+                isolation.bulkheadRejected.increment();
+                return Mono.error(new UpstreamUnavailableException(
+                        "Too many concurrent " + client + " calls to the server"));
+            }
+            if (!isolation.circuitBreaker.tryAcquire()) {
+                isolation.bulkhead.release();
+                isolation.circuitBreakerRejected.increment();
+                return Mono.error(new UpstreamUnavailableException("Circuit breaker of " + client + " calls is open"));
+            }
+            long start = System.nanoTime();
+            AtomicBoolean failed = new AtomicBoolean(true);
+            AtomicBoolean finished = new AtomicBoolean();
+            // Recorded before the outcome reaches the caller, so its next call already sees it
+            Runnable finish = () -> {
+                if (finished.compareAndSet(false, true)) {
+                    isolation.circuitBreaker.record(failed.get(), System.nanoTime() - start);
+                    isolation.bulkhead.release();
+                }
+            };
+            return next.exchange(request)
+                    .timeout(readTimeout)
+                    .onErrorMap(TimeoutException.class, e -> readTimedOut(client))
+                    // Like a blocking socket read, the body keeps the permit and may not stall longer than the
+                    // read timeout between chunks. exchangeToMono reads or releases it, so it always terminates
+                    .map(response -> {
+                        failed.set(response.rawStatusCode() >= 500);
+                        return response.mutate()
+                                .body(responseBody -> responseBody
+                                        .timeout(readTimeout)
+                                        .onErrorMap(TimeoutException.class, e -> readTimedOut(client))
+                                        .doFinally(signal -> {
+                                            if (signal == SignalType.ON_ERROR) {
+                                                failed.set(true);
+                                            }
+                                            finish.run();
+                                        }))
+                                .build();
+                    })
+                    .doOnError(e -> finish.run())
+                    .doOnCancel(finish);
+        });
+    }
+
+    private static ResourceAccessException readTimedOut(String client) {
+        return new ResourceAccessException("Read timed out on " + client + " call to the server",
+                new SocketTimeoutException("Read timed out"));
+    }
+
+    private Isolation isolation(String client) {
+        int maxConcurrentCalls = setting(client, "max-concurrent-calls", Integer.class, 50);
+        Isolation isolation = new Isolation(new Semaphore(maxConcurrentCalls), new CircuitBreaker(
+                setting(client, "window-size", Integer.class, 50),
+                setting(client, "minimum-calls", Integer.class, 20),
+                setting(client, "failure-rate-threshold", Double.class, 0.5),
+                setting(client, "slow-call-rate-threshold", Double.class, 0.8),
+                TimeUnit.MILLISECONDS.toNanos(setting(client, "slow-call-millis", Long.class, 2000L)),
+                TimeUnit.MILLISECONDS.toNanos(setting(client, "open-millis", Long.class, 10000L)),
+                setting(client, "half-open-calls", Integer.class, 5),
+                System::nanoTime));
+        Gauge.builder("gateway.client.bulkhead.active", isolation.bulkhead,
+                        bulkhead -> maxConcurrentCalls - bulkhead.availablePermits())
+                .tag("client", client)
+                .description("Calls of the client currently holding a bulkhead permit")
+                .register(registry);
+        Gauge.builder("gateway.client.bulkhead.max", () -> maxConcurrentCalls)
+                .tag("client", client)
+                .description("Concurrent calls the client bulkhead allows")
+                .register(registry);
+        FunctionCounter.builder("gateway.client.rejected", isolation.bulkheadRejected, LongAdder::doubleValue)
+                .tags("client", client, "reason", "bulkhead")
+                .description("Calls failed fast with 503 without reaching the server")
+                .register(registry);
+        FunctionCounter.builder("gateway.client.rejected", isolation.circuitBreakerRejected, LongAdder::doubleValue)
+                .tags("client", client, "reason", "circuit_breaker")
+                .description("Calls failed fast with 503 without reaching the server")
+                .register(registry);
+        Gauge.builder("gateway.client.circuit.breaker.state", isolation.circuitBreaker,
+                        circuitBreaker -> circuitBreaker.getState().ordinal())
+                .tag("client", client)
+                .description("Circuit breaker state of the client : 0 closed, 1 half open, 2 open")
+                .register(registry);
+        return isolation;
+    }
+
+    private <T> T setting(String client, String key, Class<T> type, T defaultValue) {
+        return environment.getProperty(PREFIX + client + "." + key, type,
+                environment.getProperty(PREFIX + key, type, defaultValue));
+    }
+
+    private static final class IsolatedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+
+        private final Runnable onClose;
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private IsolatedResponse(ClientHttpResponse response, Runnable onClose) {
+            this.response = response;
+            this.onClose = onClose;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                if (closed.compareAndSet(false, true)) {
+                    onClose.run();
+                }
+            }
+        }
+    }
+
+    private static final class Isolation {
+
+        private final Semaphore bulkhead;
+
+        private final CircuitBreaker circuitBreaker;
+
+        private final LongAdder bulkheadRejected = new LongAdder();
+
+        private final LongAdder circuitBreakerRejected = new LongAdder();
+
+        private Isolation(Semaphore bulkhead, CircuitBreaker circuitBreaker) {
+            this.bulkhead = bulkhead;
+            this.circuitBreaker = circuitBreaker;
+        }
+    }
+}
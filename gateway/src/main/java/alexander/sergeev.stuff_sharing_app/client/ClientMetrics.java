@@ -0,0 +1,66 @@
+package alexander.sergeev.stuff_sharing_app.client;
+
+import alexander.sergeev.stuff_sharing_app.metrics.MetricsMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+@RequiredArgsConstructor
+public class ClientMetrics {
+
+    public static final String METRIC_NAME = "gateway.client.requests";
+
+    private final MeterRegistry registry;
+
+    private final MetricsMode metricsMode;
+
+    public ClientHttpRequestInterceptor interceptor(String client) {
+        if (metricsMode == MetricsMode.OFF) {
+            return (request, body, execution) -> execution.execute(request, body);
+        }
+        return (request, body, execution) -> {
+            long start = System.nanoTime();
+            String status = "IO_ERROR";
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                status = String.valueOf(response.getRawStatusCode());
+                return response;
+            } finally {
+                // Stops at the response headers, streamed bodies are copied to the caller after this
+                record(client, request.getMethodValue(), status, start);
+            }
+        };
+    }
+
+    public ExchangeFilterFunction filter(String client) {
+        if (metricsMode == MetricsMode.OFF) {
+            return (request, next) -> next.exchange(request);
+        }
+        return (request, next) -> Mono.defer(() -> {
+            long start = System.nanoTime();
+            AtomicReference<String> status = new AtomicReference<>("IO_ERROR");
+            return next.exchange(request)
+                    .doOnNext(response -> status.set(String.valueOf(response.rawStatusCode())))
+                    .doFinally(signal -> record(client, request.method().name(), status.get(), start));
+        });
+    }
+
+    private void record(String client, String method, String status, long start) {
+        Timer.builder(METRIC_NAME)
+                .tag("client", client)
+                .tag("method", method)
+                .tag("status", status)
+                .description("Proxy hops from the gateway to the server")
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,186 @@
+package alexander.sergeev.stuff_sharing_app.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Sends RestTemplate calls over the JDK HttpClient, which speaks HTTP/2 over plain text (h2c)
+ * and multiplexes concurrent calls on one connection. Unlike Apache HttpClient it does not
+ * negotiate compression itself, so Accept-Encoding is sent and gzip or deflate bodies are inflated here.
+ */
+public class JdkClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private static final Set<String> RESTRICTED_HEADERS = Set.of(
+            "connection", "content-length", "expect", "host", "upgrade");
+
+    private final HttpClient httpClient;
+
+    private final Duration readTimeout;
+
+    private final boolean compression;
+
+    public JdkClientHttpRequestFactory(HttpClient httpClient, Duration readTimeout, boolean compression) {
+        this.httpClient = httpClient;
+        this.readTimeout = readTimeout;
+        this.compression = compression;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new JdkClientHttpRequest(uri, httpMethod);
+    }
+
+    private class JdkClientHttpRequest extends AbstractClientHttpRequest {
+
+        private final URI uri;
+
+        private final HttpMethod method;
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+        private JdkClientHttpRequest(URI uri, HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return method.name();
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return body;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                    .timeout(readTimeout)
+                    .method(method.name(), body.size() == 0
+                            ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()));
+            headers.forEach((name, values) -> {
+                if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                    values.forEach(value -> request.header(name, value));
+                }
+            });
+            if (compression && !headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+                request.header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+            }
+            try {
+                return new JdkClientHttpResponse(httpClient.send(request.build(),
+                        HttpResponse.BodyHandlers.ofInputStream()));
+            } catch (HttpTimeoutException e) {
+                // Reported like an Apache HttpClient read timeout, which the gateway answers with 504
+                SocketTimeoutException timeout = new SocketTimeoutException(e.getMessage());
+                timeout.initCause(e);
+                throw timeout;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(e.getMessage());
+            }
+        }
+    }
+
+    private static class JdkClientHttpResponse implements ClientHttpResponse {
+
+        private final HttpResponse<InputStream> response;
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private final String contentEncoding;
+
+        private InputStream body;
+
+        private JdkClientHttpResponse(HttpResponse<InputStream> response) {
+            this.response = response;
+            response.headers().map().forEach((name, values) -> {
+                // The pseudo headers of HTTP/2 are not headers to Spring
+                if (!name.startsWith(":")) {
+                    headers.addAll(name, values);
+                }
+            });
+            this.contentEncoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+            if (contentEncoding != null) {
+                // The body handed on is the inflated one, so its length and encoding no longer apply
+                headers.remove(HttpHeaders.CONTENT_ENCODING);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+            }
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            return HttpStatus.valueOf(response.statusCode());
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String getStatusText() {
+            HttpStatus status = HttpStatus.resolve(response.statusCode());
+            return status == null ? "" : status.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = inflate(response.body());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                (body != null ? body : response.body()).close();
+            } catch (IOException ignored) {
+                // Nothing left to release once the stream is gone
+            }
+        }
+
+        private InputStream inflate(InputStream encoded) throws IOException {
+            if ("gzip".equalsIgnoreCase(contentEncoding)) {
+                return new GZIPInputStream(encoded);
+            }
+            if ("deflate".equalsIgnoreCase(contentEncoding)) {
+                return new InflaterInputStream(encoded);
+            }
+            return encoded;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package alexander.sergeev.stuff_sharing_app.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class ResponseCache implements MeterBinder {
+
+    private final Cache<String, CachedResponse> cache;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder savedBytes = new LongAdder();
+
+    public ResponseCache(
+            @org.springframework.beans.factory.annotation.Value(
+                    "${stuff_sharing_app.client.response-cache.maximum-size:10000}") long maximumSize,
+            @org.springframework.beans.factory.annotation.Value(
+                    "${stuff_sharing_app.client.response-cache.expire-after-access-seconds:600}") long expireSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(Duration.ofSeconds(expireSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, String eTag, @Nullable MediaType contentType, byte[] body) {
+        cache.put(key, new CachedResponse(eTag, contentType, body));
+    }
+
+    public void invalidate(String key) {
+        cache.invalidate(key);
+    }
+
+    public void recordHit(long notTransferredBytes) {
+        hitCount.increment();
+        savedBytes.add(notTransferredBytes);
+    }
+
+    public void recordMiss() {
+        missCount.increment();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("gateway.response.cache.requests", hitCount, LongAdder::doubleValue)
+                .tag("result", "hit")
+                .description("Conditional reads answered without a response body from the server")
+                .register(registry);
+        FunctionCounter.builder("gateway.response.cache.requests", missCount, LongAdder::doubleValue)
+                .tag("result", "miss")
+                .description("Conditional reads that had to transfer a response body from the server")
+                .register(registry);
+        FunctionCounter.builder("gateway.response.cache.saved", savedBytes, LongAdder::doubleValue)
+                .baseUnit("bytes")
+                .description("Response body bytes that were not transferred thanks to revalidation")
+                .register(registry);
+        CaffeineCacheMetrics.monitor(registry, cache, "gateway.responses");
+    }
+
+    @Value
+    public static class CachedResponse {
+
+        String eTag;
+
+        @Nullable
+        MediaType contentType;
+
+        byte[] body;
+
+        public long getSize() {
+            return body.length;
+        }
+
+    }
+}
@@ -0,0 +1,207 @@
+package alexander.sergeev.stuff_sharing_app.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+public class SingleFlight implements MeterBinder {
+
+    public enum Scope {
+        // The answer depends on the caller, so only calls of the same user share it
+        USER,
+        // Every existing user gets the same answer, like search results
+        PUBLIC
+    }
+
+    private final boolean enabled;
+
+    private final long maxWaitMillis;
+
+    private final Map<String, CompletableFuture<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
+
+    private final Cache<Long, Boolean> knownUsers;
+
+    private final LongAdder upstreamCalls = new LongAdder();
+
+    private final LongAdder savedCalls = new LongAdder();
+
+    private final LongAdder timedOutWaits = new LongAdder();
+
+    public SingleFlight(@Value("${stuff_sharing_app.client.single-flight.enabled:true}") boolean enabled,
+                        @Value("${stuff_sharing_app.client.single-flight.max-wait-millis:2000}") long maxWaitMillis,
+                        @Value("${stuff_sharing_app.client.single-flight.known-users.maximum-size:100000}")
+                        long knownUsersMaximumSize,
+                        @Value("${stuff_sharing_app.client.single-flight.known-users.ttl-seconds:60}")
+                        long knownUsersTtlSeconds) {
+        this.enabled = enabled;
+        this.maxWaitMillis = maxWaitMillis;
+        this.knownUsers = Caffeine.newBuilder()
+                .maximumSize(knownUsersMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(knownUsersTtlSeconds))
+                .build();
+    }
+
+    public static String key(String method, String uri, Scope scope, Long userId) {
+        return method + " " + uri + " " + (scope == Scope.PUBLIC ? "*" : String.valueOf(userId));
+    }
+
+    /**
+     * The server checks the caller on every call, so a public flight is only joined by users it recently
+     * answered with a success. Anyone else keeps a flight of their own and gets their own error.
+     */
+    public boolean isKnownUser(long userId) {
+        return knownUsers.getIfPresent(userId) != null;
+    }
+
+    public void rememberUser(long userId) {
+        knownUsers.put(userId, Boolean.TRUE);
+    }
+
+    public void forgetUser(long userId) {
+        knownUsers.invalidate(userId);
+    }
+
+    public ResponseEntity<Object> execute(String key, Supplier<ResponseEntity<Object>> upstreamCall) {
+        if (!enabled) {
+            return upstreamCall.get();
+        }
+        CompletableFuture<ResponseEntity<Object>> call = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> leaderCall = inFlight.putIfAbsent(key, call);
+        if (leaderCall == null) {
+            return lead(key, call, upstreamCall);
+        }
+        try {
+            ResponseEntity<Object> response = leaderCall.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+            if (isShareable(response)) {
+                savedCalls.increment();
+                return response;
+            }
+        } catch (TimeoutException e) {
+            // Waiting longer than a call of its own would take defeats the purpose, so go upstream alone
+            timedOutWaits.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        upstreamCalls.increment();
+        return upstreamCall.get();
+    }
+
+    private ResponseEntity<Object> lead(String key, CompletableFuture<ResponseEntity<Object>> call,
+                                        Supplier<ResponseEntity<Object>> upstreamCall) {
+        upstreamCalls.increment();
+        try {
+            ResponseEntity<Object> response = upstreamCall.get();
+            call.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * The async mode counterpart of {@link #execute}: followers get a future of the leader's response
+     * instead of a thread parked on it.
+     */
+    public CompletableFuture<ResponseEntity<Object>> executeAsync(
+            String key, Supplier<CompletableFuture<ResponseEntity<Object>>> upstreamCall) {
+        if (!enabled) {
+            return upstreamCall.get();
+        }
+        CompletableFuture<ResponseEntity<Object>> call = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> leaderCall = inFlight.putIfAbsent(key, call);
+        if (leaderCall == null) {
+            return leadAsync(key, call, upstreamCall);
+        }
+        return leaderCall.copy()
+                .orTimeout(maxWaitMillis, TimeUnit.MILLISECONDS)
+                .handle((response, e) -> {
+                    if (e == null && isShareable(response)) {
+                        savedCalls.increment();
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    if (e instanceof TimeoutException) {
+                        timedOutWaits.increment();
+                    } else if (e != null) {
+                        return CompletableFuture.<ResponseEntity<Object>>failedFuture(
+                                e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                    }
+                    upstreamCalls.increment();
+                    return upstreamCall.get();
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> leadAsync(
+            String key, CompletableFuture<ResponseEntity<Object>> call,
+            Supplier<CompletableFuture<ResponseEntity<Object>>> upstreamCall) {
+        upstreamCalls.increment();
+        CompletableFuture<ResponseEntity<Object>> response;
+        try {
+            response = upstreamCall.get();
+        } catch (RuntimeException e) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+        return response.whenComplete((result, e) -> {
+            inFlight.remove(key, call);
+            if (e != null) {
+                call.completeExceptionally(e);
+            } else {
+                call.complete(result);
+            }
+        });
+    }
+
+    // An error may be about the leader's own user, like an unknown user id, so only successes are shared
+    private static boolean isShareable(ResponseEntity<Object> response) {
+        return response.getStatusCode().is2xxSuccessful() || response.getStatusCode() == HttpStatus.NOT_MODIFIED;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("gateway.single.flight.calls", upstreamCalls, LongAdder::doubleValue)
+                .tag("result", "upstream")
+                .description("Coalescable reads that went to the server")
+                .register(registry);
+        FunctionCounter.builder("gateway.single.flight.calls", savedCalls, LongAdder::doubleValue)
+                .tag("result", "saved")
+                .description("Coalescable reads answered with the response of an identical in-flight call")
+                .register(registry);
+        FunctionCounter.builder("gateway.single.flight.calls", timedOutWaits, LongAdder::doubleValue)
+                .tag("result", "timeout")
+                .description("Coalescable reads that stopped waiting and went to the server on their own")
+                .register(registry);
+        Gauge.builder("gateway.single.flight.in.flight", inFlight, Map::size)
+                .description("Distinct coalescable reads currently in flight")
+                .register(registry);
+    }
+}
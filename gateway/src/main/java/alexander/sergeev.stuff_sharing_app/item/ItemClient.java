@@ -1,18 +1,29 @@
 package alexander.sergeev.stuff_sharing_app.item;
 
 import alexander.sergeev.stuff_sharing_app.client.BaseClient;
+import alexander.sergeev.stuff_sharing_app.client.ClientIsolation;
+import alexander.sergeev.stuff_sharing_app.client.ClientMetrics;
+import alexander.sergeev.stuff_sharing_app.client.ResponseCache;
+import alexander.sergeev.stuff_sharing_app.client.SingleFlight;
+import alexander.sergeev.stuff_sharing_app.client.WebClientFactory;
 import alexander.sergeev.stuff_sharing_app.comment.dto.IncomingCommentDto;
 import alexander.sergeev.stuff_sharing_app.item.dto.IncomingItemDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemClient extends BaseClient {
@@ -20,40 +31,68 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${stuff_sharing_app_server_url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${stuff_sharing_app_server_url}") String serverUrl,
+                      RestTemplateBuilder builder,
+                      ClientIsolation clientIsolation,
+                      ClientMetrics clientMetrics,
+                      ResponseCache responseCache,
+                      SingleFlight singleFlight,
+                      @Nullable WebClientFactory webClientFactory) {
         super(builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build());
+                .requestFactory(() -> clientIsolation.requestFactory("items"))
+                .additionalInterceptors(clientIsolation.interceptor("items"), clientMetrics.interceptor("items"))
+                .build(),
+                webClientFactory == null ? null : webClientFactory.create("items", serverUrl + API_PREFIX),
+                responseCache, singleFlight);
     }
 
-    public ResponseEntity<Object> getAllOwnerItems(Long ownerId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllOwnerItems(Long ownerId, Integer from, Integer size) {
         return get("?from={from}&size={size}", ownerId, Map.of("from", from, "size", size));
     }
 
-    public ResponseEntity<Object> getItemById(Long ownerId, Long itemId) {
-        return get("/" + itemId, ownerId);
+    public CompletableFuture<ResponseEntity<Object>> getAllOwnerItemsAfter(Long ownerId, String after, Integer size) {
+        return get("?after={after}&size={size}", ownerId, Map.of("after", after, "size", size));
     }
 
-    public ResponseEntity<Object> getItemsBySearch(Integer from, Integer size, Long userId, String text) {
-        return get("/search?from={from}&size={size}&text={text}", userId,
+    public void exportOwnerItems(Long ownerId, HttpServletResponse response) throws IOException {
+        stream("/export", ownerId, response);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getItemById(Long ownerId, Long itemId, String ifNoneMatch) {
+        return getConditional("/" + itemId, ownerId, ifNoneMatch);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getItemAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId,
+                Map.of("from", from.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                        "to", to.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)));
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getItemsBySearch(Integer from, Integer size, Long userId, String text) {
+        // Search results do not depend on the caller, so identical searches of different users share a call
+        return getCoalesced("/search?from={from}&size={size}&text={text}", userId,
                 Map.of("from", from, "size", size, "text", text));
     }
 
-    public ResponseEntity<Object> postItem(Long ownerId, IncomingItemDto incomingItemDto) {
+    public CompletableFuture<ResponseEntity<Object>> postItem(Long ownerId, IncomingItemDto incomingItemDto) {
         return post("", ownerId, incomingItemDto);
     }
 
-    public ResponseEntity<Object> postComment(Long authorId, Long itemId, IncomingCommentDto incomingCommentDto) {
+    public CompletableFuture<ResponseEntity<Object>> postItems(Long ownerId, List<IncomingItemDto> incomingItemDtoList) {
+        return post("/batch", ownerId, incomingItemDtoList);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> postComment(Long authorId, Long itemId, IncomingCommentDto incomingCommentDto) {
         return post("/" + itemId + "/comment", authorId, incomingCommentDto);
     }
 
-    public ResponseEntity<Object> patchItemById(Long ownerId, Long itemId, IncomingItemDto incomingItemDto) {
+    public CompletableFuture<ResponseEntity<Object>> patchItemById(Long ownerId, Long itemId, IncomingItemDto incomingItemDto) {
         return patch("/" + itemId, ownerId, incomingItemDto);
     }
 
     @DeleteMapping("/{itemId}")
-    public ResponseEntity<Object> deleteItemById(Long ownerId, Long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> deleteItemById(Long ownerId, Long itemId) {
         return delete("/" + itemId, ownerId);
     }
 }
\ No newline at end of file
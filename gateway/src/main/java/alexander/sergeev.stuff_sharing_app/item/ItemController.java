@@ -2,25 +2,31 @@ package alexander.sergeev.stuff_sharing_app.item;
 
 import alexander.sergeev.stuff_sharing_app.comment.dto.IncomingCommentDto;
 import alexander.sergeev.stuff_sharing_app.item.dto.IncomingItemDto;
+import alexander.sergeev.stuff_sharing_app.validation.AvailabilityPeriodValidation;
 import alexander.sergeev.stuff_sharing_app.validation.ValidationMarker;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
 
-@Slf4j
 @Controller
 @RequestMapping("/items")
 @Validated
@@ -30,71 +36,91 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAllOwnerItems(
-            HttpServletRequest request,
+    public CompletableFuture<ResponseEntity<Object>> getAllOwnerItems(
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero Integer from,
             @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(20) Integer size,
             @RequestHeader(header) @Positive Long ownerId) {
-        log.info("Id-{} {} {}?{}", ownerId, request.getMethod(), request.getRequestURI(), request.getQueryString());
         return itemClient.getAllOwnerItems(ownerId, from, size);
     }
 
+    @GetMapping(params = "after")
+    public CompletableFuture<ResponseEntity<Object>> getAllOwnerItemsAfter(
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(20) Integer size,
+            @RequestHeader(header) @Positive Long ownerId) {
+        return itemClient.getAllOwnerItemsAfter(ownerId, after, size);
+    }
+
+    @GetMapping("/export")
+    public void exportOwnerItems(
+            HttpServletResponse response,
+            @RequestHeader(header) @Positive Long ownerId) throws IOException {
+        itemClient.exportOwnerItems(ownerId, response);
+    }
+
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(
-            HttpServletRequest request,
+    public CompletableFuture<ResponseEntity<Object>> getItemById(
             @RequestHeader(header) @Positive Long ownerId,
-            @PathVariable @Positive Long itemId) {
-        log.info("Id-{} {} {}", ownerId, request.getMethod(), request.getRequestURI());
-        return itemClient.getItemById(ownerId, itemId);
+            @PathVariable @Positive Long itemId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return itemClient.getItemById(ownerId, itemId, ifNoneMatch);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    @AvailabilityPeriodValidation
+    public CompletableFuture<ResponseEntity<Object>> getItemAvailability(
+            @RequestHeader(header) @Positive Long userId,
+            @PathVariable @Positive Long itemId,
+            @RequestParam(value = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemClient.getItemAvailability(userId, itemId, from, to);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> getItemsBySearch(
-            HttpServletRequest request,
+    public CompletableFuture<ResponseEntity<Object>> getItemsBySearch(
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero Integer from,
             @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(20) Integer size,
             @RequestHeader(header) @Positive Long userId,
             @RequestParam(value = "text") String text) {
-        log.info("Id-{} {} {}?{}", userId, request.getMethod(), request.getRequestURI(), request.getQueryString());
-        if (text.isBlank()) return new ResponseEntity<>(Collections.EMPTY_LIST, HttpStatus.OK);
+        if (text.isBlank()) return CompletableFuture.completedFuture(new ResponseEntity<>(Collections.EMPTY_LIST, HttpStatus.OK));
         return itemClient.getItemsBySearch(from, size, userId, text);
     }
 
     @PostMapping
-    public ResponseEntity<Object> postItem(
-            HttpServletRequest request,
+    public CompletableFuture<ResponseEntity<Object>> postItem(
             @RequestHeader(header) @Positive Long ownerId,
             @RequestBody @Validated(ValidationMarker.OnCreate.class) IncomingItemDto incomingItemDto) {
-        log.info("Id-{} {} {} {}", ownerId, request.getMethod(), request.getRequestURI(), incomingItemDto);
         return itemClient.postItem(ownerId, incomingItemDto);
     }
 
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<Object>> postItems(
+            @RequestHeader(header) @Positive Long ownerId,
+            @RequestBody @Size(min = 1, max = 10000, message = "Batch must contain from 1 to 10000 items!")
+            List<IncomingItemDto> incomingItemDtoList) {
+        return itemClient.postItems(ownerId, incomingItemDtoList);
+    }
+
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> postComment(
-            HttpServletRequest request,
+    public CompletableFuture<ResponseEntity<Object>> postComment(
             @RequestHeader(header) @Positive Long authorId,
             @PathVariable @Positive Long itemId,
             @RequestBody @Validated(ValidationMarker.OnCreate.class) IncomingCommentDto incomingCommentDto) {
-        log.info("Id-{} {} {} {}", authorId, request.getMethod(), request.getRequestURI(), incomingCommentDto);
         return itemClient.postComment(authorId, itemId, incomingCommentDto);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> patchItemById(
-            HttpServletRequest request,
+    public CompletableFuture<ResponseEntity<Object>> patchItemById(
             @RequestHeader(header) @Positive Long ownerId,
             @PathVariable @Positive Long itemId,
             @RequestBody @Validated(ValidationMarker.OnUpdate.class) IncomingItemDto incomingItemDto) {
-        log.info("Id-{} {} {} {}", ownerId, request.getMethod(), request.getRequestURI(), incomingItemDto);
         return itemClient.patchItemById(ownerId, itemId, incomingItemDto);
     }
 
     @DeleteMapping("/{itemId}")
-    public ResponseEntity<Object> deleteItemById(
-            HttpServletRequest request,
+    public CompletableFuture<ResponseEntity<Object>> deleteItemById(
             @RequestHeader(header) @Positive Long ownerId,
             @PathVariable @Positive Long itemId) {
-        log.info("Id-{} {} {}", ownerId, request.getMethod(), request.getRequestURI());
         return itemClient.deleteItemById(ownerId, itemId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package alexander.sergeev.stuff_sharing_app.ratelimit;
+
+import org.springframework.http.HttpMethod;
+
+public enum EndpointGroup {
+    SEARCH, READ, WRITE;
+
+    public static EndpointGroup of(String method, String uri) {
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return WRITE;
+        }
+        return uri.endsWith("/items/search") ? SEARCH : READ;
+    }
+}
@@ -0,0 +1,26 @@
+package alexander.sergeev.stuff_sharing_app.ratelimit;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+@Getter
+public class Rate {
+
+    private final long intervalNanos;
+
+    private final long burstNanos;
+
+    /**
+     * @param permitsPerSecond sustained rate a bucket refills at
+     * @param burst            permits a full bucket holds, so a quiet user may send this many at once
+     */
+    public Rate(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must allow at least one permit : "
+                    + permitsPerSecond + "/s, burst " + burst);
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstNanos = intervalNanos * burst;
+    }
+}
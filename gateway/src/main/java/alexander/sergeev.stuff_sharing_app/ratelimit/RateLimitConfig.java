@@ -0,0 +1,40 @@
+package alexander.sergeev.stuff_sharing_app.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "stuff_sharing_app.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimiter rateLimiter(
+            @Value("${stuff_sharing_app.rate-limit.search.permits-per-second:5}") double searchPermitsPerSecond,
+            @Value("${stuff_sharing_app.rate-limit.search.burst:10}") int searchBurst,
+            @Value("${stuff_sharing_app.rate-limit.read.permits-per-second:50}") double readPermitsPerSecond,
+            @Value("${stuff_sharing_app.rate-limit.read.burst:100}") int readBurst,
+            @Value("${stuff_sharing_app.rate-limit.write.permits-per-second:10}") double writePermitsPerSecond,
+            @Value("${stuff_sharing_app.rate-limit.write.burst:20}") int writeBurst,
+            @Value("${stuff_sharing_app.rate-limit.maximum-users:100000}") long maximumUsers) {
+        return new RateLimiter(Map.of(
+                EndpointGroup.SEARCH, new Rate(searchPermitsPerSecond, searchBurst),
+                EndpointGroup.READ, new Rate(readPermitsPerSecond, readBurst),
+                EndpointGroup.WRITE, new Rate(writePermitsPerSecond, writeBurst)),
+                maximumUsers, System::nanoTime);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimiter rateLimiter) {
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(rateLimiter));
+        // After tracing and the access log, so rejected requests still show up in both
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
@@ -0,0 +1,57 @@
+package alexander.sergeev.stuff_sharing_app.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Long userId = userId(request);
+        if (userId == null) {
+            // Left to header validation, which answers before anything reaches the server
+            filterChain.doFilter(request, response);
+            return;
+        }
+        EndpointGroup group = EndpointGroup.of(request.getMethod(), request.getRequestURI());
+        long waitNanos = rateLimiter.tryAcquire(userId, group);
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("TooManyRequestsException : Rate limit of "
+                + group.name().toLowerCase() + " requests exceeded for user " + userId);
+    }
+
+    private static Long userId(HttpServletRequest request) {
+        String userId = request.getHeader(header);
+        if (userId == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(userId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package alexander.sergeev.stuff_sharing_app.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+public class RateLimiter implements MeterBinder {
+
+    private final Map<EndpointGroup, Rate> rates;
+
+    private final Map<EndpointGroup, Cache<Long, TokenBucket>> buckets = new EnumMap<>(EndpointGroup.class);
+
+    private final Map<EndpointGroup, LongAdder> allowedCounts = new EnumMap<>(EndpointGroup.class);
+
+    private final Map<EndpointGroup, LongAdder> rejectedCounts = new EnumMap<>(EndpointGroup.class);
+
+    private final LongSupplier nanoClock;
+
+    public RateLimiter(Map<EndpointGroup, Rate> rates, long maximumUsers, LongSupplier nanoClock) {
+        this.rates = new EnumMap<>(rates);
+        this.nanoClock = nanoClock;
+        for (EndpointGroup group : EndpointGroup.values()) {
+            Rate rate = rates.get(group);
+            if (rate == null) {
+                throw new IllegalArgumentException("No rate limit configured for " + group);
+            }
+            // An idle bucket expires when it would be full again, so expiry never hands out extra permits
+            buckets.put(group, Caffeine.newBuilder()
+                    .maximumSize(maximumUsers)
+                    .expireAfterAccess(Duration.ofNanos(rate.getBurstNanos()))
+                    .build());
+            allowedCounts.put(group, new LongAdder());
+            rejectedCounts.put(group, new LongAdder());
+        }
+    }
+
+    /**
+     * @return 0 when the request may go on, otherwise nanoseconds until the user may retry
+     */
+    public long tryAcquire(long userId, EndpointGroup group) {
+        long now = nanoClock.getAsLong();
+        long waitNanos = buckets.get(group)
+                .get(userId, key -> new TokenBucket(now))
+                .tryAcquire(now, rates.get(group));
+        (waitNanos == 0 ? allowedCounts : rejectedCounts).get(group).increment();
+        return waitNanos;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (EndpointGroup group : EndpointGroup.values()) {
+            String groupTag = group.name().toLowerCase();
+            FunctionCounter.builder("gateway.rate.limit.requests", allowedCounts.get(group), LongAdder::doubleValue)
+                    .tags("group", groupTag, "result", "allowed")
+                    .description("Requests let through by the per-user rate limiter")
+                    .register(registry);
+            FunctionCounter.builder("gateway.rate.limit.requests", rejectedCounts.get(group), LongAdder::doubleValue)
+                    .tags("group", groupTag, "result", "rejected")
+                    .description("Requests answered with 429 by the per-user rate limiter")
+                    .register(registry);
+            Gauge.builder("gateway.rate.limit.buckets", buckets.get(group), Cache::estimatedSize)
+                    .tag("group", groupTag)
+                    .description("Users currently holding a token bucket")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package alexander.sergeev.stuff_sharing_app.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single timestamp, the time at which the bucket would be full again
+ * (the generic cell rate algorithm). Taking a permit is one compare-and-set, so concurrent requests
+ * of a user never block each other.
+ */
+final class TokenBucket {
+
+    private final AtomicLong fullAt;
+
+    TokenBucket(long now) {
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * @return 0 when a permit was taken, otherwise nanoseconds until the next permit
+     */
+    long tryAcquire(long now, Rate rate) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + rate.getIntervalNanos();
+            long waitNanos = next - now - rate.getBurstNanos();
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package alexander.sergeev.stuff_sharing_app.request;
 
 import alexander.sergeev.stuff_sharing_app.client.BaseClient;
+import alexander.sergeev.stuff_sharing_app.client.ClientIsolation;
+import alexander.sergeev.stuff_sharing_app.client.ClientMetrics;
+import alexander.sergeev.stuff_sharing_app.client.ResponseCache;
+import alexander.sergeev.stuff_sharing_app.client.SingleFlight;
+import alexander.sergeev.stuff_sharing_app.client.WebClientFactory;
 import alexander.sergeev.stuff_sharing_app.request.dto.IncomingRequestDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class RequestClient extends BaseClient {
@@ -18,26 +24,43 @@ public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public RequestClient(@Value("${stuff_sharing_app_server_url}") String serverUrl, RestTemplateBuilder builder) {
+    public RequestClient(@Value("${stuff_sharing_app_server_url}") String serverUrl,
+                         RestTemplateBuilder builder,
+                         ClientIsolation clientIsolation,
+                         ClientMetrics clientMetrics,
+                         ResponseCache responseCache,
+                         SingleFlight singleFlight,
+                         @Nullable WebClientFactory webClientFactory) {
         super(builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build());
+                .requestFactory(() -> clientIsolation.requestFactory("requests"))
+                .additionalInterceptors(clientIsolation.interceptor("requests"), clientMetrics.interceptor("requests"))
+                .build(),
+                webClientFactory == null ? null : webClientFactory.create("requests", serverUrl + API_PREFIX),
+                responseCache, singleFlight);
     }
 
-    public ResponseEntity<Object> getAllRequesterRequests(Long requesterId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllRequesterRequests(Long requesterId, Integer from, Integer size) {
         return get("?from={from}&size={size}", requesterId, Map.of("from", from, "size", size));
     }
 
-    public ResponseEntity<Object> getAllRequests(Long userId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllRequests(Long userId, Integer from, Integer size) {
         return get("/all?from={from}&size={size}", userId, Map.of("from", from, "size", size));
     }
 
-    public ResponseEntity<Object> getRequestById(Long userId, Long requestId) {
-        return get("/" + requestId, userId);
+    public CompletableFuture<ResponseEntity<Object>> getAllRequesterRequestsAfter(Long requesterId, String after, Integer size) {
+        return get("?after={after}&size={size}", requesterId, Map.of("after", after, "size", size));
     }
 
-    public ResponseEntity<Object> postRequest(Long requesterId, IncomingRequestDto incomingRequestDto) {
+    public CompletableFuture<ResponseEntity<Object>> getAllRequestsAfter(Long userId, String after, Integer size) {
+        return get("/all?after={after}&size={size}", userId, Map.of("after", after, "size", size));
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getRequestById(Long userId, Long requestId, String ifNoneMatch) {
+        return getConditional("/" + requestId, userId, ifNoneMatch);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> postRequest(Long requesterId, IncomingRequestDto incomingRequestDto) {
         return post("", requesterId, incomingRequestDto);
     }
 }
\ No newline at end of file
@@ -3,21 +3,21 @@ package alexander.sergeev.stuff_sharing_app.request;
 import alexander.sergeev.stuff_sharing_app.request.dto.IncomingRequestDto;
 import alexander.sergeev.stuff_sharing_app.validation.ValidationMarker;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import javax.servlet.http.HttpServletRequest;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
+import java.util.concurrent.CompletableFuture;
+
 import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
 
-@Slf4j
 @Controller
 @RequestMapping("/requests")
 @Validated
@@ -27,40 +27,49 @@ public class RequestController {
     private final RequestClient requestClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAllRequesterRequests(
-            HttpServletRequest request,
+    public CompletableFuture<ResponseEntity<Object>> getAllRequesterRequests(
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero Integer from,
             @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(20) Integer size,
             @RequestHeader(header) @Positive Long requesterId) {
-        log.info("Id-{} {} {}?{}", requesterId, request.getMethod(), request.getRequestURI(), request.getQueryString());
         return requestClient.getAllRequesterRequests(requesterId, from, size);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequests(
-            HttpServletRequest request,
+    public CompletableFuture<ResponseEntity<Object>> getAllRequests(
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero Integer from,
             @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(20) Integer size,
             @RequestHeader(header) @Positive Long userId) {
-        log.info("Id-{} {} {}?{}", userId, request.getMethod(), request.getRequestURI(), request.getQueryString());
         return requestClient.getAllRequests(userId, from, size);
     }
 
+    @GetMapping(params = "after")
+    public CompletableFuture<ResponseEntity<Object>> getAllRequesterRequestsAfter(
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(20) Integer size,
+            @RequestHeader(header) @Positive Long requesterId) {
+        return requestClient.getAllRequesterRequestsAfter(requesterId, after, size);
+    }
+
+    @GetMapping(path = "/all", params = "after")
+    public CompletableFuture<ResponseEntity<Object>> getAllRequestsAfter(
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(20) Integer size,
+            @RequestHeader(header) @Positive Long userId) {
+        return requestClient.getAllRequestsAfter(userId, after, size);
+    }
+
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(
-            HttpServletRequest request,
+    public CompletableFuture<ResponseEntity<Object>> getRequestById(
             @RequestHeader(header) @Positive Long userId,
-            @PathVariable @Positive Long requestId) {
-        log.info("Id-{} {} {}", userId, request.getMethod(), request.getRequestURI());
-        return requestClient.getRequestById(userId, requestId);
+            @PathVariable @Positive Long requestId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return requestClient.getRequestById(userId, requestId, ifNoneMatch);
     }
 
     @PostMapping
-    public ResponseEntity<Object> postRequest(
-            HttpServletRequest request,
+    public CompletableFuture<ResponseEntity<Object>> postRequest(
             @RequestHeader(header) @Positive Long requesterId,
             @RequestBody @Validated(ValidationMarker.OnCreate.class) IncomingRequestDto incomingRequestDto) {
-        log.info("Id-{} {} {} {}", requesterId, request.getMethod(), request.getRequestURI(), incomingRequestDto);
         return requestClient.postRequest(requesterId, incomingRequestDto);
     }
 }
\ No newline at end of file
@@ -1,28 +1,35 @@
 package alexander.sergeev.stuff_sharing_app.test;
 
 import alexander.sergeev.stuff_sharing_app.client.BaseClient;
+import alexander.sergeev.stuff_sharing_app.client.ClientMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class TestClient extends BaseClient {
 
     private static final String API_PREFIX = "/test";
 
     @Autowired
-    public TestClient(@Value("${stuff_sharing_app_server_url}") String serverUrl, RestTemplateBuilder builder) {
+    public TestClient(@Value("${stuff_sharing_app_server_url}") String serverUrl,
+                      RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory,
+                      ClientMetrics clientMetrics) {
         super(builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                .requestFactory(() -> requestFactory)
+                .additionalInterceptors(clientMetrics.interceptor("test"))
                 .build());
     }
 
-    public ResponseEntity<Object> getTest() {
+    public CompletableFuture<ResponseEntity<Object>> getTest() {
         return get("");
     }
 }
\ No newline at end of file
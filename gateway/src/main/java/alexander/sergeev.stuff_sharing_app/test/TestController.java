@@ -8,6 +8,8 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import java.util.concurrent.CompletableFuture;
+
 @Controller
 @RequestMapping(path = "/test")
 @RequiredArgsConstructor
@@ -18,7 +20,7 @@ public class TestController {
     private final TestClient testClient;
 
     @GetMapping
-    public ResponseEntity<Object> getTest() {
+    public CompletableFuture<ResponseEntity<Object>> getTest() {
         return testClient.getTest();
     }
 }
\ No newline at end of file
@@ -1,47 +1,64 @@
 package alexander.sergeev.stuff_sharing_app.user;
 
 import alexander.sergeev.stuff_sharing_app.client.BaseClient;
+import alexander.sergeev.stuff_sharing_app.client.ClientIsolation;
+import alexander.sergeev.stuff_sharing_app.client.ClientMetrics;
+import alexander.sergeev.stuff_sharing_app.client.SingleFlight;
+import alexander.sergeev.stuff_sharing_app.client.WebClientFactory;
 import alexander.sergeev.stuff_sharing_app.user.dto.UserDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class UserClient extends BaseClient {
 
     private static final String API_PREFIX = "/users";
 
+    private final SingleFlight singleFlight;
+
     @Autowired
-    public UserClient(@Value("${stuff_sharing_app_server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${stuff_sharing_app_server_url}") String serverUrl,
+                      RestTemplateBuilder builder,
+                      ClientIsolation clientIsolation,
+                      ClientMetrics clientMetrics,
+                      SingleFlight singleFlight,
+                      @Nullable WebClientFactory webClientFactory) {
         super(builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build());
+                .requestFactory(() -> clientIsolation.requestFactory("users"))
+                .additionalInterceptors(clientIsolation.interceptor("users"), clientMetrics.interceptor("users"))
+                .build(), webClientFactory == null ? null : webClientFactory.create("users", serverUrl + API_PREFIX));
+        this.singleFlight = singleFlight;
     }
 
-    public ResponseEntity<Object> getAllUsers(Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllUsers(Integer from, Integer size) {
         return get("?from={from}&size={size}", null, Map.of("from", from, "size", size));
     }
 
-    public ResponseEntity<Object> getUserById(Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getUserById(Long userId) {
         return get("/" + userId);
     }
 
-    public ResponseEntity<Object> postUser(UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> postUser(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> patchUserById(Long userId, UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> patchUserById(Long userId, UserDto userDto) {
         return patch("/" + userId, userDto);
     }
 
-    public ResponseEntity<Object> deleteUserById(Long userId) {
-        return delete("/" + userId);
+    public CompletableFuture<ResponseEntity<Object>> deleteUserById(Long userId) {
+        // A deleted user must not join shared public reads until the known-user entry would have expired.
+        // A read that succeeded while the delete was in flight may have vouched for the user again, so forget twice
+        singleFlight.forgetUser(userId);
+        return delete("/" + userId).whenComplete((response, e) -> singleFlight.forgetUser(userId));
     }
 }
\ No newline at end of file
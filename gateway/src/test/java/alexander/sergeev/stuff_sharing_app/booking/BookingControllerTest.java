@@ -1,5 +1,6 @@
 package alexander.sergeev.stuff_sharing_app.booking;
 
+import alexander.sergeev.stuff_sharing_app.batch.dto.BatchResultDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.IncomingBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.OutgoingBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
@@ -17,6 +18,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 
@@ -26,6 +30,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -69,20 +74,20 @@ class BookingControllerTest {
     @SneakyThrows
     void getAllUserBookings_whenAllParamsAreValid_shouldInvokeClientMethod_andReturnBookingList() {
         when(bookingClient.getAllUserBookings(2L, "ALL",
-                0, 20))
-                .thenReturn(new ResponseEntity<>(List.of(outgoingBookingDto), HttpStatus.OK));
-        mockMvc.perform(get("/bookings?state=ALL&from=0&size=20")
+                0, 20, "full"))
+                .thenReturn(completedFuture(new ResponseEntity<>(List.of(outgoingBookingDto), HttpStatus.OK)));
+        perform(get("/bookings?state=ALL&from=0&size=20")
                         .header(header, 2))
                 .andExpect(status().isOk())
                 .andExpect(content().string(objectMapper
                         .writeValueAsString(List.of(outgoingBookingDto))));
-        verify(bookingClient).getAllUserBookings(2L, "ALL", 0, 20);
+        verify(bookingClient).getAllUserBookings(2L, "ALL", 0, 20, "full");
     }
 
     @Test
     @SneakyThrows
     void getAllUserBookings_whenNotValidRequestHeader_shouldThrowMissingRequestHeaderException() {
-        mockMvc.perform(get("/bookings?state=ALL&from=0&size=20")
+        perform(get("/bookings?state=ALL&from=0&size=20")
                         .header("WRONG-HEADER", "WRONG-VALUE"))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
@@ -99,7 +104,7 @@ class BookingControllerTest {
     @Test
     @SneakyThrows
     void getAllUserBookings_whenNotValidFromAndSize_shouldThrowConstraintViolationException() {
-        mockMvc.perform(get("/bookings?from=-1&size=0")
+        perform(get("/bookings?from=-1&size=0")
                         .header(header, 2))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
@@ -117,7 +122,7 @@ class BookingControllerTest {
     @Test
     @SneakyThrows
     void getAllUserBookings_whenWrongState_shouldThrowConstraintViolationException() {
-        mockMvc.perform(get("/bookings?state=WRONG-STATE")
+        perform(get("/bookings?state=WRONG-STATE")
                         .header(header, 2))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
@@ -133,20 +138,43 @@ class BookingControllerTest {
     @SneakyThrows
     void getAllOwnerItemBookings_whenAllParamsAreValid_shouldInvokeClientMethod_andReturnBookingList() {
         when(bookingClient.getAllOwnerItemBookings(1L, "ALL",
-                0, 20))
-                .thenReturn(new ResponseEntity<>(List.of(outgoingBookingDto), HttpStatus.OK));
-        mockMvc.perform(get("/bookings/owner?state=ALL&from=0&size=20")
+                0, 20, "full"))
+                .thenReturn(completedFuture(new ResponseEntity<>(List.of(outgoingBookingDto), HttpStatus.OK)));
+        perform(get("/bookings/owner?state=ALL&from=0&size=20")
                         .header(header, 1))
                 .andExpect(status().isOk())
                 .andExpect(content().string(objectMapper
                         .writeValueAsString(List.of(outgoingBookingDto))));
-        verify(bookingClient).getAllOwnerItemBookings(1L, "ALL", 0, 20);
+        verify(bookingClient).getAllOwnerItemBookings(1L, "ALL", 0, 20, "full");
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllOwnerItemBookings_whenCompactView_shouldPassViewToClientMethod() {
+        when(bookingClient.getAllOwnerItemBookings(1L, "ALL", 0, 20, "compact"))
+                .thenReturn(completedFuture(new ResponseEntity<>(List.of(), HttpStatus.OK)));
+        perform(get("/bookings/owner?state=ALL&from=0&size=20&view=compact")
+                        .header(header, 1))
+                .andExpect(status().isOk());
+        verify(bookingClient).getAllOwnerItemBookings(1L, "ALL", 0, 20, "compact");
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllOwnerItemBookings_whenWrongView_shouldThrowConstraintViolationException() {
+        perform(get("/bookings/owner?view=tiny")
+                        .header(header, 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(result ->
+                        assertInstanceOf(ConstraintViolationException.class, result.getResolvedException()))
+                .andExpect(content().string("{\"error\":\"Unknown view: tiny\"}"));
+        verifyNoInteractions(bookingClient);
     }
 
     @Test
     @SneakyThrows
     void getAllOwnerItemBookings_whenNegativeHeader_shouldThrowConstraintViolationException() {
-        mockMvc.perform(get("/bookings/owner?state=ALL&from=0&size=20", -1)
+        perform(get("/bookings/owner?state=ALL&from=0&size=20", -1)
                         .header(header, -1))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
@@ -157,12 +185,39 @@ class BookingControllerTest {
         verifyNoInteractions(bookingClient);
     }
 
+    @Test
+    @SneakyThrows
+    void getAllUserBookingsAfter_whenAllParamsAreValid_shouldInvokeClientMethod_andReturnBookingList() {
+        when(bookingClient.getAllUserBookingsAfter(2L, "ALL", "cursor", 10, "full"))
+                .thenReturn(completedFuture(new ResponseEntity<>(List.of(outgoingBookingDto), HttpStatus.OK)));
+        perform(get("/bookings?state=ALL&after=cursor&size=10")
+                        .header(header, 2))
+                .andExpect(status().isOk())
+                .andExpect(content().string(objectMapper
+                        .writeValueAsString(List.of(outgoingBookingDto))));
+        verify(bookingClient).getAllUserBookingsAfter(2L, "ALL", "cursor", 10, "full");
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllOwnerItemBookingsAfter_whenSizeIsZero_shouldThrowConstraintViolationException() {
+        perform(get("/bookings/owner?after=cursor&size=0")
+                        .header(header, 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(result ->
+                        assertInstanceOf(ConstraintViolationException.class, result.getResolvedException()))
+                .andExpect(result -> assertEquals(
+                        "getAllOwnerItemBookingsAfter.size: must be greater than or equal to 1",
+                        result.getResolvedException().getMessage()));
+        verifyNoInteractions(bookingClient);
+    }
+
     @Test
     @SneakyThrows
     void getBookingById_whenAllParamsAreValid_shouldInvokeClientMethod_andReturnBooking() {
         when(bookingClient.getBookingById(2L, 1L))
-                .thenReturn(new ResponseEntity<>(outgoingBookingDto, HttpStatus.OK));
-        mockMvc.perform(get("/bookings/{id}", 1)
+                .thenReturn(completedFuture(new ResponseEntity<>(outgoingBookingDto, HttpStatus.OK)));
+        perform(get("/bookings/{id}", 1)
                         .header(header, 2))
                 .andExpect(status().isOk())
                 .andExpect(content().string(objectMapper
@@ -173,7 +228,7 @@ class BookingControllerTest {
     @Test
     @SneakyThrows
     void getBookingById_whenNegativeBookingId_shouldThrowConstraintViolationException() {
-        mockMvc.perform(get("/bookings/{id}", -1)
+        perform(get("/bookings/{id}", -1)
                         .header(header, 1))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
@@ -193,8 +248,8 @@ class BookingControllerTest {
                 LocalDateTime.now().plusDays(2),
                 1L);
         when(bookingClient.postBooking(2L, incomingBookingDto))
-                .thenReturn(new ResponseEntity<>(outgoingBookingDto, HttpStatus.OK));
-        mockMvc.perform(post("/bookings")
+                .thenReturn(completedFuture(new ResponseEntity<>(outgoingBookingDto, HttpStatus.OK)));
+        perform(post("/bookings")
                         .header(header, 2)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -205,6 +260,28 @@ class BookingControllerTest {
         verify(bookingClient).postBooking(2L, incomingBookingDto);
     }
 
+    @Test
+    @SneakyThrows
+    void postBookings_whenValidBatch_shouldInvokeClientMethod_andReturnElementResults() {
+        List<IncomingBookingDto> incomingBookingDtoList = List.of(new IncomingBookingDto(
+                null,
+                LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2),
+                1L));
+        List<BatchResultDto<OutgoingBookingDto>> batchResultDtoList = List.of(
+                BatchResultDto.created(0, outgoingBookingDto));
+        when(bookingClient.postBookings(2L, incomingBookingDtoList))
+                .thenReturn(completedFuture(new ResponseEntity<>(batchResultDtoList, HttpStatus.OK)));
+        perform(post("/bookings/batch")
+                        .header(header, 2)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(incomingBookingDtoList)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(objectMapper.writeValueAsString(batchResultDtoList)));
+        verify(bookingClient).postBookings(2L, incomingBookingDtoList);
+    }
+
     @Test
     @SneakyThrows
     void postBooking_whenStartIsInPast_shouldThrow_shouldThrowMethodArgumentNotValidException() {
@@ -213,7 +290,7 @@ class BookingControllerTest {
                 LocalDateTime.now().minusDays(1),
                 LocalDateTime.now().plusDays(1),
                 1L);
-        mockMvc.perform(post("/bookings")
+        perform(post("/bookings")
                         .header(header, 2)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -236,7 +313,7 @@ class BookingControllerTest {
                 LocalDateTime.now().plusDays(1),
                 LocalDateTime.now().minusDays(1),
                 1L);
-        mockMvc.perform(post("/bookings")
+        perform(post("/bookings")
                         .header(header, 2)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -259,7 +336,7 @@ class BookingControllerTest {
                 LocalDateTime.now().plusDays(2),
                 LocalDateTime.now().plusDays(1),
                 1L);
-        mockMvc.perform(post("/bookings")
+        perform(post("/bookings")
                         .header(header, 2)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -277,8 +354,8 @@ class BookingControllerTest {
     @SneakyThrows
     void patchBooking_whenValidParams_shouldInvokeClientMethod_andReturnBooking() {
         when(bookingClient.patchBooking(1L, 1L, true))
-                .thenReturn(new ResponseEntity<>(outgoingBookingDto, HttpStatus.OK));
-        mockMvc.perform(patch("/bookings/{id}", 1)
+                .thenReturn(completedFuture(new ResponseEntity<>(outgoingBookingDto, HttpStatus.OK)));
+        perform(patch("/bookings/{id}", 1)
                         .header(header, 1)
                         .param("approved", "true"))
                 .andExpect(status().isOk())
@@ -289,7 +366,7 @@ class BookingControllerTest {
     @Test
     @SneakyThrows
     void patchBooking_whenNegativeBookingId_shouldThrowConstraintViolationException() {
-        mockMvc.perform(patch("/bookings/{id}", -1)
+        perform(patch("/bookings/{id}", -1)
                         .header(header, 1)
                         .param("approved", "true"))
                 .andExpect(status().isBadRequest())
@@ -300,4 +377,11 @@ class BookingControllerTest {
                 .andExpect(content().string("{\"error\":\"must be greater than 0\"}"));
         verifyNoInteractions(bookingClient);
     }
+
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        // Relayed calls answer with a future, the response is written by the async dispatch
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
 }
\ No newline at end of file
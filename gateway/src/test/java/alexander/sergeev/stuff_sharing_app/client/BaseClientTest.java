@@ -0,0 +1,469 @@
+package alexander.sergeev.stuff_sharing_app.client;
+
+import alexander.sergeev.stuff_sharing_app.metrics.MetricsMode;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withException;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BaseClientTest {
+
+    private static final String ETAG = "\"item-1-0\"";
+
+    private static final String BODY = "{\"id\":1,\"name\":\"Item name\"}";
+
+    private static final String LARGE_BODY = "[" + String.join(",", Collections.nCopies(200, BODY)) + "]";
+
+    private final AtomicInteger gzippedResponses = new AtomicInteger();
+
+    private MockRestServiceServer server;
+
+    private ResponseCache responseCache;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BaseClient client;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory("http://server/items"));
+        server = MockRestServiceServer.bindTo(rest).build();
+        responseCache = new ResponseCache(10, 60);
+        meterRegistry = new SimpleMeterRegistry();
+        responseCache.bindTo(meterRegistry);
+        rest.getInterceptors().add(new ClientMetrics(meterRegistry, MetricsMode.FULL).interceptor("items"));
+        client = new BaseClient(rest, responseCache);
+    }
+
+    @Test
+    void getConditional_whenServerAnswersNotModified_shouldServeCachedBody() {
+        server.expect(requestTo("http://server/items/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON).headers(eTagHeaders()));
+        server.expect(requestTo("http://server/items/1"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(eTagHeaders()));
+        ResponseEntity<Object> first = client.getConditional("/1", 1L, null).join();
+        ResponseEntity<Object> second = client.getConditional("/1", 1L, null).join();
+        server.verify();
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertArrayEquals((byte[]) first.getBody(), (byte[]) second.getBody());
+        assertEquals(ETAG, second.getHeaders().getETag());
+        assertEquals(MediaType.APPLICATION_JSON, second.getHeaders().getContentType());
+        assertEquals(1, meterRegistry.get("gateway.response.cache.requests").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1, meterRegistry.get("gateway.response.cache.requests").tag("result", "miss")
+                .functionCounter().count());
+        assertEquals(BODY.length(), meterRegistry.get("gateway.response.cache.saved")
+                .functionCounter().count());
+    }
+
+    @Test
+    void getConditional_whenClientETagMatches_shouldReturnNotModified() {
+        server.expect(requestTo("http://server/items/1"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(eTagHeaders()));
+        ResponseEntity<Object> response = client.getConditional("/1", 1L, ETAG).join();
+        server.verify();
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(ETAG, response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void getConditional_shouldTimeEveryProxyHopByStatus() {
+        server.expect(requestTo("http://server/items/1"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON).headers(eTagHeaders()));
+        server.expect(requestTo("http://server/items/1"))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(eTagHeaders()));
+        client.getConditional("/1", 1L, null).join();
+        client.getConditional("/1", 1L, null).join();
+        server.verify();
+        assertEquals(1, meterRegistry.get(ClientMetrics.METRIC_NAME)
+                .tags("client", "items", "method", "GET", "status", "200")
+                .timer().count());
+        assertEquals(1, meterRegistry.get(ClientMetrics.METRIC_NAME)
+                .tags("client", "items", "method", "GET", "status", "304")
+                .timer().count());
+    }
+
+    @Test
+    void getConditional_whenServerAnswersError_shouldDropCachedResponse() {
+        server.expect(requestTo("http://server/items/1"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON).headers(eTagHeaders()));
+        server.expect(requestTo("http://server/items/1"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+        client.getConditional("/1", 1L, null).join();
+        ResponseEntity<Object> response = client.getConditional("/1", 1L, null).join();
+        server.verify();
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertNull(responseCache.get("http://server/items/1"));
+    }
+
+    @Test
+    void getConditional_whenOtherUserRevalidates_shouldServeSharedCachedBody() {
+        server.expect(requestTo("http://server/items/1"))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON).headers(eTagHeaders()));
+        server.expect(requestTo("http://server/items/1"))
+                .andExpect(header("X-Sharer-User-Id", "2"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(eTagHeaders()));
+        client.getConditional("/1", 1L, null).join();
+        ResponseEntity<Object> response = client.getConditional("/1", 2L, null).join();
+        server.verify();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+    }
+
+    @Test
+    void getConditional_whenServerAnswersPrivateOwnerView_shouldNotCacheIt() {
+        HttpHeaders headers = eTagHeaders();
+        headers.setCacheControl("private");
+        server.expect(requestTo("http://server/items/1"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON).headers(headers));
+        ResponseEntity<Object> response = client.getConditional("/1", 1L, null).join();
+        server.verify();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("private", response.getHeaders().getCacheControl());
+        assertNull(responseCache.get("http://server/items/1"));
+    }
+
+    @Test
+    void getConditional_whenFallbackReadFails_shouldThrowUnwrappedFailure() {
+        RestTemplate rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory("http://server/items"));
+        MockRestServiceServer failingServer = MockRestServiceServer.bindTo(rest).build();
+        failingServer.expect(requestTo("http://server/items/1"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON).headers(eTagHeaders()));
+        HttpHeaders changedETagHeaders = new HttpHeaders();
+        changedETagHeaders.setETag("\"item-1-1\"");
+        failingServer.expect(requestTo("http://server/items/1"))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(changedETagHeaders));
+        failingServer.expect(requestTo("http://server/items/1"))
+                .andRespond(withException(new SocketTimeoutException("Read timed out")));
+        BaseClient blockingClient = new BaseClient(rest, null, responseCache, new SingleFlight(true, 5000, 10, 60));
+        blockingClient.getConditional("/1", 1L, null);
+        ResourceAccessException exception = assertThrows(ResourceAccessException.class,
+                () -> blockingClient.getConditional("/1", 2L, null));
+        failingServer.verify();
+        assertTrue(exception.getCause() instanceof SocketTimeoutException);
+    }
+
+    @Test
+    void get_shouldRelayServerBytesAndEndToEndHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setConnection("keep-alive");
+        headers.set(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        headers.set(HttpHeaders.CACHE_CONTROL, "no-store");
+        server.expect(requestTo("http://server/items/2"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON).headers(headers));
+        ResponseEntity<Object> response = client.get("/2", 1L).join();
+        server.verify();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("no-store", response.getHeaders().getCacheControl());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONNECTION));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.TRANSFER_ENCODING));
+    }
+
+    @Test
+    void get_whenServerAnswersError_shouldRelayErrorBodyWithContentType() {
+        server.expect(requestTo("http://server/items/2"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .body("NotFoundException : There's no item with id 2"));
+        ResponseEntity<Object> response = client.get("/2", 1L).join();
+        server.verify();
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.TEXT_PLAIN, response.getHeaders().getContentType());
+        assertArrayEquals("NotFoundException : There's no item with id 2".getBytes(StandardCharsets.UTF_8),
+                (byte[]) response.getBody());
+    }
+
+    @Test
+    void stream_whenServerAnswersNdjson_shouldCopyStatusContentTypeAndBody() throws IOException {
+        String ndjson = "{\"id\":1}\n{\"id\":2}\n";
+        server.expect(requestTo("http://server/items/export"))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withSuccess(ndjson, MediaType.parseMediaType("application/x-ndjson")));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        client.stream("/export", 1L, response);
+        server.verify();
+        assertEquals(200, response.getStatus());
+        assertEquals("application/x-ndjson", response.getContentType());
+        assertEquals(ndjson, response.getContentAsString());
+    }
+
+    @Test
+    void stream_whenServerAnswersError_shouldCopyErrorStatusAndBody() throws IOException {
+        server.expect(requestTo("http://server/items/export"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .body("NotFoundException : There's no user with id 1"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        client.stream("/export", 1L, response);
+        server.verify();
+        assertEquals(404, response.getStatus());
+        assertEquals("NotFoundException : There's no user with id 1", response.getContentAsString());
+    }
+
+    @Test
+    void getConditional_inAsyncMode_whenServerAnswersNotModified_shouldServeCachedBody() {
+        Queue<ClientResponse> responses = new ArrayDeque<>(List.of(
+                ClientResponse.create(HttpStatus.OK)
+                        .headers(headers -> headers.addAll(eTagHeaders()))
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(BODY)
+                        .build(),
+                ClientResponse.create(HttpStatus.NOT_MODIFIED)
+                        .headers(headers -> headers.addAll(eTagHeaders()))
+                        .build()));
+        List<ClientRequest> requests = new ArrayList<>();
+        BaseClient asyncClient = asyncClient(request -> {
+            requests.add(request);
+            return Mono.just(responses.remove());
+        });
+        asyncClient.getConditional("/1", 1L, null).join();
+        ResponseEntity<Object> second = asyncClient.getConditional("/1", 2L, null).join();
+        assertEquals(URI.create("http://server/items/1"), requests.get(1).url());
+        assertEquals(List.of(ETAG), requests.get(1).headers().getIfNoneMatch());
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), (byte[]) second.getBody());
+        assertEquals(1, meterRegistry.get("gateway.response.cache.requests").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void get_inAsyncMode_whenServerAnswersError_shouldRelayErrorBodyWithContentType() {
+        BaseClient asyncClient = asyncClient(request -> Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                .body("NotFoundException : There's no item with id 2")
+                .build()));
+        ResponseEntity<Object> response = asyncClient.get("/2", 1L).join();
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.TEXT_PLAIN, response.getHeaders().getContentType());
+        assertArrayEquals("NotFoundException : There's no item with id 2".getBytes(StandardCharsets.UTF_8),
+                (byte[]) response.getBody());
+    }
+
+    @Test
+    void getCoalesced_inAsyncMode_whenKnownUsersSearchAlike_shouldShareOneCall() {
+        SingleFlight singleFlight = new SingleFlight(true, 5000, 10, 60);
+        singleFlight.rememberUser(1L);
+        singleFlight.rememberUser(2L);
+        CompletableFuture<ClientResponse> upstreamResponse = new CompletableFuture<>();
+        List<ClientRequest> requests = new ArrayList<>();
+        BaseClient asyncClient = asyncClient(request -> {
+            requests.add(request);
+            return Mono.fromFuture(upstreamResponse);
+        }, singleFlight);
+        CompletableFuture<ResponseEntity<Object>> first = asyncClient.getCoalesced("/search?text={text}", 1L,
+                Map.of("text", "drill"));
+        CompletableFuture<ResponseEntity<Object>> second = asyncClient.getCoalesced("/search?text={text}", 2L,
+                Map.of("text", "drill"));
+        upstreamResponse.complete(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(BODY)
+                .build());
+        assertEquals(1, requests.size());
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), (byte[]) first.join().getBody());
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), (byte[]) second.join().getBody());
+    }
+
+    @Test
+    void getCoalesced_inAsyncMode_whenUserIsNotKnown_shouldGetOwnAnswer() {
+        SingleFlight singleFlight = new SingleFlight(true, 5000, 10, 60);
+        singleFlight.rememberUser(1L);
+        CompletableFuture<ClientResponse> knownUserResponse = new CompletableFuture<>();
+        List<ClientRequest> requests = new ArrayList<>();
+        BaseClient asyncClient = asyncClient(request -> {
+            requests.add(request);
+            if ("1".equals(request.headers().getFirst("X-Sharer-User-Id"))) {
+                return Mono.fromFuture(knownUserResponse);
+            }
+            return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                    .body("NotFoundException : There's no user with id 3")
+                    .build());
+        }, singleFlight);
+        CompletableFuture<ResponseEntity<Object>> first = asyncClient.getCoalesced("/search?text={text}", 1L,
+                Map.of("text", "drill"));
+        ResponseEntity<Object> second = asyncClient.getCoalesced("/search?text={text}", 3L,
+                Map.of("text", "drill")).join();
+        knownUserResponse.complete(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(BODY)
+                .build());
+        assertEquals(2, requests.size());
+        assertEquals(HttpStatus.OK, first.join().getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, second.getStatusCode());
+        assertTrue(singleFlight.isKnownUser(1L));
+        assertFalse(singleFlight.isKnownUser(3L));
+    }
+
+    @Test
+    void getCoalesced_inAsyncMode_whenKnownUserIsNotFound_shouldForgetUser() {
+        SingleFlight singleFlight = new SingleFlight(true, 5000, 10, 60);
+        singleFlight.rememberUser(3L);
+        BaseClient asyncClient = asyncClient(request -> Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                .body("NotFoundException : There's no user with id 3")
+                .build()), singleFlight);
+        ResponseEntity<Object> response = asyncClient.getCoalesced("/search?text={text}", 3L,
+                Map.of("text", "drill")).join();
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertFalse(singleFlight.isKnownUser(3L));
+    }
+
+    @Test
+    void get_whenServerCompresses_shouldRelayInflatedBodyWithoutEncodingHeaders() throws IOException {
+        HttpServer gzipServer = gzipServer();
+        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+            BaseClient relayClient = blockingClient(new HttpComponentsClientHttpRequestFactory(httpClient), gzipServer);
+            assertRelayedInflated(relayClient.get("/2", 1L).join());
+        } finally {
+            gzipServer.stop(0);
+        }
+    }
+
+    @Test
+    void get_onJdkTransport_whenServerCompresses_shouldRelayInflatedBodyWithoutEncodingHeaders() throws IOException {
+        HttpServer gzipServer = gzipServer();
+        try {
+            BaseClient relayClient = blockingClient(new JdkClientHttpRequestFactory(
+                    HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build(), Duration.ofSeconds(5), true),
+                    gzipServer);
+            assertRelayedInflated(relayClient.get("/2", 1L).join());
+        } finally {
+            gzipServer.stop(0);
+        }
+    }
+
+    @Test
+    void get_inAsyncMode_whenServerCompresses_shouldRelayInflatedBodyWithoutEncodingHeaders() throws IOException {
+        HttpServer gzipServer = gzipServer();
+        try {
+            WebClient webClient = WebClient.builder()
+                    .clientConnector(new ReactorClientHttpConnector(
+                            reactor.netty.http.client.HttpClient.create().compress(true)))
+                    .uriBuilderFactory(new DefaultUriBuilderFactory(
+                            "http://localhost:" + gzipServer.getAddress().getPort() + "/items"))
+                    .build();
+            assertRelayedInflated(new BaseClient(new RestTemplate(), webClient).get("/2", 1L).join());
+        } finally {
+            gzipServer.stop(0);
+        }
+    }
+
+    private static BaseClient blockingClient(ClientHttpRequestFactory requestFactory, HttpServer gzipServer) {
+        RestTemplate rest = new RestTemplate(requestFactory);
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory(
+                "http://localhost:" + gzipServer.getAddress().getPort() + "/items"));
+        return new BaseClient(rest);
+    }
+
+    private void assertRelayedInflated(ResponseEntity<Object> response) {
+        assertEquals(1, gzippedResponses.get());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(LARGE_BODY.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    // Answers gzip only when asked for it, like the server does
+    private HttpServer gzipServer() throws IOException {
+        HttpServer gzipServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        gzipServer.createContext("/items", exchange -> {
+            String acceptEncoding = exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+            byte[] body = LARGE_BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                    gzip.write(body);
+                }
+                body = compressed.toByteArray();
+                exchange.getResponseHeaders().add(HttpHeaders.CONTENT_ENCODING, "gzip");
+                gzippedResponses.incrementAndGet();
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        gzipServer.start();
+        return gzipServer;
+    }
+
+    private BaseClient asyncClient(ExchangeFunction exchangeFunction) {
+        return asyncClient(exchangeFunction, null);
+    }
+
+    private BaseClient asyncClient(ExchangeFunction exchangeFunction, SingleFlight singleFlight) {
+        WebClient webClient = WebClient.builder()
+                .uriBuilderFactory(new DefaultUriBuilderFactory("http://server/items"))
+                .exchangeFunction(exchangeFunction)
+                .build();
+        return new BaseClient(new RestTemplate(), webClient, responseCache, singleFlight);
+    }
+
+    private static HttpHeaders eTagHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(ETAG);
+        return headers;
+    }
+}
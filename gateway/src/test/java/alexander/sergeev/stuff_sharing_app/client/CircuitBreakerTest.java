@@ -0,0 +1,73 @@
+package alexander.sergeev.stuff_sharing_app.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(3);
+
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(10, 4, 0.5, 0.5,
+            TimeUnit.SECONDS.toNanos(2), TimeUnit.SECONDS.toNanos(10), 2, nanoClock::get);
+
+    @Test
+    void record_whenFailureRateCrossesThreshold_shouldOpen() {
+        recordCalls(false, FAST, 2);
+        recordCalls(true, FAST, 1);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        recordCalls(true, FAST, 1);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void record_whenSlowCallsCrossThreshold_shouldOpen() {
+        recordCalls(false, SLOW, 4);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void record_whenOldFailuresSlideOutOfWindow_shouldStayClosed() {
+        recordCalls(true, FAST, 1);
+        recordCalls(false, FAST, 9);
+        recordCalls(true, FAST, 4);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void tryAcquire_afterOpenPeriod_shouldLetTrialCallsDecide() {
+        recordCalls(true, FAST, 4);
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertTrue(circuitBreaker.tryAcquire());
+        assertTrue(circuitBreaker.tryAcquire());
+        assertFalse(circuitBreaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.record(false, FAST);
+        circuitBreaker.record(false, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        recordCalls(true, FAST, 4);
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.record(true, FAST);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    private void recordCalls(boolean failed, long durationNanos, int count) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(circuitBreaker.tryAcquire());
+            circuitBreaker.record(failed, durationNanos);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package alexander.sergeev.stuff_sharing_app.client;
+
+import alexander.sergeev.stuff_sharing_app.exception.UpstreamUnavailableException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ClientIsolationTest {
+
+    private static final String ISOLATION = "stuff_sharing_app.client.isolation.";
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final MockEnvironment environment = new MockEnvironment();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger slowRouteCalls = new AtomicInteger();
+
+    private final CountDownLatch slowRouteEntered = new CountDownLatch(1);
+
+    private HttpServer server;
+
+    private CloseableHttpClient httpClient;
+
+    private ClientIsolation clientIsolation;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/bookings/owner", exchange -> {
+            slowRouteCalls.incrementAndGet();
+            slowRouteEntered.countDown();
+            sleep(500);
+            respond(exchange);
+        });
+        server.createContext("/bookings/export", exchange -> {
+            // Headers go out at once, the body only after a pause
+            exchange.getResponseHeaders().add("Content-Type", "application/x-ndjson");
+            exchange.sendResponseHeaders(200, 0);
+            sleep(500);
+            exchange.getResponseBody().write("{}\n".getBytes(StandardCharsets.UTF_8));
+            exchange.close();
+        });
+        server.createContext("/users", ClientIsolationTest::respond);
+        server.start();
+        httpClient = HttpClients.createDefault();
+        environment.setProperty(ISOLATION + "window-size", "4");
+        environment.setProperty(ISOLATION + "minimum-calls", "4");
+        environment.setProperty(ISOLATION + "failure-rate-threshold", "0.5");
+        environment.setProperty(ISOLATION + "slow-call-rate-threshold", "1");
+        environment.setProperty(ISOLATION + "slow-call-millis", "2000");
+        environment.setProperty(ISOLATION + "open-millis", "60000");
+        environment.setProperty(ISOLATION + "half-open-calls", "1");
+        clientIsolation = new ClientIsolation(httpClient, null, environment, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.stop(0);
+        executor.shutdownNow();
+        httpClient.close();
+    }
+
+    @Test
+    void interceptor_whenOneRouteTimesOut_shouldOpenOnlyThatClientsBreaker() {
+        environment.setProperty(ISOLATION + "bookings.read-timeout-millis", "100");
+        RestTemplate bookings = restTemplate("bookings");
+        RestTemplate users = restTemplate("users");
+        for (int i = 0; i < 4; i++) {
+            ResourceAccessException e = assertThrows(ResourceAccessException.class,
+                    () -> bookings.getForEntity("/bookings/owner", String.class));
+            assertInstanceOf(SocketTimeoutException.class, e.getCause());
+        }
+        assertThrows(UpstreamUnavailableException.class, () -> bookings.getForEntity("/bookings/owner", String.class));
+        assertEquals(4, slowRouteCalls.get());
+        assertEquals(HttpStatus.OK, users.getForEntity("/users", String.class).getStatusCode());
+        assertEquals(CircuitBreaker.State.OPEN.ordinal(), circuitBreakerState("bookings"));
+        assertEquals(CircuitBreaker.State.CLOSED.ordinal(), circuitBreakerState("users"));
+        assertEquals(1, meterRegistry.get("gateway.client.rejected")
+                .tags("client", "bookings", "reason", "circuit_breaker").functionCounter().count());
+    }
+
+    @Test
+    void interceptor_whenBulkheadFull_shouldFailFastInsteadOfWaiting() throws Exception {
+        environment.setProperty(ISOLATION + "bookings.max-concurrent-calls", "1");
+        RestTemplate bookings = restTemplate("bookings");
+        Future<?> slowCall = executor.submit(() -> bookings.getForEntity("/bookings/owner", String.class));
+        slowRouteEntered.await();
+        assertThrows(UpstreamUnavailableException.class, () -> bookings.getForEntity("/bookings/owner", String.class));
+        assertEquals(1, meterRegistry.get("gateway.client.bulkhead.active").tag("client", "bookings")
+                .gauge().value());
+        slowCall.get(5, TimeUnit.SECONDS);
+        assertEquals(1, slowRouteCalls.get());
+        assertEquals(1, meterRegistry.get("gateway.client.rejected")
+                .tags("client", "bookings", "reason", "bulkhead").functionCounter().count());
+    }
+
+    @Test
+    void filter_whenOneRouteTimesOut_shouldOpenOnlyThatClientsBreaker() {
+        environment.setProperty(ISOLATION + "bookings.read-timeout-millis", "100");
+        WebClient bookings = webClient("bookings");
+        WebClient users = webClient("users");
+        for (int i = 0; i < 4; i++) {
+            ResourceAccessException e = assertThrows(ResourceAccessException.class,
+                    () -> bookings.get().uri("/bookings/owner").retrieve().toEntity(String.class).block());
+            assertInstanceOf(SocketTimeoutException.class, e.getCause());
+        }
+        assertThrows(UpstreamUnavailableException.class,
+                () -> bookings.get().uri("/bookings/owner").retrieve().toEntity(String.class).block());
+        assertEquals(HttpStatus.OK, users.get().uri("/users").retrieve().toEntity(String.class).block()
+                .getStatusCode());
+        assertEquals(CircuitBreaker.State.OPEN.ordinal(), circuitBreakerState("bookings"));
+        assertEquals(CircuitBreaker.State.CLOSED.ordinal(), circuitBreakerState("users"));
+        assertEquals(0, meterRegistry.get("gateway.client.bulkhead.active").tag("client", "bookings")
+                .gauge().value());
+    }
+
+    @Test
+    void interceptor_whileBodyIsRead_shouldHoldBulkheadPermit() throws Exception {
+        environment.setProperty(ISOLATION + "bookings.max-concurrent-calls", "1");
+        RestTemplate bookings = restTemplate("bookings");
+        CountDownLatch headersReceived = new CountDownLatch(1);
+        Future<String> streamingCall = executor.submit(() -> bookings.execute("/bookings/export", HttpMethod.GET,
+                null, response -> {
+                    headersReceived.countDown();
+                    return StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+                }));
+        headersReceived.await();
+        assertThrows(UpstreamUnavailableException.class, () -> bookings.getForEntity("/users", String.class));
+        assertEquals("{}\n", streamingCall.get(5, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.get("gateway.client.bulkhead.active").tag("client", "bookings")
+                .gauge().value());
+    }
+
+    @Test
+    void filter_whenBodyStallsAfterHeaders_shouldTimeOutAndReleasePermit() {
+        environment.setProperty(ISOLATION + "bookings.read-timeout-millis", "100");
+        WebClient bookings = webClient("bookings");
+        ResourceAccessException e = assertThrows(ResourceAccessException.class,
+                () -> bookings.get().uri("/bookings/export").exchangeToMono(response -> response.toEntity(byte[].class))
+                        .block(Duration.ofSeconds(5)));
+        assertInstanceOf(SocketTimeoutException.class, e.getCause());
+        assertEquals(0, meterRegistry.get("gateway.client.bulkhead.active").tag("client", "bookings")
+                .gauge().value());
+    }
+
+    private WebClient webClient(String client) {
+        return WebClient.builder()
+                .baseUrl("http://localhost:" + server.getAddress().getPort())
+                .filter(clientIsolation.filter(client))
+                .build();
+    }
+
+    private RestTemplate restTemplate(String client) {
+        RestTemplate rest = new RestTemplate(clientIsolation.requestFactory(client));
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:" + server.getAddress().getPort()));
+        rest.getInterceptors().add(clientIsolation.interceptor(client));
+        return rest;
+    }
+
+    private double circuitBreakerState(String client) {
+        return meterRegistry.get("gateway.client.circuit.breaker.state").tag("client", client).gauge().value();
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
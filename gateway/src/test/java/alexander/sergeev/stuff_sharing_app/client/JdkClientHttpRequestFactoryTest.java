@@ -0,0 +1,72 @@
+package alexander.sergeev.stuff_sharing_app.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JdkClientHttpRequestFactoryTest {
+
+    private static final String BODY = "{\"id\":1,\"name\":\"Item name\"}";
+
+    private HttpServer server;
+
+    private String acceptEncoding;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/items", exchange -> {
+            acceptEncoding = exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+            byte[] body = gzip(BODY);
+            exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, "application/json");
+            exchange.getResponseHeaders().add(HttpHeaders.CONTENT_ENCODING, "gzip");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void exchange_whenServerCompresses_shouldNegotiateAndInflateBody() {
+        RestTemplate rest = new RestTemplate(new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build(), Duration.ofSeconds(5), true));
+        ResponseEntity<Map> response = rest.exchange("http://localhost:" + server.getAddress().getPort() + "/items",
+                HttpMethod.GET, null, Map.class);
+        assertEquals("gzip, deflate", acceptEncoding);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Item name", response.getBody().get("name"));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressed.toByteArray();
+    }
+}
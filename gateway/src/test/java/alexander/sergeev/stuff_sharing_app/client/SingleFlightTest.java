@@ -0,0 +1,170 @@
+package alexander.sergeev.stuff_sharing_app.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private static final String KEY = SingleFlight.key("GET", "http://server/items/search?text=drill",
+            SingleFlight.Scope.PUBLIC, 1L);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch leaderStarted = new CountDownLatch(1);
+
+    private final CountDownLatch releaseLeader = new CountDownLatch(1);
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        releaseLeader.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_whenIdenticalCallInFlight_shouldShareItsResponse() throws Exception {
+        SingleFlight singleFlight = singleFlight(5000);
+        ResponseEntity<Object> leaderResponse = ResponseEntity.ok(List.of("Drill"));
+        Future<ResponseEntity<Object>> leader = executor.submit(() ->
+                singleFlight.execute(KEY, blockingCall(leaderResponse)));
+        leaderStarted.await();
+        Future<ResponseEntity<Object>> follower = executor.submit(() ->
+                singleFlight.execute(KEY, countingCall(ResponseEntity.ok(List.of()))));
+        awaitFollowerWaiting();
+        releaseLeader.countDown();
+        assertSame(leaderResponse, leader.get(5, TimeUnit.SECONDS));
+        assertSame(leaderResponse, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1, meterRegistry.get("gateway.single.flight.calls").tag("result", "saved")
+                .functionCounter().count());
+    }
+
+    @Test
+    void execute_whenLeaderIsSlowerThanMaxWait_shouldCallUpstreamAlone() throws Exception {
+        SingleFlight singleFlight = singleFlight(50);
+        executor.submit(() -> singleFlight.execute(KEY, blockingCall(ResponseEntity.ok(List.of("Drill")))));
+        leaderStarted.await();
+        ResponseEntity<Object> ownResponse = ResponseEntity.ok(List.of());
+        assertSame(ownResponse, singleFlight.execute(KEY, countingCall(ownResponse)));
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(1, meterRegistry.get("gateway.single.flight.calls").tag("result", "timeout")
+                .functionCounter().count());
+    }
+
+    @Test
+    void execute_whenLeaderFailed_shouldNotShareError() throws Exception {
+        SingleFlight singleFlight = singleFlight(5000);
+        Future<ResponseEntity<Object>> leader = executor.submit(() ->
+                singleFlight.execute(KEY, blockingCall(ResponseEntity.status(HttpStatus.NOT_FOUND).build())));
+        leaderStarted.await();
+        ResponseEntity<Object> ownResponse = ResponseEntity.ok(List.of());
+        Future<ResponseEntity<Object>> follower = executor.submit(() ->
+                singleFlight.execute(KEY, countingCall(ownResponse)));
+        awaitFollowerWaiting();
+        releaseLeader.countDown();
+        assertEquals(HttpStatus.NOT_FOUND, leader.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertSame(ownResponse, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void executeAsync_whenIdenticalCallInFlight_shouldShareItsResponseWithoutWaitingThread() {
+        SingleFlight singleFlight = singleFlight(5000);
+        ResponseEntity<Object> leaderResponse = ResponseEntity.ok(List.of("Drill"));
+        CompletableFuture<ResponseEntity<Object>> upstreamResponse = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> leader = singleFlight.executeAsync(KEY, () -> {
+            upstreamCalls.incrementAndGet();
+            return upstreamResponse;
+        });
+        CompletableFuture<ResponseEntity<Object>> follower = singleFlight.executeAsync(KEY,
+                () -> CompletableFuture.completedFuture(countingCall(ResponseEntity.ok(List.of())).get()));
+        assertFalse(follower.isDone());
+        upstreamResponse.complete(leaderResponse);
+        assertSame(leaderResponse, leader.join());
+        assertSame(leaderResponse, follower.join());
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(0, meterRegistry.get("gateway.single.flight.in.flight").gauge().value());
+    }
+
+    @Test
+    void executeAsync_whenLeaderIsSlowerThanMaxWait_shouldCallUpstreamAlone() {
+        SingleFlight singleFlight = singleFlight(50);
+        singleFlight.executeAsync(KEY, CompletableFuture::new);
+        ResponseEntity<Object> ownResponse = ResponseEntity.ok(List.of());
+        assertSame(ownResponse, singleFlight.executeAsync(KEY,
+                () -> CompletableFuture.completedFuture(countingCall(ownResponse).get())).join());
+        assertEquals(1, meterRegistry.get("gateway.single.flight.calls").tag("result", "timeout")
+                .functionCounter().count());
+    }
+
+    @Test
+    void key_whenPublicScope_shouldNotDependOnUser() {
+        assertEquals(KEY, SingleFlight.key("GET", "http://server/items/search?text=drill",
+                SingleFlight.Scope.PUBLIC, 2L));
+        assertNotEquals(SingleFlight.key("GET", "http://server/items/1", SingleFlight.Scope.USER, 1L),
+                SingleFlight.key("GET", "http://server/items/1", SingleFlight.Scope.USER, 2L));
+    }
+
+    @Test
+    void isKnownUser_whenForgotten_shouldBeFalse() {
+        SingleFlight singleFlight = singleFlight(5000);
+        singleFlight.rememberUser(1L);
+        assertTrue(singleFlight.isKnownUser(1L));
+        singleFlight.forgetUser(1L);
+        assertFalse(singleFlight.isKnownUser(1L));
+    }
+
+    private SingleFlight singleFlight(long maxWaitMillis) {
+        SingleFlight singleFlight = new SingleFlight(true, maxWaitMillis, 10, 60);
+        singleFlight.bindTo(meterRegistry);
+        return singleFlight;
+    }
+
+    private Supplier<ResponseEntity<Object>> blockingCall(ResponseEntity<Object> response) {
+        return () -> {
+            upstreamCalls.incrementAndGet();
+            leaderStarted.countDown();
+            try {
+                releaseLeader.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return response;
+        };
+    }
+
+    private Supplier<ResponseEntity<Object>> countingCall(ResponseEntity<Object> response) {
+        return () -> {
+            upstreamCalls.incrementAndGet();
+            return response;
+        };
+    }
+
+    private void awaitFollowerWaiting() throws InterruptedException {
+        // The follower has no hook of its own, give it time to find the in-flight call
+        Thread.sleep(100);
+        assertEquals(1, meterRegistry.get("gateway.single.flight.in.flight").gauge().value());
+    }
+}
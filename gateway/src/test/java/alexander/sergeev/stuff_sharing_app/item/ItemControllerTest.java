@@ -1,8 +1,10 @@
 package alexander.sergeev.stuff_sharing_app.item;
 
+import alexander.sergeev.stuff_sharing_app.batch.dto.BatchResultDto;
 import alexander.sergeev.stuff_sharing_app.comment.dto.IncomingCommentDto;
 import alexander.sergeev.stuff_sharing_app.comment.dto.OutgoingCommentDto;
 import alexander.sergeev.stuff_sharing_app.exception.ExceptionResolver;
+import alexander.sergeev.stuff_sharing_app.item.dto.AvailabilitySlotDto;
 import alexander.sergeev.stuff_sharing_app.item.dto.IncomingItemDto;
 import alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,19 +14,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.ConstraintViolationException;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -59,8 +67,8 @@ class ItemControllerTest {
                 List.of(),
                 2L);
         when(itemClient.getAllOwnerItems(3L, 0, 20))
-                .thenReturn(new ResponseEntity<>(List.of(outgoingItemDto), HttpStatus.OK));
-        mockMvc.perform(get("/items?from=0&size=20")
+                .thenReturn(completedFuture(new ResponseEntity<>(List.of(outgoingItemDto), HttpStatus.OK)));
+        perform(get("/items?from=0&size=20")
                         .header(header, 3))
                 .andExpect(status().isOk())
                 .andExpect(content().string(objectMapper.writeValueAsString(List.of(outgoingItemDto))));
@@ -70,7 +78,7 @@ class ItemControllerTest {
     @Test
     @SneakyThrows
     void getAllOwnerItems_whenNotValidFromAndSize_shouldThrowConstraintViolationException() {
-        mockMvc.perform(get("/items?from=-1&size=0")
+        perform(get("/items?from=-1&size=0")
                         .header(header, 1))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
@@ -85,10 +93,35 @@ class ItemControllerTest {
         verifyNoInteractions(itemClient);
     }
 
+    @Test
+    @SneakyThrows
+    void getAllOwnerItemsAfter_whenValidAfterAndSize_shouldInvokeItemClientMethod() {
+        when(itemClient.getAllOwnerItemsAfter(1L, "cursor", 5))
+                .thenReturn(completedFuture(new ResponseEntity<>(List.of(), HttpStatus.OK)));
+        perform(get("/items?after=cursor&size=5")
+                        .header(header, 1))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[]"));
+        verify(itemClient).getAllOwnerItemsAfter(1L, "cursor", 5);
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllOwnerItemsAfter_whenSizeIsZero_shouldThrowConstraintViolationException() {
+        perform(get("/items?after=cursor&size=0")
+                        .header(header, 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(result ->
+                        assertInstanceOf(ConstraintViolationException.class, result.getResolvedException()))
+                .andExpect(result -> assertEquals("getAllOwnerItemsAfter.size: must be greater than or equal to 1",
+                        result.getResolvedException().getMessage()));
+        verifyNoInteractions(itemClient);
+    }
+
     @Test
     @SneakyThrows
     void getAllOwnerItems_whenWrongRequestHeader_shouldThrowMissingRequestHeaderException() {
-        mockMvc.perform(get("/items?from=0&size=1")
+        perform(get("/items?from=0&size=1")
                         .header("WRONG-HEADER", "WRONG-VALUE"))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
@@ -114,19 +147,43 @@ class ItemControllerTest {
                 null,
                 List.of(),
                 2L);
-        when(itemClient.getItemById(3L, 1L))
-                .thenReturn(new ResponseEntity<>(outgoingItemDto, HttpStatus.OK));
-        mockMvc.perform(get("/items/{id}", 1)
+        when(itemClient.getItemById(3L, 1L, null))
+                .thenReturn(completedFuture(new ResponseEntity<>(outgoingItemDto, HttpStatus.OK)));
+        perform(get("/items/{id}", 1)
                         .header(header, 3))
                 .andExpect(status().isOk())
                 .andExpect(content().string(objectMapper.writeValueAsString(outgoingItemDto)));
-        verify(itemClient).getItemById(3L, 1L);
+        verify(itemClient).getItemById(3L, 1L, null);
+    }
+
+    @Test
+    @SneakyThrows
+    void exportOwnerItems_whenValidRequestHeader_shouldStreamThroughItemClient() {
+        perform(get("/items/export")
+                        .header(header, 3))
+                .andExpect(status().isOk());
+        verify(itemClient).exportOwnerItems(eq(3L), any(HttpServletResponse.class));
+        verify(itemClient, never()).getItemById(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @SneakyThrows
+    void getItemById_whenIfNoneMatchMatches_shouldReturnNotModified() {
+        when(itemClient.getItemById(3L, 1L, "\"item-1-0\""))
+                .thenReturn(completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"item-1-0\"").build()));
+        perform(get("/items/{id}", 1)
+                        .header(header, 3)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"item-1-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(result -> assertEquals("\"item-1-0\"", result.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(content().string(""));
+        verify(itemClient).getItemById(3L, 1L, "\"item-1-0\"");
     }
 
     @Test
     @SneakyThrows
     void getItemById_whenWrongRequestHeader_shouldThrowMissingRequestHeaderException() {
-        mockMvc.perform(get("/items/{id}", 1)
+        perform(get("/items/{id}", 1)
                         .header("WRONG-HEADER", "WRONG-VALUE"))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
@@ -143,7 +200,7 @@ class ItemControllerTest {
     @Test
     @SneakyThrows
     void getItemById_whenNegativeItemId_shouldThrowConstraintViolationException() {
-        mockMvc.perform(get("/items/{id}", -1)
+        perform(get("/items/{id}", -1)
                         .header(header, 1))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
@@ -154,6 +211,31 @@ class ItemControllerTest {
         verifyNoInteractions(itemClient);
     }
 
+    @Test
+    @SneakyThrows
+    void getItemAvailability_whenValidPeriod_shouldInvokeItemClientMethod() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 10, 0, 0, 0);
+        List<AvailabilitySlotDto> availabilitySlotDtoList = List.of(new AvailabilitySlotDto(from, to));
+        when(itemClient.getItemAvailability(3L, 1L, from, to))
+                .thenReturn(completedFuture(new ResponseEntity<>(availabilitySlotDtoList, HttpStatus.OK)));
+        perform(get("/items/{id}/availability?from=2030-01-01T00:00:00&to=2030-01-10T00:00:00", 1)
+                        .header(header, 3))
+                .andExpect(status().isOk())
+                .andExpect(content().string(objectMapper.writeValueAsString(availabilitySlotDtoList)));
+        verify(itemClient).getItemAvailability(3L, 1L, from, to);
+    }
+
+    @Test
+    @SneakyThrows
+    void getItemAvailability_whenFromIsNotBeforeTo_shouldAnswerBadRequest() {
+        perform(get("/items/{id}/availability?from=2030-01-10T00:00:00&to=2030-01-01T00:00:00", 1)
+                        .header(header, 3))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("{\"error\":\"Availability period from must be before to!\"}"));
+        verifyNoInteractions(itemClient);
+    }
+
     @Test
     @SneakyThrows
     void getItemsBySearch_whenValidRequestHeaderAndUserId_shouldInvokeItemClientMethod() {
@@ -167,8 +249,8 @@ class ItemControllerTest {
                 List.of(),
                 2L);
         when(itemClient.getItemsBySearch(0, 20, 3L, "SomeText"))
-                .thenReturn(new ResponseEntity<>(List.of(outgoingItemDto), HttpStatus.OK));
-        mockMvc.perform(get("/items/search?from=0&size=20&text=SomeText")
+                .thenReturn(completedFuture(new ResponseEntity<>(List.of(outgoingItemDto), HttpStatus.OK)));
+        perform(get("/items/search?from=0&size=20&text=SomeText")
                         .header(header, 3))
                 .andExpect(status().isOk())
                 .andExpect(content().string(objectMapper.writeValueAsString(List.of(outgoingItemDto))));
@@ -178,7 +260,7 @@ class ItemControllerTest {
     @Test
     @SneakyThrows
     void getItemsBySearch_whenNegativeRequestHeader_shouldThrowConstraintViolationException() {
-        mockMvc.perform(get("/items/search?text=SomeText")
+        perform(get("/items/search?text=SomeText")
                         .header(header, -1))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
@@ -207,8 +289,8 @@ class ItemControllerTest {
                 List.of(),
                 2L);
         when(itemClient.postItem(1L, incomingItemDto))
-                .thenReturn(new ResponseEntity<>(outgoingItemDto, HttpStatus.OK));
-        mockMvc.perform(post("/items")
+                .thenReturn(completedFuture(new ResponseEntity<>(outgoingItemDto, HttpStatus.OK)));
+        perform(post("/items")
                         .header(header, 1)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -218,6 +300,43 @@ class ItemControllerTest {
         verify(itemClient).postItem(1L, incomingItemDto);
     }
 
+    @Test
+    @SneakyThrows
+    void postItems_whenBatchHasNotValidElement_shouldForwardWholeBatchToItemClient() {
+        List<IncomingItemDto> incomingItemDtoList = List.of(
+                new IncomingItemDto("Some Name", "Some description", true, null),
+                new IncomingItemDto("", "Some description", true, null));
+        List<BatchResultDto<OutgoingItemDto>> batchResultDtoList = List.of(
+                BatchResultDto.created(0, new OutgoingItemDto(1L, "Some Name", "Some description", true,
+                        null, null, List.of(), null)),
+                BatchResultDto.rejected(1, HttpStatus.BAD_REQUEST, "Creating item name field is blank!"));
+        when(itemClient.postItems(1L, incomingItemDtoList))
+                .thenReturn(completedFuture(new ResponseEntity<>(batchResultDtoList, HttpStatus.OK)));
+        perform(post("/items/batch")
+                        .header(header, 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(incomingItemDtoList)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(objectMapper.writeValueAsString(batchResultDtoList)));
+        verify(itemClient).postItems(1L, incomingItemDtoList);
+    }
+
+    @Test
+    @SneakyThrows
+    void postItems_whenBatchIsEmpty_shouldThrowConstraintViolationException() {
+        perform(post("/items/batch")
+                        .header(header, 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(result ->
+                        assertInstanceOf(ConstraintViolationException.class, result.getResolvedException()))
+                .andExpect(content().string("{\"error\":\"Batch must contain from 1 to 10000 items!\"}"));
+        verifyNoInteractions(itemClient);
+    }
+
     @Test
     @SneakyThrows
     void postItem_whenWrongRequestHeader_shouldThrowCMissingRequestHeaderException() {
@@ -226,7 +345,7 @@ class ItemControllerTest {
                 "Some description",
                 true,
                 null);
-        mockMvc.perform(post("/items")
+        perform(post("/items")
                         .header("WRONG-HEADER", "WRONG-VALUE")
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -251,7 +370,7 @@ class ItemControllerTest {
                 null,
                 null,
                 -1L);
-        mockMvc.perform(post("/items")
+        perform(post("/items")
                         .header(header, 1)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -282,8 +401,8 @@ class ItemControllerTest {
                 "Some author name",
                 LocalDateTime.of(2000, 1, 1, 1, 1, 1));
         when(itemClient.postComment(1L, 1L, incomingCommentDto))
-                .thenReturn(new ResponseEntity<>(outgoingCommentDto, HttpStatus.OK));
-        mockMvc.perform(post("/items/{id}/comment", 1L)
+                .thenReturn(completedFuture(new ResponseEntity<>(outgoingCommentDto, HttpStatus.OK)));
+        perform(post("/items/{id}/comment", 1L)
                         .header(header, 1)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -299,7 +418,7 @@ class ItemControllerTest {
         IncomingCommentDto incomingCommentDto = new IncomingCommentDto(
                 1L,
                 "");
-        mockMvc.perform(post("/items/{id}/comment", 1L)
+        perform(post("/items/{id}/comment", 1L)
                         .header(header, 1)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -320,7 +439,7 @@ class ItemControllerTest {
         IncomingCommentDto incomingCommentDto = new IncomingCommentDto(
                 null,
                 "Some text");
-        mockMvc.perform(post("/items/{id}/comment", -1)
+        perform(post("/items/{id}/comment", -1)
                         .header(header, 1)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -352,8 +471,8 @@ class ItemControllerTest {
                 List.of(),
                 1L);
         when(itemClient.patchItemById(1L, 1L, incomingItemDto))
-                .thenReturn(new ResponseEntity<>(outgoingItemDto, HttpStatus.OK));
-        mockMvc.perform(patch("/items/{id}", 1L)
+                .thenReturn(completedFuture(new ResponseEntity<>(outgoingItemDto, HttpStatus.OK)));
+        perform(patch("/items/{id}", 1L)
                         .header(header, 1)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -373,7 +492,7 @@ class ItemControllerTest {
                         "123456789012345678901234567890123456789012345678901234567890",
                 null,
                 null);
-        mockMvc.perform(patch("/items/{id}", 1L)
+        perform(patch("/items/{id}", 1L)
                         .header(header, 1)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -396,7 +515,7 @@ class ItemControllerTest {
                 "Some description",
                 true,
                 1L);
-        mockMvc.perform(patch("/items/{id}", 1)
+        perform(patch("/items/{id}", 1)
                         .header(header, -1)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -414,7 +533,7 @@ class ItemControllerTest {
     @Test
     @SneakyThrows
     void deleteItemById_whenValidItemId_shouldInvokeItemClientMethod() {
-        mockMvc.perform(delete("/items/{id}", 1)
+        perform(delete("/items/{id}", 1)
                         .header(header, 1))
                 .andExpect(status().isOk());
         verify(itemClient).deleteItemById(1L, 1L);
@@ -423,7 +542,7 @@ class ItemControllerTest {
     @Test
     @SneakyThrows
     void deleteItemById_whenNegativeItemId_shouldThrowConstraintViolationException() {
-        mockMvc.perform(delete("/items/{id}", -1)
+        perform(delete("/items/{id}", -1)
                         .header(header, 1))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
@@ -433,4 +552,11 @@ class ItemControllerTest {
                 .andExpect(content().string("{\"error\":\"must be greater than 0\"}"));
         verifyNoInteractions(itemClient);
     }
+
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        // Relayed calls answer with a future, the response is written by the async dispatch
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
 }
\ No newline at end of file
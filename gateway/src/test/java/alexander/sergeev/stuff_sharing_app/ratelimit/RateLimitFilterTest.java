@@ -0,0 +1,59 @@
+package alexander.sergeev.stuff_sharing_app.ratelimit;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RateLimitFilterTest {
+
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    private final RateLimitFilter filter = new RateLimitFilter(new RateLimiter(Map.of(
+            EndpointGroup.SEARCH, new Rate(0.5, 1),
+            EndpointGroup.READ, new Rate(100, 100),
+            EndpointGroup.WRITE, new Rate(10, 10)),
+            1000, nanoClock::get));
+
+    @Test
+    @SneakyThrows
+    void doFilter_whenUserOverLimit_shouldAnswer429BeforeReachingClient() {
+        MockFilterChain firstChain = new MockFilterChain();
+        filter.doFilter(searchRequest(), new MockHttpServletResponse(), firstChain);
+        assertNotNull(firstChain.getRequest());
+
+        MockFilterChain secondChain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(searchRequest(), response, secondChain);
+        assertNull(secondChain.getRequest());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    @SneakyThrows
+    void doFilter_whenNoUserHeader_shouldPassThrough() {
+        for (int i = 0; i < 3; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(new MockHttpServletRequest("GET", "/items/search"), new MockHttpServletResponse(), chain);
+            assertNotNull(chain.getRequest());
+        }
+    }
+
+    private static MockHttpServletRequest searchRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/search");
+        request.addHeader(header, 1L);
+        return request;
+    }
+}
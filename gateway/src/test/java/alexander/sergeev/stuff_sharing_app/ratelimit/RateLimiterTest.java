@@ -0,0 +1,72 @@
+package alexander.sergeev.stuff_sharing_app.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    private final AtomicLong nanoClock = new AtomicLong(-TimeUnit.HOURS.toNanos(1));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RateLimiter(Map.of(
+                EndpointGroup.SEARCH, new Rate(2, 3),
+                EndpointGroup.READ, new Rate(100, 100),
+                EndpointGroup.WRITE, new Rate(10, 10)),
+                1000, nanoClock::get);
+        rateLimiter.bindTo(meterRegistry);
+    }
+
+    @Test
+    void tryAcquire_whenBurstSpent_shouldRejectUntilRefilled() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(1L, EndpointGroup.SEARCH));
+        }
+        long waitNanos = rateLimiter.tryAcquire(1L, EndpointGroup.SEARCH);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), waitNanos);
+        nanoClock.addAndGet(waitNanos);
+        assertEquals(0, rateLimiter.tryAcquire(1L, EndpointGroup.SEARCH));
+        assertTrue(rateLimiter.tryAcquire(1L, EndpointGroup.SEARCH) > 0);
+        assertEquals(2, meterRegistry.get("gateway.rate.limit.requests")
+                .tags("group", "search", "result", "rejected").functionCounter().count());
+    }
+
+    @Test
+    void tryAcquire_shouldKeepBucketPerUserAndEndpointGroup() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire(1L, EndpointGroup.SEARCH);
+        }
+        assertTrue(rateLimiter.tryAcquire(1L, EndpointGroup.SEARCH) > 0);
+        assertEquals(0, rateLimiter.tryAcquire(2L, EndpointGroup.SEARCH));
+        assertEquals(0, rateLimiter.tryAcquire(1L, EndpointGroup.READ));
+    }
+
+    @Test
+    void tryAcquire_whenIdleLongerThanRefill_shouldNotSaveUpMoreThanBurst() {
+        rateLimiter.tryAcquire(1L, EndpointGroup.SEARCH);
+        nanoClock.addAndGet(TimeUnit.MINUTES.toNanos(10));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(1L, EndpointGroup.SEARCH));
+        }
+        assertTrue(rateLimiter.tryAcquire(1L, EndpointGroup.SEARCH) > 0);
+    }
+
+    @Test
+    void of_shouldGroupSearchReadsAndWrites() {
+        assertEquals(EndpointGroup.SEARCH, EndpointGroup.of("GET", "/items/search"));
+        assertEquals(EndpointGroup.READ, EndpointGroup.of("GET", "/items/1"));
+        assertEquals(EndpointGroup.WRITE, EndpointGroup.of("PATCH", "/bookings/1"));
+    }
+}
@@ -15,6 +15,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 
@@ -24,9 +27,11 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
@@ -62,8 +67,8 @@ class RequestControllerTest {
     @SneakyThrows
     void getAllRequesterRequests_whenInvoke_shouldInvokeRequestServiceMethod() {
         when(requestClient.getAllRequesterRequests(1L, 0, 20))
-                .thenReturn(new ResponseEntity<>(List.of(outgoingRequestDto), HttpStatus.OK));
-        mockMvc.perform(get("/requests")
+                .thenReturn(completedFuture(new ResponseEntity<>(List.of(outgoingRequestDto), HttpStatus.OK)));
+        perform(get("/requests")
                         .header(header, 1))
                 .andExpect(status().isOk())
                 .andExpect(content().string(objectMapper.writeValueAsString(List.of(outgoingRequestDto))));
@@ -73,7 +78,7 @@ class RequestControllerTest {
     @Test
     @SneakyThrows
     void getAllRequesterRequests_whenWrongHeader_shouldNotInvokeRequestServiceMethod_andThrowMissingRequestHeaderException() {
-        mockMvc.perform(get("/requests")
+        perform(get("/requests")
                         .header("WRONG-HEADER", "WRONG-VALUE"))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
@@ -90,7 +95,7 @@ class RequestControllerTest {
     @Test
     @SneakyThrows
     void getAllRequesterRequests_whenNotValidFromAndSize_shouldThrowConstraintViolationException() {
-        mockMvc.perform(get("/requests?from=-1&size=0")
+        perform(get("/requests?from=-1&size=0")
                         .header(header, 1))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
@@ -109,8 +114,8 @@ class RequestControllerTest {
     @SneakyThrows
     void getAllRequests_whenInvoke_shouldInvokeRequestServiceMethod() {
         when(requestClient.getAllRequests(1L, 0, 20))
-                .thenReturn(new ResponseEntity<>(List.of(outgoingRequestDto), HttpStatus.OK));
-        mockMvc.perform(get("/requests/all")
+                .thenReturn(completedFuture(new ResponseEntity<>(List.of(outgoingRequestDto), HttpStatus.OK)));
+        perform(get("/requests/all")
                         .header(header, 1))
                 .andExpect(status().isOk())
                 .andExpect(content().string(objectMapper.writeValueAsString(List.of(outgoingRequestDto))));
@@ -120,7 +125,7 @@ class RequestControllerTest {
     @Test
     @SneakyThrows
     void getAllRequests_whenNotValidFromAndSize_shouldThrowConstraintViolationException() {
-        mockMvc.perform(get("/requests/all?from=-1&size=0")
+        perform(get("/requests/all?from=-1&size=0")
                         .header(header, 1))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
@@ -135,10 +140,36 @@ class RequestControllerTest {
         verifyNoInteractions(requestClient);
     }
 
+    @Test
+    @SneakyThrows
+    void getAllRequestsAfter_whenInvoke_shouldInvokeRequestClientMethod() {
+        when(requestClient.getAllRequestsAfter(1L, "cursor", 20))
+                .thenReturn(completedFuture(new ResponseEntity<>(List.of(outgoingRequestDto), HttpStatus.OK)));
+        perform(get("/requests/all?after=cursor")
+                        .header(header, 1))
+                .andExpect(status().isOk())
+                .andExpect(content().string(objectMapper.writeValueAsString(List.of(outgoingRequestDto))));
+        verify(requestClient).getAllRequestsAfter(1L, "cursor", 20);
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllRequesterRequestsAfter_whenSizeIsTooLarge_shouldThrowConstraintViolationException() {
+        perform(get("/requests?after=cursor&size=21")
+                        .header(header, 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(result ->
+                        assertInstanceOf(ConstraintViolationException.class, result.getResolvedException()))
+                .andExpect(result -> assertEquals(
+                        "getAllRequesterRequestsAfter.size: must be less than or equal to 20",
+                        result.getResolvedException().getMessage()));
+        verifyNoInteractions(requestClient);
+    }
+
     @Test
     @SneakyThrows
     void getAllRequests_whenNoRequestHeader_shouldThrowMissingRequestHeaderException() {
-        mockMvc.perform(get("/requests/all?from=0&size=1"))
+        perform(get("/requests/all?from=0&size=1"))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
                         assertInstanceOf(MissingRequestHeaderException.class, result.getResolvedException()))
@@ -155,19 +186,19 @@ class RequestControllerTest {
     @Test
     @SneakyThrows
     void getRequestById_whenInvoke_shouldInvokeRequestServiceMethod() {
-        when(requestClient.getRequestById(1L, 1L))
-                .thenReturn(new ResponseEntity<>(outgoingRequestDto, HttpStatus.OK));
-        mockMvc.perform(get("/requests/{id}", 1)
+        when(requestClient.getRequestById(1L, 1L, null))
+                .thenReturn(completedFuture(new ResponseEntity<>(outgoingRequestDto, HttpStatus.OK)));
+        perform(get("/requests/{id}", 1)
                         .header(header, 1))
                 .andExpect(status().isOk())
                 .andExpect(content().string(objectMapper.writeValueAsString(outgoingRequestDto)));
-        verify(requestClient).getRequestById(1L, 1L);
+        verify(requestClient).getRequestById(1L, 1L, null);
     }
 
     @Test
     @SneakyThrows
     void getRequestById_whenNegativeRequestId_shouldThrowConstraintViolationException() {
-        mockMvc.perform(get("/requests/{id}", -1)
+        perform(get("/requests/{id}", -1)
                         .header(header, 1))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
@@ -185,8 +216,8 @@ class RequestControllerTest {
                 null,
                 "Some description");
         when(requestClient.postRequest(1L, incomingRequestDto))
-                .thenReturn(new ResponseEntity<>(outgoingRequestDto, HttpStatus.OK));
-        mockMvc.perform(post("/requests")
+                .thenReturn(completedFuture(new ResponseEntity<>(outgoingRequestDto, HttpStatus.OK)));
+        perform(post("/requests")
                         .header(header, 1)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -202,7 +233,7 @@ class RequestControllerTest {
         IncomingRequestDto incomingRequestDto = new IncomingRequestDto(
                 1L,
                 "");
-        mockMvc.perform(post("/requests")
+        perform(post("/requests")
                         .header(header, 1)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -223,7 +254,7 @@ class RequestControllerTest {
         IncomingRequestDto incomingRequestDto = new IncomingRequestDto(
                 null,
                 "Some description");
-        mockMvc.perform(post("/requests")
+        perform(post("/requests")
                         .header("WRONG-HEADER", 123)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -240,4 +271,11 @@ class RequestControllerTest {
                         "type Long is not present"));
         verifyNoInteractions(requestClient);
     }
+
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        // Relayed calls answer with a future, the response is written by the async dispatch
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
 }
\ No newline at end of file
@@ -13,12 +13,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
 import javax.validation.ConstraintViolationException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -46,8 +50,8 @@ class UserControllerTest {
                 "Name",
                 "name@email.com");
         when(userClient.getAllUsers(5, 10))
-                .thenReturn(new ResponseEntity<>(List.of(userDto), HttpStatus.OK));
-        mockMvc.perform(get("/users?from=5&size=10"))
+                .thenReturn(completedFuture(new ResponseEntity<>(List.of(userDto), HttpStatus.OK)));
+        perform(get("/users?from=5&size=10"))
                 .andExpect(status().isOk())
                 .andExpect(content().string(objectMapper.writeValueAsString(List.of(userDto))));
         verify(userClient).getAllUsers(5, 10);
@@ -56,7 +60,7 @@ class UserControllerTest {
     @Test
     @SneakyThrows
     void getAllUsers_whenNegativeFromAndNegativeSize_shouldNotInvokeUserServiceMethod_andThrowConstraintViolationException() {
-        mockMvc.perform(get("/users?from=-1"))
+        perform(get("/users?from=-1"))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
                         assertInstanceOf(ConstraintViolationException.class, result.getResolvedException()))
@@ -70,7 +74,7 @@ class UserControllerTest {
     @Test
     @SneakyThrows
     void getAllUsers_whenLessThan1Size_shouldNotInvokeUserServiceMethod_andThrowConstraintViolationException() {
-        mockMvc.perform(get("/users?size=-1"))
+        perform(get("/users?size=-1"))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
                         assertInstanceOf(ConstraintViolationException.class, result.getResolvedException()))
@@ -84,7 +88,7 @@ class UserControllerTest {
     @Test
     @SneakyThrows
     void getAllUsers_whenGreaterThen20Size_shouldNotInvokeUserServiceMethod_andThrowConstraintViolationException() {
-        mockMvc.perform(get("/users?size=21"))
+        perform(get("/users?size=21"))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
                         assertInstanceOf(ConstraintViolationException.class, result.getResolvedException()))
@@ -103,8 +107,8 @@ class UserControllerTest {
                 "Name",
                 "name@email.com");
         when(userClient.getUserById(1L))
-                .thenReturn(new ResponseEntity<>(userDto, HttpStatus.OK));
-        mockMvc.perform(get("/users/{id}", 1))
+                .thenReturn(completedFuture(new ResponseEntity<>(userDto, HttpStatus.OK)));
+        perform(get("/users/{id}", 1))
                 .andExpect(status().isOk())
                 .andExpect(content().string(objectMapper.writeValueAsString(userDto)));
         verify(userClient).getUserById(1L);
@@ -113,7 +117,7 @@ class UserControllerTest {
     @Test
     @SneakyThrows
     void getUserById_whenNegativeId_shouldNotInvokeUserServiceMethod_andThrowConstraintViolationException() {
-        mockMvc.perform(get("/users/{id}", -1))
+        perform(get("/users/{id}", -1))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
                         assertInstanceOf(ConstraintViolationException.class, result.getResolvedException()))
@@ -131,8 +135,8 @@ class UserControllerTest {
                 null,
                 "Name",
                 "name@email.com");
-        when(userClient.postUser(userDto)).thenReturn(new ResponseEntity<>(userDto, HttpStatus.OK));
-        mockMvc.perform(post("/users")
+        when(userClient.postUser(userDto)).thenReturn(completedFuture(new ResponseEntity<>(userDto, HttpStatus.OK)));
+        perform(post("/users")
                         .content(objectMapper.writeValueAsString(userDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON))
@@ -148,7 +152,7 @@ class UserControllerTest {
                 123L,
                 "",
                 "not an email");
-        mockMvc.perform(post("/users")
+        perform(post("/users")
                         .content(objectMapper.writeValueAsString(userDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON))
@@ -168,8 +172,8 @@ class UserControllerTest {
                 "Name",
                 "name@email.com");
         when(userClient.patchUserById(1L, userDto))
-                .thenReturn(new ResponseEntity<>(userDto, HttpStatus.OK));
-        mockMvc.perform(patch("/users/{id}", 1)
+                .thenReturn(completedFuture(new ResponseEntity<>(userDto, HttpStatus.OK)));
+        perform(patch("/users/{id}", 1)
                         .content(objectMapper.writeValueAsString(userDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON))
@@ -185,7 +189,7 @@ class UserControllerTest {
                 null,
                 "Name",
                 "name@email.com");
-        mockMvc.perform(patch("/users/{id}", -1)
+        perform(patch("/users/{id}", -1)
                         .content(objectMapper.writeValueAsString(userDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON))
@@ -206,7 +210,7 @@ class UserControllerTest {
                 null,
                 null,
                 "not an email");
-        mockMvc.perform(patch("/users/{id}", 1)
+        perform(patch("/users/{id}", 1)
                         .content(objectMapper.writeValueAsString(userDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON))
@@ -220,7 +224,7 @@ class UserControllerTest {
     @Test
     @SneakyThrows
     void deleteUserById_whenValidUserId_shouldInvokeUserServiceMethod() {
-        mockMvc.perform(delete("/users/{id}", 1))
+        perform(delete("/users/{id}", 1))
                 .andExpect(status().isOk());
         verify(userClient, times(1)).deleteUserById(1L);
     }
@@ -228,7 +232,7 @@ class UserControllerTest {
     @Test
     @SneakyThrows
     void deleteUserById_whenNegativeUserId_shouldNotInvokeUserServiceMethod_andThrowConstraintViolationException() {
-        mockMvc.perform(delete("/users/{id}", -1))
+        perform(delete("/users/{id}", -1))
                 .andExpect(status().isBadRequest())
                 .andExpect(result ->
                         assertInstanceOf(ConstraintViolationException.class, result.getResolvedException()))
@@ -238,4 +242,11 @@ class UserControllerTest {
                 .andExpect(content().string("{\"error\":\"must be greater than 0\"}"));
         verifyNoInteractions(userClient);
     }
+
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        // Relayed calls answer with a future, the response is written by the async dispatch
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
 }
\ No newline at end of file
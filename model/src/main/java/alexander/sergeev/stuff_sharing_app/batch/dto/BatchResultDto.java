@@ -0,0 +1,29 @@
+package alexander.sergeev.stuff_sharing_app.batch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResultDto<T> {
+
+    private Integer index;
+
+    private Integer status;
+
+    private T result;
+
+    private String error;
+
+    public static <T> BatchResultDto<T> created(int index, T result) {
+        return new BatchResultDto<>(index, HttpStatus.CREATED.value(), result, null);
+    }
+
+    public static <T> BatchResultDto<T> rejected(int index, HttpStatus status, String error) {
+        return new BatchResultDto<>(index, status.value(), null, error);
+    }
+
+}
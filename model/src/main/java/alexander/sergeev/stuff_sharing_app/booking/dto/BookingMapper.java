@@ -7,6 +7,8 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 public class BookingMapper {
 
+    // The DTO embeds the item and booker entities and is rendered after the transaction closed. Jackson would
+    // initialize any proxy left, so load them with booking-with-item-and-booker or item-with-owner-and-request
     public OutgoingBookingDto mapBookingToOutgoingDto(Booking booking) {
         return new OutgoingBookingDto(
                 booking.getId(),
@@ -0,0 +1,11 @@
+package alexander.sergeev.stuff_sharing_app.booking.dto;
+
+import java.time.LocalDateTime;
+
+public interface BookingPeriodView {
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+}
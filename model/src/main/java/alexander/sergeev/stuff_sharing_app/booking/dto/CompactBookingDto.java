@@ -0,0 +1,39 @@
+package alexander.sergeev.stuff_sharing_app.booking.dto;
+
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
+import alexander.sergeev.stuff_sharing_app.item.dto.ShortItemDto;
+import alexander.sergeev.stuff_sharing_app.user.dto.ShortUserDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactBookingDto {
+
+    private Long id;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+    private BookingStatus status;
+
+    private ShortUserDto booker;
+
+    private ShortItemDto item;
+
+    public CompactBookingDto(Long id,
+                             LocalDateTime start,
+                             LocalDateTime end,
+                             BookingStatus status,
+                             Long bookerId,
+                             String bookerName,
+                             Long itemId,
+                             String itemName) {
+        this(id, start, end, status, new ShortUserDto(bookerId, bookerName), new ShortItemDto(itemId, itemName));
+    }
+}
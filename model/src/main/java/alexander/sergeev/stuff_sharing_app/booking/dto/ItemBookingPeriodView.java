@@ -0,0 +1,7 @@
+package alexander.sergeev.stuff_sharing_app.booking.dto;
+
+public interface ItemBookingPeriodView extends BookingPeriodView {
+
+    Long getItemId();
+
+}
@@ -9,6 +9,17 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(
+        name = "booking-with-item-and-booker",
+        attributeNodes = {
+                @NamedAttributeNode("booker"),
+                @NamedAttributeNode(value = "item", subgraph = "item-with-owner-and-request")},
+        subgraphs = {
+                @NamedSubgraph(name = "item-with-owner-and-request", attributeNodes = {
+                        @NamedAttributeNode("owner"),
+                        @NamedAttributeNode(value = "request", subgraph = "request-with-requester")}),
+                @NamedSubgraph(name = "request-with-requester", attributeNodes = {
+                        @NamedAttributeNode("requester")})})
 @Getter
 @Setter
 @EqualsAndHashCode
@@ -18,7 +29,8 @@ import java.time.LocalDateTime;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "start_date", nullable = false)
@@ -27,12 +39,14 @@ public class Booking {
     @Column(name = "end_date", nullable = false)
     private LocalDateTime end;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
+    @ToString.Exclude
     private Item item;
 
-    @OneToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
+    @ToString.Exclude
     private User booker;
 
     @Enumerated(EnumType.STRING)
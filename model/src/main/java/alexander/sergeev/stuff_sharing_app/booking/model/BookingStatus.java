@@ -1,7 +1,12 @@
 package alexander.sergeev.stuff_sharing_app.booking.model;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum BookingStatus {
 
-    WAITING, APPROVED, REJECTED, CANCELED
+    WAITING, APPROVED, REJECTED, CANCELED;
+
+    public static final Set<BookingStatus> OCCUPYING = EnumSet.of(WAITING, APPROVED);
 
-}
\ No newline at end of file
+}
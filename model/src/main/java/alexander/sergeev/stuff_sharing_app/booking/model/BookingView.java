@@ -0,0 +1,7 @@
+package alexander.sergeev.stuff_sharing_app.booking.model;
+
+public enum BookingView {
+
+    FULL, COMPACT
+
+}
@@ -4,6 +4,7 @@ import alexander.sergeev.stuff_sharing_app.comment.model.Comment;
 import lombok.experimental.UtilityClass;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @UtilityClass
 public class CommentMapper {
@@ -16,12 +17,20 @@ public class CommentMapper {
                 comment.getCreated());
     }
 
+    public OutgoingCommentDto mapCommentViewToOutgoingDto(ItemCommentView itemCommentView) {
+        return new OutgoingCommentDto(
+                itemCommentView.getId(),
+                itemCommentView.getText(),
+                itemCommentView.getAuthorName(),
+                itemCommentView.getCreated());
+    }
+
     public Comment mapIncommingDtoToComment(IncomingCommentDto incomingCommentDto) {
         return new Comment(
                 null,
                 incomingCommentDto.getText(),
                 null,
                 null,
-                LocalDateTime.now());
+                LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
     }
 }
\ No newline at end of file
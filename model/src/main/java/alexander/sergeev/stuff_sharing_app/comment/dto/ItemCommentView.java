@@ -0,0 +1,17 @@
+package alexander.sergeev.stuff_sharing_app.comment.dto;
+
+import java.time.LocalDateTime;
+
+public interface ItemCommentView {
+
+    Long getItemId();
+
+    Long getId();
+
+    String getText();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+
+}
@@ -5,12 +5,14 @@ import alexander.sergeev.stuff_sharing_app.user.model.User;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "comments")
+@NamedEntityGraph(name = "comment-with-author", attributeNodes = @NamedAttributeNode("author"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,12 +26,14 @@ public class Comment {
     @Column(name = "text", length = 128, nullable = false)
     private String text;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", nullable = false)
+    @ToString.Exclude
     private Item item;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = false)
+    @ToString.Exclude
     private User author;
 
     @Column(name = "created", nullable = false)
@@ -1,6 +1,7 @@
 package alexander.sergeev.stuff_sharing_app.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -9,9 +10,11 @@ import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.client.ResourceAccessException;
 
 import javax.validation.ConstraintViolationException;
 import javax.validation.ValidationException;
+import java.net.SocketTimeoutException;
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
@@ -38,9 +41,18 @@ public class ExceptionResolver {
                 HttpStatus.CONFLICT);
     }
 
+    // Another transaction bumped the same version first, the client may retry against the new state
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> optimisticLockingFailureHandle(OptimisticLockingFailureException e) {
+        log.warn("{} : {}", e.getClass().getSimpleName(), e.getMessage());
+        return new ResponseEntity<>(e.getClass().getSimpleName() + " : " + e.getMessage(),
+                HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<String> notFoundHandle(Exception e) {
-        log.error("{} : {}", e.getClass().getSimpleName(), e.getMessage());
+        // A 404 is an expected answer and already shows in the access log
+        log.debug("{} : {}", e.getClass().getSimpleName(), e.getMessage());
         return new ResponseEntity<>(e.getClass().getSimpleName() + " : " + e.getMessage(),
                 HttpStatus.NOT_FOUND);
     }
@@ -55,6 +67,7 @@ public class ExceptionResolver {
     @ExceptionHandler({
             MissingRequestHeaderException.class,
             NotAvailableItemException.class,
+            WrongCursorException.class,
             SQLException.class})
     public ResponseEntity<String> exceptionHandle(Exception e) {
         log.error("{} : {}", e.getClass().getSimpleName(), e.getMessage());
@@ -62,6 +75,22 @@ public class ExceptionResolver {
                 HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(UpstreamUnavailableException.class)
+    public ResponseEntity<String> upstreamUnavailableHandle(UpstreamUnavailableException e) {
+        log.warn("{} : {}", e.getClass().getSimpleName(), e.getMessage());
+        return new ResponseEntity<>(e.getClass().getSimpleName() + " : " + e.getMessage(),
+                HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(ResourceAccessException.class)
+    public ResponseEntity<String> resourceAccessHandle(ResourceAccessException e) {
+        log.warn("{} : {}", e.getClass().getSimpleName(), e.getMessage());
+        HttpStatus status = e.getCause() instanceof SocketTimeoutException
+                ? HttpStatus.GATEWAY_TIMEOUT
+                : HttpStatus.SERVICE_UNAVAILABLE;
+        return new ResponseEntity<>(e.getClass().getSimpleName() + " : " + e.getMessage(), status);
+    }
+
     @ExceptionHandler(Throwable.class)
     public ResponseEntity<String> throwableHandle(Throwable e) {
         log.error("{} : {}", e.getClass().getSimpleName(), e.getMessage());
@@ -0,0 +1,8 @@
+package alexander.sergeev.stuff_sharing_app.exception;
+
+public class UpstreamUnavailableException extends RuntimeException {
+
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package alexander.sergeev.stuff_sharing_app.exception;
+
+public class WrongCursorException extends RuntimeException {
+
+    public WrongCursorException(String message) {
+        super(message);
+    }
+}
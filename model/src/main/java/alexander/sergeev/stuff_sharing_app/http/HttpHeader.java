@@ -4,4 +4,6 @@ public class HttpHeader {
 
     public static final String header = "X-Sharer-User-Id";
 
-}
\ No newline at end of file
+    public static final String nextCursorHeader = "X-Next-Cursor";
+
+}
@@ -0,0 +1,18 @@
+package alexander.sergeev.stuff_sharing_app.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilitySlotDto {
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+}
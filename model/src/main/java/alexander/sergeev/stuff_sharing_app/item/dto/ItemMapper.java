@@ -1,5 +1,7 @@
 package alexander.sergeev.stuff_sharing_app.item.dto;
 
+import alexander.sergeev.stuff_sharing_app.booking.dto.LastNextBookingDto;
+import alexander.sergeev.stuff_sharing_app.comment.dto.OutgoingCommentDto;
 import alexander.sergeev.stuff_sharing_app.item.model.Item;
 import lombok.experimental.UtilityClass;
 
@@ -20,6 +22,23 @@ public class ItemMapper {
                 item.getRequest() == null ? null : item.getRequest().getId());
     }
 
+    public OutgoingItemDto mapOwnerItemViewToOutgoingDto(OwnerItemView ownerItemView,
+                                                         List<OutgoingCommentDto> comments) {
+        return new OutgoingItemDto(
+                ownerItemView.getId(),
+                ownerItemView.getName(),
+                ownerItemView.getDescription(),
+                ownerItemView.getAvailable(),
+                ownerItemView.getLastBookingId() == null ? null : new LastNextBookingDto(
+                        ownerItemView.getLastBookingId(),
+                        ownerItemView.getLastBookingBookerId()),
+                ownerItemView.getNextBookingId() == null ? null : new LastNextBookingDto(
+                        ownerItemView.getNextBookingId(),
+                        ownerItemView.getNextBookingBookerId()),
+                comments,
+                ownerItemView.getRequestId());
+    }
+
     public Item mapIncomingDtoToItem(IncomingItemDto incomingItemDto) {
         return new Item(
                 null,
@@ -27,4 +27,7 @@ public class OutgoingItemDto {
 
     private Long requestId;
 
+    public OutgoingItemDto(Long id, String name, String description, Boolean available, Long requestId) {
+        this(id, name, description, available, null, null, List.of(), requestId);
+    }
 }
\ No newline at end of file
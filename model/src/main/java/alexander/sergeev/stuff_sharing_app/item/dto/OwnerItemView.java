@@ -0,0 +1,23 @@
+package alexander.sergeev.stuff_sharing_app.item.dto;
+
+public interface OwnerItemView {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getRequestId();
+
+    Long getLastBookingId();
+
+    Long getLastBookingBookerId();
+
+    Long getNextBookingId();
+
+    Long getNextBookingBookerId();
+
+}
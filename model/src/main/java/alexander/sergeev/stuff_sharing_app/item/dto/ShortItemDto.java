@@ -0,0 +1,16 @@
+package alexander.sergeev.stuff_sharing_app.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShortItemDto {
+
+    private Long id;
+
+    private String name;
+
+}
@@ -2,21 +2,36 @@ package alexander.sergeev.stuff_sharing_app.item.model;
 
 import alexander.sergeev.stuff_sharing_app.request.model.Request;
 import alexander.sergeev.stuff_sharing_app.user.model.User;
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import javax.persistence.*;
 
 @Entity
 @Table(name = "items")
+@Cacheable
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = "item-only"),
+        @NamedEntityGraph(
+                name = "item-with-owner-and-request",
+                attributeNodes = {
+                        @NamedAttributeNode("owner"),
+                        @NamedAttributeNode(value = "request", subgraph = "request-with-requester")},
+                subgraphs = {
+                        @NamedSubgraph(name = "request-with-requester", attributeNodes = {
+                                @NamedAttributeNode("requester")})})})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", length = 128, nullable = false)
@@ -28,12 +43,29 @@ public class Item {
     @Column(name = "available", nullable = false)
     private Boolean available;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
+    @ToString.Exclude
     private Request request;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
+    @ToString.Exclude
     private User owner;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
+    public Item(Long id, String name, String description, Boolean available, Request request, User owner) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+        this.request = request;
+        this.owner = owner;
+    }
+
 }
\ No newline at end of file
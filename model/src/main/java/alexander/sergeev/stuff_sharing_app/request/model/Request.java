@@ -1,6 +1,8 @@
 package alexander.sergeev.stuff_sharing_app.request.model;
 
 import alexander.sergeev.stuff_sharing_app.user.model.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.*;
 
 import javax.persistence.*;
@@ -8,10 +10,11 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "requests")
+@Cacheable
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 @EqualsAndHashCode
 @ToString
 public class Request {
@@ -26,8 +29,22 @@ public class Request {
     @Column(name = "created")
     private LocalDateTime created;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "requester_id")
+    @ToString.Exclude
     private User requester;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
+    public Request(Long id, String description, LocalDateTime created, User requester) {
+        this.id = id;
+        this.description = description;
+        this.created = created;
+        this.requester = requester;
+    }
+
 }
\ No newline at end of file
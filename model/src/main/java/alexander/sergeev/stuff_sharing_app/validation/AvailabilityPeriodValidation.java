@@ -0,0 +1,25 @@
+package alexander.sergeev.stuff_sharing_app.validation;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+// Checks the method's first two LocalDateTime parameters as the from and to of a period
+@Target(ElementType.METHOD)
+@Retention(RUNTIME)
+@Constraint(validatedBy = AvailabilityPeriodValidator.class)
+@Documented
+public @interface AvailabilityPeriodValidation {
+
+    String message() default "Availability period from must be before to!";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+}
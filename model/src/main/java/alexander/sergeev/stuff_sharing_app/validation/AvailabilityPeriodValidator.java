@@ -0,0 +1,24 @@
+package alexander.sergeev.stuff_sharing_app.validation;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.constraintvalidation.SupportedValidationTarget;
+import javax.validation.constraintvalidation.ValidationTarget;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SupportedValidationTarget(ValidationTarget.PARAMETERS)
+public class AvailabilityPeriodValidator implements ConstraintValidator<AvailabilityPeriodValidation, Object[]> {
+
+    @Override
+    public boolean isValid(Object[] parameters, ConstraintValidatorContext context) {
+        List<LocalDateTime> period = Arrays.stream(parameters)
+                .filter(LocalDateTime.class::isInstance)
+                .map(LocalDateTime.class::cast)
+                .collect(Collectors.toList());
+        // Missing bounds are reported by the request parameter binding already
+        return period.size() < 2 || period.get(0).isBefore(period.get(1));
+    }
+}
@@ -0,0 +1,29 @@
+package alexander.sergeev.stuff_sharing_app.batch;
+
+import alexander.sergeev.stuff_sharing_app.validation.ValidationMarker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class BatchElementValidator {
+
+    private final Validator validator;
+
+    public Optional<String> validateOnCreate(Object element) {
+        if (element == null) {
+            return Optional.of("Batch element is null!");
+        }
+        String error = validator.validate(element, ValidationMarker.OnCreate.class)
+                .stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(" "));
+        return error.isEmpty() ? Optional.empty() : Optional.of(error);
+    }
+}
@@ -1,77 +1,154 @@
 package alexander.sergeev.stuff_sharing_app.booking.controller;
 
+import alexander.sergeev.stuff_sharing_app.batch.dto.BatchResultDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.IncomingBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.OutgoingBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.model.BookingState;
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingView;
 import alexander.sergeev.stuff_sharing_app.booking.service.BookingService;
+import alexander.sergeev.stuff_sharing_app.export.NdjsonWriter;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetPagination;
+import alexander.sergeev.stuff_sharing_app.validation.BookingStateValidation;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 
 import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
 
-@Slf4j
 @RestController
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
+@Validated
 public class BookingController {
 
     private final Sort sortByStartDesc = Sort.by(Sort.Direction.DESC, "start");
 
     private final BookingService bookingService;
 
+    private final NdjsonWriter ndjsonWriter;
+
     @GetMapping
-    public Collection<OutgoingBookingDto> getAllUserBookings(
-            HttpServletRequest request,
+    public Collection<?> getAllUserBookings(
             @RequestParam(value = "from") Integer firstElement,
             @RequestParam(value = "size") Integer size,
             @RequestHeader(header) Long userId,
-            @RequestParam(name = "state", defaultValue = "ALL") String bookingStateString) {
-        log.info("Id-{} {} {}?{}", userId, request.getMethod(), request.getRequestURI(), request.getQueryString());
-        return bookingService.getAllUserBookings(userId, BookingState.valueOf(bookingStateString),
-                PageRequest.of(firstElement / size, size, sortByStartDesc));
+            @RequestParam(name = "state", defaultValue = "ALL") @BookingStateValidation String bookingStateString,
+            @RequestParam(name = "view", defaultValue = "full")
+            @Pattern(regexp = "(?i)(full|compact)", message = "Unknown view: ${validatedValue}") String bookingViewString) {
+        BookingState bookingState = BookingState.valueOf(bookingStateString);
+        PageRequest pageRequest = PageRequest.of(firstElement / size, size, sortByStartDesc);
+        if (isCompact(bookingViewString)) {
+            return bookingService.getAllUserCompactBookings(userId, bookingState, pageRequest);
+        }
+        return bookingService.getAllUserBookings(userId, bookingState, pageRequest);
     }
 
     @GetMapping("/owner")
-    public Collection<OutgoingBookingDto> getAllOwnerItemBookings(
-            HttpServletRequest request,
+    public Collection<?> getAllOwnerItemBookings(
             @RequestParam(value = "from") Integer firstElement,
             @RequestParam(value = "size") Integer size,
             @RequestHeader(header) Long ownerId,
-            @RequestParam(name = "state", defaultValue = "ALL") String bookingStateString) {
-        log.info("Id-{} {} {}?{}", ownerId, request.getMethod(), request.getRequestURI(), request.getQueryString());
-        return bookingService.getAllOwnerItemBookings(ownerId, BookingState.valueOf(bookingStateString),
-                PageRequest.of(firstElement / size, size, sortByStartDesc));
+            @RequestParam(name = "state", defaultValue = "ALL") @BookingStateValidation String bookingStateString,
+            @RequestParam(name = "view", defaultValue = "full")
+            @Pattern(regexp = "(?i)(full|compact)", message = "Unknown view: ${validatedValue}") String bookingViewString) {
+        BookingState bookingState = BookingState.valueOf(bookingStateString);
+        PageRequest pageRequest = PageRequest.of(firstElement / size, size, sortByStartDesc);
+        if (isCompact(bookingViewString)) {
+            return bookingService.getAllOwnerItemCompactBookings(ownerId, bookingState, pageRequest);
+        }
+        return bookingService.getAllOwnerItemBookings(ownerId, bookingState, pageRequest);
+    }
+
+    @GetMapping(params = "after")
+    public Collection<?> getAllUserBookingsAfter(
+            HttpServletResponse response,
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size") @Min(1) @Max(20) Integer size,
+            @RequestHeader(header) Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") @BookingStateValidation String bookingStateString,
+            @RequestParam(name = "view", defaultValue = "full")
+            @Pattern(regexp = "(?i)(full|compact)", message = "Unknown view: ${validatedValue}") String bookingViewString) {
+        BookingState bookingState = BookingState.valueOf(bookingStateString);
+        KeysetCursor afterCursor = KeysetCursor.decodePositioned(after);
+        if (isCompact(bookingViewString)) {
+            return KeysetPagination.writeNextCursor(response,
+                    bookingService.getAllUserCompactBookings(userId, bookingState, afterCursor, size),
+                    booking -> KeysetCursor.of(booking.getStart(), booking.getId()));
+        }
+        return KeysetPagination.writeNextCursor(response,
+                bookingService.getAllUserBookings(userId, bookingState, afterCursor, size),
+                booking -> KeysetCursor.of(booking.getStart(), booking.getId()));
+    }
+
+    @GetMapping(path = "/owner", params = "after")
+    public Collection<?> getAllOwnerItemBookingsAfter(
+            HttpServletResponse response,
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size") @Min(1) @Max(20) Integer size,
+            @RequestHeader(header) Long ownerId,
+            @RequestParam(name = "state", defaultValue = "ALL") @BookingStateValidation String bookingStateString,
+            @RequestParam(name = "view", defaultValue = "full")
+            @Pattern(regexp = "(?i)(full|compact)", message = "Unknown view: ${validatedValue}") String bookingViewString) {
+        BookingState bookingState = BookingState.valueOf(bookingStateString);
+        KeysetCursor afterCursor = KeysetCursor.decodePositioned(after);
+        if (isCompact(bookingViewString)) {
+            return KeysetPagination.writeNextCursor(response,
+                    bookingService.getAllOwnerItemCompactBookings(ownerId, bookingState, afterCursor, size),
+                    booking -> KeysetCursor.of(booking.getStart(), booking.getId()));
+        }
+        return KeysetPagination.writeNextCursor(response,
+                bookingService.getAllOwnerItemBookings(ownerId, bookingState, afterCursor, size),
+                booking -> KeysetCursor.of(booking.getStart(), booking.getId()));
+    }
+
+    @GetMapping("/export")
+    public void exportOwnerItemBookings(
+            HttpServletResponse response,
+            @RequestHeader(header) Long ownerId) throws IOException {
+        ndjsonWriter.write(response, rowConsumer -> bookingService.exportOwnerItemBookings(ownerId, rowConsumer));
     }
 
     @GetMapping("/{bookingId}")
-    public OutgoingBookingDto getBookingById(HttpServletRequest request,
-                                             @RequestHeader(header) Long userId,
+    public OutgoingBookingDto getBookingById(@RequestHeader(header) Long userId,
                                              @PathVariable Long bookingId) {
-        log.info("Id-{} {} {}", userId, request.getMethod(), request.getRequestURI());
         return bookingService.getBookingById(userId, bookingId);
     }
 
     @PostMapping
     public OutgoingBookingDto postBooking(
-            HttpServletRequest request,
             @RequestHeader(header) Long bookerId,
             @RequestBody IncomingBookingDto incomingBookingDto) {
-        log.info("Id-{} {} {} {}", bookerId, request.getMethod(), request.getRequestURI(), incomingBookingDto);
         return bookingService.postBooking(bookerId, incomingBookingDto);
     }
 
+    @PostMapping("/batch")
+    public Collection<BatchResultDto<OutgoingBookingDto>> postBookings(
+            @RequestHeader(header) Long bookerId,
+            @RequestBody @Size(min = 1, max = 10000, message = "Batch must contain from 1 to 10000 bookings!")
+            List<IncomingBookingDto> incomingBookingDtoList) {
+        return bookingService.postBookings(bookerId, incomingBookingDtoList);
+    }
+
     @PatchMapping("/{bookingId}")
-    public OutgoingBookingDto patchBooking(HttpServletRequest request,
-                                           @RequestHeader(header) Long itemOwnerId,
+    public OutgoingBookingDto patchBooking(@RequestHeader(header) Long itemOwnerId,
                                            @PathVariable Long bookingId,
                                            @RequestParam Boolean approved) {
-        log.info("Id-{} {} {}", itemOwnerId, request.getMethod(), request.getRequestURI());
         return bookingService.patchBookingById(itemOwnerId, bookingId, approved);
     }
+
+    private boolean isCompact(String bookingViewString) {
+        return BookingView.valueOf(bookingViewString.toUpperCase()) == BookingView.COMPACT;
+    }
 }
\ No newline at end of file
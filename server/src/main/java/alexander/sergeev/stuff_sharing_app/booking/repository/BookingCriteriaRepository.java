@@ -0,0 +1,38 @@
+package alexander.sergeev.stuff_sharing_app.booking.repository;
+
+import alexander.sergeev.stuff_sharing_app.booking.dto.CompactBookingDto;
+import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingState;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingCriteriaRepository {
+
+    List<Booking> findBookerBookingsAfter(Long bookerId,
+                                          BookingState bookingState,
+                                          LocalDateTime now,
+                                          KeysetCursor after,
+                                          int limit);
+
+    List<Booking> findOwnerItemBookingsAfter(Long ownerId,
+                                             BookingState bookingState,
+                                             LocalDateTime now,
+                                             KeysetCursor after,
+                                             int limit);
+
+    List<CompactBookingDto> findCompactBookerBookings(Long bookerId,
+                                                      BookingState bookingState,
+                                                      LocalDateTime now,
+                                                      KeysetCursor after,
+                                                      Pageable pageable);
+
+    List<CompactBookingDto> findCompactOwnerItemBookings(Long ownerId,
+                                                         BookingState bookingState,
+                                                         LocalDateTime now,
+                                                         KeysetCursor after,
+                                                         Pageable pageable);
+
+}
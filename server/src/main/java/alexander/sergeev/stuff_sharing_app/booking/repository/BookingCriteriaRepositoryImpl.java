@@ -0,0 +1,146 @@
+package alexander.sergeev.stuff_sharing_app.booking.repository;
+
+import alexander.sergeev.stuff_sharing_app.booking.dto.CompactBookingDto;
+import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingState;
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+@RequiredArgsConstructor
+public class BookingCriteriaRepositoryImpl implements BookingCriteriaRepository {
+
+    private static final String BOOKING_GRAPH = "booking-with-item-and-booker";
+
+    private static final String FETCH_GRAPH_HINT = "javax.persistence.fetchgraph";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Booking> findBookerBookingsAfter(Long bookerId,
+                                                 BookingState bookingState,
+                                                 LocalDateTime now,
+                                                 KeysetCursor after,
+                                                 int limit) {
+        return find(Booking.class, (criteriaBuilder, booking) -> booking, BOOKING_GRAPH, bookerScope(bookerId),
+                bookingState, now, after, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<Booking> findOwnerItemBookingsAfter(Long ownerId,
+                                                    BookingState bookingState,
+                                                    LocalDateTime now,
+                                                    KeysetCursor after,
+                                                    int limit) {
+        return find(Booking.class, (criteriaBuilder, booking) -> booking, BOOKING_GRAPH, ownerScope(ownerId),
+                bookingState, now, after, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<CompactBookingDto> findCompactBookerBookings(Long bookerId,
+                                                             BookingState bookingState,
+                                                             LocalDateTime now,
+                                                             KeysetCursor after,
+                                                             Pageable pageable) {
+        return find(CompactBookingDto.class, BookingCriteriaRepositoryImpl::compactSelection, null,
+                bookerScope(bookerId), bookingState, now, after, pageable);
+    }
+
+    @Override
+    public List<CompactBookingDto> findCompactOwnerItemBookings(Long ownerId,
+                                                                BookingState bookingState,
+                                                                LocalDateTime now,
+                                                                KeysetCursor after,
+                                                                Pageable pageable) {
+        return find(CompactBookingDto.class, BookingCriteriaRepositoryImpl::compactSelection, null,
+                ownerScope(ownerId), bookingState, now, after, pageable);
+    }
+
+    private static BiFunction<CriteriaBuilder, Root<Booking>, Predicate> bookerScope(Long bookerId) {
+        return (criteriaBuilder, booking) -> criteriaBuilder.equal(booking.get("booker").get("id"), bookerId);
+    }
+
+    private static BiFunction<CriteriaBuilder, Root<Booking>, Predicate> ownerScope(Long ownerId) {
+        return (criteriaBuilder, booking) -> criteriaBuilder
+                .equal(booking.get("item").get("owner").get("id"), ownerId);
+    }
+
+    private static Selection<CompactBookingDto> compactSelection(CriteriaBuilder criteriaBuilder,
+                                                                 Root<Booking> booking) {
+        // Only the listed columns are selected, neither the booking nor its item and booker are hydrated
+        return criteriaBuilder.construct(CompactBookingDto.class,
+                booking.get("id"),
+                booking.get("start"),
+                booking.get("end"),
+                booking.get("status"),
+                booking.get("booker").get("id"),
+                booking.get("booker").get("name"),
+                booking.get("item").get("id"),
+                booking.get("item").get("name"));
+    }
+
+    private <T> List<T> find(Class<T> resultClass,
+                             BiFunction<CriteriaBuilder, Root<Booking>, Selection<? extends T>> selection,
+                             String entityGraphName,
+                             BiFunction<CriteriaBuilder, Root<Booking>, Predicate> scope,
+                             BookingState bookingState,
+                             LocalDateTime now,
+                             KeysetCursor after,
+                             Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(resultClass);
+        Root<Booking> booking = query.from(Booking.class);
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<Long> id = booking.get("id");
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(scope.apply(criteriaBuilder, booking));
+        switch (bookingState) {
+            case CURRENT:
+                predicates.add(criteriaBuilder.lessThan(start, now));
+                predicates.add(criteriaBuilder.greaterThan(end, now));
+                break;
+            case PAST:
+                predicates.add(criteriaBuilder.lessThan(end, now));
+                break;
+            case FUTURE:
+                predicates.add(criteriaBuilder.greaterThan(start, now));
+                break;
+            case WAITING:
+                predicates.add(criteriaBuilder.equal(booking.get("status"), BookingStatus.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(criteriaBuilder.equal(booking.get("status"), BookingStatus.REJECTED));
+                break;
+            default:
+                break;
+        }
+        if (after != null) {
+            predicates.add(criteriaBuilder.or(
+                    criteriaBuilder.lessThan(start, after.getPosition()),
+                    criteriaBuilder.and(
+                            criteriaBuilder.equal(start, after.getPosition()),
+                            criteriaBuilder.lessThan(id, after.getId()))));
+        }
+        query.select(selection.apply(criteriaBuilder, booking))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(criteriaBuilder.desc(start), criteriaBuilder.desc(id));
+        TypedQuery<T> typedQuery = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize());
+        if (entityGraphName != null) {
+            typedQuery.setHint(FETCH_GRAPH_HINT, entityManager.getEntityGraph(entityGraphName));
+        }
+        return typedQuery.getResultList();
+    }
+}
@@ -1,59 +1,78 @@
 package alexander.sergeev.stuff_sharing_app.booking.repository;
 
+import alexander.sergeev.stuff_sharing_app.booking.dto.BookingPeriodView;
+import alexander.sergeev.stuff_sharing_app.booking.dto.CompactBookingDto;
+import alexander.sergeev.stuff_sharing_app.booking.dto.ItemBookingPeriodView;
 import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
 import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingCriteriaRepository {
 
+    @EntityGraph("booking-with-item-and-booker")
     List<Booking> findByBookerId(Long bookerId, Pageable pageable);
 
+    @EntityGraph("booking-with-item-and-booker")
     Optional<Booking> findById(Long bookingId);
 
+    @EntityGraph("booking-with-item-and-booker")
     List<Booking> findByBookerIdAndEndIsAfterAndStartIsBefore(Long bookerId,
                                                               LocalDateTime now,
                                                               LocalDateTime sameNow,
                                                               Pageable pageable);
 
+    @EntityGraph("booking-with-item-and-booker")
     List<Booking> findByBookerIdAndEndIsBefore(Long bookerId,
                                                LocalDateTime now,
                                                Pageable pageable);
 
+    @EntityGraph("booking-with-item-and-booker")
     List<Booking> findByBookerIdAndStartIsAfter(Long bookerId,
                                                 LocalDateTime now,
                                                 Pageable pageable);
 
+    @EntityGraph("booking-with-item-and-booker")
     List<Booking> findByBookerIdAndStatusIs(Long bookerId,
                                             BookingStatus status,
                                             Pageable pageable);
 
-    List<Booking> findByItemIdIn(Collection<Long> ownerItemsIdList,
-                                 Pageable pageable);
-
-    List<Booking> findByItemIdInAndStartIsBeforeAndEndIsAfter(List<Long> ownerItemIdList,
-                                                              LocalDateTime now,
-                                                              LocalDateTime sameNow,
-                                                              Pageable pageable);
-
-    List<Booking> findByItemIdInAndEndIsBefore(List<Long> ownerItemIdList,
-                                               LocalDateTime now,
+    @EntityGraph("booking-with-item-and-booker")
+    List<Booking> findByItemOwnerId(Long ownerId,
+                                    Pageable pageable);
+
+    @EntityGraph("booking-with-item-and-booker")
+    List<Booking> findByItemOwnerIdAndStartIsBeforeAndEndIsAfter(Long ownerId,
+                                                                 LocalDateTime now,
+                                                                 LocalDateTime sameNow,
+                                                                 Pageable pageable);
+
+    @EntityGraph("booking-with-item-and-booker")
+    List<Booking> findByItemOwnerIdAndEndIsBefore(Long ownerId,
+                                                  LocalDateTime now,
+                                                  Pageable pageable);
+
+    @EntityGraph("booking-with-item-and-booker")
+    List<Booking> findByItemOwnerIdAndStartIsAfter(Long ownerId,
+                                                   LocalDateTime now,
+                                                   Pageable pageable);
+
+    @EntityGraph("booking-with-item-and-booker")
+    List<Booking> findByItemOwnerIdAndStatusIs(Long ownerId,
+                                               BookingStatus status,
                                                Pageable pageable);
 
-    List<Booking> findByItemIdInAndStartIsAfter(List<Long> ownerItemIdList,
-                                                LocalDateTime now,
-                                                Pageable pageable);
-
-    List<Booking> findByItemIdInAndStatusIs(List<Long> ownerItemIdList,
-                                            BookingStatus status,
-                                            Pageable pageable);
-
     Optional<Booking> findFirstByItemIdAndStartIsAfterAndStatusIs(Long itemId,
                                                                   LocalDateTime now,
                                                                   BookingStatus bookingStatus,
@@ -64,6 +83,32 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                                                    BookingStatus bookingStatus,
                                                                    Sort sort);
 
+    Boolean existsByItemIdAndStatusInAndStartIsBeforeAndEndIsAfter(Long itemId,
+                                                                   Collection<BookingStatus> bookingStatuses,
+                                                                   LocalDateTime end,
+                                                                   LocalDateTime start);
+
+    List<BookingPeriodView> findByItemIdAndStatusInAndStartIsBeforeAndEndIsAfter(Long itemId,
+                                                                                 Collection<BookingStatus> bookingStatuses,
+                                                                                 LocalDateTime to,
+                                                                                 LocalDateTime from,
+                                                                                 Sort sort);
+
+    @Query("SELECT b.item.id AS itemId, b.start AS start, b.end AS end FROM Booking AS b " +
+            "WHERE b.item.id IN :itemIds AND b.status IN :bookingStatuses AND b.start < :to AND b.end > :from")
+    List<ItemBookingPeriodView> findItemBookingPeriods(Collection<Long> itemIds,
+                                                       Collection<BookingStatus> bookingStatuses,
+                                                       LocalDateTime to,
+                                                       LocalDateTime from);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT new alexander.sergeev.stuff_sharing_app.booking.dto.CompactBookingDto(" +
+            "b.id, b.start, b.end, b.status, bk.id, bk.name, i.id, i.name) " +
+            "FROM Booking AS b JOIN b.item AS i JOIN b.booker AS bk " +
+            "WHERE i.owner.id = :ownerId " +
+            "ORDER BY b.id")
+    Stream<CompactBookingDto> streamCompactOwnerItemBookings(Long ownerId);
+
     Boolean existsByBookerIdAndItemIdAndEndIsBeforeAndStatusIs(Long bookerId,
                                                                Long itemId,
                                                                LocalDateTime now,
@@ -1,11 +1,16 @@
 package alexander.sergeev.stuff_sharing_app.booking.service;
 
+import alexander.sergeev.stuff_sharing_app.batch.dto.BatchResultDto;
+import alexander.sergeev.stuff_sharing_app.booking.dto.CompactBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.IncomingBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.OutgoingBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.model.BookingState;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
 
@@ -13,10 +18,30 @@ public interface BookingService {
 
     List<OutgoingBookingDto> getAllOwnerItemBookings(Long ownerId, BookingState bookingState, Pageable pageable);
 
+    Slice<OutgoingBookingDto> getAllUserBookings(Long userId, BookingState bookingState, KeysetCursor after, int size);
+
+    Slice<OutgoingBookingDto> getAllOwnerItemBookings(Long ownerId, BookingState bookingState,
+                                                      KeysetCursor after, int size);
+
+    List<CompactBookingDto> getAllUserCompactBookings(Long userId, BookingState bookingState, Pageable pageable);
+
+    List<CompactBookingDto> getAllOwnerItemCompactBookings(Long ownerId, BookingState bookingState, Pageable pageable);
+
+    Slice<CompactBookingDto> getAllUserCompactBookings(Long userId, BookingState bookingState,
+                                                       KeysetCursor after, int size);
+
+    Slice<CompactBookingDto> getAllOwnerItemCompactBookings(Long ownerId, BookingState bookingState,
+                                                            KeysetCursor after, int size);
+
+    void exportOwnerItemBookings(Long ownerId, Consumer<? super CompactBookingDto> rowConsumer);
+
     OutgoingBookingDto getBookingById(Long userId, Long bookingId);
 
     OutgoingBookingDto postBooking(Long bookerId, IncomingBookingDto incomingBookingDto);
 
+    List<BatchResultDto<OutgoingBookingDto>> postBookings(Long bookerId,
+                                                          List<IncomingBookingDto> incomingBookingDtoList);
+
     OutgoingBookingDto patchBookingById(Long itemOwnerId, Long bookingId, Boolean approved);
 
 }
\ No newline at end of file
@@ -1,6 +1,10 @@
 package alexander.sergeev.stuff_sharing_app.booking.service;
 
+import alexander.sergeev.stuff_sharing_app.batch.BatchElementValidator;
+import alexander.sergeev.stuff_sharing_app.batch.dto.BatchResultDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.BookingMapper;
+import alexander.sergeev.stuff_sharing_app.booking.dto.BookingPeriodView;
+import alexander.sergeev.stuff_sharing_app.booking.dto.CompactBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.IncomingBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.OutgoingBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
@@ -11,29 +15,55 @@ import alexander.sergeev.stuff_sharing_app.exception.NotAvailableItemException;
 import alexander.sergeev.stuff_sharing_app.exception.NotFoundException;
 import alexander.sergeev.stuff_sharing_app.item.model.Item;
 import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetPagination;
 import alexander.sergeev.stuff_sharing_app.user.model.User;
 import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Transactional
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
 
+    private static final String EXCLUSION_VIOLATION_SQL_STATE = "23P01";
+
     private final BookingRepository bookingRepository;
 
     private final ItemRepository itemRepository;
 
     private final UserRepository userRepository;
 
+    private final BatchElementValidator batchElementValidator;
+
     @Override
+    @Transactional(readOnly = true)
     public List<OutgoingBookingDto> getAllUserBookings(Long bookerId,
                                                        BookingState bookingState,
                                                        Pageable pageable) {
@@ -80,49 +110,46 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OutgoingBookingDto> getAllOwnerItemBookings(Long ownerId,
                                                             BookingState bookingState,
                                                             Pageable pageable) {
-        List<Item> ownerItemList = itemRepository.findByOwnerId(ownerId);
-        if (ownerItemList.isEmpty()) {
+        if (!itemRepository.existsByOwnerId(ownerId)) {
             throw new NotFoundException("There's no items belong to user " + ownerId);
         }
         LocalDateTime now = LocalDateTime.now();
-        List<Long> ownerItemIdList = ownerItemList.stream()
-                .map(Item::getId)
-                .collect(Collectors.toList());
         switch (bookingState) {
             case ALL:
-                return bookingRepository.findByItemIdIn(ownerItemIdList, pageable)
+                return bookingRepository.findByItemOwnerId(ownerId, pageable)
                         .stream()
                         .map(BookingMapper::mapBookingToOutgoingDto)
                         .collect(Collectors.toList());
             case CURRENT:
-                return bookingRepository.findByItemIdInAndStartIsBeforeAndEndIsAfter(ownerItemIdList,
+                return bookingRepository.findByItemOwnerIdAndStartIsBeforeAndEndIsAfter(ownerId,
                                 now, now, pageable)
                         .stream()
                         .map(BookingMapper::mapBookingToOutgoingDto)
                         .collect(Collectors.toList());
             case PAST:
-                return bookingRepository.findByItemIdInAndEndIsBefore(ownerItemIdList,
+                return bookingRepository.findByItemOwnerIdAndEndIsBefore(ownerId,
                                 now, pageable)
                         .stream()
                         .map(BookingMapper::mapBookingToOutgoingDto)
                         .collect(Collectors.toList());
             case FUTURE:
-                return bookingRepository.findByItemIdInAndStartIsAfter(ownerItemIdList,
+                return bookingRepository.findByItemOwnerIdAndStartIsAfter(ownerId,
                                 now, pageable)
                         .stream()
                         .map(BookingMapper::mapBookingToOutgoingDto)
                         .collect(Collectors.toList());
             case WAITING:
-                return bookingRepository.findByItemIdInAndStatusIs(ownerItemIdList,
+                return bookingRepository.findByItemOwnerIdAndStatusIs(ownerId,
                                 BookingStatus.WAITING, pageable)
                         .stream()
                         .map(BookingMapper::mapBookingToOutgoingDto)
                         .collect(Collectors.toList());
             case REJECTED:
-                return bookingRepository.findByItemIdInAndStatusIs(ownerItemIdList,
+                return bookingRepository.findByItemOwnerIdAndStatusIs(ownerId,
                                 BookingStatus.REJECTED, pageable)
                         .stream()
                         .map(BookingMapper::mapBookingToOutgoingDto)
@@ -131,6 +158,98 @@ public class BookingServiceImpl implements BookingService {
         return List.of();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<OutgoingBookingDto> getAllUserBookings(Long bookerId,
+                                                        BookingState bookingState,
+                                                        KeysetCursor after,
+                                                        int size) {
+        userRepository.checkUserById(bookerId);
+        return KeysetPagination.toSlice(bookingRepository
+                        .findBookerBookingsAfter(bookerId, bookingState, LocalDateTime.now(), after,
+                                KeysetPagination.limit(size))
+                        .stream()
+                        .map(BookingMapper::mapBookingToOutgoingDto)
+                        .collect(Collectors.toList()),
+                size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<OutgoingBookingDto> getAllOwnerItemBookings(Long ownerId,
+                                                             BookingState bookingState,
+                                                             KeysetCursor after,
+                                                             int size) {
+        if (!itemRepository.existsByOwnerId(ownerId)) {
+            throw new NotFoundException("There's no items belong to user " + ownerId);
+        }
+        return KeysetPagination.toSlice(bookingRepository
+                        .findOwnerItemBookingsAfter(ownerId, bookingState, LocalDateTime.now(), after,
+                                KeysetPagination.limit(size))
+                        .stream()
+                        .map(BookingMapper::mapBookingToOutgoingDto)
+                        .collect(Collectors.toList()),
+                size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CompactBookingDto> getAllUserCompactBookings(Long bookerId,
+                                                             BookingState bookingState,
+                                                             Pageable pageable) {
+        userRepository.checkUserById(bookerId);
+        return bookingRepository.findCompactBookerBookings(bookerId, bookingState, LocalDateTime.now(), null,
+                pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CompactBookingDto> getAllOwnerItemCompactBookings(Long ownerId,
+                                                                  BookingState bookingState,
+                                                                  Pageable pageable) {
+        if (!itemRepository.existsByOwnerId(ownerId)) {
+            throw new NotFoundException("There's no items belong to user " + ownerId);
+        }
+        return bookingRepository.findCompactOwnerItemBookings(ownerId, bookingState, LocalDateTime.now(), null,
+                pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<CompactBookingDto> getAllUserCompactBookings(Long bookerId,
+                                                              BookingState bookingState,
+                                                              KeysetCursor after,
+                                                              int size) {
+        userRepository.checkUserById(bookerId);
+        return KeysetPagination.toSlice(bookingRepository.findCompactBookerBookings(bookerId, bookingState,
+                        LocalDateTime.now(), after, PageRequest.of(0, KeysetPagination.limit(size))),
+                size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<CompactBookingDto> getAllOwnerItemCompactBookings(Long ownerId,
+                                                                   BookingState bookingState,
+                                                                   KeysetCursor after,
+                                                                   int size) {
+        if (!itemRepository.existsByOwnerId(ownerId)) {
+            throw new NotFoundException("There's no items belong to user " + ownerId);
+        }
+        return KeysetPagination.toSlice(bookingRepository.findCompactOwnerItemBookings(ownerId, bookingState,
+                        LocalDateTime.now(), after, PageRequest.of(0, KeysetPagination.limit(size))),
+                size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOwnerItemBookings(Long ownerId, Consumer<? super CompactBookingDto> rowConsumer) {
+        userRepository.checkUserById(ownerId);
+        try (Stream<CompactBookingDto> bookingStream = bookingRepository.streamCompactOwnerItemBookings(ownerId)) {
+            bookingStream.forEach(rowConsumer);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public OutgoingBookingDto getBookingById(Long userId, Long bookingId) {
         Booking booking = getBookingById(bookingId);
         if (!booking.getItem().getOwner().getId().equals(userId)
@@ -144,16 +263,107 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public OutgoingBookingDto postBooking(Long bookerId, IncomingBookingDto incomingBookingDto) {
         User booker = userRepository.getUserById(bookerId);
-        Item item = itemRepository.getItemById(incomingBookingDto.getItemId());
-        if (item.getOwner().getId().equals(bookerId))
-            throw new NotFoundException("Booking item belongs to booker!");
-        if (!item.getAvailable()) {
-            throw new NotAvailableItemException("Booking item is not available!");
+        Item item = itemRepository.lockItemById(incomingBookingDto.getItemId());
+        checkBookingItem(bookerId, item);
+        itemRepository.incrementVersion(item);
+        if (bookingRepository.existsByItemIdAndStatusInAndStartIsBeforeAndEndIsAfter(item.getId(),
+                BookingStatus.OCCUPYING, incomingBookingDto.getEnd(), incomingBookingDto.getStart())) {
+            throw new NotAvailableItemException("Booking item is already booked for this period!");
         }
         Booking booking = BookingMapper.mapIncomingDtoToBooking(incomingBookingDto);
         booking.setBooker(booker);
         booking.setItem(item);
-        return BookingMapper.mapBookingToOutgoingDto(bookingRepository.save(booking));
+        return BookingMapper.mapBookingToOutgoingDto(rejectOverlapping(() -> bookingRepository.saveAndFlush(booking)));
+    }
+
+    @Override
+    public List<BatchResultDto<OutgoingBookingDto>> postBookings(Long bookerId,
+                                                                 List<IncomingBookingDto> incomingBookingDtoList) {
+        User booker = userRepository.getUserById(bookerId);
+        List<BatchResultDto<OutgoingBookingDto>> resultList = new ArrayList<>(
+                Collections.nCopies(incomingBookingDtoList.size(), null));
+        Map<Integer, IncomingBookingDto> validDtoMap = new LinkedHashMap<>();
+        for (int index = 0; index < incomingBookingDtoList.size(); index++) {
+            IncomingBookingDto incomingBookingDto = incomingBookingDtoList.get(index);
+            Optional<String> validationError = batchElementValidator.validateOnCreate(incomingBookingDto);
+            if (validationError.isPresent()) {
+                resultList.set(index, BatchResultDto.rejected(index, HttpStatus.BAD_REQUEST, validationError.get()));
+            } else {
+                validDtoMap.put(index, incomingBookingDto);
+            }
+        }
+        if (validDtoMap.isEmpty()) {
+            return resultList;
+        }
+        Map<Long, Item> itemMap = itemRepository.findAllByIdForUpdate(validDtoMap.values()
+                        .stream()
+                        .map(IncomingBookingDto::getItemId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, List<BookingPeriodView>> occupiedPeriodMap = new HashMap<>();
+        if (!itemMap.isEmpty()) {
+            LocalDateTime from = validDtoMap.values()
+                    .stream()
+                    .map(IncomingBookingDto::getStart)
+                    .min(Comparator.naturalOrder())
+                    .orElseThrow();
+            LocalDateTime to = validDtoMap.values()
+                    .stream()
+                    .map(IncomingBookingDto::getEnd)
+                    .max(Comparator.naturalOrder())
+                    .orElseThrow();
+            bookingRepository.findItemBookingPeriods(itemMap.keySet(), BookingStatus.OCCUPYING, to, from)
+                    .forEach(occupiedPeriod -> occupiedPeriodMap
+                            .computeIfAbsent(occupiedPeriod.getItemId(), itemId -> new ArrayList<>())
+                            .add(occupiedPeriod));
+        }
+        Map<Integer, Booking> bookingMap = new LinkedHashMap<>();
+        validDtoMap.forEach((index, incomingBookingDto) -> {
+            try {
+                Item item = itemMap.get(incomingBookingDto.getItemId());
+                if (item == null) {
+                    throw new NotFoundException("There's no item with id " + incomingBookingDto.getItemId());
+                }
+                checkBookingItem(bookerId, item);
+                List<BookingPeriodView> occupiedPeriodList = occupiedPeriodMap
+                        .computeIfAbsent(item.getId(), itemId -> new ArrayList<>());
+                if (occupiedPeriodList.stream().anyMatch(occupiedPeriod ->
+                        occupiedPeriod.getStart().isBefore(incomingBookingDto.getEnd())
+                                && occupiedPeriod.getEnd().isAfter(incomingBookingDto.getStart()))) {
+                    throw new NotAvailableItemException("Booking item is already booked for this period!");
+                }
+                Booking booking = BookingMapper.mapIncomingDtoToBooking(incomingBookingDto);
+                // A client supplied id would turn the insert into a merge and break the JDBC batch
+                booking.setId(null);
+                booking.setBooker(booker);
+                booking.setItem(item);
+                occupiedPeriodList.add(new BatchBookingPeriod(booking.getStart(), booking.getEnd()));
+                bookingMap.put(index, booking);
+            } catch (NotFoundException e) {
+                resultList.set(index, BatchResultDto.rejected(index, HttpStatus.NOT_FOUND, e.getMessage()));
+            } catch (NotAvailableItemException e) {
+                resultList.set(index, BatchResultDto.rejected(index, HttpStatus.BAD_REQUEST, e.getMessage()));
+            }
+        });
+        // Deduplicated by id, equals() on the entity would initialize its lazy owner and request
+        bookingMap.values()
+                .stream()
+                .map(Booking::getItem)
+                .collect(Collectors.toMap(Item::getId, Function.identity(), (item, sameItem) -> item))
+                .values()
+                .forEach(itemRepository::incrementVersion);
+        Iterator<Booking> savedBookingIterator = rejectOverlapping(() -> {
+            List<Booking> savedBookingList = bookingRepository.saveAll(bookingMap.values());
+            bookingRepository.flush();
+            return savedBookingList;
+        }).iterator();
+        for (Integer index : bookingMap.keySet()) {
+            resultList.set(index, BatchResultDto.created(index,
+                    BookingMapper.mapBookingToOutgoingDto(savedBookingIterator.next())));
+        }
+        return resultList;
     }
 
     @Override
@@ -165,12 +375,45 @@ public class BookingServiceImpl implements BookingService {
         if (!booking.getItem().getOwner().getId().equals(itemOwnerId)) {
             throw new NotFoundException("Booking item don't belong to user with id " + itemOwnerId);
         }
+        itemRepository.incrementVersion(booking.getItem());
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
         return BookingMapper.mapBookingToOutgoingDto(bookingRepository.save(booking));
     }
 
+    private void checkBookingItem(Long bookerId, Item item) {
+        if (item.getOwner().getId().equals(bookerId))
+            throw new NotFoundException("Booking item belongs to booker!");
+        if (!item.getAvailable()) {
+            throw new NotAvailableItemException("Booking item is not available!");
+        }
+    }
+
+    // The exclusion constraint is the last line against overlaps that slipped past the checks above
+    private <T> T rejectOverlapping(Supplier<T> save) {
+        try {
+            return save.get();
+        } catch (DataIntegrityViolationException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof SQLException
+                        && EXCLUSION_VIOLATION_SQL_STATE.equals(((SQLException) cause).getSQLState())) {
+                    throw new NotAvailableItemException("Booking item is already booked for this period!");
+                }
+            }
+            throw e;
+        }
+    }
+
     protected Booking getBookingById(Long bookingId) {
         return bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("There's no booking with id " + bookingId));
     }
-}
\ No newline at end of file
+
+    @Value
+    private static class BatchBookingPeriod implements BookingPeriodView {
+
+        LocalDateTime start;
+
+        LocalDateTime end;
+
+    }
+}
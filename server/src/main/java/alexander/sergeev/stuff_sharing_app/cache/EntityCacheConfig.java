@@ -0,0 +1,86 @@
+package alexander.sergeev.stuff_sharing_app.cache;
+
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.request.model.Request;
+import alexander.sergeev.stuff_sharing_app.user.model.User;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.SharedCacheMode;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@ConditionalOnProperty(name = "stuff_sharing_app.entity-cache.enabled", havingValue = "true")
+public class EntityCacheConfig {
+
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    private static final Map<String, String> REGION_PROPERTY_KEYS = Map.of(
+            Item.class.getName(), "items",
+            User.class.getName(), "users",
+            Request.class.getName(), "requests",
+            QUERY_RESULTS_REGION, "queries");
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(Environment environment) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+        REGION_PROPERTY_KEYS.forEach((region, key) -> {
+            String prefix = "stuff_sharing_app.entity-cache." + key;
+            long maximumSize = environment.getProperty(prefix + ".maximum-size", Long.class, 10000L);
+            long ttlSeconds = environment.getProperty(prefix + ".ttl-seconds", Long.class, 600L);
+            cacheManager.createCache(region, regionConfiguration(maximumSize, ttlSeconds));
+        });
+        // Update timestamps must outlive every cached query result, so this region is never expired or evicted
+        CaffeineConfiguration<Object, Object> timestampsConfiguration = new CaffeineConfiguration<>();
+        timestampsConfiguration.setStoreByValue(false);
+        timestampsConfiguration.setStatisticsEnabled(true);
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, timestampsConfiguration);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheHibernateProperties(
+            CacheManager entityCacheManager, Environment environment) {
+        boolean queryCacheEnabled = environment.getProperty(
+                "stuff_sharing_app.entity-cache.query-cache", Boolean.class, true);
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, queryCacheEnabled);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            hibernateProperties.put(AvailableSettings.DEFAULT_CACHE_CONCURRENCY_STRATEGY, "read-write");
+            hibernateProperties.put(AvailableSettings.JPA_SHARED_CACHE_MODE, SharedCacheMode.ENABLE_SELECTIVE);
+        };
+    }
+
+    @Bean
+    public MeterBinder entityCacheMetrics(CacheManager entityCacheManager) {
+        return registry -> entityCacheManager.getCacheNames()
+                .forEach(region -> JCacheMetrics.monitor(registry, entityCacheManager.getCache(region)));
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(long maximumSize, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
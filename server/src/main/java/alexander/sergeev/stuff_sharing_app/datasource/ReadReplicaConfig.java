@@ -0,0 +1,67 @@
+package alexander.sergeev.stuff_sharing_app.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "stuff_sharing_app.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource primaryDataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primaryDataSource.setPoolName("primary");
+        return primaryDataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties dataSourceProperties,
+            @Value("${stuff_sharing_app.datasource.replica.url}") String url,
+            @Value("${stuff_sharing_app.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${stuff_sharing_app.datasource.replica.password:${spring.datasource.password:}}") String password,
+            @Value("${stuff_sharing_app.datasource.replica.maximum-pool-size:20}") int maximumPoolSize,
+            @Value("${stuff_sharing_app.datasource.replica.connection-timeout-millis:5000}") long connectionTimeout) {
+        HikariDataSource replicaDataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(dataSourceProperties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        replicaDataSource.setPoolName("replica");
+        replicaDataSource.setMaximumPoolSize(maximumPoolSize);
+        replicaDataSource.setConnectionTimeout(connectionTimeout);
+        return replicaDataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            HikariDataSource replicaDataSource,
+            @Value("${stuff_sharing_app.datasource.replica.stickiness-millis:5000}") long stickinessMillis,
+            @Value("${stuff_sharing_app.datasource.replica.sticky-users:100000}") long stickyUsers) {
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource,
+                Duration.ofMillis(stickinessMillis), stickyUsers);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+}
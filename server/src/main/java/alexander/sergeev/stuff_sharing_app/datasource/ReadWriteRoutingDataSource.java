@@ -0,0 +1,104 @@
+package alexander.sergeev.stuff_sharing_app.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. A user who has just
+ * written keeps reading from the primary for the stickiness window, so replication lag never hides their
+ * own changes. Must be wrapped in a lazy connection proxy, the read-only flag is only known after begin.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    private final LongAdder primaryRoutes = new LongAdder();
+
+    private final LongAdder replicaRoutes = new LongAdder();
+
+    private final LongAdder stickyRoutes = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration stickiness, long maxWriters) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxWriters)
+                .expireAfterWrite(stickiness)
+                .build();
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Route determineCurrentLookupKey() {
+        Long userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                recentWriters.put(userId, Boolean.TRUE);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        // The window counts from the commit, that is when the write starts replicating
+                        recentWriters.put(userId, Boolean.TRUE);
+                    }
+                });
+            }
+            primaryRoutes.increment();
+            return Route.PRIMARY;
+        }
+        if (userId != null && recentWriters.getIfPresent(userId) != null) {
+            stickyRoutes.increment();
+            return Route.PRIMARY;
+        }
+        replicaRoutes.increment();
+        return Route.REPLICA;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("datasource.routed", primaryRoutes, LongAdder::doubleValue)
+                .tag("route", "primary")
+                .description("Connections routed to the primary for read-write work")
+                .register(registry);
+        FunctionCounter.builder("datasource.routed", stickyRoutes, LongAdder::doubleValue)
+                .tag("route", "sticky")
+                .description("Read-only connections kept on the primary after the user's own write")
+                .register(registry);
+        FunctionCounter.builder("datasource.routed", replicaRoutes, LongAdder::doubleValue)
+                .tag("route", "replica")
+                .description("Read-only connections routed to the replica")
+                .register(registry);
+    }
+
+    private static Long currentUserId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return null;
+        }
+        String userId = ((ServletRequestAttributes) attributes).getRequest().getHeader(header);
+        try {
+            return userId == null ? null : Long.valueOf(userId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package alexander.sergeev.stuff_sharing_app.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+@Component
+public class NdjsonWriter {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter rowWriter;
+
+    public NdjsonWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // Flushing after every row would turn each row into its own chunk on the wire
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void write(HttpServletResponse response, Consumer<Consumer<Object>> rowSource) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try {
+            write(response.getOutputStream(), rowSource);
+        } catch (RuntimeException e) {
+            // Leaves a clean response for the exception resolver as long as nothing has reached the client yet
+            if (!response.isCommitted()) {
+                response.reset();
+            }
+            throw e;
+        }
+    }
+
+    public void write(OutputStream outputStream, Consumer<Consumer<Object>> rowSource) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory()
+                .createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null);
+        try {
+            rowSource.accept(row -> writeRow(generator, row));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        // Not closed on failure, the buffered rows are dropped instead of committing the response
+        generator.close();
+    }
+
+    private void writeRow(JsonGenerator generator, Object row) {
+        try {
+            rowWriter.writeValue(generator, row);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,96 +1,145 @@
 package alexander.sergeev.stuff_sharing_app.item.controller;
 
+import alexander.sergeev.stuff_sharing_app.batch.dto.BatchResultDto;
 import alexander.sergeev.stuff_sharing_app.comment.dto.IncomingCommentDto;
 import alexander.sergeev.stuff_sharing_app.comment.dto.OutgoingCommentDto;
+import alexander.sergeev.stuff_sharing_app.item.dto.AvailabilitySlotDto;
 import alexander.sergeev.stuff_sharing_app.item.dto.IncomingItemDto;
 import alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto;
 import alexander.sergeev.stuff_sharing_app.item.service.ItemService;
+import alexander.sergeev.stuff_sharing_app.export.NdjsonWriter;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetPagination;
+import alexander.sergeev.stuff_sharing_app.validation.AvailabilityPeriodValidation;
+import alexander.sergeev.stuff_sharing_app.version.VersionedDto;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
 
-@Slf4j
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
+@Validated
 public class ItemController {
 
     private final Sort sortByStartDesc = Sort.by(Sort.Direction.DESC, "start");
 
     private final ItemService itemService;
 
+    private final NdjsonWriter ndjsonWriter;
+
     @GetMapping
     public Collection<OutgoingItemDto> getAllOwnerItems(
-            HttpServletRequest request,
             @RequestParam(value = "from") Integer firstElement,
             @RequestParam(value = "size") Integer size,
             @RequestHeader(header) Long ownerId) {
-        log.info("Id-{} {} {}?{}", ownerId, request.getMethod(), request.getRequestURI(), request.getQueryString());
         return itemService.getAllOwnerItems(ownerId, PageRequest.of(firstElement / size, size, sortByStartDesc));
     }
 
+    @GetMapping(params = "after")
+    public Collection<OutgoingItemDto> getAllOwnerItemsAfter(
+            HttpServletResponse response,
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size") @Min(1) @Max(20) Integer size,
+            @RequestHeader(header) Long ownerId) {
+        return KeysetPagination.writeNextCursor(response,
+                itemService.getAllOwnerItems(ownerId, KeysetCursor.decode(after), size),
+                item -> KeysetCursor.of(item.getId()));
+    }
+
+    @GetMapping("/export")
+    public void exportOwnerItems(
+            HttpServletResponse response,
+            @RequestHeader(header) Long ownerId) throws IOException {
+        ndjsonWriter.write(response, rowConsumer -> itemService.exportOwnerItems(ownerId, rowConsumer));
+    }
+
     @GetMapping("/{itemId}")
     public OutgoingItemDto getItemById(
-            HttpServletRequest request,
             @RequestHeader(header) Long ownerId,
-            @PathVariable Long itemId) {
-        log.info("Id-{} {} {}", ownerId, request.getMethod(), request.getRequestURI());
-        return itemService.getItemDtoById(ownerId, itemId);
+            @PathVariable Long itemId,
+            WebRequest webRequest,
+            HttpServletResponse response) {
+        VersionedDto<OutgoingItemDto> versionedItem = itemService.getVersionedItemDtoById(ownerId, itemId,
+                webRequest::checkNotModified);
+        if (versionedItem.isPrivateView()) {
+            // The owner's view carries bookings, so shared caches such as the gateway's must not hand it to others
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.empty().cachePrivate().getHeaderValue());
+        }
+        return versionedItem.getDto();
+    }
+
+    @GetMapping("/{itemId}/availability")
+    @AvailabilityPeriodValidation
+    public Collection<AvailabilitySlotDto> getItemAvailability(
+            @RequestHeader(header) Long userId,
+            @PathVariable Long itemId,
+            @RequestParam(value = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getItemAvailability(userId, itemId, from, to);
     }
 
     @GetMapping("/search")
     public Collection<OutgoingItemDto> getItemsBySearch(
-            HttpServletRequest request,
             @RequestParam(value = "from") Integer firstElement,
             @RequestParam(value = "size") Integer size,
             @RequestHeader(header) Long userId,
             @RequestParam(value = "text") String text) {
-        log.info("Id-{} {} {}?{}", userId, request.getMethod(), request.getRequestURI(), request.getQueryString());
         return itemService.getItemsBySearch(userId, text, PageRequest.of(firstElement / size, size));
     }
 
     @PostMapping
     public OutgoingItemDto postItem(
-            HttpServletRequest request,
             @RequestHeader(header) Long ownerId,
             @RequestBody IncomingItemDto incomingItemDto) {
-        log.info("Id-{} {} {} {}", ownerId, request.getMethod(), request.getRequestURI(), incomingItemDto);
         return itemService.postItem(ownerId, incomingItemDto);
     }
 
+    @PostMapping("/batch")
+    public Collection<BatchResultDto<OutgoingItemDto>> postItems(
+            @RequestHeader(header) Long ownerId,
+            @RequestBody @Size(min = 1, max = 10000, message = "Batch must contain from 1 to 10000 items!")
+            List<IncomingItemDto> incomingItemDtoList) {
+        return itemService.postItems(ownerId, incomingItemDtoList);
+    }
+
     @PostMapping("/{itemId}/comment")
     public OutgoingCommentDto postComment(
-            HttpServletRequest request,
             @RequestHeader(header) Long authorId,
             @PathVariable Long itemId,
             @RequestBody IncomingCommentDto incomingCommentDto) {
-        log.info("Id-{} {} {} {}", authorId, request.getMethod(), request.getRequestURI(), incomingCommentDto);
         return itemService.postComment(authorId, itemId, incomingCommentDto);
     }
 
     @PatchMapping("/{itemId}")
     public OutgoingItemDto patchItemById(
-            HttpServletRequest request,
             @RequestHeader(header) Long ownerId,
             @PathVariable Long itemId,
             @RequestBody IncomingItemDto incomingItemDto) {
-        log.info("Id-{} {} {} {}", ownerId, request.getMethod(), request.getRequestURI(), incomingItemDto);
         return itemService.patchItemById(ownerId, itemId, incomingItemDto);
     }
 
     @DeleteMapping("/{itemId}")
     public OutgoingItemDto deleteItemById(
-            HttpServletRequest request,
             @RequestHeader(header) Long ownerId,
             @PathVariable Long itemId) {
-        log.info("Id-{} {} {}", ownerId, request.getMethod(), request.getRequestURI());
         return itemService.deleteItemById(ownerId, itemId);
     }
 }
\ No newline at end of file
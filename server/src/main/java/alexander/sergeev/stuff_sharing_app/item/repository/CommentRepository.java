@@ -1,15 +1,31 @@
 package alexander.sergeev.stuff_sharing_app.item.repository;
 
+import alexander.sergeev.stuff_sharing_app.comment.dto.ItemCommentView;
 import alexander.sergeev.stuff_sharing_app.comment.model.Comment;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    @EntityGraph("comment-with-author")
     List<Comment> findByItemId(Long itemId);
 
+    @EntityGraph("comment-with-author")
     List<Comment> findByItemIdIn(Collection<Long> itemIdList);
 
+    @Query("SELECT c.item.id AS itemId, " +
+            "c.id AS id, " +
+            "c.text AS text, " +
+            "a.name AS authorName, " +
+            "c.created AS created " +
+            "FROM Comment AS c " +
+            "JOIN c.author AS a " +
+            "WHERE c.item.id IN :itemIdList " +
+            "ORDER BY c.id")
+    List<ItemCommentView> findViewsByItemIdIn(Collection<Long> itemIdList);
+
 }
\ No newline at end of file
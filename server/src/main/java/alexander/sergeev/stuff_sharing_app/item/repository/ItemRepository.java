@@ -1,20 +1,43 @@
 package alexander.sergeev.stuff_sharing_app.item.repository;
 
 import alexander.sergeev.stuff_sharing_app.exception.NotFoundException;
+import alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto;
+import alexander.sergeev.stuff_sharing_app.item.dto.OwnerItemView;
 import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.version.VersionIncrementRepository;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, VersionIncrementRepository<Item> {
 
+    String OWNER_ITEM_PAGE = "SELECT pi.id " +
+            "FROM items AS pi " +
+            "WHERE pi.owner_id = :ownerId " +
+            "AND pi.id > :afterId " +
+            "ORDER BY pi.id " +
+            "LIMIT :limit OFFSET :offset";
+
+    // Alias specific lock mode, a query wide one would also lock the outer joined graph rows
+    String ITEM_LOCK_HINT = "org.hibernate.lockMode.i";
+
+    @EntityGraph("item-only")
     List<Item> findByOwnerId(Long ownerId, Pageable pageable);
 
+    @EntityGraph("item-only")
     List<Item> findByOwnerId(Long ownerId);
 
+    @EntityGraph("item-only")
     @Query("SELECT i " +
             "FROM Item as i " +
             "WHERE i.available=true " +
@@ -26,15 +49,91 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             ")")
     List<Item> searchByTextInNameOrDescriptionAndAvailableTrue(String text, String sameText, Pageable pageable);
 
+    @Query(value = "SELECT i.* " +
+            "FROM items AS i " +
+            "WHERE i.available = TRUE " +
+            "AND " +
+            "(" +
+            "LOWER(i.name) LIKE CONCAT('%', :text, '%') " +
+            "OR " +
+            "LOWER(i.description) LIKE CONCAT('%', :text, '%')" +
+            ") " +
+            "ORDER BY GREATEST(similarity(LOWER(i.name), :text), similarity(LOWER(i.description), :text)) DESC, i.id",
+            nativeQuery = true)
+    List<Item> searchByTrigramSimilarityAndAvailableTrue(String text, Pageable pageable);
+
+    @Query(value = "SELECT i.id AS id, " +
+            "i.name AS name, " +
+            "i.description AS description, " +
+            "i.available AS available, " +
+            "i.request_id AS requestId, " +
+            "lb.id AS lastBookingId, " +
+            "lb.booker_id AS lastBookingBookerId, " +
+            "nb.id AS nextBookingId, " +
+            "nb.booker_id AS nextBookingBookerId " +
+            "FROM (" + OWNER_ITEM_PAGE + ") AS p " +
+            "JOIN items AS i ON i.id = p.id " +
+            "LEFT JOIN " +
+            "(" +
+            "SELECT b.id, b.item_id, b.booker_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.end_date DESC, b.id DESC) AS rn " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id IN (" + OWNER_ITEM_PAGE + ") " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start_date < :now" +
+            ") AS lb ON lb.item_id = i.id AND lb.rn = 1 " +
+            "LEFT JOIN " +
+            "(" +
+            "SELECT b.id, b.item_id, b.booker_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date, b.id) AS rn " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id IN (" + OWNER_ITEM_PAGE + ") " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start_date > :now" +
+            ") AS nb ON nb.item_id = i.id AND nb.rn = 1 " +
+            "ORDER BY i.id",
+            nativeQuery = true)
+    List<OwnerItemView> findOwnerItemViews(Long ownerId, Long afterId, LocalDateTime now, int limit, long offset);
+
+    Boolean existsByOwnerId(Long ownerId);
+
     Optional<Item> findByIdAndOwnerId(Long itemId, Long ownerId);
 
+    @EntityGraph("item-only")
     List<Item> findByRequestIdIn(List<Long> requestIds);
 
+    @EntityGraph("item-only")
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Item> findByRequestId(Long requestId);
 
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT new alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto(" +
+            "i.id, i.name, i.description, i.available, r.id) " +
+            "FROM Item AS i LEFT JOIN i.request AS r " +
+            "WHERE i.owner.id = :ownerId " +
+            "ORDER BY i.id")
+    Stream<OutgoingItemDto> streamOwnerItems(Long ownerId);
+
+    @Modifying
+    @Query("DELETE FROM Item AS i WHERE i.owner.id = :ownerId")
     void deleteByOwnerId(Long ownerId);
 
+    // The booking DTOs carry the item, so its graph is fetched here while only the item row itself is locked
+    @EntityGraph("item-with-owner-and-request")
+    @QueryHints(@QueryHint(name = ITEM_LOCK_HINT, value = "PESSIMISTIC_WRITE"))
+    @Query("SELECT i FROM Item AS i WHERE i.id = :itemId")
+    Optional<Item> findByIdForUpdate(Long itemId);
+
+    @EntityGraph("item-with-owner-and-request")
+    @QueryHints(@QueryHint(name = ITEM_LOCK_HINT, value = "PESSIMISTIC_WRITE"))
+    @Query("SELECT i FROM Item AS i WHERE i.id IN :itemIds ORDER BY i.id")
+    List<Item> findAllByIdForUpdate(Collection<Long> itemIds);
+
     default Item getItemById(Long itemId) {
         return findById(itemId).orElseThrow(() -> new NotFoundException("There's no item with id " + itemId));
     }
+
+    default Item lockItemById(Long itemId) {
+        return findByIdForUpdate(itemId).orElseThrow(() -> new NotFoundException("There's no item with id " + itemId));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,315 @@
+package alexander.sergeev.stuff_sharing_app.item.search;
+
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "stuff_sharing_app.search.engine", havingValue = "memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+
+    private final TransactionTemplate refreshTransaction;
+
+    private final Map<Long, IndexedItem> indexedItems = new HashMap<>();
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public InMemoryItemSearchEngine(ItemRepository itemRepository, PlatformTransactionManager transactionManager) {
+        this.itemRepository = itemRepository;
+        this.refreshTransaction = new TransactionTemplate(transactionManager);
+        this.refreshTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void loadIndex() {
+        Pageable pageable = PageRequest.of(0, LOAD_PAGE_SIZE, Sort.by("id"));
+        Page<Item> page;
+        do {
+            page = itemRepository.findAll(pageable);
+            page.forEach(this::put);
+            pageable = page.nextPageable();
+        } while (page.hasNext());
+        log.info("Item search index loaded : {} items, {} n-grams", indexedItems.size(), postings.size());
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        String query = text.toLowerCase();
+        PriorityQueue<RankedItem> rankedItems;
+        lock.readLock().lock();
+        try {
+            // Heapified rather than sorted, only the ranks up to the requested page are ever taken off
+            rankedItems = new PriorityQueue<>(findCandidates(query)
+                    .stream()
+                    .map(indexedItems::get)
+                    .filter(indexedItem -> indexedItem.matches(query))
+                    .map(indexedItem -> new RankedItem(indexedItem.getId(), indexedItem.rank(query)))
+                    .collect(toList()));
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (long skipped = 0; skipped < pageable.getOffset() && !rankedItems.isEmpty(); skipped++) {
+            rankedItems.poll();
+        }
+        // The index only selects candidates, the database stays the source of truth for the returned page.
+        // Candidates that no longer match there are replaced by the next ranked ones until the page is full
+        List<Item> itemList = new ArrayList<>(pageable.getPageSize());
+        while (itemList.size() < pageable.getPageSize() && !rankedItems.isEmpty()) {
+            List<Long> rankedIdList = new ArrayList<>();
+            while (rankedIdList.size() < pageable.getPageSize() - itemList.size() && !rankedItems.isEmpty()) {
+                rankedIdList.add(rankedItems.poll().getId());
+            }
+            Map<Long, Item> itemMap = itemRepository.findAllById(rankedIdList)
+                    .stream()
+                    .filter(item -> IndexedItem.of(item).matches(query))
+                    .collect(toMap(Item::getId, Function.identity()));
+            rankedIdList
+                    .stream()
+                    .map(itemMap::get)
+                    .filter(Objects::nonNull)
+                    .forEach(itemList::add);
+        }
+        return itemList;
+    }
+
+    @Override
+    public void index(Item item) {
+        put(item);
+        refreshOnRollback(List.of(item.getId()));
+    }
+
+    @Override
+    public void indexAll(Collection<Item> items) {
+        items.forEach(this::put);
+        refreshOnRollback(items
+                .stream()
+                .map(Item::getId)
+                .collect(toList()));
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        delete(itemId);
+        refreshOnRollback(List.of(itemId));
+    }
+
+    @Override
+    public void removeOwnerItems(Long ownerId) {
+        List<Long> ownerItemIdList;
+        lock.readLock().lock();
+        try {
+            ownerItemIdList = indexedItems.values()
+                    .stream()
+                    .filter(indexedItem -> Objects.equals(indexedItem.getOwnerId(), ownerId))
+                    .map(IndexedItem::getId)
+                    .collect(toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+        ownerItemIdList.forEach(this::delete);
+        refreshOnRollback(ownerItemIdList);
+    }
+
+    // A query shorter than an n-gram has nothing to narrow the candidates with, so it is checked against every
+    // indexed item. Such queries are bounded by the index size, not by the number of matches
+    private Set<Long> findCandidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return indexedItems.keySet();
+        }
+        List<Set<Long>> gramPostingList = new ArrayList<>();
+        for (String gram : splitToGrams(query)) {
+            Set<Long> gramPostings = postings.get(gram);
+            if (gramPostings == null) {
+                return Set.of();
+            }
+            gramPostingList.add(gramPostings);
+        }
+        gramPostingList.sort(Comparator.comparingInt(Set::size));
+        Set<Long> candidates = new HashSet<>(gramPostingList.get(0));
+        gramPostingList.stream()
+                .skip(1)
+                .forEach(candidates::retainAll);
+        return candidates;
+    }
+
+    private void put(Item item) {
+        IndexedItem indexedItem = IndexedItem.of(item);
+        lock.writeLock().lock();
+        try {
+            deleteUnderLock(item.getId());
+            indexedItems.put(indexedItem.getId(), indexedItem);
+            indexedItem.getGrams()
+                    .forEach(gram -> postings.computeIfAbsent(gram, key -> new HashSet<>()).add(indexedItem.getId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void delete(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            deleteUnderLock(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void deleteUnderLock(Long itemId) {
+        IndexedItem indexedItem = indexedItems.remove(itemId);
+        if (indexedItem == null) {
+            return;
+        }
+        for (String gram : indexedItem.getGrams()) {
+            Set<Long> gramPostings = postings.get(gram);
+            gramPostings.remove(itemId);
+            if (gramPostings.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private void refreshOnRollback(List<Long> itemIdList) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    refreshTransaction.executeWithoutResult(transactionStatus -> itemIdList
+                            .forEach(itemId -> itemRepository.findById(itemId)
+                                    .ifPresentOrElse(InMemoryItemSearchEngine.this::put, () -> delete(itemId))));
+                }
+            }
+        });
+    }
+
+    private static Set<String> splitToGrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static final class IndexedItem {
+
+        private final Long id;
+
+        private final Long ownerId;
+
+        private final String name;
+
+        private final String description;
+
+        private final boolean available;
+
+        private IndexedItem(Long id, Long ownerId, String name, String description, boolean available) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.name = name;
+            this.description = description;
+            this.available = available;
+        }
+
+        static IndexedItem of(Item item) {
+            return new IndexedItem(
+                    item.getId(),
+                    item.getOwner() == null ? null : item.getOwner().getId(),
+                    item.getName().toLowerCase(),
+                    item.getDescription().toLowerCase(),
+                    Boolean.TRUE.equals(item.getAvailable()));
+        }
+
+        Long getId() {
+            return id;
+        }
+
+        Long getOwnerId() {
+            return ownerId;
+        }
+
+        Set<String> getGrams() {
+            Set<String> grams = splitToGrams(name);
+            grams.addAll(splitToGrams(description));
+            return grams;
+        }
+
+        boolean matches(String query) {
+            return available && (name.contains(query) || description.contains(query));
+        }
+
+        int rank(String query) {
+            if (name.equals(query)) {
+                return 4;
+            }
+            if (name.startsWith(query)) {
+                return 3;
+            }
+            if (name.contains(query)) {
+                return 2;
+            }
+            return description.startsWith(query) ? 1 : 0;
+        }
+    }
+
+    private static final class RankedItem implements Comparable<RankedItem> {
+
+        private final Long id;
+
+        private final int rank;
+
+        private RankedItem(Long id, int rank) {
+            this.id = id;
+            this.rank = rank;
+        }
+
+        Long getId() {
+            return id;
+        }
+
+        @Override
+        public int compareTo(RankedItem other) {
+            int byRank = Integer.compare(other.rank, rank);
+            return byRank != 0 ? byRank : id.compareTo(other.id);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package alexander.sergeev.stuff_sharing_app.item.search;
+
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemSearchEngine {
+
+    List<Item> search(String text, Pageable pageable);
+
+    default void index(Item item) {
+    }
+
+    default void indexAll(Collection<Item> items) {
+        items.forEach(this::index);
+    }
+
+    default void remove(Long itemId) {
+    }
+
+    default void removeOwnerItems(Long ownerId) {
+    }
+
+}
@@ -0,0 +1,24 @@
+package alexander.sergeev.stuff_sharing_app.item.search;
+
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "stuff_sharing_app.search.engine", havingValue = "like", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LikeItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return itemRepository.searchByTextInNameOrDescriptionAndAvailableTrue(
+                text.toLowerCase(), text.toLowerCase(), pageable);
+    }
+}
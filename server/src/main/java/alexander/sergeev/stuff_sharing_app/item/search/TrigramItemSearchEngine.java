@@ -0,0 +1,26 @@
+package alexander.sergeev.stuff_sharing_app.item.search;
+
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "stuff_sharing_app.search.engine", havingValue = "trigram")
+@RequiredArgsConstructor
+public class TrigramItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        // Ranking is part of the native query, so any sort coming with the pageable is dropped
+        return itemRepository.searchByTrigramSimilarityAndAvailableTrue(text.toLowerCase(),
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+}
@@ -1,23 +1,41 @@
 package alexander.sergeev.stuff_sharing_app.item.service;
 
+import alexander.sergeev.stuff_sharing_app.batch.dto.BatchResultDto;
 import alexander.sergeev.stuff_sharing_app.comment.dto.IncomingCommentDto;
 import alexander.sergeev.stuff_sharing_app.comment.dto.OutgoingCommentDto;
+import alexander.sergeev.stuff_sharing_app.item.dto.AvailabilitySlotDto;
 import alexander.sergeev.stuff_sharing_app.item.dto.IncomingItemDto;
 import alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
+import alexander.sergeev.stuff_sharing_app.version.VersionedDto;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public interface ItemService {
 
     List<OutgoingItemDto> getAllOwnerItems(Long ownerId, Pageable pageable);
 
+    Slice<OutgoingItemDto> getAllOwnerItems(Long ownerId, KeysetCursor after, int size);
+
+    void exportOwnerItems(Long ownerId, Consumer<? super OutgoingItemDto> rowConsumer);
+
     OutgoingItemDto getItemDtoById(Long userId, Long itemId);
 
+    VersionedDto<OutgoingItemDto> getVersionedItemDtoById(Long userId, Long itemId, Predicate<String> notModified);
+
+    List<AvailabilitySlotDto> getItemAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to);
+
     List<OutgoingItemDto> getItemsBySearch(Long userId, String text, Pageable pageable);
 
     OutgoingItemDto postItem(Long ownerId, IncomingItemDto incomingItemDto);
 
+    List<BatchResultDto<OutgoingItemDto>> postItems(Long ownerId, List<IncomingItemDto> incomingItemDtoList);
+
     OutgoingCommentDto postComment(Long authorId, Long itemId, IncomingCommentDto incomingCommentDto);
 
     OutgoingItemDto patchItemById(Long ownerId, Long itemId, IncomingItemDto incomingItemDto);
@@ -1,39 +1,63 @@
 package alexander.sergeev.stuff_sharing_app.item.service;
 
+import alexander.sergeev.stuff_sharing_app.batch.BatchElementValidator;
+import alexander.sergeev.stuff_sharing_app.batch.dto.BatchResultDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.BookingMapper;
+import alexander.sergeev.stuff_sharing_app.booking.dto.BookingPeriodView;
 import alexander.sergeev.stuff_sharing_app.booking.dto.LastNextBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
 import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
 import alexander.sergeev.stuff_sharing_app.booking.repository.BookingRepository;
 import alexander.sergeev.stuff_sharing_app.comment.dto.CommentMapper;
 import alexander.sergeev.stuff_sharing_app.comment.dto.IncomingCommentDto;
+import alexander.sergeev.stuff_sharing_app.comment.dto.ItemCommentView;
 import alexander.sergeev.stuff_sharing_app.comment.dto.OutgoingCommentDto;
 import alexander.sergeev.stuff_sharing_app.comment.model.Comment;
 import alexander.sergeev.stuff_sharing_app.exception.NotAvailableItemException;
 import alexander.sergeev.stuff_sharing_app.exception.NotFoundException;
+import alexander.sergeev.stuff_sharing_app.item.dto.AvailabilitySlotDto;
 import alexander.sergeev.stuff_sharing_app.item.dto.IncomingItemDto;
 import alexander.sergeev.stuff_sharing_app.item.dto.ItemMapper;
 import alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto;
+import alexander.sergeev.stuff_sharing_app.item.dto.OwnerItemView;
 import alexander.sergeev.stuff_sharing_app.item.model.Item;
 import alexander.sergeev.stuff_sharing_app.item.repository.CommentRepository;
 import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.item.search.ItemSearchEngine;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetPagination;
+import alexander.sergeev.stuff_sharing_app.request.model.Request;
 import alexander.sergeev.stuff_sharing_app.request.repository.RequestRepository;
+import alexander.sergeev.stuff_sharing_app.user.model.User;
 import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import alexander.sergeev.stuff_sharing_app.version.VersionedDto;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
 import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
 
 @Transactional
 @Service
@@ -50,70 +74,101 @@ public class ItemServiceImpl implements ItemService {
 
     private final RequestRepository requestRepository;
 
+    private final ItemSearchEngine itemSearchEngine;
+
+    private final BatchElementValidator batchElementValidator;
+
     @Override
+    @Transactional(readOnly = true)
     public List<OutgoingItemDto> getAllOwnerItems(Long ownerId, Pageable pageable) {
-        LocalDateTime now = LocalDateTime.now();
         userRepository.checkUserById(ownerId);
-        List<OutgoingItemDto> outgoingItemDtoList = itemRepository.findByOwnerId(ownerId,
-                        PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()))
-                .stream()
-                .map(ItemMapper::mapItemToOutgoingDto)
-                .collect(toList());
-        List<Long> itemIdList = outgoingItemDtoList
-                .stream()
-                .map(OutgoingItemDto::getId)
-                .collect(toList());
-        Map<Long, List<Comment>> commentMap = commentRepository.findByItemIdIn(itemIdList)
-                .stream()
-                .collect(groupingBy(comment -> comment.getItem().getId(), toList()));
-        Map<Long, List<Booking>> bookingMap = bookingRepository
-                .findByItemIdIn(itemIdList, pageable)
-                .stream()
-                .collect(groupingBy(booking -> booking.getItem().getId(), toList()));
-        return outgoingItemDtoList
-                .stream()
-                .peek(outgoingItemDto -> outgoingItemDto
-                        .setComments(commentMap.getOrDefault(outgoingItemDto.getId(), List.of())
-                                .stream()
-                                .map(CommentMapper::mapCommentToOutgoingDto)
-                                .collect(toList())))
-                .peek(outgoingItemDto -> outgoingItemDto
-                        .setLastBooking(bookingMap.getOrDefault(outgoingItemDto.getId(), List.of())
-                                .stream()
-                                .filter(booking -> booking.getStart().isBefore(now))
-                                .map(BookingMapper::mapBookingToLastNextDto)
-                                .reduce((booking1, booking2) -> booking2)
-                                .orElse(null)))
-                .peek(outgoingItemDto -> outgoingItemDto
-                        .setNextBooking(bookingMap.getOrDefault(outgoingItemDto.getId(), List.of())
-                                .stream()
-                                .filter(booking -> booking.getStart().isAfter(now))
-                                .map(BookingMapper::mapBookingToLastNextDto)
-                                .reduce((booking1, booking2) -> booking2)
-                                .orElse(null)))
-                .sorted(Comparator.comparing(OutgoingItemDto::getId))
-                .collect(toList());
+        return mapOwnerItemViews(itemRepository.findOwnerItemViews(ownerId, 0L, LocalDateTime.now(),
+                pageable.getPageSize(), pageable.getOffset()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<OutgoingItemDto> getAllOwnerItems(Long ownerId, KeysetCursor after, int size) {
+        userRepository.checkUserById(ownerId);
+        return KeysetPagination.toSlice(mapOwnerItemViews(itemRepository.findOwnerItemViews(ownerId,
+                        after == null ? 0L : after.getId(), LocalDateTime.now(),
+                        KeysetPagination.limit(size), 0L)),
+                size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOwnerItems(Long ownerId, Consumer<? super OutgoingItemDto> rowConsumer) {
+        userRepository.checkUserById(ownerId);
+        try (Stream<OutgoingItemDto> itemStream = itemRepository.streamOwnerItems(ownerId)) {
+            itemStream.forEach(rowConsumer);
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public OutgoingItemDto getItemDtoById(Long userId, Long itemId) {
+        return getVersionedItemDtoById(userId, itemId, eTag -> false).getDto();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionedDto<OutgoingItemDto> getVersionedItemDtoById(Long userId, Long itemId,
+                                                                 Predicate<String> notModified) {
         userRepository.checkUserById(userId);
         Item item = itemRepository.getItemById(itemId);
+        boolean itemOwner = item.getOwner().getId().equals(userId);
+        String eTag = "item-" + itemId + "-" + item.getVersion();
+        LastNextBookingDto lastBooking = null;
+        LastNextBookingDto nextBooking = null;
+        if (itemOwner) {
+            // Last and next bookings also move with the clock, not only with writes
+            lastBooking = getLastBookingByItemId(itemId);
+            nextBooking = getNextBookingByItemId(itemId);
+            eTag += "-" + (lastBooking == null ? 0 : lastBooking.getId())
+                    + "-" + (nextBooking == null ? 0 : nextBooking.getId());
+        }
+        if (notModified.test(eTag)) {
+            return VersionedDto.notModified(eTag, itemOwner);
+        }
         OutgoingItemDto outgoingItemDto = ItemMapper.mapItemToOutgoingDto(item);
-        if (item.getOwner().getId().equals(userId)) {
-            outgoingItemDto.setLastBooking(getLastBookingByItemId(itemId));
-            outgoingItemDto.setNextBooking(getNextBookingByItemId(itemId));
+        if (itemOwner) {
+            outgoingItemDto.setLastBooking(lastBooking);
+            outgoingItemDto.setNextBooking(nextBooking);
         }
         outgoingItemDto.setComments(getCommentsByItemId(itemId));
-        return outgoingItemDto;
+        return new VersionedDto<>(eTag, itemOwner, outgoingItemDto);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<AvailabilitySlotDto> getItemAvailability(Long userId, Long itemId,
+                                                         LocalDateTime from, LocalDateTime to) {
+        userRepository.checkUserById(userId);
+        itemRepository.getItemById(itemId);
+        List<AvailabilitySlotDto> freeSlotList = new ArrayList<>();
+        LocalDateTime slotStart = from;
+        for (BookingPeriodView bookingPeriod : bookingRepository
+                .findByItemIdAndStatusInAndStartIsBeforeAndEndIsAfter(itemId, BookingStatus.OCCUPYING, to, from,
+                        Sort.by(Sort.Direction.ASC, "start"))) {
+            if (bookingPeriod.getStart().isAfter(slotStart)) {
+                freeSlotList.add(new AvailabilitySlotDto(slotStart, bookingPeriod.getStart()));
+            }
+            if (bookingPeriod.getEnd().isAfter(slotStart)) {
+                slotStart = bookingPeriod.getEnd();
+            }
+        }
+        if (slotStart.isBefore(to)) {
+            freeSlotList.add(new AvailabilitySlotDto(slotStart, to));
+        }
+        return freeSlotList;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<OutgoingItemDto> getItemsBySearch(Long userId, String text, Pageable pageable) {
         userRepository.checkUserById(userId);
-        List<Item> itemList =
-                itemRepository.searchByTextInNameOrDescriptionAndAvailableTrue(
-                        text.toLowerCase(), text.toLowerCase(), pageable);
+        List<Item> itemList = itemSearchEngine.search(text, pageable);
         Map<Long, List<Comment>> commentMap = commentRepository.findByItemIdIn(itemList
                         .stream()
                         .map(Item::getId)
@@ -136,9 +191,66 @@ public class ItemServiceImpl implements ItemService {
         Item item = ItemMapper.mapIncomingDtoToItem(incomingItemDto);
         item.setOwner(userRepository.getUserById(ownerId));
         if (incomingItemDto.getRequestId() != null) {
-            item.setRequest(requestRepository.findRequestById(incomingItemDto.getRequestId()));
+            Request request = requestRepository.findRequestById(incomingItemDto.getRequestId());
+            requestRepository.incrementVersion(request);
+            item.setRequest(request);
+        }
+        Item savedItem = itemRepository.save(item);
+        itemSearchEngine.index(savedItem);
+        return ItemMapper.mapItemToOutgoingDto(savedItem);
+    }
+
+    @Override
+    public List<BatchResultDto<OutgoingItemDto>> postItems(Long ownerId, List<IncomingItemDto> incomingItemDtoList) {
+        User owner = userRepository.getUserById(ownerId);
+        Map<Long, Request> requestMap = requestRepository.findAllById(incomingItemDtoList
+                        .stream()
+                        .filter(Objects::nonNull)
+                        .map(IncomingItemDto::getRequestId)
+                        .filter(Objects::nonNull)
+                        .collect(toSet()))
+                .stream()
+                .collect(toMap(Request::getId, Function.identity()));
+        List<BatchResultDto<OutgoingItemDto>> resultList = new ArrayList<>(
+                Collections.nCopies(incomingItemDtoList.size(), null));
+        Map<Integer, Item> itemMap = new LinkedHashMap<>();
+        for (int index = 0; index < incomingItemDtoList.size(); index++) {
+            IncomingItemDto incomingItemDto = incomingItemDtoList.get(index);
+            Optional<String> validationError = batchElementValidator.validateOnCreate(incomingItemDto);
+            if (validationError.isPresent()) {
+                resultList.set(index, BatchResultDto.rejected(index, HttpStatus.BAD_REQUEST, validationError.get()));
+                continue;
+            }
+            Item item = ItemMapper.mapIncomingDtoToItem(incomingItemDto);
+            item.setOwner(owner);
+            if (incomingItemDto.getRequestId() != null) {
+                Request request = requestMap.get(incomingItemDto.getRequestId());
+                if (request == null) {
+                    resultList.set(index, BatchResultDto.rejected(index, HttpStatus.NOT_FOUND,
+                            "There's no request with id " + incomingItemDto.getRequestId()));
+                    continue;
+                }
+                item.setRequest(request);
+            }
+            itemMap.put(index, item);
+        }
+        // Deduplicated by id, equals() on the entity would initialize its lazy requester
+        itemMap.values()
+                .stream()
+                .map(Item::getRequest)
+                .filter(Objects::nonNull)
+                .collect(toMap(Request::getId, Function.identity(), (request, sameRequest) -> request))
+                .values()
+                .forEach(requestRepository::incrementVersion);
+        Iterator<Item> savedItemIterator = itemRepository.saveAll(itemMap.values()).iterator();
+        List<Item> savedItemList = new ArrayList<>(itemMap.size());
+        for (Integer index : itemMap.keySet()) {
+            Item savedItem = savedItemIterator.next();
+            savedItemList.add(savedItem);
+            resultList.set(index, BatchResultDto.created(index, ItemMapper.mapItemToOutgoingDto(savedItem)));
         }
-        return ItemMapper.mapItemToOutgoingDto(itemRepository.save(item));
+        itemSearchEngine.indexAll(savedItemList);
+        return resultList;
     }
 
     @Override
@@ -150,7 +262,9 @@ public class ItemServiceImpl implements ItemService {
         }
         Comment comment = CommentMapper.mapIncommingDtoToComment(incomingCommentDto);
         comment.setAuthor(userRepository.getUserById(authorId));
-        comment.setItem(itemRepository.getItemById(itemId));
+        Item item = itemRepository.getItemById(itemId);
+        itemRepository.incrementVersion(item);
+        comment.setItem(item);
         return CommentMapper.mapCommentToOutgoingDto(commentRepository.save(comment));
     }
 
@@ -160,6 +274,9 @@ public class ItemServiceImpl implements ItemService {
         if (!Objects.equals(item.getOwner().getId(), ownerId)) {
             throw new NotFoundException("The updating item don't belong to user with id " + ownerId + "!");
         }
+        if (item.getRequest() != null) {
+            requestRepository.incrementVersion(item.getRequest());
+        }
         if (null != incomingItemDto.getName() && !incomingItemDto.getName().isBlank()) {
             item.setName(incomingItemDto.getName());
         }
@@ -169,7 +286,9 @@ public class ItemServiceImpl implements ItemService {
         if (null != incomingItemDto.getAvailable()) {
             item.setAvailable(incomingItemDto.getAvailable());
         }
-        return ItemMapper.mapItemToOutgoingDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemSearchEngine.index(savedItem);
+        return ItemMapper.mapItemToOutgoingDto(savedItem);
     }
 
     @Override
@@ -177,13 +296,19 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findByIdAndOwnerId(itemId, ownerId)
                 .orElseThrow(() -> new NotFoundException("Owner with id " + ownerId
                         + " has no item with id " + itemId + "!"));
+        if (item.getRequest() != null) {
+            requestRepository.incrementVersion(item.getRequest());
+        }
         itemRepository.deleteById(item.getId());
+        itemSearchEngine.remove(item.getId());
         return ItemMapper.mapItemToOutgoingDto(item);
     }
 
     @Override
     public void deleteAllOwnerItems(Long ownerId) {
+        requestRepository.incrementVersionByItemOwnerId(ownerId);
         itemRepository.deleteByOwnerId(ownerId);
+        itemSearchEngine.removeOwnerItems(ownerId);
     }
 
     public LastNextBookingDto getNextBookingByItemId(Long itemId) {
@@ -205,4 +330,22 @@ public class ItemServiceImpl implements ItemService {
                 .map(CommentMapper::mapCommentToOutgoingDto)
                 .collect(toList());
     }
+
+    private List<OutgoingItemDto> mapOwnerItemViews(List<OwnerItemView> ownerItemViewList) {
+        if (ownerItemViewList.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<OutgoingCommentDto>> commentMap = commentRepository.findViewsByItemIdIn(ownerItemViewList
+                        .stream()
+                        .map(OwnerItemView::getId)
+                        .collect(toList()))
+                .stream()
+                .collect(groupingBy(ItemCommentView::getItemId,
+                        mapping(CommentMapper::mapCommentViewToOutgoingDto, toList())));
+        return ownerItemViewList
+                .stream()
+                .map(ownerItemView -> ItemMapper.mapOwnerItemViewToOutgoingDto(ownerItemView,
+                        commentMap.getOrDefault(ownerItemView.getId(), List.of())))
+                .collect(toList());
+    }
 }
\ No newline at end of file
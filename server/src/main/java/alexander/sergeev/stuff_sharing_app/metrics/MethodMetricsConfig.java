@@ -0,0 +1,16 @@
+package alexander.sergeev.stuff_sharing_app.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MethodMetricsConfig {
+
+    @Bean
+    @ConditionalOnExpression("!'${stuff_sharing_app.metrics.mode:light}'.equalsIgnoreCase('off')")
+    public MethodTimingAspect methodTimingAspect(MeterRegistry registry, MetricsMode metricsMode) {
+        return new MethodTimingAspect(registry, metricsMode);
+    }
+}
@@ -0,0 +1,155 @@
+package alexander.sergeev.stuff_sharing_app.metrics;
+
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingState;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Value;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Aspect
+public class MethodTimingAspect {
+
+    public static final String METRIC_NAME = "method.calls";
+
+    private static final String BASE_PACKAGE = "alexander.sergeev.stuff_sharing_app.";
+
+    private static final String NONE = "none";
+
+    private static final String SUCCESS = "success";
+
+    private final MeterRegistry registry;
+
+    private final boolean endpointTagged;
+
+    private final Map<Class<?>, String> componentNames = new ConcurrentHashMap<>();
+
+    private final Map<Method, Integer> stateIndexes = new ConcurrentHashMap<>();
+
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public MethodTimingAspect(MeterRegistry registry, MetricsMode mode) {
+        this.registry = registry;
+        this.endpointTagged = mode == MetricsMode.FULL;
+    }
+
+    @Around("execution(public * alexander.sergeev.stuff_sharing_app..service.*Service+.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "service");
+    }
+
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "repository");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        long start = System.nanoTime();
+        String outcome = SUCCESS;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long duration = System.nanoTime() - start;
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            TimerKey timerKey = new TimerKey(
+                    layer,
+                    componentName(joinPoint.getTarget().getClass()),
+                    method,
+                    state(method, joinPoint.getArgs()),
+                    endpointTagged ? endpoint() : null,
+                    outcome);
+            Timer timer = timers.get(timerKey);
+            if (timer == null) {
+                timer = timers.computeIfAbsent(timerKey, this::register);
+            }
+            timer.record(duration, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer register(TimerKey timerKey) {
+        Tags tags = Tags.of(
+                "layer", timerKey.getLayer(),
+                "component", timerKey.getComponent(),
+                "method", timerKey.getMethod().getName(),
+                "state", timerKey.getState(),
+                "outcome", timerKey.getOutcome());
+        if (timerKey.getEndpoint() != null) {
+            tags = tags.and("endpoint", timerKey.getEndpoint());
+        }
+        return Timer.builder(METRIC_NAME)
+                .tags(tags)
+                .description("Service and repository method calls")
+                .register(registry);
+    }
+
+    private String componentName(Class<?> targetClass) {
+        String componentName = componentNames.get(targetClass);
+        if (componentName == null) {
+            // Repositories are JDK proxies and services are implementations, both are named after their own interface
+            componentName = componentNames.computeIfAbsent(targetClass, key -> Arrays
+                    .stream(ClassUtils.getAllInterfacesForClass(key))
+                    .filter(type -> type.getName().startsWith(BASE_PACKAGE))
+                    .findFirst()
+                    .orElse(ClassUtils.getUserClass(key))
+                    .getSimpleName());
+        }
+        return componentName;
+    }
+
+    private String state(Method method, Object[] args) {
+        Integer stateIndex = stateIndexes.get(method);
+        if (stateIndex == null) {
+            stateIndex = stateIndexes.computeIfAbsent(method, key ->
+                    Arrays.asList(key.getParameterTypes()).indexOf(BookingState.class));
+        }
+        if (stateIndex < 0 || args[stateIndex] == null) {
+            return NONE;
+        }
+        return ((BookingState) args[stateIndex]).name();
+    }
+
+    private static String endpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return NONE;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? NONE : request.getMethod() + " " + pattern;
+    }
+
+    @Value
+    private static class TimerKey {
+
+        String layer;
+
+        String component;
+
+        Method method;
+
+        String state;
+
+        String endpoint;
+
+        String outcome;
+
+    }
+}
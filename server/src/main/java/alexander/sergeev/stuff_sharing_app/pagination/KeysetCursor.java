@@ -0,0 +1,64 @@
+package alexander.sergeev.stuff_sharing_app.pagination;
+
+import alexander.sergeev.stuff_sharing_app.exception.WrongCursorException;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+@Getter
+@EqualsAndHashCode
+@ToString
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime position;
+
+    private final Long id;
+
+    public static KeysetCursor of(Long id) {
+        return new KeysetCursor(null, id);
+    }
+
+    public static KeysetCursor of(LocalDateTime position, Long id) {
+        return new KeysetCursor(position, id);
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.indexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                return of(Long.valueOf(decoded));
+            }
+            return of(LocalDateTime.parse(decoded.substring(0, separatorIndex)),
+                    Long.valueOf(decoded.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new WrongCursorException("Wrong cursor " + cursor + "!");
+        }
+    }
+
+    public static KeysetCursor decodePositioned(String cursor) {
+        KeysetCursor keysetCursor = decode(cursor);
+        if (keysetCursor != null && keysetCursor.getPosition() == null) {
+            throw new WrongCursorException("Wrong cursor " + cursor + "!");
+        }
+        return keysetCursor;
+    }
+
+    public String encode() {
+        String raw = position == null ? String.valueOf(id) : position + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
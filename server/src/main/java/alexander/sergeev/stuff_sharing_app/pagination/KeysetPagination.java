@@ -0,0 +1,35 @@
+package alexander.sergeev.stuff_sharing_app.pagination;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+import java.util.function.Function;
+
+import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.nextCursorHeader;
+
+@UtilityClass
+public class KeysetPagination {
+
+    public int limit(int size) {
+        return size + 1;
+    }
+
+    public <T> Slice<T> toSlice(List<T> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, PageRequest.of(0, size), hasNext);
+    }
+
+    public <T> List<T> writeNextCursor(HttpServletResponse response,
+                                       Slice<T> slice,
+                                       Function<T, KeysetCursor> cursorExtractor) {
+        List<T> content = slice.getContent();
+        if (slice.hasNext()) {
+            response.setHeader(nextCursorHeader, cursorExtractor.apply(content.get(content.size() - 1)).encode());
+        }
+        return content;
+    }
+}
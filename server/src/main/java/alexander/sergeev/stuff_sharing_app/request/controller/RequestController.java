@@ -1,21 +1,24 @@
 package alexander.sergeev.stuff_sharing_app.request.controller;
 
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetPagination;
 import alexander.sergeev.stuff_sharing_app.request.dto.IncomingRequestDto;
 import alexander.sergeev.stuff_sharing_app.request.dto.OutgoingRequestDto;
 import alexander.sergeev.stuff_sharing_app.request.service.RequestService;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import java.util.Collection;
 
 import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
 
-@Slf4j
 @RestController
 @RequestMapping("/requests")
 @Validated
@@ -28,40 +31,55 @@ public class RequestController {
 
     @GetMapping
     public Collection<OutgoingRequestDto> getAllRequesterRequests(
-            HttpServletRequest request,
             @RequestParam(value = "from") Integer firstElement,
             @RequestParam(value = "size") Integer size,
             @RequestHeader(header) Long requesterId) {
-        log.info("Id-{} {} {}?{}", requesterId, request.getMethod(), request.getRequestURI(), request.getQueryString());
         return requestService.getAllRequesterRequests(requesterId,
                 PageRequest.of(firstElement / size, size, sortByCreatingDesc));
     }
 
     @GetMapping("/all")
     public Collection<OutgoingRequestDto> getAllRequests(
-            HttpServletRequest request,
             @RequestParam(value = "from") Integer firstElement,
             @RequestParam(value = "size") Integer size,
             @RequestHeader(header) Long userId) {
-        log.info("Id-{} {} {}?{}", userId, request.getMethod(), request.getRequestURI(), request.getQueryString());
         return requestService.getAllRequests(userId, PageRequest.of(firstElement / size, size, sortByCreatingDesc));
     }
 
+    @GetMapping(params = "after")
+    public Collection<OutgoingRequestDto> getAllRequesterRequestsAfter(
+            HttpServletResponse response,
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size") @Min(1) @Max(20) Integer size,
+            @RequestHeader(header) Long requesterId) {
+        return KeysetPagination.writeNextCursor(response,
+                requestService.getAllRequesterRequests(requesterId, KeysetCursor.decodePositioned(after), size),
+                outgoingRequestDto -> KeysetCursor.of(outgoingRequestDto.getCreated(), outgoingRequestDto.getId()));
+    }
+
+    @GetMapping(path = "/all", params = "after")
+    public Collection<OutgoingRequestDto> getAllRequestsAfter(
+            HttpServletResponse response,
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size") @Min(1) @Max(20) Integer size,
+            @RequestHeader(header) Long userId) {
+        return KeysetPagination.writeNextCursor(response,
+                requestService.getAllRequests(userId, KeysetCursor.decodePositioned(after), size),
+                outgoingRequestDto -> KeysetCursor.of(outgoingRequestDto.getCreated(), outgoingRequestDto.getId()));
+    }
+
     @GetMapping("/{requestId}")
     public OutgoingRequestDto getRequestById(
-            HttpServletRequest request,
             @RequestHeader(header) Long userId,
-            @PathVariable Long requestId) {
-        log.info("Id-{} {} {}", userId, request.getMethod(), request.getRequestURI());
-        return requestService.getRequestById(userId, requestId);
+            @PathVariable Long requestId,
+            WebRequest webRequest) {
+        return requestService.getVersionedRequestById(userId, requestId, webRequest::checkNotModified).getDto();
     }
 
     @PostMapping
     public OutgoingRequestDto postRequest(
-            HttpServletRequest request,
             @RequestHeader(header) Long requesterId,
             @RequestBody IncomingRequestDto incomingRequestDto) {
-        log.info("Id-{} {} {} {}", requesterId, request.getMethod(), request.getRequestURI(), incomingRequestDto);
         return requestService.postRequest(requesterId, incomingRequestDto);
     }
 }
\ No newline at end of file
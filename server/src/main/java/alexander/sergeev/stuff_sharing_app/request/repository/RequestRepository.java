@@ -2,17 +2,61 @@ package alexander.sergeev.stuff_sharing_app.request.repository;
 
 import alexander.sergeev.stuff_sharing_app.exception.NotFoundException;
 import alexander.sergeev.stuff_sharing_app.request.model.Request;
+import alexander.sergeev.stuff_sharing_app.version.VersionIncrementRepository;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
-public interface RequestRepository extends JpaRepository<Request, Long> {
+public interface RequestRepository extends JpaRepository<Request, Long>, VersionIncrementRepository<Request> {
 
     List<Request> findByRequesterId(Long requesterId, Pageable pageable);
 
     List<Request> findByRequesterIdIsNot(Long requesterId, Pageable pageable);
 
+    @Query("SELECT r " +
+            "FROM Request AS r " +
+            "WHERE r.requester.id = :requesterId " +
+            "AND " +
+            "(" +
+            "r.created < :created " +
+            "OR " +
+            "(r.created = :created AND r.id < :requestId)" +
+            ") " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<Request> findByRequesterIdAfter(Long requesterId, LocalDateTime created, Long requestId, Pageable pageable);
+
+    @Query("SELECT r " +
+            "FROM Request AS r " +
+            "WHERE r.requester.id <> :requesterId " +
+            "AND " +
+            "(" +
+            "r.created < :created " +
+            "OR " +
+            "(r.created = :created AND r.id < :requestId)" +
+            ") " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<Request> findByRequesterIdIsNotAfter(Long requesterId, LocalDateTime created, Long requestId,
+                                              Pageable pageable);
+
+    @Query("SELECT DISTINCT r " +
+            "FROM Item AS i " +
+            "JOIN i.request AS r " +
+            "WHERE i.owner.id = :ownerId")
+    List<Request> findByItemOwnerId(Long ownerId);
+
+    @Modifying
+    @Query("DELETE FROM Request AS r WHERE r.requester.id = :requesterId")
+    void deleteByRequesterId(Long requesterId);
+
+    // One request at a time, a bulk UPDATE would evict the whole request region of the second-level cache
+    default void incrementVersionByItemOwnerId(Long ownerId) {
+        findByItemOwnerId(ownerId).forEach(this::incrementVersion);
+    }
+
     default Request findRequestById(Long requestId) {
         return findById(requestId).orElseThrow(() -> new NotFoundException("There's no request with id " + requestId));
     }
@@ -2,9 +2,13 @@ package alexander.sergeev.stuff_sharing_app.request.service;
 
 import alexander.sergeev.stuff_sharing_app.request.dto.IncomingRequestDto;
 import alexander.sergeev.stuff_sharing_app.request.dto.OutgoingRequestDto;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
+import alexander.sergeev.stuff_sharing_app.version.VersionedDto;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface RequestService {
 
@@ -12,8 +16,15 @@ public interface RequestService {
 
     List<OutgoingRequestDto> getAllRequests(Long userId, Pageable pageable);
 
+    Slice<OutgoingRequestDto> getAllRequesterRequests(Long requesterId, KeysetCursor after, int size);
+
+    Slice<OutgoingRequestDto> getAllRequests(Long userId, KeysetCursor after, int size);
+
     OutgoingRequestDto getRequestById(Long userId, Long requestId);
 
+    VersionedDto<OutgoingRequestDto> getVersionedRequestById(Long userId, Long requestId,
+                                                             Predicate<String> notModified);
+
     OutgoingRequestDto postRequest(Long requesterId, IncomingRequestDto incomingRequestDto);
 
 }
\ No newline at end of file
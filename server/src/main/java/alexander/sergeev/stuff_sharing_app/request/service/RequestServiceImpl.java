@@ -3,19 +3,26 @@ package alexander.sergeev.stuff_sharing_app.request.service;
 import alexander.sergeev.stuff_sharing_app.item.dto.ItemMapper;
 import alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto;
 import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetPagination;
 import alexander.sergeev.stuff_sharing_app.request.dto.IncomingRequestDto;
 import alexander.sergeev.stuff_sharing_app.request.dto.OutgoingRequestDto;
 import alexander.sergeev.stuff_sharing_app.request.dto.RequestMapper;
 import alexander.sergeev.stuff_sharing_app.request.model.Request;
 import alexander.sergeev.stuff_sharing_app.request.repository.RequestRepository;
 import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import alexander.sergeev.stuff_sharing_app.version.VersionedDto;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.toList;
@@ -31,7 +38,10 @@ public class RequestServiceImpl implements RequestService {
 
     private final RequestRepository requestRepository;
 
+    private final Sort sortByCreatedDescAndIdDesc = Sort.by(Sort.Direction.DESC, "created", "id");
+
     @Override
+    @Transactional(readOnly = true)
     public List<OutgoingRequestDto> getAllRequesterRequests(Long requesterId, Pageable pageable) {
         userRepository.checkUserById(requesterId);
         List<Request> requestList = requestRepository.findByRequesterId(requesterId, pageable);
@@ -39,6 +49,7 @@ public class RequestServiceImpl implements RequestService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OutgoingRequestDto> getAllRequests(Long userId, Pageable pageable) {
         userRepository.checkUserById(userId);
         List<Request> requestList = requestRepository.findByRequesterIdIsNot(userId, pageable);
@@ -46,16 +57,52 @@ public class RequestServiceImpl implements RequestService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Slice<OutgoingRequestDto> getAllRequesterRequests(Long requesterId, KeysetCursor after, int size) {
+        userRepository.checkUserById(requesterId);
+        Pageable limit = PageRequest.of(0, KeysetPagination.limit(size), sortByCreatedDescAndIdDesc);
+        List<Request> requestList = after == null
+                ? requestRepository.findByRequesterId(requesterId, limit)
+                : requestRepository.findByRequesterIdAfter(requesterId, after.getPosition(), after.getId(),
+                PageRequest.of(0, KeysetPagination.limit(size)));
+        return KeysetPagination.toSlice(joinItemsToRequestList(requestList), size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<OutgoingRequestDto> getAllRequests(Long userId, KeysetCursor after, int size) {
+        userRepository.checkUserById(userId);
+        Pageable limit = PageRequest.of(0, KeysetPagination.limit(size), sortByCreatedDescAndIdDesc);
+        List<Request> requestList = after == null
+                ? requestRepository.findByRequesterIdIsNot(userId, limit)
+                : requestRepository.findByRequesterIdIsNotAfter(userId, after.getPosition(), after.getId(),
+                PageRequest.of(0, KeysetPagination.limit(size)));
+        return KeysetPagination.toSlice(joinItemsToRequestList(requestList), size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public OutgoingRequestDto getRequestById(Long userId, Long requestId) {
+        return getVersionedRequestById(userId, requestId, eTag -> false).getDto();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionedDto<OutgoingRequestDto> getVersionedRequestById(Long userId, Long requestId,
+                                                                    Predicate<String> notModified) {
         userRepository.checkUserById(userId);
         Request request = requestRepository.findRequestById(requestId);
+        String eTag = "request-" + requestId + "-" + request.getVersion();
+        if (notModified.test(eTag)) {
+            return VersionedDto.notModified(eTag, false);
+        }
         List<OutgoingItemDto> itemList = itemRepository.findByRequestId(requestId)
                 .stream()
                 .map(ItemMapper::mapItemToOutgoingDto)
                 .collect(toList());
         OutgoingRequestDto outgoingRequestDto = RequestMapper.mapRequestToOutgoingDto(request);
         outgoingRequestDto.setItems(itemList);
-        return outgoingRequestDto;
+        return new VersionedDto<>(eTag, false, outgoingRequestDto);
     }
 
     @Override
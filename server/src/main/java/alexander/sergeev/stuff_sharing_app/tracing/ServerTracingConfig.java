@@ -0,0 +1,34 @@
+package alexander.sergeev.stuff_sharing_app.tracing;
+
+import io.opentelemetry.api.trace.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "stuff_sharing_app.tracing.enabled", havingValue = "true")
+public class ServerTracingConfig {
+
+    @Bean
+    public TracingAspect tracingAspect(Tracer tracer) {
+        return new TracingAspect(tracer);
+    }
+
+    @Bean
+    public static BeanPostProcessor tracingDataSourcePostProcessor(ObjectProvider<Tracer> tracer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Only the data source the application uses, the pools behind a routing data source stay unwrapped
+                if (bean instanceof DataSource && beanName.equals("dataSource")) {
+                    return new TracingDataSource((DataSource) bean, tracer.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
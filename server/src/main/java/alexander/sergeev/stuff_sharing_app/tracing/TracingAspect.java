@@ -0,0 +1,43 @@
+package alexander.sergeev.stuff_sharing_app.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.util.ClassUtils;
+
+@Aspect
+@RequiredArgsConstructor
+public class TracingAspect {
+
+    private final Tracer tracer;
+
+    @Around("within(alexander.sergeev.stuff_sharing_app..controller.*Controller) && execution(public * *(..))")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint);
+    }
+
+    @Around("execution(public * alexander.sergeev.stuff_sharing_app..service.*Service+.*(..))")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint);
+    }
+
+    private Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        String name = ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        Span span = tracer.spanBuilder(name).startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package alexander.sergeev.stuff_sharing_app.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class TracingDataSource extends DelegatingDataSource {
+
+    private final Tracer tracer;
+
+    public TracingDataSource(DataSource targetDataSource, Tracer tracer) {
+        super(targetDataSource);
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return tracedConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return tracedConnection(super.getConnection(username, password));
+    }
+
+    private Connection tracedConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement && method.getName().startsWith("prepare")) {
+                        return tracedStatement((Statement) result, method.getReturnType(), (String) args[0]);
+                    }
+                    if (result instanceof Statement && method.getName().equals("createStatement")) {
+                        return tracedStatement((Statement) result, Statement.class, null);
+                    }
+                    return result;
+                });
+    }
+
+    private Object tracedStatement(Statement statement, Class<?> statementType, String preparedSql) {
+        return Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[]{statementType},
+                (proxy, method, args) -> {
+                    // Statements outside a request, like the migrations at startup, would only make root spans of their own
+                    if (!method.getName().startsWith("execute") || !Span.current().getSpanContext().isValid()) {
+                        return invoke(statement, method, args);
+                    }
+                    String sql = args != null && args.length > 0 && args[0] instanceof String
+                            ? (String) args[0]
+                            : preparedSql;
+                    Span span = tracer.spanBuilder("jdbc " + method.getName())
+                            .setSpanKind(SpanKind.CLIENT)
+                            .startSpan();
+                    if (sql != null) {
+                        span.setAttribute("db.statement", sql);
+                    }
+                    try {
+                        return invoke(statement, method, args);
+                    } catch (SQLException | RuntimeException e) {
+                        span.recordException(e);
+                        span.setStatus(StatusCode.ERROR);
+                        throw e;
+                    } finally {
+                        span.end();
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
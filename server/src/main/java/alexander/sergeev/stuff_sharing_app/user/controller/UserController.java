@@ -1,17 +1,19 @@
 package alexander.sergeev.stuff_sharing_app.user.controller;
 
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetPagination;
 import alexander.sergeev.stuff_sharing_app.user.dto.UserDto;
 import alexander.sergeev.stuff_sharing_app.user.service.UserService;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import java.util.List;
 
-@Slf4j
 @RestController
 @RequestMapping(path = "/users")
 @Validated
@@ -22,43 +24,43 @@ public class UserController {
 
     @GetMapping
     public List<UserDto> getAllUsers(
-            HttpServletRequest request,
             @RequestParam(value = "from") Integer firstElement,
             @RequestParam(value = "size") Integer size) {
-        log.info("{} {}?{}", request.getMethod(), request.getRequestURI(), request.getQueryString());
         return userService.getAllUsers(PageRequest.of(firstElement / size, size));
     }
 
+    @GetMapping(params = "after")
+    public List<UserDto> getAllUsersAfter(
+            HttpServletResponse response,
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size") @Min(1) @Max(20) Integer size) {
+        return KeysetPagination.writeNextCursor(response,
+                userService.getAllUsers(KeysetCursor.decode(after), size),
+                userDto -> KeysetCursor.of(userDto.getId()));
+    }
+
     @GetMapping("/{userId}")
     public UserDto getUserById(
-            HttpServletRequest request,
             @PathVariable Long userId) {
-        log.info("{} {}", request.getMethod(), request.getRequestURI());
         return userService.getUserById(userId);
     }
 
     @PostMapping
     public UserDto postUser(
-            HttpServletRequest request,
             @RequestBody UserDto userDto) {
-        log.info("{} {} {}", request.getMethod(), request.getRequestURI(), userDto);
         return userService.postUser(userDto);
     }
 
     @PatchMapping("/{userId}")
     public UserDto patchUserById(
-            HttpServletRequest request,
             @PathVariable Long userId,
             @RequestBody UserDto userDto) {
-        log.info("{} {} {}", request.getMethod(), request.getRequestURI(), userDto);
         return userService.patchUserById(userId, userDto);
     }
 
     @DeleteMapping("/{userId}")
     public UserDto deleteUserById(
-            HttpServletRequest request,
             @PathVariable Long userId) {
-        log.info("{} {}", request.getMethod(), request.getRequestURI());
         return userService.deleteUserById(userId);
     }
 }
\ No newline at end of file
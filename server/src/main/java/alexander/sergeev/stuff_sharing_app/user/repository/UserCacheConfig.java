@@ -0,0 +1,54 @@
+package alexander.sergeev.stuff_sharing_app.user.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@ConditionalOnProperty(name = "stuff_sharing_app.user-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class UserCacheConfig {
+
+    @Bean
+    public Cache<Long, Boolean> userExistenceCache(
+            @Value("${stuff_sharing_app.user-cache.maximum-size:10000}") long maximumSize,
+            @Value("${stuff_sharing_app.user-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${stuff_sharing_app.user-cache.negative-ttl-seconds:30}") long negativeTtlSeconds) {
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        long negativeTtlNanos = TimeUnit.SECONDS.toNanos(negativeTtlSeconds);
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Long, Boolean>() {
+                    @Override
+                    public long expireAfterCreate(Long userId, Boolean exists, long currentTime) {
+                        return exists ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long userId, Boolean exists, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(userId, exists, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long userId, Boolean exists, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    @Bean
+    public MeterBinder userExistenceCacheMetrics(Cache<Long, Boolean> userExistenceCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, userExistenceCache, "users");
+    }
+}
@@ -0,0 +1,9 @@
+package alexander.sergeev.stuff_sharing_app.user.repository;
+
+public interface UserExistenceRepository {
+
+    void checkUserById(Long userId);
+
+    void evictUser(Long userId);
+
+}
@@ -0,0 +1,65 @@
+package alexander.sergeev.stuff_sharing_app.user.repository;
+
+import alexander.sergeev.stuff_sharing_app.exception.NotFoundException;
+import alexander.sergeev.stuff_sharing_app.user.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Optional;
+
+public class UserExistenceRepositoryImpl implements UserExistenceRepository {
+
+    private final EntityManager entityManager;
+
+    private final Cache<Long, Boolean> userExistenceCache;
+
+    public UserExistenceRepositoryImpl(EntityManager entityManager,
+                                       Optional<Cache<Long, Boolean>> userExistenceCache) {
+        this.entityManager = entityManager;
+        this.userExistenceCache = userExistenceCache.orElse(null);
+    }
+
+    @Override
+    public void checkUserById(Long userId) {
+        boolean exists = userExistenceCache == null
+                ? existsInDatabase(userId)
+                : userExistenceCache.get(userId, this::existsInDatabase);
+        if (!exists) {
+            throw new NotFoundException("There's no user with id " + userId);
+        }
+    }
+
+    @Override
+    public void evictUser(Long userId) {
+        EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
+        invalidate(entityManagerFactory, userId);
+        // Drop anything a concurrent reader cached from the pre-commit state as well,
+        // including the soft lock a read-write region keeps for a deleted entity
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(entityManagerFactory, userId);
+                }
+            });
+        }
+    }
+
+    private void invalidate(EntityManagerFactory entityManagerFactory, Long userId) {
+        entityManagerFactory.getCache().evict(User.class, userId);
+        if (userExistenceCache != null) {
+            userExistenceCache.invalidate(userId);
+        }
+    }
+
+    private boolean existsInDatabase(Long userId) {
+        return !entityManager.createQuery("SELECT u.id FROM User AS u WHERE u.id = :userId")
+                .setParameter("userId", userId)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+}
@@ -7,14 +7,11 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserExistenceRepository {
 
     List<User> findBy(Pageable pageable);
 
-    default void checkUserById(Long userId) {
-        if (!existsById(userId))
-            throw new NotFoundException("There's no user with id " + userId);
-    }
+    List<User> findByIdGreaterThan(Long userId, Pageable pageable);
 
     default User getUserById(Long userId) {
         return findById(userId)
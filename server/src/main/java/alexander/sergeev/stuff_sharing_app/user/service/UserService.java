@@ -1,7 +1,9 @@
 package alexander.sergeev.stuff_sharing_app.user.service;
 
 import alexander.sergeev.stuff_sharing_app.user.dto.UserDto;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -9,6 +11,8 @@ public interface UserService {
 
     List<UserDto> getAllUsers(Pageable pageable);
 
+    Slice<UserDto> getAllUsers(KeysetCursor after, int size);
+
     UserDto getUserById(Long userId);
 
     UserDto postUser(UserDto userDto);
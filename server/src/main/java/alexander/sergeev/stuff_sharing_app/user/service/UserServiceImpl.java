@@ -1,14 +1,22 @@
 package alexander.sergeev.stuff_sharing_app.user.service;
 
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.item.search.ItemSearchEngine;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetPagination;
+import alexander.sergeev.stuff_sharing_app.request.repository.RequestRepository;
 import alexander.sergeev.stuff_sharing_app.user.dto.UserDto;
 import alexander.sergeev.stuff_sharing_app.user.dto.UserMapper;
 import alexander.sergeev.stuff_sharing_app.user.model.User;
 import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -19,7 +27,14 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
 
+    private final ItemRepository itemRepository;
+
+    private final RequestRepository requestRepository;
+
+    private final ItemSearchEngine itemSearchEngine;
+
     @Override
+    @Transactional(readOnly = true)
     public List<UserDto> getAllUsers(Pageable pageable) {
         return userRepository.findBy(pageable)
                 .stream()
@@ -28,13 +43,27 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Slice<UserDto> getAllUsers(KeysetCursor after, int size) {
+        return KeysetPagination.toSlice(userRepository.findByIdGreaterThan(after == null ? 0L : after.getId(),
+                                PageRequest.of(0, KeysetPagination.limit(size), Sort.by("id")))
+                        .stream()
+                        .map(UserMapper::mapUserToDto)
+                        .collect(Collectors.toList()),
+                size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public UserDto getUserById(Long userId) {
         return UserMapper.mapUserToDto(userRepository.getUserById(userId));
     }
 
     @Override
     public UserDto postUser(UserDto userDto) {
-        return UserMapper.mapUserToDto(userRepository.save(UserMapper.mapDtoToUser(userDto)));
+        User savedUser = userRepository.save(UserMapper.mapDtoToUser(userDto));
+        userRepository.evictUser(savedUser.getId());
+        return UserMapper.mapUserToDto(savedUser);
     }
 
     @Override
@@ -46,13 +75,23 @@ public class UserServiceImpl implements UserService {
         if (null != userDto.getEmail() && !userDto.getEmail().isBlank()) {
             updatingUser.setEmail(userDto.getEmail());
         }
-        return UserMapper.mapUserToDto(userRepository.save(updatingUser));
+        User savedUser = userRepository.save(updatingUser);
+        userRepository.evictUser(userId);
+        return UserMapper.mapUserToDto(savedUser);
     }
 
     @Override
     public UserDto deleteUserById(Long userId) {
         UserDto userDto = UserMapper.mapUserToDto(userRepository.getUserById(userId));
+        // Other users' requests lose the items answering them, so their ETags must change as well
+        requestRepository.incrementVersionByItemOwnerId(userId);
+        // The database would cascade these as well, but behind the second-level cache's back:
+        // bulk deletes through JPA make Hibernate evict the item and request regions and their cached queries
+        itemRepository.deleteByOwnerId(userId);
+        requestRepository.deleteByRequesterId(userId);
         userRepository.deleteById(userId);
+        userRepository.evictUser(userId);
+        itemSearchEngine.removeOwnerItems(userId);
         return userDto;
     }
 }
\ No newline at end of file
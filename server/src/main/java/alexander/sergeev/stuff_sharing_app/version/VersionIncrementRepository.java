@@ -0,0 +1,7 @@
+package alexander.sergeev.stuff_sharing_app.version;
+
+public interface VersionIncrementRepository<T> {
+
+    void incrementVersion(T entity);
+
+}
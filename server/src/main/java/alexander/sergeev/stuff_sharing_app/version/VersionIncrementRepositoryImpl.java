@@ -0,0 +1,21 @@
+package alexander.sergeev.stuff_sharing_app.version;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+
+public class VersionIncrementRepositoryImpl<T> implements VersionIncrementRepository<T> {
+
+    private final EntityManager entityManager;
+
+    public VersionIncrementRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    // Goes through the entity persister, so the second-level cache drops only this entry where a bulk UPDATE
+    // would evict the whole region. The increment runs at once, which also outranks a PESSIMISTIC_WRITE
+    // the row may already hold, and fails on a version another transaction has bumped meanwhile
+    @Override
+    public void incrementVersion(T entity) {
+        entityManager.lock(entity, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+    }
+}
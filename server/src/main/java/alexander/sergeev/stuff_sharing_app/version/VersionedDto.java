@@ -0,0 +1,23 @@
+package alexander.sergeev.stuff_sharing_app.version;
+
+import lombok.Value;
+
+// The tag and the body of one read, taken from the same transaction so they can't come from different snapshots
+@Value
+public class VersionedDto<T> {
+
+    String eTag;
+
+    boolean privateView;
+
+    T dto;
+
+    public boolean isNotModified() {
+        return dto == null;
+    }
+
+    public static <T> VersionedDto<T> notModified(String eTag, boolean privateView) {
+        return new VersionedDto<>(eTag, privateView, null);
+    }
+
+}
@@ -1,10 +1,3 @@
-DROP TABLE IF EXISTS
-users,
-requests,
-items,
-bookings,
-comments;
-
 CREATE TABLE IF NOT EXISTS users
 (
     id              BIGINT          GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
@@ -53,4 +46,4 @@ CREATE TABLE IF NOT EXISTS comments
     item_id         BIGINT          REFERENCES items(id) ON DELETE CASCADE,
     author_id       BIGINT          REFERENCES users(id) ON DELETE CASCADE,
     created         TIMESTAMP       NOT NULL
-);
\ No newline at end of file
+);
@@ -0,0 +1,7 @@
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,9 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS items_name_trgm_idx
+    ON items USING GIN (LOWER(name) gin_trgm_ops)
+    WHERE available;
+
+CREATE INDEX IF NOT EXISTS items_description_trgm_idx
+    ON items USING GIN (LOWER(description) gin_trgm_ops)
+    WHERE available;
@@ -0,0 +1,33 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Bookings created before the constraint may already overlap. Keep approved bookings over waiting ones,
+-- then the older one, and reject the rest so the constraint can be added.
+DO $$
+DECLARE
+    booking RECORD;
+BEGIN
+    FOR booking IN
+        SELECT id, item_id, start_date, end_date, status
+        FROM bookings
+        WHERE status IN ('WAITING', 'APPROVED')
+        ORDER BY status = 'APPROVED' DESC, id
+    LOOP
+        UPDATE bookings
+        SET status = 'REJECTED'
+        WHERE id = booking.id
+          AND EXISTS (SELECT 1
+                      FROM bookings AS kept
+                      WHERE kept.item_id = booking.item_id
+                        AND kept.id <> booking.id
+                        AND kept.status IN ('WAITING', 'APPROVED')
+                        AND (kept.status = 'APPROVED' AND booking.status = 'WAITING'
+                            OR kept.status = booking.status AND kept.id < booking.id)
+                        AND kept.start_date < booking.end_date
+                        AND kept.end_date > booking.start_date);
+    END LOOP;
+END $$;
+
+ALTER TABLE bookings
+    ADD CONSTRAINT bookings_item_period_overlap_excl
+    EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date, '[)') WITH &&)
+    WHERE (status IN ('WAITING', 'APPROVED'));
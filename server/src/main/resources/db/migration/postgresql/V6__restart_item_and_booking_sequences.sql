@@ -0,0 +1,4 @@
+-- The pooled optimizer treats a fetched value as the upper bound of its block of 50 ids
+SELECT setval('items_seq', COALESCE(MAX(id), 0) + 50, false) FROM items;
+
+SELECT setval('bookings_seq', COALESCE(MAX(id), 0) + 50, false) FROM bookings;
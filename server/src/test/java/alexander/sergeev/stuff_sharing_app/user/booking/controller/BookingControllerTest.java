@@ -1,13 +1,18 @@
 package alexander.sergeev.stuff_sharing_app.user.booking.controller;
 
+import alexander.sergeev.stuff_sharing_app.batch.dto.BatchResultDto;
 import alexander.sergeev.stuff_sharing_app.booking.controller.BookingController;
+import alexander.sergeev.stuff_sharing_app.booking.dto.CompactBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.IncomingBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.OutgoingBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.model.BookingState;
 import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
 import alexander.sergeev.stuff_sharing_app.booking.service.BookingService;
 import alexander.sergeev.stuff_sharing_app.exception.ExceptionResolver;
+import alexander.sergeev.stuff_sharing_app.exception.NotFoundException;
+import alexander.sergeev.stuff_sharing_app.export.NdjsonWriter;
 import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
 import alexander.sergeev.stuff_sharing_app.user.model.User;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.SneakyThrows;
@@ -15,23 +20,35 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.nextCursorHeader;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest({BookingController.class, ExceptionResolver.class})
+@Import(NdjsonWriter.class)
 class BookingControllerTest {
 
     @Autowired
@@ -93,6 +110,128 @@ class BookingControllerTest {
                 PageRequest.of(0, 20, sortByStartDesc));
     }
 
+    @Test
+    @SneakyThrows
+    void getAllOwnerItemBookings_whenCompactView_shouldInvokeCompactServiceMethod_andReturnCompactBookingList() {
+        CompactBookingDto compactBookingDto = new CompactBookingDto(
+                1L,
+                outgoingBookingDto.getStart(),
+                outgoingBookingDto.getEnd(),
+                BookingStatus.WAITING,
+                2L,
+                "Booker name",
+                1L,
+                "Item name");
+        when(bookingService.getAllOwnerItemCompactBookings(1L, BookingState.ALL,
+                PageRequest.of(0, 20, sortByStartDesc)))
+                .thenReturn(List.of(compactBookingDto));
+        mockMvc.perform(get("/bookings/owner?state=ALL&from=0&size=20&view=compact")
+                        .header(header, 1))
+                .andExpect(status().isOk())
+                .andExpect(content().string(objectMapper.writeValueAsString(List.of(compactBookingDto))));
+        verify(bookingService).getAllOwnerItemCompactBookings(1L, BookingState.ALL,
+                PageRequest.of(0, 20, sortByStartDesc));
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllUserBookingsAfter_whenNextSliceExists_shouldReturnBookingList_andNextCursorHeader() {
+        when(bookingService.getAllUserBookings(2L, BookingState.ALL, null, 1))
+                .thenReturn(new SliceImpl<>(List.of(outgoingBookingDto), PageRequest.of(0, 1), true));
+        mockMvc.perform(get("/bookings?state=ALL&after=&size=1")
+                        .header(header, 2))
+                .andExpect(status().isOk())
+                .andExpect(header().string(nextCursorHeader,
+                        KeysetCursor.of(outgoingBookingDto.getStart(), outgoingBookingDto.getId()).encode()))
+                .andExpect(content().string(objectMapper.writeValueAsString(List.of(outgoingBookingDto))));
+        verify(bookingService).getAllUserBookings(2L, BookingState.ALL, null, 1);
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllOwnerItemBookingsAfter_whenLastSlice_shouldNotReturnNextCursorHeader() {
+        KeysetCursor after = KeysetCursor.of(LocalDateTime.of(2024, 1, 1, 0, 0), 5L);
+        when(bookingService.getAllOwnerItemBookings(1L, BookingState.ALL, after, 20))
+                .thenReturn(new SliceImpl<>(List.of(outgoingBookingDto), PageRequest.of(0, 20), false));
+        mockMvc.perform(get("/bookings/owner?state=ALL&after={after}&size=20", after.encode())
+                        .header(header, 1))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(nextCursorHeader))
+                .andExpect(content().string(objectMapper.writeValueAsString(List.of(outgoingBookingDto))));
+        verify(bookingService).getAllOwnerItemBookings(1L, BookingState.ALL, after, 20);
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllUserBookingsAfter_whenSizeIsZero_shouldReturnBadRequest() {
+        mockMvc.perform(get("/bookings?state=ALL&after=&size=0")
+                        .header(header, 2))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("{\"error\":\"must be greater than or equal to 1\"}"));
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllUserBookingsAfter_whenCursorIsMalformed_shouldReturnBadRequest() {
+        mockMvc.perform(get("/bookings?state=ALL&after=garbage&size=20")
+                        .header(header, 2))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("WrongCursorException : Wrong cursor garbage!"));
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllUserBookings_whenUnknownView_shouldReturnBadRequest() {
+        mockMvc.perform(get("/bookings?state=ALL&from=0&size=20&view=foo")
+                        .header(header, 2))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("{\"error\":\"Unknown view: foo\"}"));
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllOwnerItemBookingsAfter_whenUnknownState_shouldReturnBadRequest() {
+        mockMvc.perform(get("/bookings/owner?state=UNKNOWN&after=&size=20")
+                        .header(header, 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("{\"error\":\"Unknown state: UNSUPPORTED_STATUS\"}"));
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    @SneakyThrows
+    void exportOwnerItemBookings_whenInvoke_shouldWriteOneJsonObjectPerLine() {
+        CompactBookingDto firstBooking = new CompactBookingDto(1L, outgoingBookingDto.getStart(),
+                outgoingBookingDto.getEnd(), BookingStatus.WAITING, 2L, "Booker name", 1L, "Item name");
+        CompactBookingDto secondBooking = new CompactBookingDto(2L, outgoingBookingDto.getStart(),
+                outgoingBookingDto.getEnd(), BookingStatus.APPROVED, 3L, "Other booker name", 1L, "Item name");
+        doAnswer(invocation -> {
+            Consumer<CompactBookingDto> rowConsumer = invocation.getArgument(1);
+            rowConsumer.accept(firstBooking);
+            rowConsumer.accept(secondBooking);
+            return null;
+        }).when(bookingService).exportOwnerItemBookings(eq(1L), any());
+        mockMvc.perform(get("/bookings/export")
+                        .header(header, 1))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(NdjsonWriter.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(objectMapper.writeValueAsString(firstBooking) + "\n"
+                        + objectMapper.writeValueAsString(secondBooking) + "\n"));
+    }
+
+    @Test
+    @SneakyThrows
+    void exportOwnerItemBookings_whenUserNotFound_shouldReturnNotFound() {
+        doThrow(new NotFoundException("There's no user with id 1"))
+                .when(bookingService).exportOwnerItemBookings(eq(1L), any());
+        mockMvc.perform(get("/bookings/export")
+                        .header(header, 1))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @SneakyThrows
     void getBookingById_whenInvoke_shouldInvokeServiceMethod_andReturnBooking() {
@@ -125,6 +264,40 @@ class BookingControllerTest {
         verify(bookingService).postBooking(2L, incomingBookingDto);
     }
 
+    @Test
+    @SneakyThrows
+    void postBookings_whenInvoke_shouldInvokeServiceMethod_andReturnElementResults() {
+        List<IncomingBookingDto> incomingBookingDtoList = List.of(
+                new IncomingBookingDto(null, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), 1L),
+                new IncomingBookingDto(null, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), 99L));
+        List<BatchResultDto<OutgoingBookingDto>> batchResultDtoList = List.of(
+                BatchResultDto.created(0, outgoingBookingDto),
+                BatchResultDto.rejected(1, HttpStatus.NOT_FOUND, "There's no item with id 99"));
+        when(bookingService.postBookings(2L, incomingBookingDtoList))
+                .thenReturn(batchResultDtoList);
+        mockMvc.perform(post("/bookings/batch")
+                        .header(header, 2)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(incomingBookingDtoList)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(objectMapper.writeValueAsString(batchResultDtoList)));
+        verify(bookingService).postBookings(2L, incomingBookingDtoList);
+    }
+
+    @Test
+    @SneakyThrows
+    void postBookings_whenBatchIsEmpty_shouldReturnBadRequest() {
+        mockMvc.perform(post("/bookings/batch")
+                        .header(header, 2)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("{\"error\":\"Batch must contain from 1 to 10000 bookings!\"}"));
+        verifyNoInteractions(bookingService);
+    }
+
     @Test
     @SneakyThrows
     void patchBooking_whenInvoke_shouldInvokeServiceMethod_andReturnBooking() {
@@ -1,12 +1,15 @@
 package alexander.sergeev.stuff_sharing_app.user.booking.repository;
 
 import alexander.sergeev.stuff_sharing_app.booking.dto.BookingMapper;
+import alexander.sergeev.stuff_sharing_app.booking.dto.CompactBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.LastNextBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingState;
 import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
 import alexander.sergeev.stuff_sharing_app.booking.repository.BookingRepository;
 import alexander.sergeev.stuff_sharing_app.item.model.Item;
 import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
 import alexander.sergeev.stuff_sharing_app.user.model.User;
 import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -198,89 +201,89 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByItemIdIn_whenBookingExists_shouldReturnBookingList() {
+    void findByItemOwnerId_whenBookingExists_shouldReturnBookingList() {
         bookingRepository.save(currentBooking);
         List<Booking> expected = List.of(currentBooking);
-        List<Booking> result = bookingRepository.findByItemIdIn(List.of(1L), pageable);
+        List<Booking> result = bookingRepository.findByItemOwnerId(1L, pageable);
         assertEquals(expected, result);
     }
 
     @Test
-    void findByItemIdIn_whenBookingDoesNotExist_shouldReturnAnEmptyList() {
+    void findByItemOwnerId_whenBookingDoesNotExist_shouldReturnAnEmptyList() {
         saveThreeBookings();
-        List<Booking> result = bookingRepository.findByItemIdIn(List.of(123L), pageable);
+        List<Booking> result = bookingRepository.findByItemOwnerId(123L, pageable);
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
 
     @Test
-    void findByItemIdInAndStartIsBeforeAndEndIsAfter_whenBookingExists_shouldReturnIt() {
+    void findByItemOwnerIdAndStartIsBeforeAndEndIsAfter_whenBookingExists_shouldReturnIt() {
         saveThreeBookings();
         List<Booking> expected = List.of(currentBooking);
-        List<Booking> result = bookingRepository.findByItemIdInAndStartIsBeforeAndEndIsAfter(
-                List.of(1L), now, now, pageable);
+        List<Booking> result = bookingRepository.findByItemOwnerIdAndStartIsBeforeAndEndIsAfter(
+                1L, now, now, pageable);
         assertEquals(expected, result);
     }
 
     @Test
-    void findByItemIdInAndStartIsBeforeAndEndIsAfter_whenBookingDoesNotExist_shouldReturnAnEmptyList() {
+    void findByItemOwnerIdAndStartIsBeforeAndEndIsAfter_whenBookingDoesNotExist_shouldReturnAnEmptyList() {
         saveThreeBookings();
-        List<Booking> result = bookingRepository.findByItemIdInAndStartIsBeforeAndEndIsAfter(
-                List.of(123L), now, now, pageable);
+        List<Booking> result = bookingRepository.findByItemOwnerIdAndStartIsBeforeAndEndIsAfter(
+                123L, now, now, pageable);
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
 
     @Test
-    void findByItemIdInAndEndIsBefore_whenBookingExists_shouldReturnIt() {
+    void findByItemOwnerIdAndEndIsBefore_whenBookingExists_shouldReturnIt() {
         saveThreeBookings();
         List<Booking> expected = List.of(pastBooking);
-        List<Booking> result = bookingRepository.findByItemIdInAndEndIsBefore(
-                List.of(1L), now, pageable);
+        List<Booking> result = bookingRepository.findByItemOwnerIdAndEndIsBefore(
+                1L, now, pageable);
         assertEquals(expected, result);
     }
 
     @Test
-    void findByItemIdInAndEndIsBefore_whenBookingDoesNotExist_shouldReturnAnEmptyList() {
+    void findByItemOwnerIdAndEndIsBefore_whenBookingDoesNotExist_shouldReturnAnEmptyList() {
         saveThreeBookings();
-        List<Booking> result = bookingRepository.findByItemIdInAndEndIsBefore(
-                List.of(123L), now, pageable);
+        List<Booking> result = bookingRepository.findByItemOwnerIdAndEndIsBefore(
+                123L, now, pageable);
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
 
     @Test
-    void findByItemIdInAndStartIsAfter_whenBookingExists_shouldReturnIt() {
+    void findByItemOwnerIdAndStartIsAfter_whenBookingExists_shouldReturnIt() {
         saveThreeBookings();
         List<Booking> expected = List.of(futureBooking);
-        List<Booking> result = bookingRepository.findByItemIdInAndStartIsAfter(
-                List.of(1L), now, pageable);
+        List<Booking> result = bookingRepository.findByItemOwnerIdAndStartIsAfter(
+                1L, now, pageable);
         assertEquals(expected, result);
     }
 
     @Test
-    void findByItemIdInAndStartIsAfter_whenBookingDoesNotExist_shouldReturnAnEmptyList() {
+    void findByItemOwnerIdAndStartIsAfter_whenBookingDoesNotExist_shouldReturnAnEmptyList() {
         saveThreeBookings();
-        List<Booking> result = bookingRepository.findByItemIdInAndStartIsAfter(
-                List.of(123L), now, pageable);
+        List<Booking> result = bookingRepository.findByItemOwnerIdAndStartIsAfter(
+                123L, now, pageable);
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
 
     @Test
-    void findByItemIdInAndStatusIs_whenBookingExists_shouldReturnIt() {
+    void findByItemOwnerIdAndStatusIs_whenBookingExists_shouldReturnIt() {
         bookingRepository.save(currentBooking);
         List<Booking> expected = List.of(currentBooking);
-        List<Booking> result = bookingRepository.findByItemIdInAndStatusIs(
-                List.of(1L), BookingStatus.APPROVED, pageable);
+        List<Booking> result = bookingRepository.findByItemOwnerIdAndStatusIs(
+                1L, BookingStatus.APPROVED, pageable);
         assertEquals(expected, result);
     }
 
     @Test
-    void findByItemIdInAndStatusIs_whenBookingDoesNotExist_shouldReturnAnEmptyList() {
+    void findByItemOwnerIdAndStatusIs_whenBookingDoesNotExist_shouldReturnAnEmptyList() {
         saveThreeBookings();
-        List<Booking> result = bookingRepository.findByItemIdInAndStatusIs(
-                List.of(1L), BookingStatus.WAITING, pageable);
+        List<Booking> result = bookingRepository.findByItemOwnerIdAndStatusIs(
+                1L, BookingStatus.WAITING, pageable);
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
@@ -349,6 +352,51 @@ class BookingRepositoryTest {
         assertFalse(result);
     }
 
+    @Test
+    void findBookerBookingsAfter_whenCursorIsPresent_shouldReturnNextBookingsInStartDescOrder() {
+        saveThreeBookings();
+        List<Booking> firstPage = bookingRepository.findBookerBookingsAfter(
+                2L, BookingState.ALL, now, null, 2);
+        assertEquals(List.of(futureBooking, currentBooking), firstPage);
+        List<Booking> secondPage = bookingRepository.findBookerBookingsAfter(
+                2L, BookingState.ALL, now, KeysetCursor.of(currentBooking.getStart(), currentBooking.getId()), 2);
+        assertEquals(List.of(pastBooking), secondPage);
+    }
+
+    @Test
+    void findOwnerItemBookingsAfter_whenStateIsPast_shouldReturnOnlyPastBookings() {
+        saveThreeBookings();
+        List<Booking> result = bookingRepository.findOwnerItemBookingsAfter(
+                1L, BookingState.PAST, now, null, 20);
+        assertEquals(List.of(pastBooking), result);
+    }
+
+    @Test
+    void findCompactOwnerItemBookings_whenBookingsExist_shouldReturnCompactBookingsInStartDescOrder() {
+        saveThreeBookings();
+        List<CompactBookingDto> result = bookingRepository.findCompactOwnerItemBookings(
+                1L, BookingState.ALL, now, null, PageRequest.of(1, 2));
+        assertEquals(1, result.size());
+        CompactBookingDto compactBookingDto = result.get(0);
+        assertEquals(pastBooking.getId(), compactBookingDto.getId());
+        assertEquals(pastBooking.getStart(), compactBookingDto.getStart());
+        assertEquals(pastBooking.getEnd(), compactBookingDto.getEnd());
+        assertEquals(BookingStatus.APPROVED, compactBookingDto.getStatus());
+        assertEquals(2L, compactBookingDto.getBooker().getId());
+        assertEquals("Booker name", compactBookingDto.getBooker().getName());
+        assertEquals(1L, compactBookingDto.getItem().getId());
+        assertEquals("Item name", compactBookingDto.getItem().getName());
+    }
+
+    @Test
+    void findCompactBookerBookings_whenStateIsFuture_shouldReturnOnlyFutureBookings() {
+        saveThreeBookings();
+        List<CompactBookingDto> result = bookingRepository.findCompactBookerBookings(
+                2L, BookingState.FUTURE, now, null, pageable);
+        assertEquals(1, result.size());
+        assertEquals(futureBooking.getId(), result.get(0).getId());
+    }
+
     private void saveThreeBookings() {
         bookingRepository.save(currentBooking);
         bookingRepository.save(pastBooking);
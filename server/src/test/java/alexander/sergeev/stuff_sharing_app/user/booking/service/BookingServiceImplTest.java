@@ -1,7 +1,11 @@
 package alexander.sergeev.stuff_sharing_app.user.booking.service;
 
+import alexander.sergeev.stuff_sharing_app.batch.BatchElementValidator;
+import alexander.sergeev.stuff_sharing_app.batch.dto.BatchResultDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.BookingMapper;
+import alexander.sergeev.stuff_sharing_app.booking.dto.CompactBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.IncomingBookingDto;
+import alexander.sergeev.stuff_sharing_app.booking.dto.ItemBookingPeriodView;
 import alexander.sergeev.stuff_sharing_app.booking.dto.OutgoingBookingDto;
 import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
 import alexander.sergeev.stuff_sharing_app.booking.model.BookingState;
@@ -22,13 +26,18 @@ import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -49,6 +58,9 @@ class BookingServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private BatchElementValidator batchElementValidator;
+
     private User owner;
 
     private User booker;
@@ -133,29 +145,30 @@ class BookingServiceImplTest {
     @ParameterizedTest
     @EnumSource(BookingState.class)
     void getAllOwnerItemBookings_whenInvoked_shouldInvokeRepositoryMethods(BookingState bookingState) {
-        when(itemRepository.findByOwnerId(anyLong()))
-                .thenReturn(List.of(item));
+        when(itemRepository.existsByOwnerId(anyLong()))
+                .thenReturn(true);
         bookingServiceIml.getAllOwnerItemBookings(anyLong(), bookingState, pageable);
-        verify(itemRepository).findByOwnerId(anyLong());
+        verify(itemRepository).existsByOwnerId(anyLong());
+        verify(itemRepository, never()).findByOwnerId(anyLong());
         switch (bookingState) {
             case ALL:
-                verify(bookingRepository).findByItemIdIn(anyList(), any(Pageable.class));
+                verify(bookingRepository).findByItemOwnerId(anyLong(), any(Pageable.class));
                 break;
             case CURRENT:
-                verify(bookingRepository).findByItemIdInAndStartIsBeforeAndEndIsAfter(anyList(),
+                verify(bookingRepository).findByItemOwnerIdAndStartIsBeforeAndEndIsAfter(anyLong(),
                         any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
                 break;
             case PAST:
-                verify(bookingRepository).findByItemIdInAndEndIsBefore(anyList(),
+                verify(bookingRepository).findByItemOwnerIdAndEndIsBefore(anyLong(),
                         any(LocalDateTime.class), any(Pageable.class));
                 break;
             case FUTURE:
-                verify(bookingRepository).findByItemIdInAndStartIsAfter(anyList(),
+                verify(bookingRepository).findByItemOwnerIdAndStartIsAfter(anyLong(),
                         any(LocalDateTime.class), any(Pageable.class));
                 break;
             case WAITING:
             case REJECTED:
-                verify(bookingRepository).findByItemIdInAndStatusIs(anyList(),
+                verify(bookingRepository).findByItemOwnerIdAndStatusIs(anyLong(),
                         any(BookingStatus.class), any(Pageable.class));
                 break;
         }
@@ -163,15 +176,41 @@ class BookingServiceImplTest {
 
     @Test
     void getAllOwnerItemBookings_whenUserHasNoItems_shouldThrowNotFoundException() {
-        when(itemRepository.findByOwnerId(anyLong()))
-                .thenReturn(List.of());
+        when(itemRepository.existsByOwnerId(anyLong()))
+                .thenReturn(false);
         for (BookingState bookingState : BookingState.values()) {
             NotFoundException notFoundException = assertThrows(NotFoundException.class,
                     () -> bookingServiceIml.getAllOwnerItemBookings(anyLong(), bookingState,
                             pageable));
             assertTrue(notFoundException.getMessage().contains("There's no items belong to user"));
         }
-        verify(itemRepository, times(6)).findByOwnerId(anyLong());
+        verify(itemRepository, times(6)).existsByOwnerId(anyLong());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getAllOwnerItemCompactBookings_whenUserHasItems_shouldReturnRepositoryProjection() {
+        CompactBookingDto compactBookingDto = new CompactBookingDto(1L, booking.getStart(), booking.getEnd(),
+                BookingStatus.APPROVED, 2L, "Booker name", 1L, "Item name");
+        when(itemRepository.existsByOwnerId(1L))
+                .thenReturn(true);
+        when(bookingRepository.findCompactOwnerItemBookings(eq(1L), eq(BookingState.ALL),
+                any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(List.of(compactBookingDto));
+        List<CompactBookingDto> result = bookingServiceIml.getAllOwnerItemCompactBookings(1L, BookingState.ALL,
+                pageable);
+        assertEquals(List.of(compactBookingDto), result);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getAllOwnerItemCompactBookings_whenUserHasNoItems_shouldThrowNotFoundException() {
+        when(itemRepository.existsByOwnerId(1L))
+                .thenReturn(false);
+        NotFoundException notFoundException = assertThrows(NotFoundException.class,
+                () -> bookingServiceIml.getAllOwnerItemCompactBookings(1L, BookingState.ALL, pageable));
+        assertEquals("There's no items belong to user 1", notFoundException.getMessage());
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
@@ -211,16 +250,82 @@ class BookingServiceImplTest {
                 BookingStatus.WAITING);
         when(userRepository.getUserById(2L))
                 .thenReturn(booker);
-        when(itemRepository.getItemById(1L))
+        when(itemRepository.lockItemById(1L))
                 .thenReturn(item);
-        when(bookingRepository.save(any(Booking.class)))
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .thenReturn(booking);
         OutgoingBookingDto expected = BookingMapper.mapBookingToOutgoingDto(booking);
         OutgoingBookingDto result = bookingServiceIml.postBooking(2L, incomingBookingDto);
         assertEquals(expected, result);
         verify(userRepository).getUserById(2L);
-        verify(itemRepository).getItemById(1L);
-        verify(bookingRepository).save(any(Booking.class));
+        verify(itemRepository).lockItemById(1L);
+        verify(bookingRepository).saveAndFlush(any(Booking.class));
+    }
+
+    @Test
+    void postBooking_whenExclusionConstraintIsViolated_shouldThrowNotAvailableItemException() {
+        IncomingBookingDto incomingBookingDto = new IncomingBookingDto(
+                null,
+                now.minusDays(1),
+                now.plusDays(1),
+                1L);
+        when(userRepository.getUserById(2L))
+                .thenReturn(booker);
+        when(itemRepository.lockItemById(1L))
+                .thenReturn(item);
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+        NotAvailableItemException notAvailableItemException = assertThrows(NotAvailableItemException.class,
+                () -> bookingServiceIml.postBooking(2L, incomingBookingDto));
+        assertEquals("Booking item is already booked for this period!", notAvailableItemException.getMessage());
+    }
+
+    @Test
+    void postBookings_whenSomeElementsAreRejected_shouldSaveOnlyAcceptedElements() {
+        IncomingBookingDto validBookingDto = new IncomingBookingDto(null, now.plusDays(1), now.plusDays(3), 1L);
+        IncomingBookingDto notValidBookingDto = new IncomingBookingDto(null, now.plusDays(3), now.plusDays(1), 1L);
+        IncomingBookingDto overlappingBookingDto = new IncomingBookingDto(null, now.plusDays(2), now.plusDays(4), 1L);
+        IncomingBookingDto alreadyBookedDto = new IncomingBookingDto(null, now.plusDays(10), now.plusDays(12), 1L);
+        IncomingBookingDto unknownItemBookingDto = new IncomingBookingDto(null, now.plusDays(1), now.plusDays(3), 99L);
+        ItemBookingPeriodView occupiedPeriod = mock(ItemBookingPeriodView.class);
+        when(occupiedPeriod.getItemId())
+                .thenReturn(1L);
+        when(occupiedPeriod.getStart())
+                .thenReturn(now.plusDays(9));
+        when(occupiedPeriod.getEnd())
+                .thenReturn(now.plusDays(11));
+        when(userRepository.getUserById(2L))
+                .thenReturn(booker);
+        when(batchElementValidator.validateOnCreate(any()))
+                .thenReturn(Optional.empty());
+        when(batchElementValidator.validateOnCreate(notValidBookingDto))
+                .thenReturn(Optional.of("Creating booking start is before end!"));
+        when(itemRepository.findAllByIdForUpdate(Set.of(1L, 99L)))
+                .thenReturn(List.of(item));
+        when(bookingRepository.findItemBookingPeriods(Set.of(1L), BookingStatus.OCCUPYING,
+                now.plusDays(12), now.plusDays(1)))
+                .thenReturn(List.of(occupiedPeriod));
+        when(bookingRepository.saveAll(anyIterable()))
+                .thenAnswer(invocation -> {
+                    List<Booking> savedBookingList = new ArrayList<>();
+                    invocation.<Iterable<Booking>>getArgument(0).forEach(savedBookingList::add);
+                    savedBookingList.forEach(savedBooking -> savedBooking.setId(10L));
+                    return savedBookingList;
+                });
+        List<BatchResultDto<OutgoingBookingDto>> result = bookingServiceIml.postBookings(2L, List.of(
+                validBookingDto, notValidBookingDto, overlappingBookingDto, alreadyBookedDto, unknownItemBookingDto));
+        assertEquals(List.of(201, 400, 400, 400, 404), result
+                .stream()
+                .map(BatchResultDto::getStatus)
+                .collect(Collectors.toList()));
+        assertEquals(10L, result.get(0).getResult().getId());
+        assertEquals(BookingStatus.WAITING, result.get(0).getResult().getStatus());
+        assertEquals("Creating booking start is before end!", result.get(1).getError());
+        assertEquals("Booking item is already booked for this period!", result.get(2).getError());
+        assertEquals("Booking item is already booked for this period!", result.get(3).getError());
+        assertEquals("There's no item with id 99", result.get(4).getError());
+        verify(bookingRepository).saveAll(anyIterable());
     }
 
     @Test
@@ -232,7 +337,7 @@ class BookingServiceImplTest {
                 1L);
         when(userRepository.getUserById(1L))
                 .thenReturn(owner);
-        when(itemRepository.getItemById(1L))
+        when(itemRepository.lockItemById(1L))
                 .thenReturn(item);
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> bookingServiceIml.postBooking(1L, incomingBookingDto));
@@ -249,7 +354,7 @@ class BookingServiceImplTest {
                 1L);
         when(userRepository.getUserById(2L))
                 .thenReturn(booker);
-        when(itemRepository.getItemById(1L))
+        when(itemRepository.lockItemById(1L))
                 .thenReturn(item);
         NotAvailableItemException notAvailableItemException = assertThrows(NotAvailableItemException.class,
                 () -> bookingServiceIml.postBooking(2L, incomingBookingDto));
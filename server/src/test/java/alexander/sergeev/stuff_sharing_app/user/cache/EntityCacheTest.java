@@ -0,0 +1,106 @@
+package alexander.sergeev.stuff_sharing_app.user.cache;
+
+import alexander.sergeev.stuff_sharing_app.booking.dto.IncomingBookingDto;
+import alexander.sergeev.stuff_sharing_app.booking.service.BookingService;
+import alexander.sergeev.stuff_sharing_app.exception.NotFoundException;
+import alexander.sergeev.stuff_sharing_app.item.dto.IncomingItemDto;
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.item.service.ItemService;
+import alexander.sergeev.stuff_sharing_app.user.dto.UserDto;
+import alexander.sergeev.stuff_sharing_app.user.model.User;
+import alexander.sergeev.stuff_sharing_app.user.service.UserService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "stuff_sharing_app.entity-cache.enabled=true")
+@DirtiesContext
+class EntityCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void getUserById_secondCall_shouldHitSecondLevelCache() {
+        Long userId = userService.postUser(new UserDto(null, "Cached name", "l2cached@email.com")).getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        userService.getUserById(userId);
+        userService.getUserById(userId);
+        assertTrue(entityManagerFactory.getCache().contains(User.class, userId));
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+        userService.deleteUserById(userId);
+    }
+
+    @Test
+    void patchUserById_shouldServeUpdatedEntity() {
+        Long userId = userService.postUser(new UserDto(null, "Old name", "old@email.com")).getId();
+        userService.getUserById(userId);
+        userService.patchUserById(userId, new UserDto(null, "New name", null));
+        assertEquals("New name", userService.getUserById(userId).getName());
+        userService.deleteUserById(userId);
+    }
+
+    @Test
+    void deleteUserById_shouldEvictEntity() {
+        Long userId = userService.postUser(new UserDto(null, "Deleted name", "deleted@email.com")).getId();
+        userService.getUserById(userId);
+        assertTrue(entityManagerFactory.getCache().contains(User.class, userId));
+        userService.deleteUserById(userId);
+        assertFalse(entityManagerFactory.getCache().contains(User.class, userId));
+    }
+
+    @Test
+    void deleteUserById_shouldEvictOwnerItems() {
+        Long ownerId = userService.postUser(new UserDto(null, "Owner name", "cached-owner@email.com")).getId();
+        Long readerId = userService.postUser(new UserDto(null, "Reader name", "cached-reader@email.com")).getId();
+        Long itemId = itemService.postItem(ownerId,
+                new IncomingItemDto("Cached item", "Cached item description", true, null)).getId();
+        itemService.getItemDtoById(readerId, itemId);
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, itemId));
+        userService.deleteUserById(ownerId);
+        assertFalse(entityManagerFactory.getCache().contains(Item.class, itemId));
+        NotFoundException notFoundException = assertThrows(NotFoundException.class,
+                () -> itemService.getItemDtoById(readerId, itemId));
+        assertEquals("There's no item with id " + itemId, notFoundException.getMessage());
+        userService.deleteUserById(readerId);
+    }
+
+    @Test
+    void postBooking_shouldKeepOtherItemsCached() {
+        Long ownerId = userService.postUser(new UserDto(null, "Owner name", "booked-owner@email.com")).getId();
+        Long bookerId = userService.postUser(new UserDto(null, "Booker name", "booked-booker@email.com")).getId();
+        Long bookedItemId = itemService.postItem(ownerId,
+                new IncomingItemDto("Booked item", "Booked item description", true, null)).getId();
+        Long otherItemId = itemService.postItem(ownerId,
+                new IncomingItemDto("Other item", "Other item description", true, null)).getId();
+        itemService.getItemDtoById(bookerId, bookedItemId);
+        itemService.getItemDtoById(bookerId, otherItemId);
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, otherItemId));
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        bookingService.postBooking(bookerId,
+                new IncomingBookingDto(null, now.plusDays(1), now.plusDays(2), bookedItemId));
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, otherItemId));
+        userService.deleteUserById(bookerId);
+        userService.deleteUserById(ownerId);
+    }
+}
@@ -0,0 +1,98 @@
+package alexander.sergeev.stuff_sharing_app.user.datasource;
+
+import alexander.sergeev.stuff_sharing_app.datasource.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final DriverManagerDataSource primary =
+            new DriverManagerDataSource("jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1", "test", "test");
+
+    private final DriverManagerDataSource replica =
+            new DriverManagerDataSource("jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1", "test", "test");
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWriteTransaction;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        createMarker(primary, "primary");
+        createMarker(replica, "replica");
+        ReadWriteRoutingDataSource routingDataSource =
+                new ReadWriteRoutingDataSource(primary, replica, Duration.ofMinutes(1), 100);
+        routingDataSource.bindTo(registry);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        new JdbcTemplate(primary).execute("DROP TABLE marker");
+        new JdbcTemplate(replica).execute("DROP TABLE marker");
+    }
+
+    @Test
+    void readOnlyTransaction_shouldUseReplica() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> readMarker()));
+        assertEquals(1, registry.get("datasource.routed").tag("route", "replica").functionCounter().count());
+    }
+
+    @Test
+    void readWriteTransactionAndNoTransaction_shouldUsePrimary() {
+        assertEquals("primary", readWriteTransaction.execute(status -> readMarker()));
+        assertEquals("primary", readMarker());
+    }
+
+    @Test
+    void readOnlyTransaction_whenUserHasJustWritten_shouldStickToPrimary() {
+        actAs(1L);
+        readWriteTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE marker SET name = name"));
+        assertEquals("primary", readOnlyTransaction.execute(status -> readMarker()));
+        actAs(2L);
+        assertEquals("replica", readOnlyTransaction.execute(status -> readMarker()));
+        assertEquals(1, registry.get("datasource.routed").tag("route", "sticky").functionCounter().count());
+    }
+
+    private String readMarker() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    private static void actAs(Long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(header, userId);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static void createMarker(DriverManagerDataSource dataSource, String name) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE marker (name VARCHAR(16))");
+        jdbcTemplate.update("INSERT INTO marker VALUES (?)", name);
+    }
+}
@@ -0,0 +1,82 @@
+package alexander.sergeev.stuff_sharing_app.user.execution;
+
+import alexander.sergeev.stuff_sharing_app.execution.ExecutionMode;
+import alexander.sergeev.stuff_sharing_app.execution.RequestExecution;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class RequestExecutionTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private RequestExecution requestExecution;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        requestExecution.destroy();
+    }
+
+    @Test
+    void defaultMode_shouldNotReplaceContainerExecutor() {
+        requestExecution = new RequestExecution(ExecutionMode.DEFAULT, 1, 1);
+        requestExecution.bindTo(registry);
+        assertNull(requestExecution.getExecutor());
+        assertEquals(0, registry.get("executor.rejected").functionCounter().count());
+    }
+
+    @Test
+    void boundedMode_shouldRejectWhenQueueIsFull() {
+        requestExecution = new RequestExecution(ExecutionMode.BOUNDED, 1, 1);
+        requestExecution.bindTo(registry);
+        Executor executor = requestExecution.getExecutor();
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(this::awaitRelease));
+        assertEquals(1, requestExecution.getRejectedTasks());
+        assertEquals(1, registry.get("executor.rejected").functionCounter().count());
+        assertEquals(1, registry.get("executor.queued").tag("name", "http.requests").gauge().value());
+    }
+
+    @Test
+    void virtualMode_shouldRunTasksOrFallBackToBoundedExecutor() throws InterruptedException {
+        requestExecution = new RequestExecution(ExecutionMode.VIRTUAL, 1, 1);
+        requestExecution.bindTo(registry);
+        CountDownLatch done = new CountDownLatch(1);
+        requestExecution.getExecutor().execute(done::countDown);
+        done.await();
+        assertNotEquals(ExecutionMode.DEFAULT, requestExecution.getMode());
+    }
+
+    @Test
+    void virtualMode_shouldQueueAboveMaxThreadsAndRejectWhenQueueIsFull() {
+        requestExecution = new RequestExecution(ExecutionMode.VIRTUAL, 1, 1);
+        assumeTrue(requestExecution.getMode() == ExecutionMode.VIRTUAL);
+        requestExecution.bindTo(registry);
+        Executor executor = requestExecution.getExecutor();
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(this::awaitRelease));
+        assertEquals(1, requestExecution.getRejectedTasks());
+        assertEquals(1, registry.get("executor.queued").tag("mode", "virtual").gauge().value());
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package alexander.sergeev.stuff_sharing_app.user.export;
+
+import alexander.sergeev.stuff_sharing_app.booking.service.BookingService;
+import alexander.sergeev.stuff_sharing_app.export.NdjsonWriter;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Runs in its own surefire execution with -Xmx128m. The rows live in an on-disk H2 database,
+// and holding them all as DTOs would take several times that heap
+@Tag("heap")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/ndjson-export-heap/${random.uuid};CACHE_SIZE=4096;LAZY_QUERY_EXECUTION=1",
+        "stuff_sharing_app.access-log.enabled=false"})
+class NdjsonExportHeapTest {
+
+    private static final long ROW_COUNT = 500_000;
+
+    private static final long INSERT_CHUNK_SIZE = 50_000;
+
+    private static final long MAX_HEAP_BYTES = 128L * 1024 * 1024;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NdjsonWriter ndjsonWriter;
+
+    @Test
+    @SneakyThrows
+    void exportOwnerItemBookings_whenHalfMillionRows_shouldStreamThemWithinFixedHeap() {
+        assumeTrue(Runtime.getRuntime().maxMemory() <= MAX_HEAP_BYTES, "Requires -Xmx of at most 128m");
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('Owner name', 'owner@email.com')");
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('Booker name', 'booker@email.com')");
+        Long ownerId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'owner@email.com'", Long.class);
+        Long bookerId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'booker@email.com'", Long.class);
+        // Items and bookings take their ids from sequences Hibernate allocates from, the database is fresh so plain ranges do
+        jdbcTemplate.update("INSERT INTO items (id, name, description, available, owner_id) " +
+                "SELECT X, 'Item name ' || X, 'Item description ' || X, TRUE, ? FROM SYSTEM_RANGE(1, 1000)", ownerId);
+        for (long chunkStart = 1; chunkStart <= ROW_COUNT; chunkStart += INSERT_CHUNK_SIZE) {
+            jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                            "SELECT X, DATEADD(HOUR, X, TIMESTAMP '2024-01-01 12:00:00'), " +
+                            "DATEADD(HOUR, X + 1, TIMESTAMP '2024-01-01 12:00:00'), MOD(X, 1000) + 1, ?, 'APPROVED' " +
+                            "FROM SYSTEM_RANGE(?, ?)",
+                    bookerId, chunkStart, chunkStart + INSERT_CHUNK_SIZE - 1);
+        }
+        LineCountingOutputStream outputStream = new LineCountingOutputStream();
+        ndjsonWriter.write(outputStream, rowConsumer -> bookingService.exportOwnerItemBookings(ownerId, rowConsumer));
+        assertEquals(ROW_COUNT, outputStream.lineCount);
+    }
+
+    private static class LineCountingOutputStream extends OutputStream {
+
+        private long lineCount;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lineCount++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package alexander.sergeev.stuff_sharing_app.user.integration_test;
+
+import alexander.sergeev.stuff_sharing_app.booking.dto.IncomingBookingDto;
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.request.model.Request;
+import alexander.sergeev.stuff_sharing_app.request.repository.RequestRepository;
+import alexander.sergeev.stuff_sharing_app.user.model.User;
+import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Not @Transactional on purpose, the response has to render after the service transaction is closed
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:booking_create_test")
+@AutoConfigureMockMvc
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingCreateTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private User owner;
+
+    private User booker;
+
+    private User requester;
+
+    private Item firstItem;
+
+    private Item secondItem;
+
+    @BeforeAll
+    void setUp() {
+        owner = userRepository.save(new User(null, "Owner name", "owner@email.com"));
+        booker = userRepository.save(new User(null, "Booker name", "booker@email.com"));
+        requester = userRepository.save(new User(null, "Requester name", "requester@email.com"));
+        Request request = requestRepository.save(new Request(null, "Request description", now, requester));
+        firstItem = itemRepository.save(new Item(null, "First item name", "First item description",
+                true, request, owner));
+        secondItem = itemRepository.save(new Item(null, "Second item name", "Second item description",
+                true, null, owner));
+    }
+
+    @Test
+    @SneakyThrows
+    void postBooking_shouldRenderItemOwnerAndRequest() {
+        mockMvc.perform(post("/bookings")
+                        .header(header, booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new IncomingBookingDto(null,
+                                now.plusDays(1), now.plusDays(2), firstItem.getId()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.booker.id").value(booker.getId()))
+                .andExpect(jsonPath("$.item.owner.id").value(owner.getId()))
+                .andExpect(jsonPath("$.item.request.requester.id").value(requester.getId()));
+    }
+
+    @Test
+    @SneakyThrows
+    void postBookings_shouldRenderItemOwnerAndRequest() {
+        mockMvc.perform(post("/bookings/batch")
+                        .header(header, booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                new IncomingBookingDto(null, now.plusDays(3), now.plusDays(4), firstItem.getId()),
+                                new IncomingBookingDto(null, now.plusDays(3), now.plusDays(4), secondItem.getId())))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].result.item.owner.id").value(owner.getId()))
+                .andExpect(jsonPath("$[0].result.item.request.requester.id").value(requester.getId()))
+                .andExpect(jsonPath("$[1].result.item.owner.id").value(owner.getId()))
+                .andExpect(jsonPath("$[1].result.item.request").isEmpty());
+    }
+}
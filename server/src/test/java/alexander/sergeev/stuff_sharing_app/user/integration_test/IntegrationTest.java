@@ -9,6 +9,7 @@ import alexander.sergeev.stuff_sharing_app.booking.service.BookingService;
 import alexander.sergeev.stuff_sharing_app.comment.dto.IncomingCommentDto;
 import alexander.sergeev.stuff_sharing_app.comment.dto.OutgoingCommentDto;
 import alexander.sergeev.stuff_sharing_app.comment.model.Comment;
+import alexander.sergeev.stuff_sharing_app.exception.NotAvailableItemException;
 import alexander.sergeev.stuff_sharing_app.exception.NotFoundException;
 import alexander.sergeev.stuff_sharing_app.item.dto.IncomingItemDto;
 import alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto;
@@ -37,7 +38,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:integration_test")
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 @Transactional
 public class IntegrationTest {
@@ -397,6 +398,15 @@ public class IntegrationTest {
         assertEquals(expected, result);
     }
 
+    @Test
+    void postBooking_whenPeriodOverlapsExistingBooking_shouldThrowNotAvailableItemException() {
+        IncomingBookingDto overlappingBookingDto = new IncomingBookingDto(null,
+                now.plusDays(2).plusHours(12), now.plusDays(4), 1L);
+        NotAvailableItemException notAvailableItemException = assertThrows(NotAvailableItemException.class,
+                () -> bookingService.postBooking(2L, overlappingBookingDto));
+        assertEquals("Booking item is already booked for this period!", notAvailableItemException.getMessage());
+    }
+
     @Test
     void getAllOwnerItemBookings_all() {
         List<OutgoingBookingDto> expected = List.of(outgoingBookingDtoLast,
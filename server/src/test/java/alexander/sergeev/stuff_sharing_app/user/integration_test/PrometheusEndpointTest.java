@@ -0,0 +1,39 @@
+package alexander.sergeev.stuff_sharing_app.user.integration_test;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "stuff_sharing_app.metrics.mode=full")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@DirtiesContext
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @SneakyThrows
+    void scrape_shouldExposeMethodTimersAndPoolGauges() {
+        mockMvc.perform(get("/users/{userId}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "method_calls_seconds_bucket{component=\"UserService\",endpoint=\"GET /users/{userId}\"")))
+                .andExpect(content().string(containsString("outcome=\"NotFoundException\"")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("hikaricp_connections_max")));
+    }
+}
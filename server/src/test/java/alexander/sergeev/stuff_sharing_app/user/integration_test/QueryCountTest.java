@@ -0,0 +1,216 @@
+package alexander.sergeev.stuff_sharing_app.user.integration_test;
+
+import alexander.sergeev.stuff_sharing_app.booking.dto.IncomingBookingDto;
+import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
+import alexander.sergeev.stuff_sharing_app.booking.repository.BookingRepository;
+import alexander.sergeev.stuff_sharing_app.comment.model.Comment;
+import alexander.sergeev.stuff_sharing_app.item.dto.IncomingItemDto;
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.item.repository.CommentRepository;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.request.model.Request;
+import alexander.sergeev.stuff_sharing_app.request.repository.RequestRepository;
+import alexander.sergeev.stuff_sharing_app.user.model.User;
+import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryCountTest {
+
+    private static final int ITEM_COUNT = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private User owner;
+
+    private User booker;
+
+    private User requester;
+
+    private Item firstItem;
+
+    private Booking firstBooking;
+
+    private Request firstRequest;
+
+    @BeforeAll
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        owner = userRepository.save(new User(null, "Owner name", "owner@email.com"));
+        booker = userRepository.save(new User(null, "Booker name", "booker@email.com"));
+        requester = userRepository.save(new User(null, "Requester name", "requester@email.com"));
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            Request request = requestRepository.save(new Request(null, "Request description " + i,
+                    now.minusDays(i), requester));
+            Item item = itemRepository.save(new Item(null, "Item name " + i, "Item description " + i,
+                    true, request, owner));
+            Booking booking = bookingRepository.save(new Booking(null, now.minusDays(3), now.minusDays(2),
+                    item, booker, BookingStatus.APPROVED));
+            bookingRepository.save(new Booking(null, now.plusDays(2), now.plusDays(3),
+                    item, booker, BookingStatus.APPROVED));
+            commentRepository.save(new Comment(null, "Comment text " + i, item, booker, now.minusDays(1)));
+            if (i == 0) {
+                firstItem = item;
+                firstBooking = booking;
+                firstRequest = request;
+            }
+        }
+    }
+
+    @Test
+    void getAllUserBookings_shouldNotLoadAssociationsOneByOne() {
+        assertStatementCountAtMost(2, get("/bookings?state=ALL&from=0&size=20")
+                .header(header, booker.getId()));
+    }
+
+    @Test
+    void getAllOwnerItemBookings_shouldNotLoadAssociationsOneByOne() {
+        assertStatementCountAtMost(2, get("/bookings/owner?state=ALL&from=0&size=20")
+                .header(header, owner.getId()));
+    }
+
+    @Test
+    void getAllOwnerItemBookingsAfter_shouldNotLoadAssociationsOneByOne() {
+        assertStatementCountAtMost(2, get("/bookings/owner?state=ALL&after=&size=20")
+                .header(header, owner.getId()));
+    }
+
+    @Test
+    void getAllOwnerItemCompactBookings_shouldUseSingleProjectionQuery() {
+        assertStatementCountAtMost(2, get("/bookings/owner?state=ALL&from=0&size=20&view=compact")
+                .header(header, owner.getId()));
+    }
+
+    @Test
+    void getBookingById_shouldLoadBookingGraphInOneStatement() {
+        assertStatementCountAtMost(1, get("/bookings/{bookingId}", firstBooking.getId())
+                .header(header, booker.getId()));
+    }
+
+    @Test
+    @SneakyThrows
+    void postBooking_shouldLoadItemGraphWithTheLock() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        assertStatementCountAtMost(6, post("/bookings")
+                .header(header, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new IncomingBookingDto(null,
+                        now.plusDays(10), now.plusDays(11), firstItem.getId()))));
+    }
+
+    @Test
+    void getAllOwnerItems_shouldNotLoadAssociationsOneByOne() {
+        assertStatementCountAtMost(3, get("/items?from=0&size=20")
+                .header(header, owner.getId()));
+    }
+
+    @Test
+    void getItemDtoById_whenOwner_shouldNotLoadCommentAuthorsOneByOne() {
+        // User check, item, last and next booking, comments: the ETag and the body share one transaction
+        assertStatementCountAtMost(5, get("/items/{itemId}", firstItem.getId())
+                .header(header, owner.getId()));
+    }
+
+    @Test
+    void getAllRequests_shouldNotLoadAssociationsOneByOne() {
+        assertStatementCountAtMost(3, get("/requests/all?from=0&size=20")
+                .header(header, owner.getId()));
+    }
+
+    @Test
+    void getRequestById_shouldNotLoadAssociationsOneByOne() {
+        assertStatementCountAtMost(3, get("/requests/{requestId}", firstRequest.getId())
+                .header(header, requester.getId()));
+    }
+
+    @Test
+    void getItemById_whenETagMatches_shouldOnlyLookUpVersion() {
+        Item item = itemRepository.getItemById(firstItem.getId());
+        assertStatementCountAtMost(2, get("/items/{itemId}", firstItem.getId())
+                .header(header, booker.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"item-" + item.getId() + "-" + item.getVersion() + "\""),
+                status().isNotModified());
+    }
+
+    @Test
+    @SneakyThrows
+    void postItems_shouldInsertInJdbcBatches() {
+        List<IncomingItemDto> incomingItemDtoList = IntStream.range(0, 100)
+                .mapToObj(i -> new IncomingItemDto("Batch item name " + i, "Batch item description " + i, true, null))
+                .collect(toList());
+        assertStatementCountAtMost(10, post("/items/batch")
+                .header(header, requester.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(incomingItemDtoList)));
+    }
+
+    private void assertStatementCountAtMost(long expected, RequestBuilder requestBuilder) {
+        assertStatementCountAtMost(expected, requestBuilder, status().isOk());
+    }
+
+    @SneakyThrows
+    private void assertStatementCountAtMost(long expected, RequestBuilder requestBuilder, ResultMatcher resultMatcher) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        mockMvc.perform(requestBuilder)
+                .andExpect(resultMatcher);
+        long statementCount = statistics.getPrepareStatementCount();
+        assertTrue(statementCount <= expected,
+                "Expected at most " + expected + " statements, but was " + statementCount);
+    }
+}
@@ -1,35 +1,54 @@
 package alexander.sergeev.stuff_sharing_app.user.item.controller;
 
+import alexander.sergeev.stuff_sharing_app.batch.dto.BatchResultDto;
 import alexander.sergeev.stuff_sharing_app.comment.dto.IncomingCommentDto;
 import alexander.sergeev.stuff_sharing_app.comment.dto.OutgoingCommentDto;
 import alexander.sergeev.stuff_sharing_app.exception.ExceptionResolver;
+import alexander.sergeev.stuff_sharing_app.export.NdjsonWriter;
 import alexander.sergeev.stuff_sharing_app.item.controller.ItemController;
+import alexander.sergeev.stuff_sharing_app.item.dto.AvailabilitySlotDto;
 import alexander.sergeev.stuff_sharing_app.item.dto.IncomingItemDto;
 import alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto;
 import alexander.sergeev.stuff_sharing_app.item.service.ItemService;
+import alexander.sergeev.stuff_sharing_app.version.VersionedDto;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest({ItemController.class, ExceptionResolver.class})
+@Import(NdjsonWriter.class)
 class ItemControllerTest {
 
     @Autowired
@@ -64,6 +83,43 @@ class ItemControllerTest {
         verify(itemService).getAllOwnerItems(3L, PageRequest.of(0, 20, sortByStartDesc));
     }
 
+    @Test
+    @SneakyThrows
+    void exportOwnerItems_whenInvoke_shouldWriteOneJsonObjectPerLine() {
+        OutgoingItemDto firstItem = new OutgoingItemDto(1L, "Item name", "Item description", true, null);
+        OutgoingItemDto secondItem = new OutgoingItemDto(2L, "Other item name", "Other item description", false, 1L);
+        doAnswer(invocation -> {
+            Consumer<OutgoingItemDto> rowConsumer = invocation.getArgument(1);
+            rowConsumer.accept(firstItem);
+            rowConsumer.accept(secondItem);
+            return null;
+        }).when(itemService).exportOwnerItems(eq(3L), any());
+        mockMvc.perform(get("/items/export")
+                        .header(header, 3))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(NdjsonWriter.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(objectMapper.writeValueAsString(firstItem) + "\n"
+                        + objectMapper.writeValueAsString(secondItem) + "\n"));
+        verify(itemService, never()).getItemDtoById(anyLong(), anyLong());
+    }
+
+    @Test
+    @SneakyThrows
+    void getItemById_whenETagMatches_shouldReturnNotModifiedWithoutBody() {
+        when(itemService.getVersionedItemDtoById(eq(3L), eq(1L), any()))
+                .thenAnswer(invocation -> {
+                    Predicate<String> notModified = invocation.getArgument(2);
+                    assertTrue(notModified.test("item-1-0"));
+                    return VersionedDto.notModified("item-1-0", false);
+                });
+        mockMvc.perform(get("/items/{id}", 1)
+                        .header(header, 3)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"item-1-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(result -> assertEquals("\"item-1-0\"", result.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(content().string(""));
+    }
+
     @Test
     @SneakyThrows
     void getItemById_whenInvoke_shouldInvokeItemServiceMethod() {
@@ -76,13 +132,62 @@ class ItemControllerTest {
                 null,
                 List.of(),
                 2L);
-        when(itemService.getItemDtoById(3L, 1L))
-                .thenReturn(outgoingItemDto);
+        when(itemService.getVersionedItemDtoById(eq(3L), eq(1L), any()))
+                .thenReturn(new VersionedDto<>("item-1-0", false, outgoingItemDto));
         mockMvc.perform(get("/items/{id}", 1)
                         .header(header, 3))
                 .andExpect(status().isOk())
-                .andExpect(content().string(objectMapper.writeValueAsString(outgoingItemDto)));
-        verify(itemService).getItemDtoById(3L, 1L);
+                .andExpect(content().string(objectMapper.writeValueAsString(outgoingItemDto)))
+                .andExpect(result -> assertNull(result.getResponse().getHeader(HttpHeaders.CACHE_CONTROL)));
+        verify(itemService).getVersionedItemDtoById(eq(3L), eq(1L), any());
+    }
+
+    @Test
+    @SneakyThrows
+    void getItemById_whenOwner_shouldMarkResponsePrivate() {
+        when(itemService.getVersionedItemDtoById(eq(3L), eq(1L), any()))
+                .thenReturn(new VersionedDto<>("item-1-0-0-0", true,
+                        new OutgoingItemDto(1L, "Item name", "Item description", true, null)));
+        mockMvc.perform(get("/items/{id}", 1)
+                        .header(header, 3))
+                .andExpect(status().isOk())
+                .andExpect(result -> assertEquals("private", result.getResponse().getHeader(HttpHeaders.CACHE_CONTROL)));
+    }
+
+    @Test
+    @SneakyThrows
+    void getItemAvailability_whenInvoke_shouldInvokeItemServiceMethod() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 10, 0, 0, 0);
+        List<AvailabilitySlotDto> availabilitySlotDtoList = List.of(
+                new AvailabilitySlotDto(from, from.plusDays(2)),
+                new AvailabilitySlotDto(from.plusDays(4), to));
+        when(itemService.getItemAvailability(3L, 1L, from, to))
+                .thenReturn(availabilitySlotDtoList);
+        mockMvc.perform(get("/items/{id}/availability?from=2030-01-01T00:00:00&to=2030-01-10T00:00:00", 1)
+                        .header(header, 3))
+                .andExpect(status().isOk())
+                .andExpect(content().string(objectMapper.writeValueAsString(availabilitySlotDtoList)));
+        verify(itemService).getItemAvailability(3L, 1L, from, to);
+    }
+
+    @Test
+    @SneakyThrows
+    void getItemAvailability_whenFromIsAfterTo_shouldAnswerBadRequest() {
+        mockMvc.perform(get("/items/{id}/availability?from=2030-01-10T00:00:00&to=2030-01-01T00:00:00", 1)
+                        .header(header, 3))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("{\"error\":\"Availability period from must be before to!\"}"));
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    @SneakyThrows
+    void getItemAvailability_whenPeriodIsEmpty_shouldAnswerBadRequest() {
+        mockMvc.perform(get("/items/{id}/availability?from=2030-01-01T00:00:00&to=2030-01-01T00:00:00", 1)
+                        .header(header, 3))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(itemService);
     }
 
     @Test
@@ -135,6 +240,49 @@ class ItemControllerTest {
         verify(itemService).postItem(1L, incomingItemDto);
     }
 
+    @Test
+    @SneakyThrows
+    void postItems_whenInvoke_shouldInvokeItemServiceMethod_andReturnElementResults() {
+        List<IncomingItemDto> incomingItemDtoList = List.of(
+                new IncomingItemDto("Some Name", "Some description", true, null),
+                new IncomingItemDto("", "Some description", true, null));
+        OutgoingItemDto outgoingItemDto = new OutgoingItemDto(
+                1L,
+                "Some Name",
+                "Some description",
+                true,
+                null,
+                null,
+                List.of(),
+                null);
+        List<BatchResultDto<OutgoingItemDto>> batchResultDtoList = List.of(
+                BatchResultDto.created(0, outgoingItemDto),
+                BatchResultDto.rejected(1, HttpStatus.BAD_REQUEST, "Creating item name field is blank!"));
+        when(itemService.postItems(1L, incomingItemDtoList))
+                .thenReturn(batchResultDtoList);
+        mockMvc.perform(post("/items/batch")
+                        .header(header, 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(incomingItemDtoList)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(objectMapper.writeValueAsString(batchResultDtoList)));
+        verify(itemService).postItems(1L, incomingItemDtoList);
+    }
+
+    @Test
+    @SneakyThrows
+    void postItems_whenBatchIsEmpty_shouldReturnBadRequest() {
+        mockMvc.perform(post("/items/batch")
+                        .header(header, 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("{\"error\":\"Batch must contain from 1 to 10000 items!\"}"));
+        verifyNoInteractions(itemService);
+    }
+
     @Test
     @SneakyThrows
     void postComment_whenInvoke_shouldInvokeItemServiceMethod() {
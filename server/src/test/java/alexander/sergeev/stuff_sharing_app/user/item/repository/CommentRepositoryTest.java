@@ -1,5 +1,6 @@
 package alexander.sergeev.stuff_sharing_app.user.item.repository;
 
+import alexander.sergeev.stuff_sharing_app.comment.dto.ItemCommentView;
 import alexander.sergeev.stuff_sharing_app.comment.model.Comment;
 import alexander.sergeev.stuff_sharing_app.item.model.Item;
 import alexander.sergeev.stuff_sharing_app.item.repository.CommentRepository;
@@ -105,4 +106,19 @@ class CommentRepositoryTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findViewsByItemIdIn_whenCommentPresent_shouldReturnCommentViewList() {
+        userRepository.save(user);
+        userRepository.save(author);
+        itemRepository.save(item);
+        commentRepository.save(comment);
+        List<ItemCommentView> result = commentRepository.findViewsByItemIdIn(List.of(1L));
+        assertEquals(1, result.size());
+        assertEquals(item.getId(), result.get(0).getItemId());
+        assertEquals(comment.getId(), result.get(0).getId());
+        assertEquals(comment.getText(), result.get(0).getText());
+        assertEquals(author.getName(), result.get(0).getAuthorName());
+        assertEquals(comment.getCreated(), result.get(0).getCreated());
+    }
+}
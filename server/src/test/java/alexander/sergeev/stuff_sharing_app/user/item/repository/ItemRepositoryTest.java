@@ -1,6 +1,10 @@
 package alexander.sergeev.stuff_sharing_app.user.item.repository;
 
+import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
+import alexander.sergeev.stuff_sharing_app.booking.repository.BookingRepository;
 import alexander.sergeev.stuff_sharing_app.exception.NotFoundException;
+import alexander.sergeev.stuff_sharing_app.item.dto.OwnerItemView;
 import alexander.sergeev.stuff_sharing_app.item.model.Item;
 import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
 import alexander.sergeev.stuff_sharing_app.request.model.Request;
@@ -36,6 +40,9 @@ class ItemRepositoryTest {
     @Autowired
     RequestRepository requestRepository;
 
+    @Autowired
+    BookingRepository bookingRepository;
+
     private final Pageable pageable = PageRequest.of(0, 20);
 
     private User owner;
@@ -111,6 +118,78 @@ class ItemRepositoryTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void findOwnerItemViews_whenBookingsArePresent_shouldReturnLastAndNextApprovedBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.save(owner);
+        userRepository.save(requester);
+        requestRepository.save(request);
+        itemRepository.save(item);
+        Item otherItem = itemRepository.save(new Item(
+                null,
+                "Other item name",
+                "Other item description",
+                true,
+                null,
+                owner));
+        bookingRepository.save(new Booking(null, now.minusDays(4), now.minusDays(3),
+                item, requester, BookingStatus.APPROVED));
+        Booking lastBooking = bookingRepository.save(new Booking(null, now.minusDays(2), now.minusDays(1),
+                item, requester, BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.minusHours(1), now.plusHours(1),
+                item, requester, BookingStatus.REJECTED));
+        bookingRepository.save(new Booking(null, now.plusHours(1), now.plusHours(2),
+                item, requester, BookingStatus.WAITING));
+        Booking nextBooking = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2),
+                item, requester, BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4),
+                item, requester, BookingStatus.APPROVED));
+        List<OwnerItemView> result = itemRepository.findOwnerItemViews(owner.getId(), 0L, now,
+                pageable.getPageSize(), pageable.getOffset());
+        assertEquals(2, result.size());
+        OwnerItemView itemView = result.get(0);
+        assertEquals(item.getId(), itemView.getId());
+        assertEquals(item.getName(), itemView.getName());
+        assertEquals(request.getId(), itemView.getRequestId());
+        assertEquals(lastBooking.getId(), itemView.getLastBookingId());
+        assertEquals(requester.getId(), itemView.getLastBookingBookerId());
+        assertEquals(nextBooking.getId(), itemView.getNextBookingId());
+        assertEquals(requester.getId(), itemView.getNextBookingBookerId());
+        OwnerItemView otherItemView = result.get(1);
+        assertEquals(otherItem.getId(), otherItemView.getId());
+        assertNull(otherItemView.getRequestId());
+        assertNull(otherItemView.getLastBookingId());
+        assertNull(otherItemView.getNextBookingId());
+    }
+
+    @Test
+    void findOwnerItemViews_whenAfterIdIsGiven_shouldReturnOnlyThePageAfterIt() {
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.save(owner);
+        userRepository.save(requester);
+        requestRepository.save(request);
+        itemRepository.save(item);
+        Item secondItem = itemRepository.save(new Item(null, "Second", "Second description", true, null, owner));
+        itemRepository.save(new Item(null, "Third", "Third description", true, null, owner));
+        bookingRepository.save(new Booking(null, now.minusDays(2), now.minusDays(1),
+                item, requester, BookingStatus.APPROVED));
+        Booking nextBooking = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2),
+                secondItem, requester, BookingStatus.APPROVED));
+        List<OwnerItemView> result = itemRepository.findOwnerItemViews(owner.getId(), item.getId(), now, 1, 0L);
+        assertEquals(1, result.size());
+        assertEquals(secondItem.getId(), result.get(0).getId());
+        assertNull(result.get(0).getLastBookingId());
+        assertEquals(nextBooking.getId(), result.get(0).getNextBookingId());
+    }
+
+    @Test
+    void findOwnerItemViews_whenItemIsNotPresent_shouldReturnAnEmptyList() {
+        List<OwnerItemView> result = itemRepository.findOwnerItemViews(1L, 0L, LocalDateTime.now(),
+                pageable.getPageSize(), pageable.getOffset());
+        assertNotNull(result);
+        assertTrue(result.isEmpty());
+    }
+
     @Test
     void searchByText_whenItemIsPresent_shouldReturnItemList() {
         userRepository.save(owner);
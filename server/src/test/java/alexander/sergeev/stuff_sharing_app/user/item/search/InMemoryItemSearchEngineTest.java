@@ -0,0 +1,153 @@
+package alexander.sergeev.stuff_sharing_app.user.item.search;
+
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.item.search.InMemoryItemSearchEngine;
+import alexander.sergeev.stuff_sharing_app.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchEngineTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InMemoryItemSearchEngine itemSearchEngine;
+
+    private final Pageable pageable = PageRequest.of(0, 20);
+
+    private final User owner = new User(
+            1L,
+            "Owner name",
+            "owner@email.com");
+
+    private Item drill;
+
+    private Item toolbox;
+
+    private Item hammer;
+
+    @BeforeEach
+    void setUp() {
+        drill = new Item(
+                1L,
+                "Drill",
+                "Cordless drill",
+                true,
+                null,
+                owner);
+        toolbox = new Item(
+                2L,
+                "Toolbox",
+                "Box with a drill and bits",
+                true,
+                null,
+                owner);
+        hammer = new Item(
+                3L,
+                "Hammer drill",
+                "Heavy hammer",
+                false,
+                null,
+                owner);
+        when(itemRepository.findAll(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(drill, toolbox, hammer), PageRequest.of(0, 1000), 3));
+        itemSearchEngine = new InMemoryItemSearchEngine(itemRepository, transactionManager);
+        itemSearchEngine.loadIndex();
+    }
+
+    @Test
+    void search_whenItemsMatch_shouldReturnAvailableItemsRankedByNameMatch() {
+        when(itemRepository.findAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(toolbox, drill));
+        List<Item> result = itemSearchEngine.search("DRILL", pageable);
+        assertEquals(List.of(drill, toolbox), result);
+    }
+
+    @Test
+    void search_whenNothingMatches_shouldReturnAnEmptyList_withoutQueryingItems() {
+        List<Item> result = itemSearchEngine.search("saw", pageable);
+        assertTrue(result.isEmpty());
+        verify(itemRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void search_whenPageIsRequested_shouldSkipPreviousPages() {
+        when(itemRepository.findAllById(List.of(2L)))
+                .thenReturn(List.of(toolbox));
+        List<Item> result = itemSearchEngine.search("drill", PageRequest.of(1, 1));
+        assertEquals(List.of(toolbox), result);
+    }
+
+    @Test
+    void search_whenPageCandidateNoLongerMatches_shouldTopPageUpWithNextCandidate() {
+        Item renamedDrill = new Item(
+                1L,
+                "Saw",
+                "Hand saw",
+                true,
+                null,
+                owner);
+        when(itemRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(renamedDrill));
+        when(itemRepository.findAllById(List.of(2L)))
+                .thenReturn(List.of(toolbox));
+        List<Item> result = itemSearchEngine.search("drill", PageRequest.of(0, 1));
+        assertEquals(List.of(toolbox), result);
+    }
+
+    @Test
+    void search_whenQueryIsShorterThanGram_shouldRankAllMatchingItems() {
+        when(itemRepository.findAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(drill, toolbox));
+        List<Item> result = itemSearchEngine.search("dr", pageable);
+        assertEquals(List.of(drill, toolbox), result);
+    }
+
+    @Test
+    void index_whenItemIsUpdated_shouldSearchByNewText() {
+        drill.setName("Screwdriver");
+        drill.setDescription("Electric screwdriver");
+        itemSearchEngine.index(drill);
+        when(itemRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(drill));
+        assertEquals(List.of(drill), itemSearchEngine.search("screw", pageable));
+        when(itemRepository.findAllById(List.of(2L)))
+                .thenReturn(List.of(toolbox));
+        assertEquals(List.of(toolbox), itemSearchEngine.search("drill", pageable));
+    }
+
+    @Test
+    void remove_whenItemIsRemoved_shouldNotFindIt() {
+        itemSearchEngine.remove(2L);
+        when(itemRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(drill));
+        assertEquals(List.of(drill), itemSearchEngine.search("drill", pageable));
+        verify(itemRepository).findAllById(List.of(1L));
+    }
+
+    @Test
+    void removeOwnerItems_whenOwnerHasItems_shouldRemoveAllOfThem() {
+        itemSearchEngine.removeOwnerItems(1L);
+        assertTrue(itemSearchEngine.search("drill", pageable).isEmpty());
+        verify(itemRepository, never()).findAllById(any());
+    }
+}
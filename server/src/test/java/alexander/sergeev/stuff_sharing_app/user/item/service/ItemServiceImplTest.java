@@ -1,26 +1,34 @@
 package alexander.sergeev.stuff_sharing_app.user.item.service;
 
+import alexander.sergeev.stuff_sharing_app.batch.BatchElementValidator;
+import alexander.sergeev.stuff_sharing_app.batch.dto.BatchResultDto;
 import alexander.sergeev.stuff_sharing_app.booking.dto.BookingMapper;
+import alexander.sergeev.stuff_sharing_app.booking.dto.BookingPeriodView;
 import alexander.sergeev.stuff_sharing_app.booking.model.Booking;
 import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
 import alexander.sergeev.stuff_sharing_app.booking.repository.BookingRepository;
 import alexander.sergeev.stuff_sharing_app.comment.dto.CommentMapper;
 import alexander.sergeev.stuff_sharing_app.comment.dto.IncomingCommentDto;
+import alexander.sergeev.stuff_sharing_app.comment.dto.ItemCommentView;
 import alexander.sergeev.stuff_sharing_app.comment.dto.OutgoingCommentDto;
 import alexander.sergeev.stuff_sharing_app.comment.model.Comment;
 import alexander.sergeev.stuff_sharing_app.exception.NotAvailableItemException;
 import alexander.sergeev.stuff_sharing_app.exception.NotFoundException;
+import alexander.sergeev.stuff_sharing_app.item.dto.AvailabilitySlotDto;
 import alexander.sergeev.stuff_sharing_app.item.dto.IncomingItemDto;
 import alexander.sergeev.stuff_sharing_app.item.dto.ItemMapper;
 import alexander.sergeev.stuff_sharing_app.item.dto.OutgoingItemDto;
+import alexander.sergeev.stuff_sharing_app.item.dto.OwnerItemView;
 import alexander.sergeev.stuff_sharing_app.item.model.Item;
 import alexander.sergeev.stuff_sharing_app.item.repository.CommentRepository;
 import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.item.search.ItemSearchEngine;
 import alexander.sergeev.stuff_sharing_app.item.service.ItemServiceImpl;
 import alexander.sergeev.stuff_sharing_app.request.model.Request;
 import alexander.sergeev.stuff_sharing_app.request.repository.RequestRepository;
 import alexander.sergeev.stuff_sharing_app.user.model.User;
 import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import alexander.sergeev.stuff_sharing_app.version.VersionedDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -30,17 +38,26 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ItemServiceImplTest {
@@ -63,8 +80,16 @@ class ItemServiceImplTest {
     @Mock
     private RequestRepository requestRepository;
 
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+
+    @Mock
+    private BatchElementValidator batchElementValidator;
+
     private final Pageable pageable = PageRequest.of(0, 20);
 
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
     private User owner;
 
     private User author;
@@ -144,12 +169,29 @@ class ItemServiceImplTest {
 
     @Test
     void getAllOwnerItems_whenInvoke_shouldInvokeRepositoryMethods_andReturnItemList() {
-        when(itemRepository.findByOwnerId(1L, pageable))
-                .thenReturn(List.of(item));
-        when(commentRepository.findByItemIdIn(List.of(1L)))
-                .thenReturn(List.of(comment));
-        when(bookingRepository.findByItemIdIn(List.of(1L), pageable))
-                .thenReturn(List.of(lastBooking, nextBooking));
+        Map<String, Object> ownerItemProperties = new HashMap<>();
+        ownerItemProperties.put("id", item.getId());
+        ownerItemProperties.put("name", item.getName());
+        ownerItemProperties.put("description", item.getDescription());
+        ownerItemProperties.put("available", item.getAvailable());
+        ownerItemProperties.put("requestId", request.getId());
+        ownerItemProperties.put("lastBookingId", lastBooking.getId());
+        ownerItemProperties.put("lastBookingBookerId", lastBooking.getBooker().getId());
+        ownerItemProperties.put("nextBookingId", nextBooking.getId());
+        ownerItemProperties.put("nextBookingBookerId", nextBooking.getBooker().getId());
+        OwnerItemView ownerItemView = projectionFactory.createProjection(OwnerItemView.class, ownerItemProperties);
+        Map<String, Object> commentProperties = Map.of(
+                "itemId", item.getId(),
+                "id", comment.getId(),
+                "text", comment.getText(),
+                "authorName", author.getName(),
+                "created", comment.getCreated());
+        ItemCommentView itemCommentView = projectionFactory.createProjection(ItemCommentView.class, commentProperties);
+        when(itemRepository.findOwnerItemViews(eq(1L), eq(0L), any(LocalDateTime.class),
+                eq(pageable.getPageSize()), eq(pageable.getOffset())))
+                .thenReturn(List.of(ownerItemView));
+        when(commentRepository.findViewsByItemIdIn(List.of(1L)))
+                .thenReturn(List.of(itemCommentView));
         OutgoingItemDto outgoingItemDto = ItemMapper.mapItemToOutgoingDto(item);
         outgoingItemDto.setLastBooking(BookingMapper.mapBookingToLastNextDto(lastBooking));
         outgoingItemDto.setNextBooking(BookingMapper.mapBookingToLastNextDto(nextBooking));
@@ -160,8 +202,19 @@ class ItemServiceImplTest {
         assertNotNull(result);
         assertEquals(expected, result);
         verify(userRepository).checkUserById(1L);
-        verify(itemRepository).findByOwnerId(1L, pageable);
-        verify(bookingRepository).findByItemIdIn(List.of(1L), pageable);
+        verify(itemRepository).findOwnerItemViews(eq(1L), eq(0L), any(LocalDateTime.class),
+                eq(pageable.getPageSize()), eq(pageable.getOffset()));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getAllOwnerItems_whenOwnerHasNoItems_shouldNotQueryComments() {
+        when(itemRepository.findOwnerItemViews(eq(1L), eq(0L), any(LocalDateTime.class),
+                eq(pageable.getPageSize()), eq(pageable.getOffset())))
+                .thenReturn(List.of());
+        List<OutgoingItemDto> result = itemServiceImp.getAllOwnerItems(1L, pageable);
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(commentRepository);
     }
 
     @Test
@@ -209,9 +262,74 @@ class ItemServiceImplTest {
     }
 
     @Test
-    void getItemsBySearch_whenInvoke_shouldInvokeRepositoryMethods_andReturnItemList() {
-        when(itemRepository.searchByTextInNameOrDescriptionAndAvailableTrue(
-                "item name", "item name", pageable))
+    void getVersionedItemDtoById_whenOwnerTagMatches_shouldIncludeVersionAndBookingsWithoutBody() {
+        item.setVersion(3L);
+        when(itemRepository.getItemById(1L))
+                .thenReturn(item);
+        when(bookingRepository.findFirstByItemIdAndStartIsBeforeAndStatusIs(anyLong(), any(LocalDateTime.class),
+                any(BookingStatus.class), any(Sort.class)))
+                .thenReturn(Optional.of(lastBooking));
+        when(bookingRepository.findFirstByItemIdAndStartIsAfterAndStatusIs(anyLong(), any(LocalDateTime.class),
+                any(BookingStatus.class), any(Sort.class)))
+                .thenReturn(Optional.empty());
+        VersionedDto<OutgoingItemDto> result = itemServiceImp.getVersionedItemDtoById(1L, 1L,
+                "item-1-3-1-0"::equals);
+        assertEquals("item-1-3-1-0", result.getETag());
+        assertTrue(result.isPrivateView());
+        assertTrue(result.isNotModified());
+        verify(userRepository).checkUserById(1L);
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void getVersionedItemDtoById_whenNotOwnerTagMatches_shouldOnlyIncludeVersionWithoutBody() {
+        item.setVersion(3L);
+        when(itemRepository.getItemById(1L))
+                .thenReturn(item);
+        VersionedDto<OutgoingItemDto> result = itemServiceImp.getVersionedItemDtoById(2L, 1L, "item-1-3"::equals);
+        assertEquals("item-1-3", result.getETag());
+        assertFalse(result.isPrivateView());
+        assertTrue(result.isNotModified());
+        verify(userRepository).checkUserById(2L);
+        verifyNoInteractions(bookingRepository, commentRepository);
+    }
+
+    @Test
+    void getItemAvailability_whenBookingsOverlapWindow_shouldReturnFreeSlots() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        Map<String, Object> firstPeriod = Map.of("start", from.minusDays(1), "end", from.plusDays(2));
+        Map<String, Object> secondPeriod = Map.of("start", from.plusDays(4), "end", from.plusDays(6));
+        Map<String, Object> nestedPeriod = Map.of("start", from.plusDays(5), "end", from.plusDays(5).plusHours(1));
+        when(itemRepository.getItemById(1L))
+                .thenReturn(item);
+        when(bookingRepository.findByItemIdAndStatusInAndStartIsBeforeAndEndIsAfter(1L, BookingStatus.OCCUPYING,
+                to, from, Sort.by(Sort.Direction.ASC, "start")))
+                .thenReturn(List.of(
+                        projectionFactory.createProjection(BookingPeriodView.class, firstPeriod),
+                        projectionFactory.createProjection(BookingPeriodView.class, secondPeriod),
+                        projectionFactory.createProjection(BookingPeriodView.class, nestedPeriod)));
+        List<AvailabilitySlotDto> expected = List.of(
+                new AvailabilitySlotDto(from.plusDays(2), from.plusDays(4)),
+                new AvailabilitySlotDto(from.plusDays(6), to));
+        List<AvailabilitySlotDto> result = itemServiceImp.getItemAvailability(2L, 1L, from, to);
+        assertEquals(expected, result);
+        verify(userRepository).checkUserById(2L);
+    }
+
+    @Test
+    void getItemAvailability_whenNoBookings_shouldReturnWholeWindow() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        when(itemRepository.getItemById(1L))
+                .thenReturn(item);
+        List<AvailabilitySlotDto> result = itemServiceImp.getItemAvailability(2L, 1L, from, to);
+        assertEquals(List.of(new AvailabilitySlotDto(from, to)), result);
+    }
+
+    @Test
+    void getItemsBySearch_whenInvoke_shouldInvokeSearchEngine_andReturnItemList() {
+        when(itemSearchEngine.search("Item name", pageable))
                 .thenReturn(List.of(item));
         when(commentRepository.findByItemIdIn(List.of(1L)))
                 .thenReturn(List.of(comment));
@@ -222,8 +340,7 @@ class ItemServiceImplTest {
         List<OutgoingItemDto> result = itemServiceImp.getItemsBySearch(1L, "Item name", pageable);
         assertEquals(expected, result);
         verify(userRepository).checkUserById(1L);
-        verify(itemRepository).searchByTextInNameOrDescriptionAndAvailableTrue(
-                "item name", "item name", pageable);
+        verify(itemSearchEngine).search("Item name", pageable);
         verify(commentRepository).findByItemIdIn(List.of(1L));
     }
 
@@ -248,6 +365,44 @@ class ItemServiceImplTest {
         verify(userRepository).getUserById(1L);
         verify(requestRepository).findRequestById(1L);
         verify(itemRepository).save(item);
+        verify(itemSearchEngine).index(item);
+    }
+
+    @Test
+    void postItems_whenSomeElementsAreRejected_shouldSaveOnlyAcceptedElements() {
+        IncomingItemDto validItemDto = new IncomingItemDto("Item name", "Item description", true, 1L);
+        IncomingItemDto notValidItemDto = new IncomingItemDto("", "Item description", true, null);
+        IncomingItemDto unknownRequestItemDto = new IncomingItemDto("Item name", "Item description", true, 99L);
+        when(userRepository.getUserById(1L))
+                .thenReturn(owner);
+        when(requestRepository.findAllById(Set.of(1L, 99L)))
+                .thenReturn(List.of(request));
+        when(batchElementValidator.validateOnCreate(any()))
+                .thenReturn(Optional.empty());
+        when(batchElementValidator.validateOnCreate(notValidItemDto))
+                .thenReturn(Optional.of("Creating item name field is blank!"));
+        when(itemRepository.saveAll(anyIterable()))
+                .thenAnswer(invocation -> {
+                    List<Item> savedItemList = new ArrayList<>();
+                    invocation.<Iterable<Item>>getArgument(0).forEach(savedItemList::add);
+                    savedItemList.forEach(savedItem -> savedItem.setId(10L));
+                    return savedItemList;
+                });
+        List<BatchResultDto<OutgoingItemDto>> result = itemServiceImp.postItems(1L,
+                List.of(validItemDto, notValidItemDto, unknownRequestItemDto));
+        assertEquals(List.of(201, 400, 404), result
+                .stream()
+                .map(BatchResultDto::getStatus)
+                .collect(toList()));
+        assertEquals(List.of(0, 1, 2), result
+                .stream()
+                .map(BatchResultDto::getIndex)
+                .collect(toList()));
+        assertEquals(10L, result.get(0).getResult().getId());
+        assertEquals(1L, result.get(0).getResult().getRequestId());
+        assertEquals("Creating item name field is blank!", result.get(1).getError());
+        assertEquals("There's no request with id 99", result.get(2).getError());
+        verify(itemSearchEngine).indexAll(argThat(itemList -> itemList.size() == 1));
     }
 
     @Test
@@ -292,6 +447,7 @@ class ItemServiceImplTest {
                 anyLong(), any(LocalDateTime.class), any(BookingStatus.class));
         verify(userRepository).getUserById(3L);
         verify(itemRepository).getItemById(1L);
+        verify(itemRepository).incrementVersion(item);
         verify(commentRepository).save(any(Comment.class));
     }
 
@@ -349,6 +505,7 @@ class ItemServiceImplTest {
         itemServiceImp.deleteItemById(1L, 1L);
         verify(itemRepository).findByIdAndOwnerId(1L, 1L);
         verify(itemRepository).deleteById(1L);
+        verify(itemSearchEngine).remove(1L);
     }
 
     @Test
@@ -365,7 +522,9 @@ class ItemServiceImplTest {
     @Test
     void deleteAllOwnerItems_whenInvoke_shouldInvokeRepositoryMethod() {
         itemServiceImp.deleteAllOwnerItems(1L);
+        verify(requestRepository).incrementVersionByItemOwnerId(1L);
         verify(itemRepository).deleteByOwnerId(1L);
+        verify(itemSearchEngine).removeOwnerItems(1L);
     }
 
     @Test
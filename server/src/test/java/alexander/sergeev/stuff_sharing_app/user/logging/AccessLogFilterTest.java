@@ -0,0 +1,104 @@
+package alexander.sergeev.stuff_sharing_app.user.logging;
+
+import alexander.sergeev.stuff_sharing_app.logging.AccessLogFilter;
+import alexander.sergeev.stuff_sharing_app.logging.AccessLogSampler;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+
+import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessLogFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger(AccessLogFilter.LOGGER_NAME);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private AccessLogFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        AccessLogSampler sampler = new AccessLogSampler(0, Map.of("GET /items/{itemId}", 1.0), 500);
+        sampler.bindTo(meterRegistry);
+        filter = new AccessLogFilter(sampler, objectMapper);
+        appender.start();
+        accessLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLogger.detachAppender(appender);
+    }
+
+    @Test
+    @SneakyThrows
+    void doFilter_whenFastSuccessOutsideSample_shouldNotWriteRecord() {
+        filter.doFilter(request("/users/1"), new MockHttpServletResponse(),
+                (request, response) -> response.getWriter().write("{}"));
+        assertTrue(appender.list.isEmpty());
+        assertEquals(1, meterRegistry.get("access.log.records").tag("result", "sampled_out")
+                .functionCounter().count());
+    }
+
+    @Test
+    @SneakyThrows
+    void doFilter_whenServerError_shouldAlwaysWriteRecord() {
+        filter.doFilter(request("/users/1"), new MockHttpServletResponse(), (request, response) -> {
+            ((HttpServletResponse) response).setStatus(503);
+            response.getOutputStream().write(new byte[42]);
+        });
+        JsonNode record = singleRecord();
+        assertEquals(503, record.get("status").asInt());
+        assertEquals(42, record.get("response_bytes").asLong());
+        assertEquals("1", record.get("user_id").asText());
+    }
+
+    @Test
+    @SneakyThrows
+    void doFilter_whenEndpointSampledInFull_shouldWriteRecordByPattern() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (request, chainResponse) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/items/{itemId}");
+            chainResponse.getWriter().write("{\"id\":7}");
+        };
+        filter.doFilter(request("/items/7"), response, chain);
+        JsonNode record = singleRecord();
+        assertEquals("GET /items/{itemId}", record.get("endpoint").asText());
+        assertEquals("/items/7", record.get("uri").asText());
+        assertEquals(8, record.get("response_bytes").asLong());
+        assertEquals("{\"id\":7}", response.getContentAsString());
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader(header, 1L);
+        return request;
+    }
+
+    @SneakyThrows
+    private JsonNode singleRecord() {
+        assertEquals(1, appender.list.size());
+        return objectMapper.readTree(appender.list.get(0).getFormattedMessage());
+    }
+}
@@ -0,0 +1,89 @@
+package alexander.sergeev.stuff_sharing_app.user.metrics;
+
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingState;
+import alexander.sergeev.stuff_sharing_app.booking.repository.BookingRepository;
+import alexander.sergeev.stuff_sharing_app.booking.service.BookingService;
+import alexander.sergeev.stuff_sharing_app.exception.NotFoundException;
+import alexander.sergeev.stuff_sharing_app.metrics.MethodTimingAspect;
+import alexander.sergeev.stuff_sharing_app.metrics.MetricsMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static alexander.sergeev.stuff_sharing_app.metrics.MethodTimingAspect.METRIC_NAME;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MethodTimingAspectTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final Pageable pageable = PageRequest.of(0, 20);
+
+    @Test
+    void serviceCall_shouldBeTimedByStateEndpointAndOutcome() {
+        BookingService bookingService = proxy(mock(BookingService.class), MetricsMode.FULL);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bookings/owner");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/bookings/owner");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            bookingService.getAllOwnerItemBookings(1L, BookingState.FUTURE, pageable);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        Timer timer = registry.get(METRIC_NAME)
+                .tag("layer", "service")
+                .tag("component", "BookingService")
+                .tag("method", "getAllOwnerItemBookings")
+                .tag("state", "FUTURE")
+                .tag("endpoint", "GET /bookings/owner")
+                .tag("outcome", "success")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void failedCall_shouldBeTimedWithExceptionOutcome() {
+        BookingService target = mock(BookingService.class);
+        when(target.getAllUserBookings(1L, BookingState.ALL, pageable))
+                .thenThrow(new NotFoundException("There's no user with id 1"));
+        BookingService bookingService = proxy(target, MetricsMode.FULL);
+        assertThrows(NotFoundException.class,
+                () -> bookingService.getAllUserBookings(1L, BookingState.ALL, pageable));
+        assertEquals(1, registry.get(METRIC_NAME)
+                .tag("method", "getAllUserBookings")
+                .tag("endpoint", "none")
+                .tag("outcome", "NotFoundException")
+                .timer()
+                .count());
+    }
+
+    @Test
+    void lightMode_shouldTimeRepositoriesWithoutEndpointTag() {
+        BookingRepository bookingRepository = proxy(mock(BookingRepository.class), MetricsMode.LIGHT);
+        bookingRepository.findById(1L);
+        Timer timer = registry.get(METRIC_NAME)
+                .tag("layer", "repository")
+                .tag("component", "BookingRepository")
+                .tag("method", "findById")
+                .tag("state", "none")
+                .timer();
+        assertEquals(1, timer.count());
+        assertNull(timer.getId().getTag("endpoint"));
+    }
+
+    private <T> T proxy(T target, MetricsMode mode) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new MethodTimingAspect(registry, mode));
+        return proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,46 @@
+package alexander.sergeev.stuff_sharing_app.user.pagination;
+
+import alexander.sergeev.stuff_sharing_app.exception.WrongCursorException;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void decode_whenCursorIsEncodedWithPosition_shouldReturnSameCursor() {
+        KeysetCursor cursor = KeysetCursor.of(LocalDateTime.of(2024, 1, 2, 3, 4, 5), 7L);
+        KeysetCursor result = KeysetCursor.decode(cursor.encode());
+        assertEquals(cursor, result);
+    }
+
+    @Test
+    void decode_whenCursorIsEncodedWithoutPosition_shouldReturnSameCursor() {
+        KeysetCursor cursor = KeysetCursor.of(7L);
+        KeysetCursor result = KeysetCursor.decode(cursor.encode());
+        assertEquals(cursor, result);
+        assertNull(result.getPosition());
+    }
+
+    @Test
+    void decode_whenCursorIsBlank_shouldReturnNull() {
+        assertNull(KeysetCursor.decode(""));
+        assertNull(KeysetCursor.decode(null));
+    }
+
+    @Test
+    void decode_whenCursorIsWrong_shouldThrowWrongCursorException() {
+        WrongCursorException exception = assertThrows(WrongCursorException.class,
+                () -> KeysetCursor.decode("not a cursor"));
+        assertEquals("Wrong cursor not a cursor!", exception.getMessage());
+    }
+
+    @Test
+    void decodePositioned_whenCursorHasNoPosition_shouldThrowWrongCursorException() {
+        String cursor = KeysetCursor.of(7L).encode();
+        assertThrows(WrongCursorException.class, () -> KeysetCursor.decodePositioned(cursor));
+    }
+}
@@ -5,6 +5,7 @@ import alexander.sergeev.stuff_sharing_app.request.controller.RequestController;
 import alexander.sergeev.stuff_sharing_app.request.dto.IncomingRequestDto;
 import alexander.sergeev.stuff_sharing_app.request.dto.OutgoingRequestDto;
 import alexander.sergeev.stuff_sharing_app.request.service.RequestService;
+import alexander.sergeev.stuff_sharing_app.version.VersionedDto;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,6 +23,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -85,13 +88,13 @@ class RequestControllerTest {
     @Test
     @SneakyThrows
     void getRequestById_whenInvoke_shouldInvokeRequestServiceMethod() {
-        when(requestService.getRequestById(1L, 1L))
-                .thenReturn(outgoingRequestDto);
+        when(requestService.getVersionedRequestById(eq(1L), eq(1L), any()))
+                .thenReturn(new VersionedDto<>("request-1-0", false, outgoingRequestDto));
         mockMvc.perform(get("/requests/{id}", 1)
                         .header(header, 1))
                 .andExpect(status().isOk())
                 .andExpect(content().string(objectMapper.writeValueAsString(outgoingRequestDto)));
-        verify(requestService).getRequestById(1L, 1L);
+        verify(requestService).getVersionedRequestById(eq(1L), eq(1L), any());
     }
 
     @Test
@@ -1,6 +1,8 @@
 package alexander.sergeev.stuff_sharing_app.user.request.repository;
 
 import alexander.sergeev.stuff_sharing_app.exception.NotFoundException;
+import alexander.sergeev.stuff_sharing_app.item.model.Item;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
 import alexander.sergeev.stuff_sharing_app.request.model.Request;
 import alexander.sergeev.stuff_sharing_app.request.repository.RequestRepository;
 import alexander.sergeev.stuff_sharing_app.user.model.User;
@@ -9,6 +11,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
@@ -30,6 +33,12 @@ class RequestRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
     private Request request;
 
     private User user;
@@ -112,4 +121,34 @@ class RequestRepositoryTest {
         assertEquals("There's no request with id 1",
                 notFoundException.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void incrementVersionByItemOwnerId_shouldBumpOnlyRequestsAnsweredByOwnerItems() {
+        userRepository.save(user);
+        requestRepository.save(request);
+        User owner = userRepository.save(new User(null, "Owner name", "owner@email.com"));
+        Request otherRequest = requestRepository.save(new Request(null, "Other description",
+                LocalDateTime.of(2000, 1, 1, 1, 1, 1), user));
+        itemRepository.save(new Item(null, "Item name", "Item description", true, request, owner));
+        itemRepository.save(new Item(null, "Other item name", "Other item description", true, request, owner));
+        Long requestVersion = request.getVersion();
+        Long otherRequestVersion = otherRequest.getVersion();
+        requestRepository.incrementVersionByItemOwnerId(owner.getId());
+        testEntityManager.clear();
+        assertEquals(requestVersion + 1, requestRepository.findRequestById(request.getId()).getVersion());
+        assertEquals(otherRequestVersion, requestRepository.findRequestById(otherRequest.getId()).getVersion());
+    }
+
+    @Test
+    void incrementVersion_whenReferenceIsNotLoaded_shouldBumpVersion() {
+        userRepository.save(user);
+        requestRepository.save(request);
+        Long requestVersion = request.getVersion();
+        testEntityManager.flush();
+        testEntityManager.clear();
+        requestRepository.incrementVersion(testEntityManager.getEntityManager()
+                .getReference(Request.class, request.getId()));
+        testEntityManager.clear();
+        assertEquals(requestVersion + 1, requestRepository.findRequestById(request.getId()).getVersion());
+    }
+}
@@ -12,6 +12,7 @@ import alexander.sergeev.stuff_sharing_app.request.repository.RequestRepository;
 import alexander.sergeev.stuff_sharing_app.request.service.RequestServiceImpl;
 import alexander.sergeev.stuff_sharing_app.user.model.User;
 import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import alexander.sergeev.stuff_sharing_app.version.VersionedDto;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -25,8 +26,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -124,6 +127,19 @@ class RequestServiceImplTest {
         verify(itemRepository).findByRequestId(1L);
     }
 
+    @Test
+    void getVersionedRequestById_whenTagMatches_shouldReturnVersionedTagWithoutLoadingItems() {
+        request.setVersion(2L);
+        when(requestRepository.findRequestById(1L))
+                .thenReturn(request);
+        VersionedDto<OutgoingRequestDto> result = requestServiceImp.getVersionedRequestById(1L, 1L,
+                "request-1-2"::equals);
+        assertEquals("request-1-2", result.getETag());
+        assertTrue(result.isNotModified());
+        verify(userRepository).checkUserById(1L);
+        verifyNoInteractions(itemRepository);
+    }
+
     @Test
     void postRequest_whenInvoke_shouldInvokeRepositoryMethods() {
         when(userRepository.getUserById(2L))
@@ -0,0 +1,92 @@
+package alexander.sergeev.stuff_sharing_app.user.schema;
+
+import lombok.Value;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Records the queries the application really sends, together with their bind values, so they can be explained as is
+class RecordingDataSource extends DelegatingDataSource {
+
+    private final List<RecordedQuery> recordedQueries = new ArrayList<>();
+
+    RecordingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    synchronized List<RecordedQuery> drain() {
+        List<RecordedQuery> queries = new ArrayList<>(recordedQueries);
+        recordedQueries.clear();
+        return queries;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return recordingConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return recordingConnection(super.getConnection(username, password));
+    }
+
+    private Connection recordingConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement && method.getName().equals("prepareStatement")) {
+                        return recordingStatement((PreparedStatement) result, (String) args[0]);
+                    }
+                    return result;
+                });
+    }
+
+    private PreparedStatement recordingStatement(PreparedStatement statement, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                    } else if (name.equals("clearParameters")) {
+                        parameters.clear();
+                    } else if (name.equals("executeQuery") && sql.trim().regionMatches(true, 0, "select", 0, 6)) {
+                        synchronized (this) {
+                            recordedQueries.add(new RecordedQuery(sql, new ArrayList<>(parameters.values())));
+                        }
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @Value
+    static class RecordedQuery {
+
+        String sql;
+
+        List<Object> parameters;
+
+    }
+}
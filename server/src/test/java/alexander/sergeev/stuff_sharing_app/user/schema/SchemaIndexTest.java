@@ -0,0 +1,174 @@
+package alexander.sergeev.stuff_sharing_app.user.schema;
+
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingState;
+import alexander.sergeev.stuff_sharing_app.booking.model.BookingStatus;
+import alexander.sergeev.stuff_sharing_app.booking.repository.BookingRepository;
+import alexander.sergeev.stuff_sharing_app.item.repository.CommentRepository;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.pagination.KeysetCursor;
+import alexander.sergeev.stuff_sharing_app.request.repository.RequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Uses the datasource of the active profile: H2 under the test profile, PostgreSQL against a real database
+@Transactional
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DirtiesContext
+class SchemaIndexTest {
+
+    @TestConfiguration
+    static class RecordingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource && beanName.equals("dataSource")) {
+                        return new RecordingDataSource((DataSource) bean);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private boolean postgres;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        postgres = "PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName()));
+        if (postgres) {
+            // Small test tables are always cheaper to scan, so force the planner to show index usage
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        }
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        LocalDateTime now = LocalDateTime.of(2023, 1, 1, 0, 0);
+        PageRequest byStartDesc = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "start"));
+        return Stream.of(
+                repositoryQuery("BookingRepository.findByBookerId", test -> test.bookingRepository
+                        .findByBookerId(1L, byStartDesc)),
+                repositoryQuery("BookingRepository.findByBookerIdAndStatusIs", test -> test.bookingRepository
+                        .findByBookerIdAndStatusIs(1L, BookingStatus.WAITING, byStartDesc)),
+                repositoryQuery("BookingRepository.findByItemOwnerId", test -> test.bookingRepository
+                        .findByItemOwnerId(1L, byStartDesc)),
+                repositoryQuery("BookingRepository.findByItemOwnerIdAndStatusIs", test -> test.bookingRepository
+                        .findByItemOwnerIdAndStatusIs(1L, BookingStatus.WAITING, byStartDesc)),
+                repositoryQuery("ItemRepository.existsByOwnerId", test -> test.itemRepository
+                        .existsByOwnerId(1L)),
+                repositoryQuery("BookingRepository.findFirstByItemIdAndStartIsAfterAndStatusIs",
+                        test -> test.bookingRepository.findFirstByItemIdAndStartIsAfterAndStatusIs(1L, now,
+                                BookingStatus.APPROVED, Sort.by(Sort.Direction.ASC, "start"))),
+                repositoryQuery("BookingRepository.existsByBookerIdAndItemIdAndEndIsBeforeAndStatusIs",
+                        test -> test.bookingRepository.existsByBookerIdAndItemIdAndEndIsBeforeAndStatusIs(1L, 1L,
+                                now, BookingStatus.APPROVED)),
+                repositoryQuery("ItemRepository.findByOwnerId", test -> test.itemRepository
+                        .findByOwnerId(1L, PageRequest.of(0, 20, Sort.by("id")))),
+                repositoryQuery("ItemRepository.findByRequestIdIn", test -> test.itemRepository
+                        .findByRequestIdIn(List.of(1L, 2L))),
+                repositoryQuery("CommentRepository.findByItemIdIn", test -> test.commentRepository
+                        .findByItemIdIn(List.of(1L, 2L))),
+                repositoryQuery("RequestRepository.findByRequesterId", test -> test.requestRepository
+                        .findByRequesterId(1L, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "created")))),
+                repositoryQuery("RequestRepository.findByRequesterIdAfter", test -> test.requestRepository
+                        .findByRequesterIdAfter(1L, now, 1L, PageRequest.of(0, 21))),
+                repositoryQuery("BookingRepository.findBookerBookingsAfter", test -> test.bookingRepository
+                        .findBookerBookingsAfter(1L, BookingState.ALL, now, KeysetCursor.of(now, 1L), 21)),
+                repositoryQuery("BookingRepository.findOwnerItemBookingsAfter", test -> test.bookingRepository
+                        .findOwnerItemBookingsAfter(1L, BookingState.ALL, now, KeysetCursor.of(now, 1L), 21)),
+                repositoryQuery("BookingRepository.findCompactBookerBookings", test -> test.bookingRepository
+                        .findCompactBookerBookings(1L, BookingState.ALL, now, KeysetCursor.of(now, 1L),
+                                PageRequest.of(0, 21))),
+                repositoryQuery("BookingRepository.findCompactOwnerItemBookings", test -> test.bookingRepository
+                        .findCompactOwnerItemBookings(1L, BookingState.ALL, now, KeysetCursor.of(now, 1L),
+                                PageRequest.of(0, 21))),
+                repositoryQuery("ItemRepository.findOwnerItemViews", test -> test.itemRepository
+                        .findOwnerItemViews(1L, 0L, now, 20, 0L)),
+                repositoryQuery("BookingRepository.findFirstByItemIdAndStartIsBeforeAndStatusIs",
+                        test -> test.bookingRepository.findFirstByItemIdAndStartIsBeforeAndStatusIs(1L, now,
+                                BookingStatus.APPROVED, Sort.by(Sort.Direction.DESC, "end"))),
+                repositoryQuery("BookingRepository.existsByItemIdAndStatusInAndStartIsBeforeAndEndIsAfter",
+                        test -> test.bookingRepository.existsByItemIdAndStatusInAndStartIsBeforeAndEndIsAfter(1L,
+                                BookingStatus.OCCUPYING, now.plusDays(1), now)),
+                repositoryQuery("BookingRepository.findByItemIdAndStatusInAndStartIsBeforeAndEndIsAfter",
+                        test -> test.bookingRepository.findByItemIdAndStatusInAndStartIsBeforeAndEndIsAfter(1L,
+                                BookingStatus.OCCUPYING, now.plusDays(1), now, Sort.by(Sort.Direction.ASC, "start"))),
+                repositoryQuery("BookingRepository.findItemBookingPeriods", test -> test.bookingRepository
+                        .findItemBookingPeriods(List.of(1L, 2L), BookingStatus.OCCUPYING, now.plusDays(1), now)),
+                repositoryQuery("ItemRepository.findByIdAndOwnerId", test -> test.itemRepository
+                        .findByIdAndOwnerId(1L, 1L)),
+                repositoryQuery("ItemRepository.findByRequestId", test -> test.itemRepository
+                        .findByRequestId(1L)),
+                repositoryQuery("RequestRepository.findByItemOwnerId", test -> test.requestRepository
+                        .findByItemOwnerId(1L)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void explain_whenRepositoryQueryPlanned_shouldNotScanWholeTable(String repositoryMethod,
+                                                                     Consumer<SchemaIndexTest> repositoryCall) {
+        RecordingDataSource recordingDataSource = (RecordingDataSource) dataSource;
+        recordingDataSource.drain();
+        repositoryCall.accept(this);
+        List<RecordingDataSource.RecordedQuery> queries = recordingDataSource.drain();
+        assertFalse(queries.isEmpty(), () -> repositoryMethod + " sent no query");
+        for (RecordingDataSource.RecordedQuery query : queries) {
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query.getSql(), String.class,
+                    query.getParameters().toArray()));
+            assertFalse(isTableScan(plan), () -> repositoryMethod + " is planned as a table scan:\n"
+                    + query.getSql() + "\n" + plan);
+        }
+    }
+
+    private static Arguments repositoryQuery(String repositoryMethod, Consumer<SchemaIndexTest> repositoryCall) {
+        return Arguments.of(repositoryMethod, repositoryCall);
+    }
+
+    private boolean isTableScan(String plan) {
+        return postgres ? plan.contains("Seq Scan") : plan.contains(".tableScan");
+    }
+}
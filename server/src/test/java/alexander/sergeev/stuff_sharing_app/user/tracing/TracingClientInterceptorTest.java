@@ -0,0 +1,85 @@
+package alexander.sergeev.stuff_sharing_app.user.tracing;
+
+import alexander.sergeev.stuff_sharing_app.tracing.TracingClientInterceptor;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class TracingClientInterceptorTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    private final InMemorySpanExporter spanExporter = InMemorySpanExporter.create();
+
+    private RestTemplate restTemplate;
+
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        OpenTelemetry openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .setSampler(Sampler.parentBased(Sampler.alwaysOn()))
+                        .addSpanProcessor(SimpleSpanProcessor.create(spanExporter))
+                        .build())
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+        restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new TracingClientInterceptor(openTelemetry,
+                openTelemetry.getTracer("test")));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    void intercept_whenTraceSampled_shouldRecordSpanAndPropagateKeepDecision() {
+        server.expect(requestTo("http://server/items"))
+                .andExpect(header("traceparent", matchesPattern("00-[0-9a-f]{32}-[0-9a-f]{16}-01")))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+        restTemplate.getForObject("http://server/items", String.class);
+        server.verify();
+        List<SpanData> spans = spanExporter.getFinishedSpanItems();
+        assertEquals(1, spans.size());
+        assertEquals("proxy GET", spans.get(0).getName());
+        assertEquals(200L, spans.get(0).getAttributes().get(AttributeKey.longKey("http.status_code")));
+    }
+
+    @Test
+    void intercept_whenCallerDroppedTrace_shouldPropagateDropDecision() {
+        Span caller = Span.wrap(SpanContext.createFromRemoteParent(TRACE_ID, "00f067aa0ba902b7",
+                TraceFlags.getDefault(), TraceState.getDefault()));
+        server.expect(requestTo("http://server/items"))
+                .andExpect(header("traceparent", matchesPattern("00-" + TRACE_ID + "-[0-9a-f]{16}-00")))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+        try (Scope ignored = caller.makeCurrent()) {
+            restTemplate.getForObject("http://server/items", String.class);
+        }
+        server.verify();
+        assertTrue(spanExporter.getFinishedSpanItems().isEmpty());
+    }
+}
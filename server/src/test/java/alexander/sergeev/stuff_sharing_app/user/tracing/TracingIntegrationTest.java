@@ -0,0 +1,94 @@
+package alexander.sergeev.stuff_sharing_app.user.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+import static java.util.stream.Collectors.toMap;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "stuff_sharing_app.tracing.enabled=true",
+        "stuff_sharing_app.tracing.sample-ratio=0"})
+@AutoConfigureMockMvc
+@DirtiesContext
+class TracingIntegrationTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @TestConfiguration
+    static class InMemoryExporterConfig {
+
+        @Bean
+        InMemorySpanExporter spanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SdkTracerProvider sdkTracerProvider;
+
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
+    @Test
+    @SneakyThrows
+    void ownerBookings_shouldRecordControllerServiceAndJdbcSpansInSampledCallerTrace() {
+        mockMvc.perform(get("/bookings/owner?state=ALL&from=0&size=20")
+                        .header(header, 987654321L)
+                        .header("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01"))
+                .andExpect(status().isNotFound());
+        sdkTracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        List<SpanData> spans = spanExporter.getFinishedSpanItems();
+        assertFalse(spans.isEmpty());
+        assertTrue(spans.stream().allMatch(span -> span.getTraceId().equals(TRACE_ID)));
+        Map<String, SpanData> spansByName = spans.stream()
+                .collect(toMap(SpanData::getName, Function.identity(), (first, second) -> first));
+        SpanData root = spansByName.get("GET /bookings/owner");
+        assertEquals("00f067aa0ba902b7", root.getParentSpanId());
+        assertEquals("987654321", root.getAttributes().get(AttributeKey.stringKey("user.id")));
+        assertEquals(404L, root.getAttributes().get(AttributeKey.longKey("http.status_code")));
+        SpanData controller = spansByName.get("BookingController.getAllOwnerItemBookings");
+        assertEquals(root.getSpanId(), controller.getParentSpanId());
+        SpanData service = spansByName.get("BookingServiceImpl.getAllOwnerItemBookings");
+        assertEquals(controller.getSpanId(), service.getParentSpanId());
+        assertEquals(StatusCode.ERROR, service.getStatus().getStatusCode());
+        assertTrue(spans.stream()
+                .filter(span -> span.getName().startsWith("jdbc "))
+                .anyMatch(span -> span.getAttributes().get(AttributeKey.stringKey("db.statement")) != null));
+    }
+
+    @Test
+    @SneakyThrows
+    void ownerBookings_whenCallerDroppedTrace_shouldNotRecordSpans() {
+        spanExporter.reset();
+        mockMvc.perform(get("/bookings/owner?state=ALL&from=0&size=20")
+                        .header(header, 987654321L)
+                        .header("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-00"))
+                .andExpect(status().isNotFound());
+        sdkTracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        assertTrue(spanExporter.getFinishedSpanItems().isEmpty());
+    }
+}
@@ -0,0 +1,58 @@
+package alexander.sergeev.stuff_sharing_app.user.user.repository;
+
+import alexander.sergeev.stuff_sharing_app.exception.NotFoundException;
+import alexander.sergeev.stuff_sharing_app.user.dto.UserDto;
+import alexander.sergeev.stuff_sharing_app.user.repository.UserRepository;
+import alexander.sergeev.stuff_sharing_app.user.service.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DirtiesContext
+class UserExistenceCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private Cache<Long, Boolean> userExistenceCache;
+
+    @Test
+    void checkUserById_afterUserIsDeleted_shouldThrowNotFoundException() {
+        Long userId = userService.postUser(new UserDto(null, "Cached name", "cached@email.com")).getId();
+        userRepository.checkUserById(userId);
+        assertEquals(Boolean.TRUE, userExistenceCache.getIfPresent(userId));
+        userService.deleteUserById(userId);
+        assertNull(userExistenceCache.getIfPresent(userId));
+        NotFoundException notFoundException = assertThrows(NotFoundException.class,
+                () -> userRepository.checkUserById(userId));
+        assertEquals("There's no user with id " + userId, notFoundException.getMessage());
+    }
+
+    @Test
+    void checkUserById_whenUserIsUnknown_shouldCacheNegativeResult() {
+        long hitCount = userExistenceCache.stats().hitCount();
+        assertThrows(NotFoundException.class, () -> userRepository.checkUserById(999L));
+        assertEquals(Boolean.FALSE, userExistenceCache.getIfPresent(999L));
+        assertThrows(NotFoundException.class, () -> userRepository.checkUserById(999L));
+        assertTrue(userExistenceCache.stats().hitCount() > hitCount);
+    }
+
+    @Test
+    void checkUserById_afterUnknownIdIsCreated_shouldFindNewUser() {
+        UserDto userDto = userService.postUser(new UserDto(null, "New name", "new@email.com"));
+        userExistenceCache.put(userDto.getId() + 1, false);
+        UserDto nextUserDto = userService.postUser(new UserDto(null, "Next name", "next@email.com"));
+        assertDoesNotThrow(() -> userRepository.checkUserById(nextUserDto.getId()));
+        userService.deleteUserById(userDto.getId());
+        userService.deleteUserById(nextUserDto.getId());
+    }
+}
@@ -1,6 +1,9 @@
 package alexander.sergeev.stuff_sharing_app.user.user.service;
 
 import alexander.sergeev.stuff_sharing_app.exception.NotFoundException;
+import alexander.sergeev.stuff_sharing_app.item.repository.ItemRepository;
+import alexander.sergeev.stuff_sharing_app.item.search.ItemSearchEngine;
+import alexander.sergeev.stuff_sharing_app.request.repository.RequestRepository;
 import alexander.sergeev.stuff_sharing_app.user.dto.UserDto;
 import alexander.sergeev.stuff_sharing_app.user.dto.UserMapper;
 import alexander.sergeev.stuff_sharing_app.user.model.User;
@@ -29,6 +32,15 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private RequestRepository requestRepository;
+
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+
     private final UserDto userDto = new UserDto(
             1L,
             "Some name",
@@ -74,6 +86,7 @@ class UserServiceImplTest {
                 .thenReturn(user);
         UserDto result = userServiceImpl.postUser(userDto);
         verify(userRepository).save(user);
+        verify(userRepository).evictUser(user.getId());
         assertNotNull(result);
         assertEquals(userDto, result);
     }
@@ -95,6 +108,7 @@ class UserServiceImplTest {
         User result = UserMapper.mapDtoToUser(userServiceImpl.patchUserById(1L, UserMapper.mapUserToDto(oldUser)));
         verify(userRepository).getUserById(1L);
         verify(userRepository).save(any(User.class));
+        verify(userRepository).evictUser(1L);
         assertEquals(expectedUser, result);
     }
 
@@ -104,6 +118,11 @@ class UserServiceImplTest {
                 .thenReturn(new User());
         userServiceImpl.deleteUserById(1L);
         verify(userRepository).getUserById(1L);
+        verify(requestRepository).incrementVersionByItemOwnerId(1L);
+        verify(itemRepository).deleteByOwnerId(1L);
+        verify(requestRepository).deleteByRequesterId(1L);
         verify(userRepository).deleteById(1L);
+        verify(userRepository).evictUser(1L);
+        verify(itemSearchEngine).removeOwnerItems(1L);
     }
 }
\ No newline at end of file
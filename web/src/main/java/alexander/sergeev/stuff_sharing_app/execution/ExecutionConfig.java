@@ -0,0 +1,25 @@
+package alexander.sergeev.stuff_sharing_app.execution;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class ExecutionConfig {
+
+    @Bean
+    public RequestExecution requestExecution(
+            @Value("${stuff_sharing_app.execution.mode:default}") String mode,
+            @Value("${stuff_sharing_app.execution.max-threads:200}") int maxThreads,
+            @Value("${stuff_sharing_app.execution.queue-capacity:200}") int queueCapacity,
+            @Value("${spring.datasource.hikari.maximum-pool-size:0}") int connectionPoolSize) {
+        ExecutionMode executionMode = ExecutionMode.valueOf(mode.toUpperCase());
+        if (executionMode != ExecutionMode.DEFAULT && connectionPoolSize > 0 && maxThreads > connectionPoolSize) {
+            log.warn("Request execution allows {} concurrent requests but the connection pool holds {}, "
+                    + "the rest will wait for a connection instead of in the request queue", maxThreads, connectionPoolSize);
+        }
+        return new RequestExecution(executionMode, maxThreads, queueCapacity);
+    }
+}
@@ -0,0 +1,5 @@
+package alexander.sergeev.stuff_sharing_app.execution;
+
+public enum ExecutionMode {
+    DEFAULT, BOUNDED, VIRTUAL
+}
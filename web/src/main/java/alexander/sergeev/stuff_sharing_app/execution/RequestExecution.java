@@ -0,0 +1,163 @@
+package alexander.sergeev.stuff_sharing_app.execution;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+public class RequestExecution implements WebServerFactoryCustomizer<TomcatServletWebServerFactory>,
+        MeterBinder, DisposableBean {
+
+    private static final String EXECUTOR_NAME = "http.requests";
+
+    private final ExecutionMode mode;
+
+    private final ExecutorService executor;
+
+    private final Semaphore virtualPermits;
+
+    private final int queueCapacity;
+
+    private final AtomicInteger activeTasks = new AtomicInteger();
+
+    private final AtomicInteger queuedTasks = new AtomicInteger();
+
+    private final AtomicLong rejectedTasks = new AtomicLong();
+
+    public RequestExecution(ExecutionMode mode, int maxThreads, int queueCapacity) {
+        ExecutorService virtualExecutor = mode == ExecutionMode.VIRTUAL ? newVirtualThreadPerTaskExecutor() : null;
+        if (mode == ExecutionMode.VIRTUAL && virtualExecutor == null) {
+            log.warn("Virtual threads are not available on Java {}, falling back to the bounded executor",
+                    Runtime.version().feature());
+            mode = ExecutionMode.BOUNDED;
+        }
+        this.mode = mode;
+        this.virtualPermits = new Semaphore(maxThreads);
+        this.queueCapacity = queueCapacity;
+        switch (mode) {
+            case VIRTUAL:
+                this.executor = virtualExecutor;
+                break;
+            case BOUNDED:
+                this.executor = newBoundedExecutor(maxThreads, queueCapacity);
+                break;
+            default:
+                this.executor = null;
+        }
+        log.info("Request execution mode : {}", mode);
+    }
+
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    public long getRejectedTasks() {
+        return rejectedTasks.get();
+    }
+
+    public Executor getExecutor() {
+        return mode == ExecutionMode.VIRTUAL ? this::executeVirtual : executor;
+    }
+
+    @Override
+    public void customize(TomcatServletWebServerFactory factory) {
+        if (executor != null) {
+            factory.addConnectorCustomizers(connector -> connector.getProtocolHandler().setExecutor(getExecutor()));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Tags tags = Tags.of("name", EXECUTOR_NAME, "mode", mode.name().toLowerCase());
+        Gauge.builder("executor.mode", () -> 1)
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("executor.rejected", rejectedTasks, AtomicLong::get)
+                .tags(tags)
+                .description("Requests rejected by the request executor")
+                .register(registry);
+        if (mode == ExecutionMode.BOUNDED) {
+            new ExecutorServiceMetrics(executor, EXECUTOR_NAME, Tags.of("mode", "bounded")).bindTo(registry);
+        } else if (mode == ExecutionMode.VIRTUAL) {
+            Gauge.builder("executor.active", activeTasks, AtomicInteger::get)
+                    .tags(tags)
+                    .register(registry);
+            Gauge.builder("executor.queued", queuedTasks, AtomicInteger::get)
+                    .tags(tags)
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private void executeVirtual(Runnable task) {
+        boolean queued = !virtualPermits.tryAcquire();
+        if (queued && queuedTasks.incrementAndGet() > queueCapacity) {
+            queuedTasks.decrementAndGet();
+            rejectedTasks.incrementAndGet();
+            throw new RejectedExecutionException("Request queue is full (" + queueCapacity + ")");
+        }
+        try {
+            executor.execute(() -> {
+                if (queued) {
+                    virtualPermits.acquireUninterruptibly();
+                    queuedTasks.decrementAndGet();
+                }
+                activeTasks.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    activeTasks.decrementAndGet();
+                    virtualPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (queued) {
+                queuedTasks.decrementAndGet();
+            } else {
+                virtualPermits.release();
+            }
+            rejectedTasks.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private ThreadPoolExecutor newBoundedExecutor(int maxThreads, int queueCapacity) {
+        return new ThreadPoolExecutor(
+                maxThreads,
+                maxThreads,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("http-bounded-"),
+                (task, pool) -> {
+                    rejectedTasks.incrementAndGet();
+                    throw new RejectedExecutionException("Request queue is full (" + queueCapacity + ")");
+                });
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
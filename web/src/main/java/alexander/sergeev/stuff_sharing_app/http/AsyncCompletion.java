@@ -0,0 +1,36 @@
+package alexander.sergeev.stuff_sharing_app.http;
+
+import lombok.experimental.UtilityClass;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Lets a filter finish its work once an asynchronously handled request is complete. Filters only see
+ * the first dispatch, which returns before the controller's future has produced the response.
+ */
+@UtilityClass
+public class AsyncCompletion {
+
+    public void onComplete(HttpServletRequest request, Runnable callback) {
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                callback.run();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package alexander.sergeev.stuff_sharing_app.logging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(name = "stuff_sharing_app.access-log.enabled", havingValue = "true", matchIfMissing = true)
+public class AccessLogConfig {
+
+    @Bean
+    public AccessLogSampler accessLogSampler(
+            @Value("${stuff_sharing_app.access-log.sample-ratio:1}") double sampleRatio,
+            @Value("${stuff_sharing_app.access-log.endpoint-sample-ratios:}") String endpointSampleRatios,
+            @Value("${stuff_sharing_app.access-log.slow-threshold-millis:500}") long slowThresholdMillis) {
+        return new AccessLogSampler(sampleRatio,
+                AccessLogSampler.parseEndpointSampleRatios(endpointSampleRatios), slowThresholdMillis);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AccessLogFilter> accessLogFilter(AccessLogSampler accessLogSampler,
+                                                                   ObjectMapper objectMapper) {
+        FilterRegistrationBean<AccessLogFilter> registration = new FilterRegistrationBean<>(
+                new AccessLogFilter(accessLogSampler, objectMapper));
+        // Inside the tracing filter, so a request's record is written while its trace is still current and can carry the trace id
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
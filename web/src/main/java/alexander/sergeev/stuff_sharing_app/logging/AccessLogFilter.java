@@ -0,0 +1,104 @@
+package alexander.sergeev.stuff_sharing_app.logging;
+
+import alexander.sergeev.stuff_sharing_app.http.AsyncCompletion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+
+/**
+ * Writes one JSON record per request to the {@value #LOGGER_NAME} logger, which logback-spring.xml
+ * sends through an asynchronous appender.
+ */
+@RequiredArgsConstructor
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    public static final String LOGGER_NAME = "stuff_sharing_app.access";
+
+    private static final Logger accessLog = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private final AccessLogSampler sampler;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        CountingResponseWrapper countingResponse = new CountingResponseWrapper(response);
+        SpanContext spanContext = Span.current().getSpanContext();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        boolean asyncStarted = false;
+        try {
+            filterChain.doFilter(request, countingResponse);
+            asyncStarted = isAsyncStarted(request);
+            if (asyncStarted) {
+                // The response is written by a later dispatch, which goes through the same wrapper
+                AsyncCompletion.onComplete(request, () -> {
+                    countingResponse.flushWriter();
+                    log(request, countingResponse.getStatus(), start, countingResponse.getByteCount(), spanContext);
+                });
+                return;
+            }
+            countingResponse.flushWriter();
+            status = countingResponse.getStatus();
+        } finally {
+            if (!asyncStarted) {
+                log(request, status, start, countingResponse.getByteCount(), spanContext);
+            }
+        }
+    }
+
+    private void log(HttpServletRequest request, int status, long start, long responseBytes,
+                     SpanContext spanContext) {
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        String endpoint = endpoint(request);
+        if (accessLog.isInfoEnabled() && sampler.keep(endpoint, status, durationMillis)) {
+            accessLog.info(record(request, endpoint, status, durationMillis, responseBytes, spanContext));
+        }
+    }
+
+    private String record(HttpServletRequest request, String endpoint, int status, long durationMillis,
+                          long responseBytes, SpanContext spanContext) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("timestamp", Instant.now().toString());
+        record.put("method", request.getMethod());
+        record.put("endpoint", endpoint);
+        record.put("uri", request.getRequestURI());
+        record.put("query", request.getQueryString());
+        record.put("user_id", request.getHeader(header));
+        record.put("status", status);
+        record.put("duration_ms", durationMillis);
+        record.put("response_bytes", responseBytes);
+        if (spanContext.isValid()) {
+            record.put("trace_id", spanContext.getTraceId());
+        }
+        try {
+            return objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Access log record is not serializable", e);
+        }
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
@@ -0,0 +1,72 @@
+package alexander.sergeev.stuff_sharing_app.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+public class AccessLogSampler implements MeterBinder {
+
+    private final double sampleRatio;
+
+    private final Map<String, Double> endpointSampleRatios;
+
+    private final long slowThresholdMillis;
+
+    private final LongAdder keptRecords = new LongAdder();
+
+    private final LongAdder sampledOutRecords = new LongAdder();
+
+    public AccessLogSampler(double sampleRatio, Map<String, Double> endpointSampleRatios, long slowThresholdMillis) {
+        this.sampleRatio = sampleRatio;
+        this.endpointSampleRatios = Map.copyOf(endpointSampleRatios);
+        this.slowThresholdMillis = slowThresholdMillis;
+    }
+
+    /**
+     * Parses "GET /items/{itemId}=0.01,POST /bookings=1" into endpoint ratios.
+     */
+    public static Map<String, Double> parseEndpointSampleRatios(String endpointSampleRatios) {
+        Map<String, Double> ratios = new HashMap<>();
+        for (String entry : endpointSampleRatios.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Access log sample ratio is not 'endpoint=ratio' : " + entry);
+            }
+            ratios.put(entry.substring(0, separator).trim(), Double.parseDouble(entry.substring(separator + 1).trim()));
+        }
+        return ratios;
+    }
+
+    public boolean keep(String endpoint, int status, long durationMillis) {
+        // Failures and slow requests are the records worth reading, so they skip sampling
+        boolean kept = status >= 500
+                || durationMillis >= slowThresholdMillis
+                || isSampled(endpointSampleRatios.getOrDefault(endpoint, sampleRatio));
+        (kept ? keptRecords : sampledOutRecords).increment();
+        return kept;
+    }
+
+    private static boolean isSampled(double ratio) {
+        return ratio >= 1 || ratio > 0 && ThreadLocalRandom.current().nextDouble() < ratio;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("access.log.records", keptRecords, LongAdder::doubleValue)
+                .tag("result", "kept")
+                .description("Requests written to the access log")
+                .register(registry);
+        FunctionCounter.builder("access.log.records", sampledOutRecords, LongAdder::doubleValue)
+                .tag("result", "sampled_out")
+                .description("Fast successful requests left out of the access log by sampling")
+                .register(registry);
+    }
+}
@@ -0,0 +1,39 @@
+package alexander.sergeev.stuff_sharing_app.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MetricsMode metricsMode(@Value("${stuff_sharing_app.metrics.mode:light}") String mode) {
+        MetricsMode metricsMode = MetricsMode.valueOf(mode.toUpperCase());
+        log.info("Metrics mode : {}", metricsMode);
+        return metricsMode;
+    }
+
+    @Bean
+    public MeterFilter percentileHistogramMeterFilter(MetricsMode metricsMode) {
+        boolean percentileHistogram = metricsMode == MetricsMode.FULL;
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() != Meter.Type.TIMER) {
+                    return config;
+                }
+                // Buckets are what makes a timer expensive to record and to scrape, so only the full mode pays for them
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(percentileHistogram)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
@@ -0,0 +1,5 @@
+package alexander.sergeev.stuff_sharing_app.metrics;
+
+public enum MetricsMode {
+    FULL, LIGHT, OFF
+}
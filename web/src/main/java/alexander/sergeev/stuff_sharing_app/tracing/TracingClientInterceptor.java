@@ -0,0 +1,50 @@
+package alexander.sergeev.stuff_sharing_app.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+@RequiredArgsConstructor
+public class TracingClientInterceptor implements ClientHttpRequestInterceptor {
+
+    private final OpenTelemetry openTelemetry;
+
+    private final Tracer tracer;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        Span span = tracer.spanBuilder("proxy " + request.getMethodValue())
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute("http.url", request.getURI().toString())
+                .startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            // Carries the sampled flag too, so the server keeps exactly the traces the gateway keeps
+            openTelemetry.getPropagators().getTextMapPropagator()
+                    .inject(Context.current(), request.getHeaders(), (headers, name, value) -> headers.set(name, value));
+            ClientHttpResponse response = execution.execute(request, body);
+            span.setAttribute("http.status_code", response.getRawStatusCode());
+            if (response.getRawStatusCode() >= 500) {
+                span.setStatus(StatusCode.ERROR);
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package alexander.sergeev.stuff_sharing_app.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "stuff_sharing_app.tracing.enabled", havingValue = "true")
+public class TracingConfig {
+
+    @Bean
+    public SdkTracerProvider sdkTracerProvider(
+            ObjectProvider<SpanExporter> spanExporter,
+            @Value("${stuff_sharing_app.tracing.otlp-endpoint:http://localhost:4318/v1/traces}") String otlpEndpoint,
+            @Value("${stuff_sharing_app.tracing.service-name:stuff_sharing_app}") String serviceName,
+            @Value("${stuff_sharing_app.tracing.sample-ratio:1}") double sampleRatio) {
+        SpanExporter exporter = spanExporter.getIfAvailable(() -> OtlpHttpSpanExporter.builder()
+                .setEndpoint(otlpEndpoint)
+                .build());
+        log.info("Tracing exporter : {}, head sample ratio : {}", exporter, sampleRatio);
+        return SdkTracerProvider.builder()
+                .setResource(Resource.getDefault()
+                        .merge(Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), serviceName))))
+                // Keeping or dropping a trace is up to the collector's tail sampler, which sees the spans of both
+                // services; a caller's sampled flag is always followed so the two never keep halves of a trace
+                .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(sampleRatio)))
+                .addSpanProcessor(BatchSpanProcessor.builder(exporter).build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "")
+    public OpenTelemetry openTelemetry(SdkTracerProvider sdkTracerProvider) {
+        return OpenTelemetrySdk.builder()
+                .setTracerProvider(sdkTracerProvider)
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+    }
+
+    @Bean
+    public Tracer tracer(OpenTelemetry openTelemetry) {
+        return openTelemetry.getTracer("stuff_sharing_app");
+    }
+
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter(OpenTelemetry openTelemetry, Tracer tracer) {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(
+                new TracingFilter(openTelemetry, tracer));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public RestTemplateCustomizer tracingRestTemplateCustomizer(OpenTelemetry openTelemetry, Tracer tracer) {
+        return restTemplate -> restTemplate.getInterceptors().add(new TracingClientInterceptor(openTelemetry, tracer));
+    }
+
+    // Nested so the servlet-only server never loads WebClient types, the condition is repeated
+    // because component scanning registers the nested class on its own
+    @Configuration
+    @ConditionalOnClass(WebClient.class)
+    @ConditionalOnProperty(name = "stuff_sharing_app.tracing.enabled", havingValue = "true")
+    static class WebClientTracingConfig {
+
+        @Bean
+        public WebClientCustomizer tracingWebClientCustomizer(OpenTelemetry openTelemetry, Tracer tracer) {
+            return builder -> builder.filter(new TracingExchangeFilter(openTelemetry, tracer));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package alexander.sergeev.stuff_sharing_app.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * The WebClient counterpart of {@link TracingClientInterceptor}. The span is started when the call is
+ * subscribed to, which happens on the request thread, so it becomes a child of the request's span.
+ */
+@RequiredArgsConstructor
+public class TracingExchangeFilter implements ExchangeFilterFunction {
+
+    private final OpenTelemetry openTelemetry;
+
+    private final Tracer tracer;
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            Span span = tracer.spanBuilder("proxy " + request.method().name())
+                    .setSpanKind(SpanKind.CLIENT)
+                    .setAttribute("http.url", request.url().toString())
+                    .startSpan();
+            ClientRequest tracedRequest = ClientRequest.from(request)
+                    .headers(headers -> openTelemetry.getPropagators().getTextMapPropagator().inject(
+                            Context.current().with(span), headers, (carrier, name, value) -> carrier.set(name, value)))
+                    .build();
+            return next.exchange(tracedRequest)
+                    .doOnNext(response -> {
+                        span.setAttribute("http.status_code", response.rawStatusCode());
+                        if (response.rawStatusCode() >= 500) {
+                            span.setStatus(StatusCode.ERROR);
+                        }
+                    })
+                    .doOnError(e -> {
+                        span.recordException(e);
+                        span.setStatus(StatusCode.ERROR);
+                    })
+                    .doFinally(signal -> span.end());
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package alexander.sergeev.stuff_sharing_app.tracing;
+
+import alexander.sergeev.stuff_sharing_app.http.AsyncCompletion;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+
+import static alexander.sergeev.stuff_sharing_app.http.HttpHeader.header;
+
+@RequiredArgsConstructor
+public class TracingFilter extends OncePerRequestFilter {
+
+    private static final TextMapGetter<HttpServletRequest> REQUEST_HEADERS = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(HttpServletRequest request) {
+            return Collections.list(request.getHeaderNames());
+        }
+
+        @Override
+        public String get(@Nullable HttpServletRequest request, String key) {
+            return request == null ? null : request.getHeader(key);
+        }
+    };
+
+    private final OpenTelemetry openTelemetry;
+
+    private final Tracer tracer;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Context callerContext = openTelemetry.getPropagators().getTextMapPropagator()
+                .extract(Context.current(), request, REQUEST_HEADERS);
+        Span span = tracer.spanBuilder(request.getMethod())
+                .setParent(callerContext)
+                .setSpanKind(SpanKind.SERVER)
+                .setAttribute("http.method", request.getMethod())
+                .setAttribute("http.target", request.getRequestURI())
+                .startSpan();
+        String userId = request.getHeader(header);
+        if (userId != null) {
+            span.setAttribute("user.id", userId);
+        }
+        boolean asyncStarted = false;
+        try (Scope ignored = span.makeCurrent()) {
+            filterChain.doFilter(request, response);
+            asyncStarted = isAsyncStarted(request);
+            if (asyncStarted) {
+                AsyncCompletion.onComplete(request, () -> end(span, request, response));
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            if (!asyncStarted) {
+                end(span, request, response);
+            }
+        }
+    }
+
+    private static void end(Span span, HttpServletRequest request, HttpServletResponse response) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        span.updateName(request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI()));
+        span.setAttribute("http.status_code", response.getStatus());
+        if (response.getStatus() >= 500) {
+            span.setStatus(StatusCode.ERROR);
+        }
+        span.end();
+    }
+}